@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zentihblox.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.component.file;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.InvalidPayloadException;
+import org.zenithblox.util.FileUtil;
+import org.zenithblox.util.IOHelper;
+import org.zenithblox.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File producer which appends to files using buffered writes, for the bufferedAppend option.
+ * <p/>
+ * The file channel of each target file is kept open, and the appended content is collected in a buffer per file. The
+ * buffer is written to the file when it is full, when the flush interval has elapsed, when the file has been idle for
+ * the idle timeout (which also closes the file), and when the producer is stopped. If forceWrites is enabled then each
+ * write is also synced to the file system.
+ * <p/>
+ * Mind that an exchange is completed when its content has been added to the buffer, which means content that has not
+ * yet been written can be lost if the JVM crashes.
+ */
+public class FileBufferedAppendProducer extends GenericFileProducer<File> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileBufferedAppendProducer.class);
+
+    private final Map<String, Appender> appenders = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public FileBufferedAppendProducer(FileEndpoint endpoint, GenericFileOperations<File> operations) {
+        super(endpoint, operations);
+    }
+
+    @Override
+    public FileEndpoint getEndpoint() {
+        return (FileEndpoint) super.getEndpoint();
+    }
+
+    @Override
+    public void writeFile(Exchange exchange, String fileName) throws GenericFileOperationFailedException {
+        Object body = exchange.getIn().getBody();
+        if (body == null) {
+            // let the file operations handle null bodies according to the allowNullBody option
+            super.writeFile(exchange, fileName);
+            return;
+        }
+
+        String name = FileUtil.normalizePath(fileName);
+        try {
+            boolean appended;
+            do {
+                // the appender may be closed due to being idle, and then a new appender is needed
+                appended = appenders.computeIfAbsent(name, Appender::new).append(exchange, body);
+            } while (!appended);
+        } catch (InvalidPayloadException | IOException e) {
+            throw new GenericFileOperationFailedException("Cannot append to file: " + name, e);
+        }
+        LOG.trace("Appended to [{}] from exchange [{}]", fileName, exchange);
+    }
+
+    /**
+     * Writes the buffered content of all the files.
+     */
+    public void flush() throws IOException {
+        for (Appender appender : appenders.values()) {
+            appender.flush();
+        }
+    }
+
+    private void onTimer() {
+        long now = System.currentTimeMillis();
+        long flushInterval = getEndpoint().getBufferedAppendFlushInterval();
+        long idleTimeout = getEndpoint().getBufferedAppendIdleTimeout();
+        for (Appender appender : appenders.values()) {
+            try {
+                if (idleTimeout > 0 && now - appender.lastWrite >= idleTimeout) {
+                    LOG.debug("Closing idle file: {}", appender.file);
+                    appender.close();
+                } else if (flushInterval > 0 && now - appender.lastFlush >= flushInterval) {
+                    appender.flush();
+                }
+            } catch (IOException e) {
+                LOG.warn("Error writing buffered content to file: {} due to: {}. Will try again later.", appender.file,
+                        e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        super.doStart();
+
+        long flushInterval = getEndpoint().getBufferedAppendFlushInterval();
+        long idleTimeout = getEndpoint().getBufferedAppendIdleTimeout();
+        long period = flushInterval > 0 && idleTimeout > 0
+                ? Math.min(flushInterval, idleTimeout) : Math.max(flushInterval, idleTimeout);
+        if (period > 0) {
+            scheduler = getEndpoint().getZwangineContext().getExecutorServiceManager()
+                    .newSingleThreadScheduledExecutor(this, "FileBufferedAppend");
+            scheduler.scheduleWithFixedDelay(this::onTimer, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (scheduler != null) {
+            getEndpoint().getZwangineContext().getExecutorServiceManager().shutdown(scheduler);
+            scheduler = null;
+        }
+        // force writing all buffered content when stopping
+        IOException cause = null;
+        for (Appender appender : appenders.values()) {
+            try {
+                appender.close();
+            } catch (IOException e) {
+                LOG.warn("Error writing buffered content to file: {} due to: {}", appender.file, e.getMessage(), e);
+                cause = e;
+            }
+        }
+        appenders.clear();
+
+        super.doStop();
+
+        if (cause != null) {
+            throw cause;
+        }
+    }
+
+    /**
+     * The open channel and buffer of a single file.
+     */
+    private final class Appender {
+        private final String name;
+        private final File file;
+        private final ByteBuffer buffer;
+        private FileChannel channel;
+        private boolean closed;
+        private volatile long lastWrite = System.currentTimeMillis();
+        private volatile long lastFlush = System.currentTimeMillis();
+
+        Appender(String name) {
+            this.name = name;
+            this.file = new File(name);
+            this.buffer = ByteBuffer.allocate(getEndpoint().getBufferSize());
+        }
+
+        synchronized boolean append(Exchange exchange, Object body) throws InvalidPayloadException, IOException {
+            if (closed) {
+                return false;
+            }
+            lastWrite = System.currentTimeMillis();
+            String charset = getEndpoint().getCharset();
+            if (body instanceof byte[] data) {
+                append(data);
+            } else if (body instanceof String str) {
+                append(str.getBytes(charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8));
+            } else if (charset != null) {
+                append(exchange.getIn().getMandatoryBody(String.class).getBytes(Charset.forName(charset)));
+            } else {
+                InputStream is = exchange.getIn().getMandatoryBody(InputStream.class);
+                try {
+                    append(is);
+                } finally {
+                    IOHelper.close(is, file.getName(), LOG);
+                }
+            }
+            String appendChars = getEndpoint().getAppendChars();
+            if (appendChars != null) {
+                append(appendChars.getBytes());
+            }
+            return true;
+        }
+
+        private void append(byte[] data) throws IOException {
+            if (data.length > buffer.remaining()) {
+                flush();
+            }
+            if (data.length > buffer.capacity()) {
+                // too large to buffer so write directly
+                write(ByteBuffer.wrap(data));
+            } else {
+                buffer.put(data);
+            }
+        }
+
+        private void append(InputStream is) throws IOException {
+            int len;
+            do {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                len = is.read(buffer.array(), buffer.position(), buffer.remaining());
+                if (len > 0) {
+                    buffer.position(buffer.position() + len);
+                }
+            } while (len != -1);
+        }
+
+        synchronized void flush() throws IOException {
+            lastFlush = System.currentTimeMillis();
+            if (buffer.position() == 0) {
+                return;
+            }
+            buffer.flip();
+            try {
+                write(buffer);
+            } catch (IOException e) {
+                // keep the content which was not written, so it can be written later
+                buffer.compact();
+                throw e;
+            }
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer data) throws IOException {
+            try {
+                FileChannel out = channel();
+                while (data.hasRemaining()) {
+                    out.write(data);
+                }
+                if (getEndpoint().isForceWrites()) {
+                    out.force(false);
+                }
+            } catch (IOException e) {
+                // the channel may no longer be usable, so open the file again on the next write
+                IOHelper.close(channel, file.getName(), LOG);
+                channel = null;
+                throw e;
+            }
+        }
+
+        private FileChannel channel() throws IOException {
+            if (channel == null) {
+                Path path = file.toPath();
+                Path parent = path.getParent();
+                if (getEndpoint().isAutoCreate() && parent != null) {
+                    Files.createDirectories(parent);
+                }
+                boolean created = !Files.exists(path);
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+                if (created && ObjectHelper.isNotEmpty(getEndpoint().getChmod())) {
+                    Files.setPosixFilePermissions(path, getEndpoint().getPermissions());
+                }
+            }
+            return channel;
+        }
+
+        synchronized void close() throws IOException {
+            flush();
+            closed = true;
+            appenders.remove(name, this);
+            IOHelper.close(channel, file.getName(), LOG);
+            channel = null;
+        }
+    }
+}
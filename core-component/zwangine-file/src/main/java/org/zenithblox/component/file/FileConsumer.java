@@ -17,13 +17,17 @@
 package org.zenithblox.component.file;
 
 import org.zenithblox.Exchange;
+import org.zenithblox.ExchangePropertyKey;
 import org.zenithblox.Message;
 import org.zenithblox.Processor;
 import org.zenithblox.component.file.consumer.DirectoryEntriesResumeAdapter;
+import org.zenithblox.component.file.consumer.DirectorySnapshot;
 import org.zenithblox.component.file.consumer.FileOffsetResumeAdapter;
 import org.zenithblox.resume.ResumeAdapter;
 import org.zenithblox.resume.ResumeAware;
 import org.zenithblox.resume.ResumeStrategy;
+import org.zenithblox.spi.ExecutorServiceManager;
+import org.zenithblox.support.SynchronizationAdapter;
 import org.zenithblox.support.resume.Resumables;
 import org.zenithblox.util.FileUtil;
 import org.zenithblox.util.ObjectHelper;
@@ -33,9 +37,16 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
@@ -47,6 +58,8 @@ public class FileConsumer extends GenericFileConsumer<File> implements ResumeAwa
     private ResumeStrategy resumeStrategy;
     private final String endpointPath;
     private Set<String> extendedAttributes;
+    private ForkJoinPool scanPool;
+    private DirectorySnapshot snapshot;
 
     public FileConsumer(FileEndpoint endpoint, Processor processor, GenericFileOperations<File> operations,
                         GenericFileProcessStrategy<File> processStrategy) {
@@ -74,8 +87,23 @@ public class FileConsumer extends GenericFileConsumer<File> implements ResumeAwa
         if (LOG.isTraceEnabled()) {
             LOG.trace("Polling directory: {}, absolute path: {}", directory.getPath(), directory.getAbsolutePath());
         }
+
+        Listing listing = null;
+        if (snapshot != null) {
+            File[] subDirectories = snapshot.unchangedDirectory(directory);
+            if (subDirectories != null) {
+                LOG.trace("Skipping listing directory: {} as it has not changed since last poll", directory);
+                return !processPolledFiles(dynamic, fileList, depth, subDirectories, null);
+            }
+            // the modification time must be read before listing, so changes made while listing are not missed
+            listing = new Listing(snapshot.modified(directory));
+        }
+
         final File[] files = listFiles(directory);
         if (files == null || files.length == 0) {
+            if (listing != null) {
+                listing.complete(directory);
+            }
             return true;
         }
 
@@ -83,20 +111,32 @@ public class FileConsumer extends GenericFileConsumer<File> implements ResumeAwa
             Arrays.sort(files, Comparator.comparing(File::getAbsoluteFile));
         }
 
-        if (processPolledFiles(dynamic, fileList, depth, files)) {
+        if (processPolledFiles(dynamic, fileList, depth, files, listing)) {
             return false;
         }
+        if (listing != null) {
+            listing.complete(directory);
+        }
 
         return true;
     }
 
-    private boolean processPolledFiles(Exchange dynamic, List<GenericFile<File>> fileList, int depth, File[] files) {
+    private boolean processPolledFiles(
+            Exchange dynamic, List<GenericFile<File>> fileList, int depth, File[] files, Listing listing) {
         for (File file : files) {
             // check if we can continue polling in files
             if (!canPollMoreFiles(fileList)) {
                 return true;
             }
 
+            if (listing != null) {
+                listing.entries.add(file.getName());
+                if (snapshot.resume(file)) {
+                    LOG.trace("Skipping file {} because it has not changed since it was processed", file);
+                    continue;
+                }
+            }
+
             // trace log as Windows/Unix can have different views what the file is
             if (LOG.isTraceEnabled()) {
                 LOG.trace("Found file: {} [isAbsolute: {}, isDirectory: {}, isFile: {}, isHidden: {}]", file, file.isAbsolute(),
@@ -122,10 +162,36 @@ public class FileConsumer extends GenericFileConsumer<File> implements ResumeAwa
             if (processEntry(dynamic, fileList, depth, file, gf, files)) {
                 return true;
             }
+            if (listing != null) {
+                if (file.isDirectory()) {
+                    listing.subDirectories.add(file.getName());
+                } else {
+                    // the file was accepted, in progress or rejected by a filter which may accept it on a later poll
+                    listing.pending = true;
+                }
+            }
         }
         return false;
     }
 
+    /**
+     * The outcome of listing a single directory, which is recorded in the snapshot when incremental polling.
+     */
+    private final class Listing {
+        private final long modified;
+        private final List<String> entries = new ArrayList<>();
+        private final List<String> subDirectories = new ArrayList<>();
+        private boolean pending;
+
+        Listing(long modified) {
+            this.modified = modified;
+        }
+
+        void complete(File directory) {
+            snapshot.listed(directory, modified, !pending, entries, subDirectories);
+        }
+    }
+
     private boolean processEntry(
             Exchange dynamic,
             List<GenericFile<File>> fileList, int depth, File file, Supplier<GenericFile<File>> gf, File[] files) {
@@ -203,7 +269,225 @@ public class FileConsumer extends GenericFileConsumer<File> implements ResumeAwa
             return true;
         }
 
-        return pollDirectory(dynamic, directory, fileList, depth);
+        boolean answer;
+        if (scanPool != null && resumeStrategy == null) {
+            answer = pollDirectoryParallel(dynamic, directory, fileList, depth);
+        } else {
+            answer = pollDirectory(dynamic, directory, fileList, depth);
+        }
+        saveSnapshot();
+        return answer;
+    }
+
+    private void saveSnapshot() {
+        if (snapshot != null) {
+            try {
+                snapshot.save();
+            } catch (IOException e) {
+                LOG.warn("Error saving directory snapshot: {} due to: {}. This exception is ignored.",
+                        snapshot.getSnapshotFile(), e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    protected boolean processExchange(Exchange exchange) {
+        if (snapshot != null) {
+            // must capture the source file before processing, as it may be pre moved
+            GenericFile<?> file = exchange.getProperty(ExchangePropertyKey.FILE_EXCHANGE_FILE, GenericFile.class);
+            File source = (File) file.getFile();
+            exchange.getExchangeExtension().addOnCompletion(new SynchronizationAdapter() {
+                @Override
+                public void onComplete(Exchange exchange) {
+                    snapshot.processed(source, file.getFileLength(), file.getLastModified());
+                }
+            });
+        }
+        return super.processExchange(exchange);
+    }
+
+    private boolean pollDirectoryParallel(Exchange dynamic, File directory, List<GenericFile<File>> fileList, int depth) {
+        // the limit is shared by all the scanning tasks, and only applies when eager
+        int limit = eagerLimitMaxMessagesPerPoll && maxMessagesPerPoll > 0 ? maxMessagesPerPoll : 0;
+        AtomicInteger accepted = new AtomicInteger(fileList.size());
+        ScanTask task = new ScanTask(dynamic, directory, depth, accepted, limit);
+        fileList.addAll(scanPool.invoke(task));
+        return limit <= 0 || accepted.get() < limit;
+    }
+
+    /**
+     * Scans a single directory, and forks a new task for each of its sub directories. The files found are returned in
+     * the same order as the sequential scan, by joining the sub directory tasks in the order they were listed.
+     */
+    private final class ScanTask extends RecursiveTask<List<GenericFile<File>>> {
+
+        private final Exchange dynamic;
+        private final File directory;
+        private final int depth;
+        private final AtomicInteger accepted;
+        private final int limit;
+
+        ScanTask(Exchange dynamic, File directory, int depth, AtomicInteger accepted, int limit) {
+            this.dynamic = dynamic;
+            this.directory = directory;
+            this.depth = depth + 1;
+            this.accepted = accepted;
+            this.limit = limit;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected List<GenericFile<File>> compute() {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Scanning directory: {}, absolute path: {}", directory.getPath(), directory.getAbsolutePath());
+            }
+            if (!getEndpoint().isIncludeHiddenDirs() && directory.isHidden()) {
+                return Collections.emptyList();
+            }
+
+            File[] files = snapshot != null ? snapshot.unchangedDirectory(directory) : null;
+            Map<File, BasicFileAttributes> attributes = new HashMap<>();
+            Listing listing = null;
+            if (files != null) {
+                LOG.trace("Skipping listing directory: {} as it has not changed since last poll", directory);
+            } else {
+                if (snapshot != null) {
+                    // the modification time must be read before listing, so changes made while listing are not missed
+                    listing = new Listing(snapshot.modified(directory));
+                }
+                files = listFiles(attributes);
+                if (files == null) {
+                    return Collections.emptyList();
+                }
+                if (getEndpoint().isPreSort()) {
+                    Arrays.sort(files, Comparator.comparing(File::getAbsoluteFile));
+                }
+            }
+
+            // the result is a mix of files and forked sub directory tasks, kept in listing order
+            List<Object> found = new ArrayList<>();
+            boolean cutShort = false;
+            for (File file : files) {
+                if (isLimitReached()) {
+                    cutShort = true;
+                    break;
+                }
+                // sub directories of an unchanged directory have no attributes
+                BasicFileAttributes attrs = attributes.get(file);
+                boolean isDirectory = attrs == null || attrs.isDirectory();
+                if (listing != null) {
+                    listing.entries.add(file.getName());
+                    if (isDirectory) {
+                        listing.subDirectories.add(file.getName());
+                    } else if (snapshot.isUnchanged(file, attrs.size(), attrs.lastModifiedTime().toMillis())) {
+                        LOG.trace("Skipping file {} because it has not changed since it was processed", file);
+                        continue;
+                    }
+                }
+                Supplier<GenericFile<File>> gf = Suppliers.memorize(
+                        () -> asGenericFile(endpointPath, file, attrs, getEndpoint().getCharset(),
+                                getEndpoint().isProbeContentType()));
+                if (isDirectory) {
+                    if (endpoint.isRecursive() && depth < endpoint.getMaxDepth()
+                            && isValidFile(dynamic, gf, file.getName(), file.getAbsolutePath(),
+                                    getRelativeFilePath(endpointPath, null, null, file), true, files)) {
+                        ScanTask task = new ScanTask(dynamic, file, depth, accepted, limit);
+                        task.fork();
+                        found.add(task);
+                    }
+                } else if (depth >= endpoint.minDepth) {
+                    if (!reserveSlot()) {
+                        // another task took the last slot
+                        cutShort = true;
+                        break;
+                    }
+                    GenericFile<File> answer = acceptFile(file, gf, files);
+                    if (answer != null) {
+                        found.add(answer);
+                    } else {
+                        releaseSlot();
+                    }
+                    if (listing != null) {
+                        // the file was accepted, in progress or rejected by a filter which may accept it on a later poll
+                        listing.pending = true;
+                    }
+                }
+            }
+            // a directory cut short by the limit must be listed again on the next poll
+            if (listing != null && !cutShort && !isLimitReached()) {
+                listing.complete(directory);
+            }
+
+            List<GenericFile<File>> answer = new ArrayList<>(found.size());
+            for (Object o : found) {
+                if (o instanceof ScanTask task) {
+                    answer.addAll(task.join());
+                } else {
+                    answer.add((GenericFile<File>) o);
+                }
+            }
+            return answer;
+        }
+
+        private GenericFile<File> acceptFile(File file, Supplier<GenericFile<File>> gf, File[] files) {
+            boolean valid = isValidFile(dynamic, gf, file.getName(), file.getAbsolutePath(),
+                    getRelativeFilePath(endpointPath, null, null, file), false, files);
+            if (!valid) {
+                return null;
+            }
+            LOG.trace("Adding valid file: {}", file);
+            if (extendedAttributes != null) {
+                Path path = file.toPath();
+                Map<String, Object> allAttributes = new HashMap<>();
+                for (String attribute : extendedAttributes) {
+                    readAttributes(file, path, allAttributes, attribute);
+                }
+                gf.get().setExtendedAttributes(allAttributes);
+            }
+            return gf.get();
+        }
+
+        private File[] listFiles(Map<File, BasicFileAttributes> attributes) {
+            List<File> entries = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath())) {
+                for (Path path : stream) {
+                    File file = path.toFile();
+                    try {
+                        attributes.put(file, Files.readAttributes(path, BasicFileAttributes.class));
+                        entries.add(file);
+                    } catch (IOException e) {
+                        // the file may have been deleted in the meantime
+                        LOG.trace("Cannot read attributes of file: {} due to: {}", file, e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                LOG.debug("Cannot list directory: {} due to: {}", directory, e.getMessage());
+                return null;
+            }
+            return entries.toArray(new File[0]);
+        }
+
+        private boolean isLimitReached() {
+            return limit > 0 && accepted.get() >= limit;
+        }
+
+        /**
+         * Reserves a slot of the limit before the file is validated, as validating may add the file to the in-progress
+         * and eager idempotent repositories.
+         */
+        private boolean reserveSlot() {
+            if (limit > 0 && accepted.incrementAndGet() > limit) {
+                accepted.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void releaseSlot() {
+            if (limit > 0) {
+                accepted.decrementAndGet();
+            }
+        }
     }
 
     private File[] listFiles(File directory) {
@@ -278,6 +562,21 @@ public class FileConsumer extends GenericFileConsumer<File> implements ResumeAwa
      * @return                  wrapped as a GenericFile
      */
     public static GenericFile<File> asGenericFile(String endpointPath, File file, String charset, boolean probeContentType) {
+        return asGenericFile(endpointPath, file, null, charset, probeContentType);
+    }
+
+    /**
+     * Creates a new GenericFile<File> based on the given file, using the attributes already read while listing the
+     * directory, to avoid reading them again from the file system.
+     *
+     * @param  endpointPath     the starting directory the endpoint was configured with
+     * @param  file             the source file
+     * @param  attributes       the file attributes, or <tt>null</tt> to load them lazily from the file
+     * @param  probeContentType whether to probe the content type of the file or not
+     * @return                  wrapped as a GenericFile
+     */
+    public static GenericFile<File> asGenericFile(
+            String endpointPath, File file, BasicFileAttributes attributes, String charset, boolean probeContentType) {
         GenericFile<File> answer = new GenericFile<>(probeContentType);
         // use file specific binding
         answer.setBinding(new FileBinding());
@@ -286,7 +585,7 @@ public class FileConsumer extends GenericFileConsumer<File> implements ResumeAwa
         answer.setEndpointPath(endpointPath);
         answer.setFile(file);
         answer.setFileNameOnly(file.getName());
-        answer.setDirectory(file.isDirectory());
+        answer.setDirectory(attributes != null ? attributes.isDirectory() : file.isDirectory());
         // must use FileUtil.isAbsolute to have consistent check for whether the
         // file is
         // absolute or not. As windows do not consider \ paths as absolute where
@@ -299,9 +598,14 @@ public class FileConsumer extends GenericFileConsumer<File> implements ResumeAwa
         answer.setAbsolute(FileUtil.isAbsolute(file));
         answer.setAbsoluteFilePath(file.getAbsolutePath());
 
-        // file length and last modified are loaded lazily
-        answer.setFileLengthSupplier(file::length);
-        answer.setLastModifiedSupplier(file::lastModified);
+        if (attributes != null) {
+            answer.setFileLength(attributes.size());
+            answer.setLastModified(attributes.lastModifiedTime().toMillis());
+        } else {
+            // file length and last modified are loaded lazily
+            answer.setFileLengthSupplier(file::length);
+            answer.setLastModifiedSupplier(file::lastModified);
+        }
 
         // compute the file path as relative to the starting directory
         File path;
@@ -399,10 +703,40 @@ public class FileConsumer extends GenericFileConsumer<File> implements ResumeAwa
         if (resumeStrategy != null) {
             resumeStrategy.loadCache();
         }
+        if (getEndpoint().isIncrementalPoll() && snapshot == null) {
+            String name = getEndpoint().getSnapshotFile();
+            snapshot = new DirectorySnapshot(name != null ? new File(name) : null);
+            snapshot.load();
+        }
+        if (getEndpoint().isParallelScan() && scanPool == null) {
+            int threads = getEndpoint().getParallelScanThreads();
+            ExecutorServiceManager manager = getEndpoint().getZwangineContext().getExecutorServiceManager();
+            ForkJoinWorkerThreadFactory factory = pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName(manager.resolveThreadName("FileParallelScan"));
+                return thread;
+            };
+            scanPool = new ForkJoinPool(
+                    threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), factory, null, false);
+        }
 
         super.doStart();
     }
 
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+
+        if (scanPool != null) {
+            getEndpoint().getZwangineContext().getExecutorServiceManager().shutdown(scanPool);
+            scanPool = null;
+        }
+        if (snapshot != null) {
+            saveSnapshot();
+            snapshot = null;
+        }
+    }
+
     @Override
     public ResumeStrategy getResumeStrategy() {
         return resumeStrategy;
@@ -32,8 +32,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Read and write files.
@@ -75,12 +78,30 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
     private boolean probeContentType;
     @UriParam(label = "consumer,advanced")
     private String extendedAttributes;
+    @UriParam(label = "consumer,advanced")
+    private boolean parallelScan;
+    @UriParam(label = "consumer,advanced")
+    private int parallelScanThreads;
+    @UriParam(label = "consumer,advanced")
+    private boolean incrementalPoll;
+    @UriParam(label = "consumer,advanced")
+    private String snapshotFile;
     @UriParam(label = "producer,advanced", defaultValue = "true")
     private boolean forceWrites = true;
     @UriParam(label = "producer,advanced")
     private String chmod;
     @UriParam(label = "producer,advanced")
     private String chmodDirectory;
+    @UriParam(label = "producer,advanced")
+    private boolean zeroCopy;
+    @UriParam(label = "producer,advanced")
+    private boolean bufferedAppend;
+    @UriParam(label = "producer,advanced", defaultValue = "1000")
+    private long bufferedAppendFlushInterval = 1000;
+    @UriParam(label = "producer,advanced", defaultValue = "60000")
+    private long bufferedAppendIdleTimeout = 60000;
+    private final FileTransferStatistics transferStatistics = new FileTransferStatistics();
+    private final Map<String, FileTransferStatistics> workflowTransferStatistics = new ConcurrentHashMap<>();
 
     public FileEndpoint() {
     }
@@ -205,6 +226,16 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
         if (this.getMoveExistingFileStrategy() == null) {
             this.setMoveExistingFileStrategy(createDefaultMoveExistingFileStrategy());
         }
+        if (bufferedAppend) {
+            if (getFileExist() != GenericFileExist.Append) {
+                throw new IllegalArgumentException("You must configure fileExist=Append when bufferedAppend has been set");
+            }
+            if (getDoneFileName() != null || getChecksumFileAlgorithm() != null || isKeepLastModified()) {
+                throw new IllegalArgumentException(
+                        "You cannot set bufferedAppend together with doneFileName, checksumFileAlgorithm or keepLastModified options");
+            }
+            return new FileBufferedAppendProducer(this, operations);
+        }
         return new GenericFileProducer<>(this, operations);
     }
 
@@ -393,6 +424,82 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
         this.forceWrites = forceWrites;
     }
 
+    public boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
+    /**
+     * Whether to use zero-copy transfers when the message body is a file, such as a java.io.File, a file from the file
+     * consumer, or a message body spooled to disk by stream caching. The content is then transferred between file
+     * channels by the operating system, without being copied through the JVM heap. This also applies when appending to
+     * existing files with fileExist=Append. The transfer statistics are kept per workflow.
+     */
+    public void setZeroCopy(boolean zeroCopy) {
+        this.zeroCopy = zeroCopy;
+    }
+
+    public boolean isBufferedAppend() {
+        return bufferedAppend;
+    }
+
+    /**
+     * Whether to use buffered writes when appending to files with fileExist=Append. When enabled then the producer
+     * keeps the target files open, and collects the appended content in a buffer per file (using the bufferSize
+     * option), which is written to the file when it is full, when the flush interval has elapsed, and when the
+     * producer is stopped. This is much faster when appending many small messages to the same file, such as a line
+     * at a time. If forceWrites is enabled then each write is synced to the file system. Mind that an exchange is
+     * completed when its content has been buffered, so buffered content can be lost if the JVM crashes.
+     */
+    public void setBufferedAppend(boolean bufferedAppend) {
+        this.bufferedAppend = bufferedAppend;
+    }
+
+    public long getBufferedAppendFlushInterval() {
+        return bufferedAppendFlushInterval;
+    }
+
+    /**
+     * The maximum time in millis the content can stay in the buffer when using bufferedAppend, before it is written to
+     * the file. Use 0 to only write when the buffer is full.
+     */
+    public void setBufferedAppendFlushInterval(long bufferedAppendFlushInterval) {
+        this.bufferedAppendFlushInterval = bufferedAppendFlushInterval;
+    }
+
+    public long getBufferedAppendIdleTimeout() {
+        return bufferedAppendIdleTimeout;
+    }
+
+    /**
+     * The time in millis after which a file that has not been appended to is closed when using bufferedAppend. Use 0 to
+     * keep the files open until the producer is stopped.
+     */
+    public void setBufferedAppendIdleTimeout(long bufferedAppendIdleTimeout) {
+        this.bufferedAppendIdleTimeout = bufferedAppendIdleTimeout;
+    }
+
+    /**
+     * Gets the statistics of the zero-copy transfers done by all the producers of this endpoint.
+     */
+    public FileTransferStatistics getTransferStatistics() {
+        return transferStatistics;
+    }
+
+    /**
+     * Gets the statistics of the zero-copy transfers done by the producers of this endpoint, per workflow.
+     */
+    public Map<String, FileTransferStatistics> getWorkflowTransferStatistics() {
+        return Collections.unmodifiableMap(workflowTransferStatistics);
+    }
+
+    void onTransfer(Exchange exchange, long bytes, long nanos) {
+        transferStatistics.onTransfer(bytes, nanos);
+        String workflowId = exchange.getFromWorkflowId();
+        if (workflowId != null) {
+            workflowTransferStatistics.computeIfAbsent(workflowId, k -> new FileTransferStatistics()).onTransfer(bytes, nanos);
+        }
+    }
+
     public boolean isProbeContentType() {
         return probeContentType;
     }
@@ -418,6 +525,65 @@ public class FileEndpoint extends GenericFileEndpoint<File> {
         this.extendedAttributes = extendedAttributes;
     }
 
+    public boolean isParallelScan() {
+        return parallelScan;
+    }
+
+    /**
+     * Whether the consumer should scan the directory tree in parallel. When enabled then sub directories are listed
+     * concurrently on a fork-join pool, and the file attributes are read once per entry while listing. This can speed
+     * up polling of very large recursive directory trees. The gathered files are returned in the same order as the
+     * sequential scan, so sorting works as usual. When eagerMaxMessagesPerPoll is in use then the scan stops once the
+     * limit is reached, but which files make up the limited batch is not deterministic. Mind that the file filters,
+     * such as a custom filter, filterFile and filterDirectory, are then called concurrently by the scanning threads, so
+     * they must be thread-safe. This option is not used together with a resume strategy, which always scans
+     * sequentially.
+     */
+    public void setParallelScan(boolean parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+
+    public int getParallelScanThreads() {
+        return parallelScanThreads;
+    }
+
+    /**
+     * The number of threads to use for parallel directory scanning. Is by default 0, which means the number of
+     * available processors.
+     */
+    public void setParallelScanThreads(int parallelScanThreads) {
+        this.parallelScanThreads = parallelScanThreads;
+    }
+
+    public boolean isIncrementalPoll() {
+        return incrementalPoll;
+    }
+
+    /**
+     * Whether the consumer should only pick up new or changed files. When enabled then the consumer keeps a snapshot
+     * of the size and last modified timestamp of the processed files, and skips files which have not changed since.
+     * Directories in which all the files have been processed are not listed again until their modification time
+     * changes, which avoids filtering thousands of already consumed files on each poll when using noop=true. A
+     * directory holding files which were not processed, such as files rejected by a filter, is listed again on each
+     * poll so the filter is evaluated again. Mind that the modification time of a directory only changes when entries
+     * are added, removed or renamed.
+     */
+    public void setIncrementalPoll(boolean incrementalPoll) {
+        this.incrementalPoll = incrementalPoll;
+    }
+
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * The file to store the snapshot used by incremental polling, so the snapshot survives restarts. If not set then
+     * the snapshot is kept in memory only.
+     */
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
     /**
      * Chmod value must be between 000 and 777; If there is a leading digit like in 0755 we will ignore it.
      */
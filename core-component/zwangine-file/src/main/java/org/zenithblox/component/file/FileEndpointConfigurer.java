@@ -44,6 +44,12 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "bridgeErrorHandler": target.setBridgeErrorHandler(property(zwangineContext, boolean.class, value)); return true;
         case "browselimit":
         case "browseLimit": target.setBrowseLimit(property(zwangineContext, int.class, value)); return true;
+        case "bufferedappend":
+        case "bufferedAppend": target.setBufferedAppend(property(zwangineContext, boolean.class, value)); return true;
+        case "bufferedappendflushinterval":
+        case "bufferedAppendFlushInterval": target.setBufferedAppendFlushInterval(property(zwangineContext, long.class, value)); return true;
+        case "bufferedappendidletimeout":
+        case "bufferedAppendIdleTimeout": target.setBufferedAppendIdleTimeout(property(zwangineContext, long.class, value)); return true;
         case "buffersize":
         case "bufferSize": target.setBufferSize(property(zwangineContext, int.class, value)); return true;
         case "charset": target.setCharset(property(zwangineContext, String.class, value)); return true;
@@ -104,6 +110,8 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "includeHiddenDirs": target.setIncludeHiddenDirs(property(zwangineContext, boolean.class, value)); return true;
         case "includehiddenfiles":
         case "includeHiddenFiles": target.setIncludeHiddenFiles(property(zwangineContext, boolean.class, value)); return true;
+        case "incrementalpoll":
+        case "incrementalPoll": target.setIncrementalPoll(property(zwangineContext, boolean.class, value)); return true;
         case "initialdelay":
         case "initialDelay": target.setInitialDelay(property(zwangineContext, long.class, value)); return true;
         case "jailstartingdirectory":
@@ -130,6 +138,10 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "noop": target.setNoop(property(zwangineContext, boolean.class, value)); return true;
         case "oncompletionexceptionhandler":
         case "onCompletionExceptionHandler": target.setOnCompletionExceptionHandler(property(zwangineContext, org.zenithblox.spi.ExceptionHandler.class, value)); return true;
+        case "parallelscan":
+        case "parallelScan": target.setParallelScan(property(zwangineContext, boolean.class, value)); return true;
+        case "parallelscanthreads":
+        case "parallelScanThreads": target.setParallelScanThreads(property(zwangineContext, int.class, value)); return true;
         case "pollstrategy":
         case "pollStrategy": target.setPollStrategy(property(zwangineContext, org.zenithblox.spi.PollingConsumerPollStrategy.class, value)); return true;
         case "premove":
@@ -183,6 +195,8 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "sendemptymessagewhenidle":
         case "sendEmptyMessageWhenIdle": target.setSendEmptyMessageWhenIdle(property(zwangineContext, boolean.class, value)); return true;
         case "shuffle": target.setShuffle(property(zwangineContext, boolean.class, value)); return true;
+        case "snapshotfile":
+        case "snapshotFile": target.setSnapshotFile(property(zwangineContext, java.lang.String.class, value)); return true;
         case "sortby":
         case "sortBy": target.setSortBy(property(zwangineContext, String.class, value)); return true;
         case "sorter": target.setSorter(property(zwangineContext, java.util.Comparator.class, value)); return true;
@@ -201,6 +215,8 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "timeUnit": target.setTimeUnit(property(zwangineContext, java.util.concurrent.TimeUnit.class, value)); return true;
         case "usefixeddelay":
         case "useFixedDelay": target.setUseFixedDelay(property(zwangineContext, boolean.class, value)); return true;
+        case "zerocopy":
+        case "zeroCopy": target.setZeroCopy(property(zwangineContext, boolean.class, value)); return true;
         default: return false;
         }
     }
@@ -232,6 +248,12 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "bridgeErrorHandler": return boolean.class;
         case "browselimit":
         case "browseLimit": return int.class;
+        case "bufferedappend":
+        case "bufferedAppend": return boolean.class;
+        case "bufferedappendflushinterval":
+        case "bufferedAppendFlushInterval": return long.class;
+        case "bufferedappendidletimeout":
+        case "bufferedAppendIdleTimeout": return long.class;
         case "buffersize":
         case "bufferSize": return int.class;
         case "charset": return String.class;
@@ -292,6 +314,8 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "includeHiddenDirs": return boolean.class;
         case "includehiddenfiles":
         case "includeHiddenFiles": return boolean.class;
+        case "incrementalpoll":
+        case "incrementalPoll": return boolean.class;
         case "initialdelay":
         case "initialDelay": return long.class;
         case "jailstartingdirectory":
@@ -318,6 +342,10 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "noop": return boolean.class;
         case "oncompletionexceptionhandler":
         case "onCompletionExceptionHandler": return org.zenithblox.spi.ExceptionHandler.class;
+        case "parallelscan":
+        case "parallelScan": return boolean.class;
+        case "parallelscanthreads":
+        case "parallelScanThreads": return int.class;
         case "pollstrategy":
         case "pollStrategy": return org.zenithblox.spi.PollingConsumerPollStrategy.class;
         case "premove":
@@ -371,6 +399,8 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "sendemptymessagewhenidle":
         case "sendEmptyMessageWhenIdle": return boolean.class;
         case "shuffle": return boolean.class;
+        case "snapshotfile":
+        case "snapshotFile": return java.lang.String.class;
         case "sortby":
         case "sortBy": return String.class;
         case "sorter": return java.util.Comparator.class;
@@ -389,6 +419,8 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "timeUnit": return java.util.concurrent.TimeUnit.class;
         case "usefixeddelay":
         case "useFixedDelay": return boolean.class;
+        case "zerocopy":
+        case "zeroCopy": return boolean.class;
         default: return null;
         }
     }
@@ -421,6 +453,12 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "bridgeErrorHandler": return target.isBridgeErrorHandler();
         case "browselimit":
         case "browseLimit": return target.getBrowseLimit();
+        case "bufferedappend":
+        case "bufferedAppend": return target.isBufferedAppend();
+        case "bufferedappendflushinterval":
+        case "bufferedAppendFlushInterval": return target.getBufferedAppendFlushInterval();
+        case "bufferedappendidletimeout":
+        case "bufferedAppendIdleTimeout": return target.getBufferedAppendIdleTimeout();
         case "buffersize":
         case "bufferSize": return target.getBufferSize();
         case "charset": return target.getCharset();
@@ -481,6 +519,8 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "includeHiddenDirs": return target.isIncludeHiddenDirs();
         case "includehiddenfiles":
         case "includeHiddenFiles": return target.isIncludeHiddenFiles();
+        case "incrementalpoll":
+        case "incrementalPoll": return target.isIncrementalPoll();
         case "initialdelay":
         case "initialDelay": return target.getInitialDelay();
         case "jailstartingdirectory":
@@ -507,6 +547,10 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "noop": return target.isNoop();
         case "oncompletionexceptionhandler":
         case "onCompletionExceptionHandler": return target.getOnCompletionExceptionHandler();
+        case "parallelscan":
+        case "parallelScan": return target.isParallelScan();
+        case "parallelscanthreads":
+        case "parallelScanThreads": return target.getParallelScanThreads();
         case "pollstrategy":
         case "pollStrategy": return target.getPollStrategy();
         case "premove":
@@ -560,6 +604,8 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "sendemptymessagewhenidle":
         case "sendEmptyMessageWhenIdle": return target.isSendEmptyMessageWhenIdle();
         case "shuffle": return target.isShuffle();
+        case "snapshotfile":
+        case "snapshotFile": return target.getSnapshotFile();
         case "sortby":
         case "sortBy": return target.getSortBy();
         case "sorter": return target.getSorter();
@@ -578,6 +624,8 @@ public class FileEndpointConfigurer extends PropertyConfigurerSupport implements
         case "timeUnit": return target.getTimeUnit();
         case "usefixeddelay":
         case "useFixedDelay": return target.isUseFixedDelay();
+        case "zerocopy":
+        case "zeroCopy": return target.isZeroCopy();
         default: return null;
         }
     }
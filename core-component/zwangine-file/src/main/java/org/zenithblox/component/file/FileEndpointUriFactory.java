@@ -19,7 +19,7 @@ public class FileEndpointUriFactory extends org.zenithblox.support.component.End
     private static final Set<String> SECRET_PROPERTY_NAMES;
     private static final Set<String> MULTI_VALUE_PREFIXES;
     static {
-        Set<String> props = new HashSet<>(100);
+        Set<String> props = new HashSet<>(108);
         props.add("allowNullBody");
         props.add("antExclude");
         props.add("antFilterCaseSensitive");
@@ -33,6 +33,9 @@ public class FileEndpointUriFactory extends org.zenithblox.support.component.End
         props.add("bridgeErrorHandler");
         props.add("browseLimit");
         props.add("bufferSize");
+        props.add("bufferedAppend");
+        props.add("bufferedAppendFlushInterval");
+        props.add("bufferedAppendIdleTimeout");
         props.add("charset");
         props.add("checksumFileAlgorithm");
         props.add("chmod");
@@ -68,6 +71,7 @@ public class FileEndpointUriFactory extends org.zenithblox.support.component.End
         props.add("includeExt");
         props.add("includeHiddenDirs");
         props.add("includeHiddenFiles");
+        props.add("incrementalPoll");
         props.add("initialDelay");
         props.add("jailStartingDirectory");
         props.add("keepLastModified");
@@ -82,6 +86,8 @@ public class FileEndpointUriFactory extends org.zenithblox.support.component.End
         props.add("moveFailed");
         props.add("noop");
         props.add("onCompletionExceptionHandler");
+        props.add("parallelScan");
+        props.add("parallelScanThreads");
         props.add("pollStrategy");
         props.add("preMove");
         props.add("preSort");
@@ -110,6 +116,7 @@ public class FileEndpointUriFactory extends org.zenithblox.support.component.End
         props.add("schedulerProperties");
         props.add("sendEmptyMessageWhenIdle");
         props.add("shuffle");
+        props.add("snapshotFile");
         props.add("sortBy");
         props.add("sorter");
         props.add("startScheduler");
@@ -120,6 +127,7 @@ public class FileEndpointUriFactory extends org.zenithblox.support.component.End
         props.add("tempPrefix");
         props.add("timeUnit");
         props.add("useFixedDelay");
+        props.add("zeroCopy");
         PROPERTY_NAMES = Collections.unmodifiableSet(props);
         SECRET_PROPERTY_NAMES = Collections.emptySet();
         Set<String> prefixes = new HashSet<>(1);
@@ -19,6 +19,7 @@ package org.zenithblox.component.file;
 import org.zenithblox.Exchange;
 import org.zenithblox.InvalidPayloadException;
 import org.zenithblox.WrappedFile;
+import org.zenithblox.stream.FileInputStreamCache;
 import org.zenithblox.util.FileUtil;
 import org.zenithblox.util.IOHelper;
 import org.zenithblox.util.ObjectHelper;
@@ -49,6 +50,8 @@ import static org.zenithblox.component.file.GenericFileHelper.asExclusiveReadLoc
  */
 public class FileOperations implements GenericFileOperations<File> {
     private static final Logger LOG = LoggerFactory.getLogger(FileOperations.class);
+    // the largest transfer a single transferTo call is guaranteed to handle on all platforms
+    private static final long MAX_TRANSFER_SIZE = Integer.MAX_VALUE;
     private final Lock lock = new ReentrantLock();
     private FileEndpoint endpoint;
 
@@ -302,6 +305,18 @@ public class FileOperations implements GenericFileOperations<File> {
                 }
             }
 
+            if (charset == null && endpoint.isZeroCopy()) {
+                // zero-copy can also be used when appending, and for bodies spooled to disk by stream caching
+                source = getZeroCopySource(exchange);
+                if (source != null && writeFileByTransfer(source, file, exchange)) {
+                    // try to keep last modified timestamp if configured to do so
+                    keepLastModified(exchange, file);
+                    // set permissions if the chmod option was set
+                    setPermissions(file);
+                    return true;
+                }
+            }
+
             if (charset != null) {
                 // charset configured so we must use a reader so we can write
                 // with encoding
@@ -400,6 +415,16 @@ public class FileOperations implements GenericFileOperations<File> {
         return body;
     }
 
+    private static File getZeroCopySource(Exchange exchange) {
+        final Object body = extractBodyFromExchange(exchange);
+        if (body instanceof File fileBody) {
+            return fileBody;
+        } else if (body instanceof FileInputStreamCache cache && !cache.isEncrypted()) {
+            return cache.getFile();
+        }
+        return null;
+    }
+
     private boolean handleNullBody(File file) {
         if (endpoint.isAllowNullBody()) {
             LOG.trace("Writing empty file.");
@@ -466,6 +491,9 @@ public class FileOperations implements GenericFileOperations<File> {
     }
 
     private void writeFileByFile(File source, File target, Exchange exchange) throws IOException {
+        if (endpoint.isZeroCopy() && writeFileByTransfer(source, target, exchange)) {
+            return;
+        }
         // in case we are using file locks as read-locks then we need to use
         // file channels for copying to support this
         String path = source.getAbsolutePath();
@@ -483,6 +511,60 @@ public class FileOperations implements GenericFileOperations<File> {
         }
     }
 
+    /**
+     * Transfers the source file to the target file using zero-copy, where the operating system moves the bytes between
+     * the file channels without copying them through the JVM heap.
+     *
+     * @return <tt>true</tt> if the file was transferred, <tt>false</tt> if zero-copy cannot be used for the source
+     */
+    private boolean writeFileByTransfer(File source, File target, Exchange exchange) throws IOException {
+        if (!source.isFile()) {
+            return false;
+        }
+        boolean append = endpoint.getFileExist() == GenericFileExist.Append;
+        if (append && target.exists() && Files.isSameFile(source.toPath(), target.toPath())) {
+            // cannot append a file to itself
+            return false;
+        }
+
+        long start = System.nanoTime();
+        long bytes;
+        // in case we are using file locks as read-locks then we must transfer from the locked channel
+        FileChannel channel = exchange.getProperty(
+                asExclusiveReadLockKey(source.getAbsolutePath(), Exchange.FILE_LOCK_CHANNEL_FILE), FileChannel.class);
+        try (FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            LOG.trace("writeFileByTransfer using zero-copy: {} -> {}", source, target);
+            if (channel != null) {
+                bytes = transfer(channel, out);
+            } else {
+                try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+                    bytes = transfer(in, out);
+                }
+            }
+            if (append && endpoint.getAppendChars() != null) {
+                out.write(ByteBuffer.wrap(endpoint.getAppendChars().getBytes()));
+            }
+        }
+        endpoint.onTransfer(exchange, bytes, System.nanoTime() - start);
+        return true;
+    }
+
+    private static long transfer(FileChannel in, FileChannel out) throws IOException {
+        long size = in.size();
+        long position = 0;
+        while (position < size) {
+            // transfer in chunks, as a single transfer may be limited to 2gb
+            long count = in.transferTo(position, Math.min(size - position, MAX_TRANSFER_SIZE), out);
+            if (count <= 0) {
+                // the source was truncated while transferring
+                break;
+            }
+            position += count;
+        }
+        return position;
+    }
+
     private void writeFileByStream(InputStream in, File target) throws IOException {
         try (SeekableByteChannel out = prepareOutputFileChannel(target)) {
             LOG.debug("Using InputStream to write file: {}", target);
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zentihblox.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.component.file;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the file to file transfers done by the file producer.
+ */
+public class FileTransferStatistics {
+
+    private final LongAdder transfers = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    void onTransfer(long bytes, long nanos) {
+        this.transfers.increment();
+        this.bytes.add(bytes);
+        this.nanos.add(nanos);
+    }
+
+    /**
+     * Number of files transferred
+     */
+    public long getTransferCount() {
+        return transfers.sum();
+    }
+
+    /**
+     * Total number of bytes transferred
+     */
+    public long getBytesTransferred() {
+        return bytes.sum();
+    }
+
+    /**
+     * Total time spent transferring in millis
+     */
+    public long getTransferTime() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.sum());
+    }
+
+    /**
+     * Average throughput in bytes per second
+     */
+    public long getThroughput() {
+        long time = nanos.sum();
+        return time > 0 ? (long) (bytes.sum() / (time / 1_000_000_000d)) : 0;
+    }
+
+    public void reset() {
+        transfers.reset();
+        bytes.reset();
+        nanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "FileTransferStatistics[transfers=" + getTransferCount() + ", bytes=" + getBytesTransferred()
+               + ", throughput=" + getThroughput() + " bytes/sec]";
+    }
+}
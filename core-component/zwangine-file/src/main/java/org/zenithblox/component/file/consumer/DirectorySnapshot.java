@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zentihblox.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.component.file.consumer;
+
+import org.zenithblox.util.IOHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A snapshot of the directory entries seen by the file consumer, used for incremental polling.
+ * <p/>
+ * The snapshot keeps the size and last modified timestamp of the files which have been processed, so a file is only
+ * picked up again when it has changed. It also keeps the modification time of the directories that were listed. When
+ * all the files of a directory had been processed (none was accepted, in progress or rejected by a filter) and its
+ * modification time has not changed since, then it is not listed again, and only its known sub directories are
+ * visited. Mind that the modification time of a directory only changes when entries
+ * are added, removed or renamed, so a file that is changed in place in such a directory is only detected once the
+ * directory itself changes.
+ * <p/>
+ * The snapshot can be stored in a file, so it survives restarts of the consumer.
+ */
+public class DirectorySnapshot implements DirectoryEntriesResumeAdapter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DirectorySnapshot.class);
+    private static final int VERSION = 1;
+    // directories modified more recently than this are never regarded as unchanged, as some file systems only have a
+    // coarse grained modification time, and entries may be added in the same tick the directory was listed
+    private static final long SETTLE_MILLIS = 2000;
+
+    private final Map<String, DirectoryEntry> directories = new ConcurrentHashMap<>();
+    private final File snapshotFile;
+    private volatile boolean dirty;
+
+    public DirectorySnapshot(File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public File getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Whether the file has been processed before, and has not changed since.
+     */
+    @Override
+    public boolean resume(File file) {
+        long[] known = known(file);
+        // only read the file attributes when the file has been processed before
+        return known != null && known[0] == file.length() && known[1] == file.lastModified();
+    }
+
+    /**
+     * Whether the file has been processed before, and has not changed since.
+     *
+     * @param file         the file
+     * @param length       the current length of the file
+     * @param lastModified the current last modified timestamp of the file
+     */
+    public boolean isUnchanged(File file, long length, long lastModified) {
+        long[] known = known(file);
+        return known != null && known[0] == length && known[1] == lastModified;
+    }
+
+    private long[] known(File file) {
+        DirectoryEntry dir = directories.get(file.getParent());
+        return dir != null ? dir.files.get(file.getName()) : null;
+    }
+
+    /**
+     * Records that the file has been processed.
+     */
+    public void processed(File file, long length, long lastModified) {
+        directory(file.getParent()).files.put(file.getName(), new long[] { length, lastModified });
+        dirty = true;
+    }
+
+    /**
+     * Gets the known sub directories of the directory, if the directory does not need to be listed again.
+     *
+     * @param  directory the directory
+     * @return           the sub directories to visit, or <tt>null</tt> if the directory must be listed
+     */
+    public File[] unchangedDirectory(File directory) {
+        DirectoryEntry dir = directories.get(directory.getPath());
+        if (dir == null || !dir.unchanged) {
+            return null;
+        }
+        long modified = modified(directory);
+        if (modified != dir.modified) {
+            LOG.trace("Directory: {} has changed since last poll", directory);
+            return null;
+        }
+        File[] answer = new File[dir.subDirectories.size()];
+        int i = 0;
+        for (String name : dir.subDirectories) {
+            answer[i++] = new File(directory, name);
+        }
+        return answer;
+    }
+
+    /**
+     * Gets the current modification time of the directory, which must be read before listing the directory.
+     */
+    public long modified(File directory) {
+        try {
+            return Files.getLastModifiedTime(directory.toPath()).to(TimeUnit.NANOSECONDS);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Records the outcome of listing the directory.
+     *
+     * @param directory      the directory
+     * @param modified       the modification time of the directory before it was listed
+     * @param unchanged      whether all the files listed had already been processed
+     * @param entries        the names of all the entries in the directory
+     * @param subDirectories the names of the sub directories
+     */
+    public void listed(
+            File directory, long modified, boolean unchanged, Collection<String> entries, Collection<String> subDirectories) {
+        DirectoryEntry dir = directory(directory.getPath());
+        // forget about files that are no longer in the directory
+        dir.files.keySet().retainAll(entries);
+        dir.subDirectories = Set.copyOf(subDirectories);
+        dir.modified = modified;
+        dir.unchanged = unchanged && modified >= 0
+                && TimeUnit.NANOSECONDS.toMillis(modified) < System.currentTimeMillis() - SETTLE_MILLIS;
+        dirty = true;
+    }
+
+    private DirectoryEntry directory(String path) {
+        return directories.computeIfAbsent(path, k -> new DirectoryEntry());
+    }
+
+    /**
+     * Loads the snapshot from the snapshot file, if any.
+     */
+    public void load() throws IOException {
+        directories.clear();
+        if (snapshotFile == null || !snapshotFile.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile.toPath())))) {
+            int version = in.readInt();
+            if (version != VERSION) {
+                LOG.warn("Ignoring directory snapshot: {} with unsupported version: {}", snapshotFile, version);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                DirectoryEntry dir = new DirectoryEntry();
+                dir.modified = in.readLong();
+                dir.unchanged = in.readBoolean();
+                int subs = in.readInt();
+                List<String> names = new ArrayList<>(subs);
+                for (int j = 0; j < subs; j++) {
+                    names.add(in.readUTF());
+                }
+                dir.subDirectories = Set.copyOf(names);
+                int files = in.readInt();
+                for (int j = 0; j < files; j++) {
+                    String name = in.readUTF();
+                    dir.files.put(name, new long[] { in.readLong(), in.readLong() });
+                }
+                directories.put(path, dir);
+            }
+        }
+        dirty = false;
+        LOG.debug("Loaded directory snapshot: {} with {} directories", snapshotFile, directories.size());
+    }
+
+    /**
+     * Stores the snapshot in the snapshot file, if it has changed since it was last stored.
+     */
+    public void save() throws IOException {
+        if (snapshotFile == null || !dirty) {
+            return;
+        }
+        dirty = false;
+        File parent = snapshotFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        // write to a temporary file which replaces the snapshot, so a crash never leaves a partial snapshot behind
+        Path tmp = new File(snapshotFile.getPath() + ".tmp").toPath();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)));
+        try {
+            out.writeInt(VERSION);
+            List<Map.Entry<String, DirectoryEntry>> entries = new ArrayList<>(directories.entrySet());
+            out.writeInt(entries.size());
+            for (Map.Entry<String, DirectoryEntry> entry : entries) {
+                DirectoryEntry dir = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(dir.modified);
+                out.writeBoolean(dir.unchanged);
+                Set<String> subs = dir.subDirectories;
+                out.writeInt(subs.size());
+                for (String name : subs) {
+                    out.writeUTF(name);
+                }
+                List<Map.Entry<String, long[]>> files = new ArrayList<>(dir.files.entrySet());
+                out.writeInt(files.size());
+                for (Map.Entry<String, long[]> file : files) {
+                    out.writeUTF(file.getKey());
+                    out.writeLong(file.getValue()[0]);
+                    out.writeLong(file.getValue()[1]);
+                }
+            }
+        } finally {
+            IOHelper.close(out, "Writing directory snapshot", LOG);
+        }
+        Files.move(tmp, snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Clears the snapshot, so all the directories are listed again on the next poll.
+     */
+    public void clear() {
+        directories.clear();
+        dirty = true;
+    }
+
+    private static final class DirectoryEntry {
+        private final Map<String, long[]> files = new ConcurrentHashMap<>();
+        private volatile Set<String> subDirectories = Set.of();
+        private volatile long modified;
+        private volatile boolean unchanged;
+    }
+}
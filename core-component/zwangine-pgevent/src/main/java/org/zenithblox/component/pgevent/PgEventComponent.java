@@ -20,7 +20,12 @@ import org.zenithblox.Endpoint;
 import org.zenithblox.spi.annotations.Component;
 import org.zenithblox.support.DefaultComponent;
 
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents the component that manages {@link PgEventEndpoint}.
@@ -28,6 +33,9 @@ import java.util.Map;
 @Component("pgevent")
 public class PgEventComponent extends DefaultComponent {
 
+    private final Lock lock = new ReentrantLock();
+    private final Map<List<Object>, PgEventConnection> connections = new HashMap<>();
+
     public PgEventComponent() {
     }
 
@@ -37,4 +45,39 @@ public class PgEventComponent extends DefaultComponent {
         setProperties(endpoint, parameters);
         return endpoint;
     }
+
+    /**
+     * Gets the connection to listen for notifications on, which is shared by the consumers of endpoints which connect
+     * to the same database.
+     */
+    PgEventConnection acquireConnection(PgEventEndpoint endpoint) throws Exception {
+        lock.lock();
+        try {
+            List<Object> key = endpoint.getConnectionKey();
+            PgEventConnection answer = connections.get(key);
+            if (answer == null || answer.isClosed()) {
+                answer = new PgEventConnection(key, endpoint.initJdbc());
+                connections.put(key, answer);
+            }
+            answer.retain();
+            return answer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a connection from {@link #acquireConnection(PgEventEndpoint)}, which is closed when it is no longer in
+     * use by any consumer.
+     */
+    void releaseConnection(PgEventConnection connection) throws SQLException {
+        lock.lock();
+        try {
+            if (connection.release()) {
+                connections.remove(connection.getKey(), connection);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zentihblox.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.component.pgevent;
+
+import com.impossibl.postgres.api.jdbc.PGConnection;
+import com.impossibl.postgres.api.jdbc.PGNotificationListener;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A database connection the consumers listen for notifications on, which can be shared by several consumers.
+ * <p/>
+ * The connection keeps track of the number of consumers listening on each channel, so <tt>LISTEN</tt> is only executed
+ * for the first consumer of a channel, and <tt>UNLISTEN</tt> when the last consumer of a channel stops.
+ */
+final class PgEventConnection {
+
+    private final Lock lock = new ReentrantLock();
+    private final List<Object> key;
+    private final PGConnection connection;
+    private final Map<String, Integer> channels = new HashMap<>();
+    private int references;
+
+    PgEventConnection(List<Object> key, PGConnection connection) {
+        this.key = key;
+        this.connection = connection;
+    }
+
+    List<Object> getKey() {
+        return key;
+    }
+
+    PGConnection getConnection() {
+        return connection;
+    }
+
+    void listen(String channel, String listenerName, PGNotificationListener listener) throws SQLException {
+        lock.lock();
+        try {
+            if (channels.merge(channel, 1, Integer::sum) == 1) {
+                execute(String.format("LISTEN %s", channel));
+            }
+            connection.addNotificationListener(listenerName, channel, listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void unlisten(String channel, String listenerName) throws SQLException {
+        lock.lock();
+        try {
+            connection.removeNotificationListener(listenerName);
+            Integer count = channels.computeIfPresent(channel, (k, v) -> v > 1 ? v - 1 : null);
+            if (count == null && !connection.isClosed()) {
+                execute(String.format("UNLISTEN %s", channel));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.execute();
+        }
+    }
+
+    void retain() {
+        lock.lock();
+        try {
+            references++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a reference to the connection.
+     *
+     * @return <tt>true</tt> if this was the last reference, and the connection has been closed
+     */
+    boolean release() throws SQLException {
+        lock.lock();
+        try {
+            if (--references > 0) {
+                return false;
+            }
+            connection.close();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isClosed() throws SQLException {
+        return connection.isClosed();
+    }
+}
@@ -16,7 +16,6 @@
  */
 package org.zenithblox.component.pgevent;
 
-import com.impossibl.postgres.api.jdbc.PGConnection;
 import com.impossibl.postgres.api.jdbc.PGNotificationListener;
 import org.zenithblox.Exchange;
 import org.zenithblox.Message;
@@ -25,32 +24,92 @@ import org.zenithblox.support.DefaultConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.PreparedStatement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The PgEvent consumer.
+ * <p/>
+ * When the dispatchQueueSize option is set then the notifications are put in a bounded queue, and processed by the
+ * number of threads set with the concurrentConsumers option, instead of by the thread of the database driver.
  */
 public class PgEventConsumer extends DefaultConsumer implements PGNotificationListener {
 
     private static final Logger LOG = LoggerFactory.getLogger(PgEventConsumer.class);
 
     private final PgEventEndpoint endpoint;
-    private PGConnection dbConnection;
+    private final LongAdder droppedNotifications = new LongAdder();
+    private final LongAccumulator maxDispatchLag = new LongAccumulator(Math::max, 0);
+    private PgEventConnection dbConnection;
+    private String listenerName;
+    private final BlockingQueue<Notification> queue;
+    private volatile boolean dispatching;
+    private ExecutorService executorService;
+    private volatile long dispatchLag;
 
     public PgEventConsumer(PgEventEndpoint endpoint, Processor processor) {
         super(endpoint, processor);
         this.endpoint = endpoint;
+        this.queue = endpoint.getDispatchQueueSize() > 0 ? new ArrayBlockingQueue<>(endpoint.getDispatchQueueSize()) : null;
+    }
+
+    /**
+     * Number of notifications waiting in the dispatch queue
+     */
+    public int getQueueDepth() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Number of notifications which have been dropped or rejected because the dispatch queue was full
+     */
+    public long getDroppedNotifications() {
+        return droppedNotifications.sum();
+    }
+
+    /**
+     * Time in millis the last dispatched notification has been waiting in the dispatch queue
+     */
+    public long getDispatchLag() {
+        return dispatchLag;
+    }
+
+    /**
+     * Maximum time in millis a notification has been waiting in the dispatch queue
+     */
+    public long getMaxDispatchLag() {
+        return maxDispatchLag.get();
     }
 
     @Override
     protected void doStart() throws Exception {
         super.doStart();
-        dbConnection = endpoint.initJdbc();
-        String sql = String.format("LISTEN %s", endpoint.getChannel());
-        try (PreparedStatement statement = dbConnection.prepareStatement(sql)) {
-            statement.execute();
+
+        if (queue != null) {
+            dispatching = true;
+            int threads = Math.max(1, endpoint.getConcurrentConsumers());
+            executorService = endpoint.getZwangineContext().getExecutorServiceManager().newFixedThreadPool(this,
+                    "PgEventConsumer[" + endpoint.getChannel() + "]", threads);
+            for (int i = 0; i < threads; i++) {
+                executorService.submit(this::dispatchNotifications);
+            }
         }
-        dbConnection.addNotificationListener(endpoint.getChannel(), endpoint.getChannel(), this);
+
+        if (endpoint.isShareConnection()) {
+            dbConnection = ((PgEventComponent) endpoint.getComponent()).acquireConnection(endpoint);
+            // the listener name must be unique on the shared connection
+            listenerName = endpoint.getChannel() + "@" + Integer.toHexString(System.identityHashCode(this));
+        } else {
+            dbConnection = new PgEventConnection(null, endpoint.initJdbc());
+            dbConnection.retain();
+            listenerName = endpoint.getChannel();
+        }
+        dbConnection.listen(endpoint.getChannel(), listenerName, this);
     }
 
     @Override
@@ -59,6 +118,62 @@ public class PgEventConsumer extends DefaultConsumer implements PGNotificationLi
             LOG.debug("Notification processId: {}, channel: {}, payload: {}", processId, channel, payload);
         }
 
+        BlockingQueue<Notification> pending = queue;
+        if (pending == null) {
+            process(processId, channel, payload);
+            return;
+        }
+
+        Notification notification = new Notification(processId, channel, payload, System.nanoTime());
+        switch (endpoint.getDispatchPolicy()) {
+            case Block:
+                try {
+                    pending.put(notification);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    droppedNotifications.increment();
+                    getExceptionHandler().handleException(
+                            "Interrupted while waiting to queue notification from PostgreSQL: " + notification, e);
+                }
+                break;
+            case DropOldest:
+                while (!pending.offer(notification)) {
+                    Notification oldest = pending.poll();
+                    if (oldest != null) {
+                        droppedNotifications.increment();
+                        LOG.debug("Dispatch queue is full, dropping oldest notification: {}", oldest);
+                    }
+                }
+                break;
+            default:
+                if (!pending.offer(notification)) {
+                    droppedNotifications.increment();
+                    getExceptionHandler().handleException(
+                            "Unable to queue notification from PostgreSQL: " + notification,
+                            new RejectedExecutionException(
+                                    "Dispatch queue is full with " + endpoint.getDispatchQueueSize() + " notifications"));
+                }
+                break;
+        }
+    }
+
+    private void dispatchNotifications() {
+        try {
+            // process the notifications which are still in the queue when stopping
+            while (dispatching || !queue.isEmpty()) {
+                Notification notification = queue.poll(1, TimeUnit.SECONDS);
+                if (notification != null) {
+                    dispatchLag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - notification.received);
+                    maxDispatchLag.accumulate(dispatchLag);
+                    process(notification.processId, notification.channel, notification.payload);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(int processId, String channel, String payload) {
         Exchange exchange = createExchange(false);
         Message msg = exchange.getIn();
         msg.setHeader(PgEventConstants.HEADER_CHANNEL, channel);
@@ -80,12 +195,33 @@ public class PgEventConsumer extends DefaultConsumer implements PGNotificationLi
     @Override
     protected void doStop() throws Exception {
         if (dbConnection != null) {
-            dbConnection.removeNotificationListener(endpoint.getChannel());
-            String sql = String.format("UNLISTEN %s", endpoint.getChannel());
-            try (PreparedStatement statement = dbConnection.prepareStatement(sql)) {
-                statement.execute();
+            try {
+                dbConnection.unlisten(endpoint.getChannel(), listenerName);
+            } finally {
+                if (endpoint.isShareConnection()) {
+                    ((PgEventComponent) endpoint.getComponent()).releaseConnection(dbConnection);
+                } else {
+                    dbConnection.release();
+                }
+                dbConnection = null;
             }
-            dbConnection.close();
         }
+        dispatching = false;
+        if (executorService != null) {
+            endpoint.getZwangineContext().getExecutorServiceManager().shutdownGraceful(executorService);
+            executorService = null;
+        }
+        if (queue != null && !queue.isEmpty()) {
+            // the dispatch threads did not finish in time, so the remaining notifications are dropped
+            int size = queue.size();
+            queue.clear();
+            droppedNotifications.add(size);
+            LOG.warn("Dropped {} notifications from the dispatch queue of channel: {} while stopping", size,
+                    endpoint.getChannel());
+        }
+        super.doStop();
+    }
+
+    private record Notification(int processId, String channel, String payload, long received) {
     }
 }
@@ -29,6 +29,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 
@@ -60,6 +63,18 @@ public class PgEventEndpoint extends DefaultEndpoint implements EndpointServiceL
     private String pass;
     @UriParam(label = "advanced")
     private DataSource datasource;
+    @UriParam(label = "consumer", defaultValue = "1")
+    private int concurrentConsumers = 1;
+    @UriParam(label = "consumer,advanced")
+    private int dispatchQueueSize;
+    @UriParam(label = "consumer,advanced", defaultValue = "Block")
+    private PgEventDispatchPolicy dispatchPolicy = PgEventDispatchPolicy.Block;
+    @UriParam(label = "consumer,advanced")
+    private boolean shareConnection;
+    @UriParam(label = "producer")
+    private int batchSize;
+    @UriParam(label = "producer")
+    private long batchInterval;
 
     private final String uri;
 
@@ -112,6 +127,17 @@ public class PgEventEndpoint extends DefaultEndpoint implements EndpointServiceL
         return conn;
     }
 
+    /**
+     * Gets the key of the database connection, which is used for sharing the connection between consumers. The key
+     * includes the credentials, so consumers only share a connection which is logged in the same way.
+     */
+    List<Object> getConnectionKey() {
+        if (getDatasource() != null) {
+            return Collections.singletonList(getDatasource());
+        }
+        return Arrays.asList(getUser(), getPass(), getHost(), getPort(), getDatabase());
+    }
+
     /**
      * Parse the provided URI and extract available parameters
      *
@@ -253,4 +279,83 @@ public class PgEventEndpoint extends DefaultEndpoint implements EndpointServiceL
     public void setDatasource(DataSource datasource) {
         this.datasource = datasource;
     }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * The maximum number of notifications the producer sends in a single statement. When set to a value larger than 1
+     * then the messages are queued, and sent in batches by a background thread, and the exchanges are completed
+     * asynchronously when their batch has been sent. As PostgreSQL only delivers one notification when the same payload
+     * is sent more than once in a transaction, a batch is split into several statements where a payload repeats.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getBatchInterval() {
+        return batchInterval;
+    }
+
+    /**
+     * The maximum time in millis to wait for more messages before sending a batch which is not full, when using
+     * batchSize. By default a batch is sent right away with the messages that have arrived while sending the previous
+     * batch.
+     */
+    public void setBatchInterval(long batchInterval) {
+        this.batchInterval = batchInterval;
+    }
+
+    public int getConcurrentConsumers() {
+        return concurrentConsumers;
+    }
+
+    /**
+     * The number of threads processing the notifications, when using a dispatch queue (see dispatchQueueSize). The
+     * threads are virtual threads when virtual threads have been enabled.
+     */
+    public void setConcurrentConsumers(int concurrentConsumers) {
+        this.concurrentConsumers = concurrentConsumers;
+    }
+
+    public int getDispatchQueueSize() {
+        return dispatchQueueSize;
+    }
+
+    /**
+     * The capacity of the queue of notifications waiting to be processed. When set then the notifications are put in
+     * the queue, and processed by the number of threads set with concurrentConsumers. Otherwise the notifications are
+     * processed by the thread of the database driver which receives the notifications, which means a slow workflow
+     * delays the notifications of all the channels listened on with the same connection.
+     */
+    public void setDispatchQueueSize(int dispatchQueueSize) {
+        this.dispatchQueueSize = dispatchQueueSize;
+    }
+
+    public PgEventDispatchPolicy getDispatchPolicy() {
+        return dispatchPolicy;
+    }
+
+    /**
+     * What to do when a notification is received and the dispatch queue is full. Block waits for room in the queue,
+     * which also delays receiving the notifications of the other channels listened on with the same connection.
+     * DropOldest discards the oldest notification in the queue. Fail rejects the notification, which is reported to the
+     * exception handler of the consumer.
+     */
+    public void setDispatchPolicy(PgEventDispatchPolicy dispatchPolicy) {
+        this.dispatchPolicy = dispatchPolicy;
+    }
+
+    public boolean isShareConnection() {
+        return shareConnection;
+    }
+
+    /**
+     * Whether the consumer listens using a connection which is shared with the consumers of the other endpoints which
+     * connect to the same database (and also have this option enabled), instead of opening a connection per consumer.
+     */
+    public void setShareConnection(boolean shareConnection) {
+        this.shareConnection = shareConnection;
+    }
 }
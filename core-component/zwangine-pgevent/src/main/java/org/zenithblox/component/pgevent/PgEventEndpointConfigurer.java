@@ -18,9 +18,19 @@ public class PgEventEndpointConfigurer extends PropertyConfigurerSupport impleme
     public boolean configure(ZwangineContext zwangineContext, Object obj, String name, Object value, boolean ignoreCase) {
         PgEventEndpoint target = (PgEventEndpoint) obj;
         switch (ignoreCase ? name.toLowerCase() : name) {
+        case "batchinterval":
+        case "batchInterval": target.setBatchInterval(property(zwangineContext, long.class, value)); return true;
+        case "batchsize":
+        case "batchSize": target.setBatchSize(property(zwangineContext, int.class, value)); return true;
         case "bridgeerrorhandler":
         case "bridgeErrorHandler": target.setBridgeErrorHandler(property(zwangineContext, boolean.class, value)); return true;
+        case "concurrentconsumers":
+        case "concurrentConsumers": target.setConcurrentConsumers(property(zwangineContext, int.class, value)); return true;
         case "datasource": target.setDatasource(property(zwangineContext, javax.sql.DataSource.class, value)); return true;
+        case "dispatchpolicy":
+        case "dispatchPolicy": target.setDispatchPolicy(property(zwangineContext, org.zenithblox.component.pgevent.PgEventDispatchPolicy.class, value)); return true;
+        case "dispatchqueuesize":
+        case "dispatchQueueSize": target.setDispatchQueueSize(property(zwangineContext, int.class, value)); return true;
         case "exceptionhandler":
         case "exceptionHandler": target.setExceptionHandler(property(zwangineContext, org.zenithblox.spi.ExceptionHandler.class, value)); return true;
         case "exchangepattern":
@@ -28,6 +38,8 @@ public class PgEventEndpointConfigurer extends PropertyConfigurerSupport impleme
         case "lazystartproducer":
         case "lazyStartProducer": target.setLazyStartProducer(property(zwangineContext, boolean.class, value)); return true;
         case "pass": target.setPass(property(zwangineContext, String.class, value)); return true;
+        case "shareconnection":
+        case "shareConnection": target.setShareConnection(property(zwangineContext, boolean.class, value)); return true;
         case "user": target.setUser(property(zwangineContext, String.class, value)); return true;
         default: return false;
         }
@@ -36,9 +48,19 @@ public class PgEventEndpointConfigurer extends PropertyConfigurerSupport impleme
     @Override
     public Class<?> getOptionType(String name, boolean ignoreCase) {
         switch (ignoreCase ? name.toLowerCase() : name) {
+        case "batchinterval":
+        case "batchInterval": return long.class;
+        case "batchsize":
+        case "batchSize": return int.class;
         case "bridgeerrorhandler":
         case "bridgeErrorHandler": return boolean.class;
+        case "concurrentconsumers":
+        case "concurrentConsumers": return int.class;
         case "datasource": return javax.sql.DataSource.class;
+        case "dispatchpolicy":
+        case "dispatchPolicy": return org.zenithblox.component.pgevent.PgEventDispatchPolicy.class;
+        case "dispatchqueuesize":
+        case "dispatchQueueSize": return int.class;
         case "exceptionhandler":
         case "exceptionHandler": return org.zenithblox.spi.ExceptionHandler.class;
         case "exchangepattern":
@@ -46,6 +68,8 @@ public class PgEventEndpointConfigurer extends PropertyConfigurerSupport impleme
         case "lazystartproducer":
         case "lazyStartProducer": return boolean.class;
         case "pass": return String.class;
+        case "shareconnection":
+        case "shareConnection": return boolean.class;
         case "user": return String.class;
         default: return null;
         }
@@ -55,9 +79,19 @@ public class PgEventEndpointConfigurer extends PropertyConfigurerSupport impleme
     public Object getOptionValue(Object obj, String name, boolean ignoreCase) {
         PgEventEndpoint target = (PgEventEndpoint) obj;
         switch (ignoreCase ? name.toLowerCase() : name) {
+        case "batchinterval":
+        case "batchInterval": return target.getBatchInterval();
+        case "batchsize":
+        case "batchSize": return target.getBatchSize();
         case "bridgeerrorhandler":
         case "bridgeErrorHandler": return target.isBridgeErrorHandler();
+        case "concurrentconsumers":
+        case "concurrentConsumers": return target.getConcurrentConsumers();
         case "datasource": return target.getDatasource();
+        case "dispatchpolicy":
+        case "dispatchPolicy": return target.getDispatchPolicy();
+        case "dispatchqueuesize":
+        case "dispatchQueueSize": return target.getDispatchQueueSize();
         case "exceptionhandler":
         case "exceptionHandler": return target.getExceptionHandler();
         case "exchangepattern":
@@ -65,6 +99,8 @@ public class PgEventEndpointConfigurer extends PropertyConfigurerSupport impleme
         case "lazystartproducer":
         case "lazyStartProducer": return target.isLazyStartProducer();
         case "pass": return target.getPass();
+        case "shareconnection":
+        case "shareConnection": return target.isShareConnection();
         case "user": return target.getUser();
         default: return null;
         }
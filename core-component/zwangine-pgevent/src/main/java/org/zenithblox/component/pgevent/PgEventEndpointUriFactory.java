@@ -16,17 +16,23 @@ public class PgEventEndpointUriFactory extends org.zenithblox.support.component.
     private static final Set<String> SECRET_PROPERTY_NAMES;
     private static final Set<String> MULTI_VALUE_PREFIXES;
     static {
-        Set<String> props = new HashSet<>(11);
+        Set<String> props = new HashSet<>(17);
+        props.add("batchInterval");
+        props.add("batchSize");
         props.add("bridgeErrorHandler");
         props.add("channel");
+        props.add("concurrentConsumers");
         props.add("database");
         props.add("datasource");
+        props.add("dispatchPolicy");
+        props.add("dispatchQueueSize");
         props.add("exceptionHandler");
         props.add("exchangePattern");
         props.add("host");
         props.add("lazyStartProducer");
         props.add("pass");
         props.add("port");
+        props.add("shareConnection");
         props.add("user");
         PROPERTY_NAMES = Collections.unmodifiableSet(props);
         Set<String> secretProps = new HashSet<>(2);
@@ -17,18 +17,56 @@
 package org.zenithblox.component.pgevent;
 
 import com.impossibl.postgres.api.jdbc.PGConnection;
+import org.zenithblox.AsyncCallback;
 import org.zenithblox.Exchange;
-import org.zenithblox.support.DefaultProducer;
+import org.zenithblox.support.DefaultAsyncProducer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.sql.Array;
 import java.sql.CallableStatement;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The PgEvent producer.
+ * <p/>
+ * When the batchSize option is set then the messages are queued, and sent by a background thread in batches using a
+ * single <tt>pg_notify</tt> statement per batch. The exchanges are then completed asynchronously when their batch has
+ * been sent.
+ * <p/>
+ * PostgreSQL delivers only one notification when the same payload is sent to a channel more than once in a
+ * transaction. A batch is therefore split wherever a payload repeats, and each part is sent in its own transaction, so
+ * every message is still delivered as a notification.
  */
-public class PgEventProducer extends DefaultProducer {
+public class PgEventProducer extends DefaultAsyncProducer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PgEventProducer.class);
+
+    private static final String NOTIFY_SQL = "{call pg_notify(?, ?)}";
+    private static final String NOTIFY_BATCH_SQL = "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload";
+
     private final PgEventEndpoint endpoint;
+    // guards the connection and the statements, which are shared by the threads sending notifications
+    private final Lock lock = new ReentrantLock();
     private PGConnection dbConnection;
+    private boolean payloadSupported;
+    private CallableStatement notifyStatement;
+    private PreparedStatement batchStatement;
+    private final BlockingQueue<Notification> queue = new LinkedBlockingQueue<>();
+    private volatile boolean batching;
+    private ExecutorService executorService;
 
     public PgEventProducer(PgEventEndpoint endpoint) {
         super(endpoint);
@@ -36,42 +74,277 @@ public class PgEventProducer extends DefaultProducer {
     }
 
     @Override
-    public void process(Exchange exchange) throws Exception {
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        String payload;
+        try {
+            payload = exchange.getIn().getBody(String.class);
+        } catch (Exception e) {
+            exchange.setException(e);
+            callback.done(true);
+            return true;
+        }
+
+        if (endpoint.getBatchSize() <= 1) {
+            lock.lock();
+            try {
+                notify(payload);
+            } catch (Exception e) {
+                exchange.setException(e);
+            } finally {
+                lock.unlock();
+            }
+            callback.done(true);
+            return true;
+        }
+
+        if (!batching) {
+            exchange.setException(new RejectedExecutionException("Producer is not running: " + this));
+            callback.done(true);
+            return true;
+        }
+        Notification notification = new Notification(exchange, payload, callback);
+        queue.add(notification);
+        if (!batching && queue.remove(notification)) {
+            // stopped while adding so the notification will not be sent
+            exchange.setException(new RejectedExecutionException("Producer is stopped: " + this));
+            callback.done(true);
+            return true;
+        }
+        return false;
+    }
+
+    private void notify(String payload) throws Exception {
+        PGConnection connection = connection();
+        try {
+            if (payloadSupported) {
+                if (notifyStatement == null) {
+                    notifyStatement = connection.prepareCall(NOTIFY_SQL);
+                }
+                notifyStatement.setString(1, endpoint.getChannel());
+                notifyStatement.setString(2, payload);
+                notifyStatement.execute();
+            } else {
+                String sql = String.format("NOTIFY %s, '%s'", endpoint.getChannel(), payload);
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    statement.execute();
+                }
+            }
+        } catch (SQLException e) {
+            rollback(connection);
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the batch of notifications, and sets the exception on the exchanges of the notifications which could not be
+     * sent.
+     */
+    private void notify(List<Notification> batch) {
+        PGConnection connection;
+        try {
+            connection = connection();
+        } catch (Exception e) {
+            fail(batch, e);
+            return;
+        }
+        if (!payloadSupported) {
+            for (Notification notification : batch) {
+                try {
+                    notify(notification.payload);
+                } catch (Exception e) {
+                    notification.exchange.setException(e);
+                }
+            }
+            return;
+        }
+        // identical payloads in a transaction are delivered only once, so a repeated payload starts a new transaction
+        Set<String> payloads = new HashSet<>();
+        int from = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (!payloads.add(batch.get(i).payload)) {
+                notify(connection, batch.subList(from, i));
+                payloads.clear();
+                payloads.add(batch.get(i).payload);
+                from = i;
+            }
+        }
+        notify(connection, batch.subList(from, batch.size()));
+    }
+
+    /**
+     * Sends the notifications in a single transaction. The earlier transactions of a batch are already committed, so
+     * only the exchanges of these notifications are failed when the transaction fails.
+     */
+    private void notify(PGConnection connection, List<Notification> batch) {
+        try {
+            if (batchStatement == null) {
+                batchStatement = connection.prepareStatement(NOTIFY_BATCH_SQL);
+            }
+            String[] payloads = new String[batch.size()];
+            for (int i = 0; i < payloads.length; i++) {
+                payloads[i] = batch.get(i).payload;
+            }
+            Array array = connection.createArrayOf("text", payloads);
+            try {
+                batchStatement.setString(1, endpoint.getChannel());
+                batchStatement.setArray(2, array);
+                batchStatement.execute();
+            } finally {
+                array.free();
+            }
+            // the notifications are only delivered when the transaction commits
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (Exception e) {
+            rollback(connection);
+            fail(batch, e);
+        }
+    }
+
+    /**
+     * Rolls back the failed transaction, as otherwise every following notification fails until the connection is
+     * opened again.
+     */
+    private void rollback(PGConnection connection) {
+        try {
+            if (!connection.isClosed() && !connection.getAutoCommit()) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            LOG.debug("Error rolling back transaction. This exception is ignored.", e);
+        }
+    }
+
+    private static void fail(List<Notification> batch, Exception cause) {
+        for (Notification notification : batch) {
+            notification.exchange.setException(cause);
+        }
+    }
+
+    private PGConnection connection() {
         try {
-            if (dbConnection.isClosed()) {
+            if (dbConnection == null || dbConnection.isClosed()) {
+                closeStatements();
                 dbConnection = endpoint.initJdbc();
+                payloadSupported = dbConnection.isServerMinimumVersion(9, 0);
             }
         } catch (Exception e) {
             throw new InvalidStateException("Database connection closed and could not be re-opened.", e);
         }
+        return dbConnection;
+    }
+
+    private void closeStatements() {
+        for (PreparedStatement statement : new PreparedStatement[] { notifyStatement, batchStatement }) {
+            if (statement != null) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    LOG.debug("Error closing statement. This exception is ignored.", e);
+                }
+            }
+        }
+        notifyStatement = null;
+        batchStatement = null;
+    }
 
-        String payload = exchange.getIn().getBody(String.class);
-        if (dbConnection.isServerMinimumVersion(9, 0)) {
-            try (CallableStatement statement = dbConnection.prepareCall("{call pg_notify(?, ?)}")) {
-                statement.setString(1, endpoint.getChannel());
-                statement.setString(2, payload);
-                statement.execute();
+    private void sendBatches() {
+        int batchSize = endpoint.getBatchSize();
+        long batchInterval = endpoint.getBatchInterval();
+        List<Notification> batch = new ArrayList<>(batchSize);
+        try {
+            while (batching || !queue.isEmpty()) {
+                Notification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // take the messages which have already arrived, and then wait for more until the interval has elapsed
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchInterval);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0) {
+                        break;
+                    }
+                    Notification next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                send(batch);
+                batch.clear();
             }
-        } else {
-            String sql = String.format("NOTIFY %s, '%s'", endpoint.getChannel(), payload);
-            try (PreparedStatement statement = dbConnection.prepareStatement(sql)) {
-                statement.execute();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.drainTo(batch);
+            for (Notification notification : batch) {
+                notification.exchange.setException(e);
+                notification.callback.done(false);
             }
         }
     }
 
+    private void send(List<Notification> batch) {
+        lock.lock();
+        try {
+            notify(batch);
+        } finally {
+            lock.unlock();
+        }
+        LOG.trace("Sent batch of {} notifications to channel: {}", batch.size(), endpoint.getChannel());
+        for (Notification notification : batch) {
+            notification.callback.done(false);
+        }
+    }
+
     @Override
     protected void doStart() throws Exception {
         super.doStart();
-        dbConnection = endpoint.initJdbc();
+        lock.lock();
+        try {
+            connection();
+        } finally {
+            lock.unlock();
+        }
+        if (endpoint.getBatchSize() > 1) {
+            batching = true;
+            executorService = endpoint.getZwangineContext().getExecutorServiceManager().newSingleThreadExecutor(this,
+                    "PgEventProducer[" + endpoint.getChannel() + "]");
+            executorService.submit(this::sendBatches);
+        }
     }
 
     @Override
     protected void doStop() throws Exception {
         super.doStop();
-        if (dbConnection != null) {
-            dbConnection.close();
+        batching = false;
+        if (executorService != null) {
+            // the queued notifications are sent before the background thread terminates
+            endpoint.getZwangineContext().getExecutorServiceManager().shutdownGraceful(executorService);
+            executorService = null;
+        }
+        // fail any messages which were not sent before the background thread terminated
+        List<Notification> rejected = new ArrayList<>();
+        queue.drainTo(rejected);
+        for (Notification notification : rejected) {
+            notification.exchange.setException(new RejectedExecutionException("Producer is stopped: " + this));
+            notification.callback.done(false);
+        }
+        lock.lock();
+        try {
+            closeStatements();
+            if (dbConnection != null) {
+                dbConnection.close();
+                dbConnection = null;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
+    private record Notification(Exchange exchange, String payload, AsyncCallback callback) {
+    }
 }
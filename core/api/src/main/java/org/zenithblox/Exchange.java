@@ -231,6 +231,7 @@ public interface Exchange extends VariableAware {
     String MAXIMUM_SIMPLE_CACHE_SIZE = "ZwangineMaximumSimpleCacheSize";
     String MAXIMUM_TRANSFORMER_CACHE_SIZE = "ZwangineMaximumTransformerCacheSize";
     String MAXIMUM_VALIDATOR_CACHE_SIZE = "ZwangineMaximumValidatorCacheSize";
+    String SIMPLE_COMPILE_PREDICATES = "ZwangineSimpleCompilePredicates";
     String MESSAGE_HISTORY = "ZwangineMessageHistory";
     String MESSAGE_HISTORY_HEADER_FORMAT = "ZwangineMessageHistoryHeaderFormat";
     String MESSAGE_HISTORY_OUTPUT_FORMAT = "ZwangineMessageHistoryOutputFormat";
@@ -306,6 +307,7 @@ public interface Exchange extends VariableAware {
     String TIMER_NAME = "ZwangineTimerName";
     String TIMER_PERIOD = "ZwangineTimerPeriod";
     String TIMER_TIME = "ZwangineTimerTime";
+    String TOKENIZE_MEMORY_MAPPED_THRESHOLD = "ZwangineTokenizeMemoryMappedThreshold";
 
     @Metadata(label = "enrich,multicast,pollEnrich,recipientList,routingSlip,toD,to,wireTap",
               description = "Endpoint URI where this Exchange is being sent to", javaType = "String")
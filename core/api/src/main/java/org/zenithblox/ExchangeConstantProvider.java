@@ -12,7 +12,7 @@ public class ExchangeConstantProvider {
 
     private static final Map<String, String> MAP;
     static {
-        Map<String, String> map = new HashMap<>(161);
+        Map<String, String> map = new HashMap<>(162);
         map.put("ACCEPT_CONTENT_TYPE", "ZwangineAcceptContentType");
         map.put("AGGREGATED_COLLECTION_GUARD", "ZwangineAggregatedCollectionGuard");
         map.put("AGGREGATED_COMPLETED_BY", "ZwangineAggregatedCompletedBy");
@@ -144,6 +144,7 @@ public class ExchangeConstantProvider {
         map.put("SAGA_LONG_RUNNING_ACTION", "Long-Running-Action");
         map.put("SAXPARSER_FACTORY", "ZwangineSAXParserFactory");
         map.put("SCHEDULER_POLLED_MESSAGES", "ZwangineSchedulerPolledMessages");
+        map.put("SIMPLE_COMPILE_PREDICATES", "ZwangineSimpleCompilePredicates");
         map.put("SKIP_GZIP_ENCODING", "ZwangineSkipGzipEncoding");
         map.put("SKIP_WWW_FORM_URLENCODED", "ZwangineSkipWwwFormUrlEncoding");
         map.put("SLIP_ENDPOINT", "ZwangineSlipEndpoint");
@@ -169,6 +169,44 @@ public interface BacklogTracer {
      */
     void setTraceFilter(String filter);
 
+    /**
+     * Fraction of the exchanges to trace (between 0.0 and 1.0), which is decided once per exchange, so an exchange is
+     * either traced at all its nodes or not at all. Split and multicast copies follow the decision of their parent
+     * exchange. Default is 1.0 which traces all exchanges.
+     */
+    double getSampleRate();
+
+    /**
+     * Fraction of the exchanges to trace (between 0.0 and 1.0), which is decided once per exchange, so an exchange is
+     * either traced at all its nodes or not at all. Split and multicast copies follow the decision of their parent
+     * exchange. Default is 1.0 which traces all exchanges.
+     */
+    void setSampleRate(double sampleRate);
+
+    /**
+     * Whether to keep the traces of the exchanges which were not sampled, if the exchange failed or took longer than
+     * the tail sampling threshold. The traces of such exchanges are held aside until the exchange completes.
+     */
+    boolean isTailSampling();
+
+    /**
+     * Whether to keep the traces of the exchanges which were not sampled, if the exchange failed or took longer than
+     * the tail sampling threshold. The traces of such exchanges are held aside until the exchange completes.
+     */
+    void setTailSampling(boolean tailSampling);
+
+    /**
+     * Time in millis an exchange which was not sampled must take for its traces to be kept when using tail sampling.
+     * Default is 0 which only keeps the traces of failed exchanges.
+     */
+    long getTailSamplingThreshold();
+
+    /**
+     * Time in millis an exchange which was not sampled must take for its traces to be kept when using tail sampling.
+     * Default is 0 which only keeps the traces of failed exchanges.
+     */
+    void setTailSamplingThreshold(long tailSamplingThreshold);
+
     /**
      * Gets the trace counter (total number of traced messages)
      */
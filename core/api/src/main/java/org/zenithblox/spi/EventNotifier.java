@@ -48,6 +48,22 @@ public interface EventNotifier {
      */
     boolean isDisabled();
 
+    /**
+     * Whether the events are delivered asynchronously, in batches on a dedicated thread, instead of on the thread
+     * which emitted the event. This keeps slow notifiers (such as for auditing or persistence) from adding latency to
+     * the routing.
+     * <p/>
+     * <b>Important:</b> An asynchronous notifier receives the event after the routing has moved on, so the exchange of
+     * an exchange event may have changed (or been reused when exchanges are pooled). The notifier should only use the
+     * details it needs, and not hold on to the exchange.
+     *
+     * @return <tt>true</tt> to deliver the events asynchronously, <tt>false</tt> (default) to deliver the events
+     *         synchronously
+     */
+    default boolean isAsync() {
+        return false;
+    }
+
     boolean isIgnoreZwangineContextInitEvents();
 
     void setIgnoreZwangineContextInitEvents(boolean ignoreZwangineContextInitEvents);
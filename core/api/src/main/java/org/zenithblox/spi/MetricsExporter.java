@@ -0,0 +1,35 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.spi;
+
+/**
+ * Exports the snapshots of the metrics recorded by the {@link ZwangineMetricsService}, such as to a monitoring system.
+ * <p/>
+ * The snapshots are exported periodically from a single thread, so an exporter does not need to be thread safe.
+ */
+@FunctionalInterface
+public interface MetricsExporter {
+
+    /**
+     * Exports the snapshot.
+     *
+     * @param  snapshot  the snapshot of the metrics (the counters are cumulative since the metrics service was started)
+     * @throws Exception is thrown if error exporting, which is logged and does not prevent exporting the next snapshot
+     */
+    void export(MetricsSnapshot snapshot) throws Exception;
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.spi;
+
+import java.util.List;
+
+/**
+ * A snapshot of the metrics recorded by the {@link ZwangineMetricsService}.
+ *
+ * @param timestamp  the time the snapshot was taken (millis since epoch)
+ * @param workflows  the metrics of the workflows
+ * @param processors the metrics of the processors (empty if the metrics of the processors are not enabled)
+ */
+public record MetricsSnapshot(long timestamp, List<Metrics> workflows, List<Metrics> processors) {
+
+    /**
+     * The metrics of a workflow or a processor.
+     *
+     * @param workflowId  the workflow id
+     * @param processorId the processor id, or <tt>null</tt> for the metrics of the workflow
+     * @param total       the number of exchanges completed
+     * @param failed      the number of exchanges completed which failed
+     * @param inflight    the number of exchanges currently being processed
+     * @param latency     the latency of the completed exchanges
+     */
+    public record Metrics(String workflowId, String processorId, long total, long failed, long inflight, Latency latency) {
+    }
+
+    /**
+     * The latency distribution of the completed exchanges, where the percentiles are accurate within a few percent (as
+     * they are recorded in logarithmic buckets). The latency may be recorded for a sample of the exchanges only.
+     *
+     * @param count      the number of latencies recorded
+     * @param totalNanos the sum of the latencies
+     * @param maxNanos   the highest latency
+     * @param p50Nanos   the median latency
+     * @param p90Nanos   the 90th percentile latency
+     * @param p99Nanos   the 99th percentile latency
+     * @param p999Nanos  the 99.9th percentile latency
+     */
+    public record Latency(
+            long count, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos) {
+
+        /**
+         * The mean latency, or 0 if no latencies have been recorded.
+         */
+        public long meanNanos() {
+            return count > 0 ? totalNanos / count : 0;
+        }
+    }
+}
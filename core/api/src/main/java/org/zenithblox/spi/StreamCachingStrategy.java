@@ -64,6 +64,44 @@ public interface StreamCachingStrategy extends StaticService {
          */
         long getCacheSpoolAverageSize();
 
+        /**
+         * Gets the counter for number of in-memory {@link StreamCache} created in pooled direct buffers (included in the
+         * in-memory counter) when using {@link CacheMode#OffHeap}.
+         */
+        long getCacheOffHeapCounter();
+
+        /**
+         * Gets the total accumulated number of bytes which has been stream cached in pooled direct buffers.
+         */
+        long getCacheOffHeapSize();
+
+        /**
+         * Gets the counter for number of {@link StreamCache} spooled to memory-mapped files (included in the spool
+         * counter) when using {@link CacheMode#OffHeap}.
+         */
+        long getCacheMappedCounter();
+
+        /**
+         * Gets the total accumulated number of bytes which has been spooled to memory-mapped files.
+         */
+        long getCacheMappedSize();
+
+        /**
+         * Gets the number of bytes of direct memory currently allocated by the off-heap buffer pool.
+         */
+        long getOffHeapPoolAllocated();
+
+        /**
+         * Gets the number of bytes of the off-heap buffer pool currently in use by stream caches.
+         */
+        long getOffHeapPoolUsed();
+
+        /**
+         * Gets the counter for number of times the off-heap buffer pool was exhausted, and a stream cache was kept on
+         * the heap instead.
+         */
+        long getOffHeapPoolExhaustedCounter();
+
         /**
          * Reset the counters
          */
@@ -90,6 +128,21 @@ public interface StreamCachingStrategy extends StaticService {
         Max
     }
 
+    /**
+     * Used for selecting where the content of stream caches is kept.
+     */
+    enum CacheMode {
+        /**
+         * In-memory caches are kept in byte arrays on the heap, and spooled to (optionally encrypted) temporary files.
+         */
+        Heap,
+        /**
+         * Small in-memory caches are kept on the heap, mid-size caches in pooled direct buffers, and spooled caches in
+         * memory-mapped temporary files which can be read by multiple readers without copying.
+         */
+        OffHeap
+    }
+
     /**
      * Rule for determine if stream caching should be spooled to disk or kept in-memory.
      */
@@ -206,6 +259,32 @@ public interface StreamCachingStrategy extends StaticService {
 
     SpoolUsedHeapMemoryLimit getSpoolUsedHeapMemoryLimit();
 
+    /**
+     * Sets where the content of stream caches is kept.
+     * <p/>
+     * When using {@link CacheMode#OffHeap} then caches larger than the {@link #setBufferSize(int) buffer size} are kept
+     * in direct buffers borrowed from a pool bounded by {@link #setOffHeapPoolSize(long)}, and when spooling to disk is
+     * activated the content is spooled to memory-mapped files. Spooling with a {@link #setSpoolCipher(String) cipher}
+     * uses regular file streams, as encrypted content cannot be read from the mapped file.
+     * <p/>
+     * <b>Notice:</b> This cannot be changed at runtime.
+     *
+     * Default is {@link CacheMode#Heap}.
+     */
+    void setCacheMode(CacheMode cacheMode);
+
+    CacheMode getCacheMode();
+
+    /**
+     * Sets the maximum number of bytes of direct memory the off-heap buffer pool may allocate when using
+     * {@link CacheMode#OffHeap}. When the pool is exhausted then stream caches are kept on the heap.
+     * <p/>
+     * The default size is 64mb.
+     */
+    void setOffHeapPoolSize(long offHeapPoolSize);
+
+    long getOffHeapPoolSize();
+
     /**
      * Sets the buffer size to use when allocating in-memory buffers used for in-memory stream caches.
      * <p/>
@@ -20,8 +20,45 @@ import org.zenithblox.ZwangineContextAware;
 import org.zenithblox.Service;
 
 /**
- * A Zwangine metrics service is a factory for micrometer metrics.
+ * A Zwangine metrics service records the metrics (counters and latency histograms) of the workflows and their
+ * processors, and periodically exports snapshots of the metrics to the {@link MetricsExporter}s, such as micrometer.
+ * <p/>
+ * The metrics are enabled by adding the service as a context plugin with
+ * {@link org.zenithblox.ExtendedZwangineContext#addContextPlugin} (or binding it in the registry), before the workflows
+ * are created. Either way the service is added to the context, so it is started and stopped with the context.
  */
 public interface ZwangineMetricsService extends Service, ZwangineContextAware {
 
+    /**
+     * Creates the advice which records the metrics of the exchanges routed by the workflow.
+     *
+     * @param  workflowId the workflow id
+     * @return            the advice
+     */
+    ZwangineInternalProcessorAdvice<?> createWorkflowAdvice(String workflowId);
+
+    /**
+     * Creates the advice which records the metrics of the exchanges processed by a processor in the workflow.
+     *
+     * @param  workflowId  the workflow id
+     * @param  processorId the processor (node) id
+     * @return             the advice, or <tt>null</tt> if the metrics of the processors are not enabled
+     */
+    ZwangineInternalProcessorAdvice<?> createProcessorAdvice(String workflowId, String processorId);
+
+    /**
+     * Takes a snapshot of the metrics recorded so far.
+     */
+    MetricsSnapshot snapshot();
+
+    /**
+     * Adds the exporter the snapshots are exported to.
+     */
+    void addExporter(MetricsExporter exporter);
+
+    /**
+     * Removes the exporter.
+     */
+    void removeExporter(MetricsExporter exporter);
+
 }
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.processor.aggregate.AggregateProcessor;
+import org.zenithblox.processor.aggregate.UseLatestAggregationStrategy;
+import org.zenithblox.support.AsyncProcessorConverterHelper;
+import org.zenithblox.support.builder.ExpressionBuilder;
+import org.zenithblox.util.concurrent.SynchronousExecutorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks an {@link AggregateProcessor} called by concurrent threads with many distinct correlation keys, using a
+ * single lock compared to striping the correlation groups over a number of locks.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregateProcessorBenchmark extends ZwangineContextState {
+
+    private static final int KEYS = 100_000;
+
+    @Param({ "1", "64" })
+    public int lockStripes;
+
+    private AggregateProcessor aggregator;
+
+    @Override
+    protected void setupProcessors() {
+        aggregator = new AggregateProcessor(
+                context, AsyncProcessorConverterHelper.convert(exchange -> {
+                    // noop
+                }),
+                ExpressionBuilder.headerExpression("key"), new UseLatestAggregationStrategy(),
+                new SynchronousExecutorService(), true);
+        aggregator.setCompletionSize(10);
+        aggregator.setLockStripes(lockStripes);
+        startService(aggregator);
+    }
+
+    @Override
+    protected void tearDownProcessors() {
+        aggregator.stop();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Exchange aggregate() throws Exception {
+        Exchange exchange = createExchange("Hello");
+        exchange.getMessage().setHeader("key", ThreadLocalRandom.current().nextInt(KEYS));
+        aggregator.process(exchange);
+        return exchange;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.impl.debugger.BacklogTracer;
+import org.zenithblox.impl.engine.ZwangineInternalProcessor;
+import org.zenithblox.model.ProcessDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per node cost of the {@link BacklogTracer} when tracing all exchanges, and when sampling a fraction of
+ * the exchanges.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BacklogTracerBenchmark extends ZwangineContextState {
+
+    @Param({ "false", "true" })
+    public boolean enabled;
+
+    @Param({ "1.0", "0.01" })
+    public double sampleRate;
+
+    private ZwangineInternalProcessor internal;
+
+    @Override
+    protected void setupProcessors() {
+        BacklogTracer tracer = BacklogTracer.createTracer(context);
+        tracer.setEnabled(enabled);
+        tracer.setSampleRate(sampleRate);
+        ProcessDefinition definition = new ProcessDefinition();
+        definition.setId("benchmark");
+
+        internal = new ZwangineInternalProcessor(context,
+                exchange -> exchange.getMessage().setHeader("traced", Boolean.TRUE));
+        internal.addAdvice(new ZwangineInternalProcessor.BacklogTracerAdvice(context, tracer, definition, null, false));
+        startService(internal);
+    }
+
+    @Override
+    protected void tearDownProcessors() {
+        internal.stop();
+    }
+
+    @Benchmark
+    public Exchange traced() throws Exception {
+        Exchange exchange = createExchange("Hello World");
+        exchange.getMessage().setHeader("priority", 5);
+        internal.process(exchange);
+        return exchange;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks uber jar.
+ * <p/>
+ * Accepts the regular JMH command line options, and always attaches the {@link GCProfiler} so every suite reports the
+ * allocation rate normalized per operation (<tt>gc.alloc.rate.norm</tt>), which for these benchmarks is the number of
+ * bytes allocated per exchange.
+ *
+ * <pre>
+ *     java -jar core/benchmarks/target/benchmarks.jar Pipeline -rf json -rff pipeline.json
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmd);
+        boolean gc = cmd.getProfilers().stream().anyMatch(p -> GCProfiler.class.getName().equals(p.getKlass())
+                || "gc".equals(p.getKlass()));
+        if (!gc) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.processor.ChoiceProcessor;
+import org.zenithblox.processor.FilterProcessor;
+import org.zenithblox.support.builder.ExpressionBuilder;
+import org.zenithblox.support.builder.PredicateBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a {@link ChoiceProcessor} where the exchange matches the first, the last or none of the when clauses.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChoiceProcessorBenchmark extends ZwangineContextState {
+
+    @Param({ "2", "10" })
+    public int whens;
+
+    private ChoiceProcessor choice;
+    private String lastType;
+
+    @Override
+    protected void setupProcessors() {
+        List<FilterProcessor> filters = new ArrayList<>(whens);
+        for (int i = 0; i < whens; i++) {
+            final String value = "when" + i;
+            filters.add(new FilterProcessor(
+                    context,
+                    PredicateBuilder.isEqualTo(ExpressionBuilder.headerExpression("type"),
+                            ExpressionBuilder.constantExpression(value)),
+                    exchange -> exchange.getMessage().setHeader("matched", value)));
+        }
+        lastType = "when" + (whens - 1);
+        choice = startService(new ChoiceProcessor(filters,
+                exchange -> exchange.getMessage().setHeader("matched", "otherwise")));
+    }
+
+    @Benchmark
+    public Exchange first() throws Exception {
+        return choice("when0");
+    }
+
+    @Benchmark
+    public Exchange last() throws Exception {
+        return choice(lastType);
+    }
+
+    @Benchmark
+    public Exchange otherwise() throws Exception {
+        return choice("unknown");
+    }
+
+    private Exchange choice(String type) throws Exception {
+        Exchange exchange = createExchange("Hello World");
+        exchange.getMessage().setHeader("type", type);
+        choice.process(exchange);
+        return exchange;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.impl.engine.AsyncEventBus;
+import org.zenithblox.impl.engine.DefaultManagementStrategy;
+import org.zenithblox.spi.ZwangineEvent;
+import org.zenithblox.support.EventHelper;
+import org.zenithblox.support.EventNotifierSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the cost on the routing thread of notifying the exchange events to a notifier doing some work per event,
+ * when the notifier is synchronous and when the events are delivered by the {@link AsyncEventBus} (which drops the
+ * events when the notifier cannot keep up).
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventNotifierBenchmark extends ZwangineContextState {
+
+    @Param({ "false", "true" })
+    public boolean async;
+
+    @Param({ "100", "2000" })
+    public long work;
+
+    private Exchange exchange;
+
+    @Override
+    protected void setupProcessors() {
+        DefaultManagementStrategy management = (DefaultManagementStrategy) context.getManagementStrategy();
+        EventNotifierSupport notifier = new EventNotifierSupport() {
+            @Override
+            public void notify(ZwangineEvent event) {
+                Blackhole.consumeCPU(work);
+            }
+        };
+        notifier.setAsync(async);
+        management.addEventNotifier(notifier);
+
+        exchange = createExchange("Hello World");
+    }
+
+    @Benchmark
+    public boolean notifyExchangeDone() {
+        return EventHelper.notifyExchangeDone(context, exchange);
+    }
+}
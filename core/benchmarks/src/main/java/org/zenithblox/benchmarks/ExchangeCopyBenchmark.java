@@ -0,0 +1,72 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.support.ExchangeHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks creating correlated copies of an exchange (as done per branch by the multicast, splitter, recipient list
+ * and wire tap EIPs), where the copy either only reads or also modifies its headers and properties. Run with
+ * <tt>-prof gc</tt> to see the allocation per copy.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExchangeCopyBenchmark extends ZwangineContextState {
+
+    @Param({ "40" })
+    public int headers;
+
+    private Exchange exchange;
+
+    @Override
+    protected void setupProcessors() {
+        exchange = createExchange("Hello World");
+        for (int i = 0; i < headers; i++) {
+            exchange.getMessage().setHeader("header" + i, i);
+            exchange.setProperty("property" + i, i);
+        }
+        exchange.setVariable("variable", "value");
+    }
+
+    @Benchmark
+    public Object copyAndRead() {
+        Exchange copy = ExchangeHelper.createCorrelatedCopy(exchange, false);
+        return copy.getMessage().getHeader("header1");
+    }
+
+    @Benchmark
+    public Object copyAndWrite() {
+        Exchange copy = ExchangeHelper.createCorrelatedCopy(exchange, false);
+        copy.getMessage().setHeader("split", Boolean.TRUE);
+        copy.setProperty("split", Boolean.TRUE);
+        return copy;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.impl.engine.PooledExchangeFactory;
+import org.zenithblox.impl.engine.PrototypeExchangeFactory;
+import org.zenithblox.spi.ExchangeFactory;
+import org.zenithblox.support.service.ServiceHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link PooledExchangeFactory} against the {@link PrototypeExchangeFactory} for the create, populate
+ * and release cycle a consumer goes through for every exchange.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExchangeFactoryBenchmark extends ZwangineContextState {
+
+    @Param({ "prototype", "pooled" })
+    public String factory;
+
+    @Param({ "0", "10" })
+    public int headers;
+
+    private String[] headerNames;
+
+    private ExchangeFactory exchangeFactory;
+
+    @Override
+    protected void setupProcessors() {
+        headerNames = new String[headers];
+        for (int i = 0; i < headers; i++) {
+            headerNames[i] = "header" + i;
+        }
+        exchangeFactory = "pooled".equals(factory) ? new PooledExchangeFactory() : new PrototypeExchangeFactory();
+        exchangeFactory.setZwangineContext(context);
+        // only initialize as starting registers the factory per consumer in the exchange factory manager
+        ServiceHelper.initService(exchangeFactory);
+    }
+
+    @Benchmark
+    public Exchange createAndRelease() {
+        Exchange exchange = exchangeFactory.create(false);
+        exchange.getMessage().setBody("Hello World");
+        for (int i = 0; i < headers; i++) {
+            exchange.getMessage().setHeader(headerNames[i], i);
+        }
+        exchange.setProperty("benchmark", Boolean.TRUE);
+        exchangeFactory.release(exchange);
+        return exchange;
+    }
+}
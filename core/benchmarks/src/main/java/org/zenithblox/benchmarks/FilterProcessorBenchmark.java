@@ -0,0 +1,67 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.processor.FilterProcessor;
+import org.zenithblox.support.builder.ExpressionBuilder;
+import org.zenithblox.support.builder.PredicateBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a {@link FilterProcessor} for both matching and non matching exchanges.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterProcessorBenchmark extends ZwangineContextState {
+
+    private FilterProcessor filter;
+
+    @Override
+    protected void setupProcessors() {
+        filter = startService(new FilterProcessor(
+                context,
+                PredicateBuilder.contains(ExpressionBuilder.bodyExpression(), ExpressionBuilder.constantExpression("important")),
+                exchange -> exchange.getMessage().setHeader("filtered", Boolean.TRUE)));
+    }
+
+    @Benchmark
+    public Exchange matches() throws Exception {
+        Exchange exchange = createExchange("this is an important message");
+        filter.process(exchange);
+        return exchange;
+    }
+
+    @Benchmark
+    public Exchange notMatches() throws Exception {
+        Exchange exchange = createExchange("this is a regular message");
+        filter.process(exchange);
+        return exchange;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.impl.engine.CaseInsensitiveHashMapHeadersMapFactory;
+import org.zenithblox.impl.engine.DefaultHeadersMapFactory;
+import org.zenithblox.impl.engine.HashMapHeadersMapFactory;
+import org.zenithblox.spi.HeadersMapFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the maps created by the {@link HeadersMapFactory} implementations: populating the headers of a new
+ * message, looking up headers (by the constant name and with a different case) and copying the headers.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeadersMapBenchmark {
+
+    private static final String[] NAMES = {
+            Exchange.FILE_NAME, Exchange.CONTENT_TYPE, Exchange.HTTP_RESPONSE_CODE, Exchange.CORRELATION_ID,
+            Exchange.BREADCRUMB_ID, "X-Request-Id", "traceparent", "Accept" };
+
+    @Param({ "caseInsensitiveMap", "caseInsensitiveHashMap", "hashMap" })
+    public String factory;
+
+    @Param({ "8", "40" })
+    public int headers;
+
+    private HeadersMapFactory headersMapFactory;
+    private String[] keys;
+    private Map<String, Object> populated;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        headersMapFactory = switch (factory) {
+            case "caseInsensitiveHashMap" -> new CaseInsensitiveHashMapHeadersMapFactory();
+            case "hashMap" -> new HashMapHeadersMapFactory();
+            default -> new DefaultHeadersMapFactory();
+        };
+        keys = new String[headers];
+        for (int i = 0; i < headers; i++) {
+            keys[i] = i < NAMES.length ? NAMES[i] : "header" + i;
+        }
+        populated = populate();
+    }
+
+    private Map<String, Object> populate() {
+        Map<String, Object> map = headersMapFactory.newMap();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Map<String, Object> create() {
+        return populate();
+    }
+
+    @Benchmark
+    public int getHeaders() {
+        int answer = 0;
+        for (String key : keys) {
+            answer += (Integer) populated.get(key);
+        }
+        return answer;
+    }
+
+    @Benchmark
+    public Object getHeaderOtherCase() {
+        return populated.get("zwanginefilename");
+    }
+
+    @Benchmark
+    public Map<String, Object> copy() {
+        return headersMapFactory.newMap(populated);
+    }
+}
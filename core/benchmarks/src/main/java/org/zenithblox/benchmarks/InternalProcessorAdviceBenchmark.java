@@ -0,0 +1,114 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.impl.engine.ZwangineInternalProcessor;
+import org.zenithblox.impl.metrics.DefaultZwangineMetricsService;
+import org.zenithblox.spi.ZwangineInternalProcessorAdvice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the advice chain of {@link ZwangineInternalProcessor} which wraps every workflow and (when enabled)
+ * every step with the unit of work, inflight tracking, metrics and other cross-cutting advices.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InternalProcessorAdviceBenchmark extends ZwangineContextState {
+
+    @Param({ "none", "inflight", "unitOfWork", "metrics", "all" })
+    public String advices;
+
+    private ZwangineInternalProcessor internal;
+
+    @Override
+    protected void setupProcessors() {
+        internal = new ZwangineInternalProcessor(context,
+                exchange -> exchange.getMessage().setHeader("advised", Boolean.TRUE));
+        if ("inflight".equals(advices) || "all".equals(advices)) {
+            internal.addAdvice(new ZwangineInternalProcessor.WorkflowInflightRepositoryAdvice(
+                    context.getInflightRepository(), "benchmark"));
+        }
+        if ("unitOfWork".equals(advices) || "all".equals(advices)) {
+            internal.addAdvice(new ZwangineInternalProcessor.UnitOfWorkProcessorAdvice(null, context));
+        }
+        if ("metrics".equals(advices) || "all".equals(advices)) {
+            DefaultZwangineMetricsService metricsService = new DefaultZwangineMetricsService();
+            internal.addAdvice(metricsService.createWorkflowAdvice("benchmark"));
+        }
+        if ("all".equals(advices)) {
+            internal.addAdvice(new StatelessAdvice());
+            internal.addAdvice(new StatefulAdvice());
+        }
+        startService(internal);
+    }
+
+    @Override
+    protected void tearDownProcessors() {
+        internal.stop();
+    }
+
+    @Benchmark
+    public Exchange advised() throws Exception {
+        Exchange exchange = createExchange("Hello World");
+        internal.process(exchange);
+        return exchange;
+    }
+
+    private static final class StatelessAdvice implements ZwangineInternalProcessorAdvice<Object> {
+
+        @Override
+        public Object before(Exchange exchange) {
+            return null;
+        }
+
+        @Override
+        public void after(Exchange exchange, Object data) {
+            // noop
+        }
+
+        @Override
+        public boolean hasState() {
+            return false;
+        }
+    }
+
+    private static final class StatefulAdvice implements ZwangineInternalProcessorAdvice<Long> {
+
+        @Override
+        public Long before(Exchange exchange) {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void after(Exchange exchange, Long data) {
+            // noop
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.MessageHistory;
+import org.zenithblox.NamedNode;
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.impl.engine.DefaultMessageHistoryFactory;
+import org.zenithblox.impl.engine.ZwangineInternalProcessor;
+import org.zenithblox.model.ProcessDefinition;
+import org.zenithblox.spi.MessageHistoryFactory;
+import org.zenithblox.support.service.ServiceSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks recording the message history of an exchange routed through a pipeline of nodes, with the compact message
+ * history of the default factory, and with a {@link MessageHistory} per node (as created by custom factories).
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageHistoryBenchmark extends ZwangineContextState {
+
+    @Param({ "true", "false" })
+    public boolean compact;
+
+    @Param({ "5", "50" })
+    public int nodes;
+
+    private ZwangineInternalProcessor.MessageHistoryAdvice[] advices;
+
+    @Override
+    protected void setupProcessors() {
+        DefaultMessageHistoryFactory defaultFactory = new DefaultMessageHistoryFactory();
+        defaultFactory.setZwangineContext(context);
+        MessageHistoryFactory factory = compact ? defaultFactory : new PerNodeMessageHistoryFactory(defaultFactory);
+
+        advices = new ZwangineInternalProcessor.MessageHistoryAdvice[nodes];
+        for (int i = 0; i < nodes; i++) {
+            ProcessDefinition definition = new ProcessDefinition();
+            definition.setId("node" + i);
+            advices[i] = new ZwangineInternalProcessor.MessageHistoryAdvice(factory, definition);
+        }
+    }
+
+    @Benchmark
+    public Exchange pipeline() throws Exception {
+        Exchange exchange = createExchange("Hello World");
+        for (ZwangineInternalProcessor.MessageHistoryAdvice advice : advices) {
+            Object history = advice.before(exchange);
+            advice.after(exchange, history);
+        }
+        return exchange;
+    }
+
+    private static final class PerNodeMessageHistoryFactory extends ServiceSupport implements MessageHistoryFactory {
+
+        private final DefaultMessageHistoryFactory delegate;
+
+        private PerNodeMessageHistoryFactory(DefaultMessageHistoryFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public MessageHistory newMessageHistory(String workflowId, NamedNode node, Exchange exchange) {
+            return delegate.newMessageHistory(workflowId, node, exchange);
+        }
+
+        @Override
+        public boolean isCopyMessage() {
+            return delegate.isCopyMessage();
+        }
+
+        @Override
+        public void setCopyMessage(boolean copyMessage) {
+            delegate.setCopyMessage(copyMessage);
+        }
+
+        @Override
+        public String getNodePattern() {
+            return delegate.getNodePattern();
+        }
+
+        @Override
+        public void setNodePattern(String nodePattern) {
+            delegate.setNodePattern(nodePattern);
+        }
+
+        @Override
+        public ZwangineContext getZwangineContext() {
+            return delegate.getZwangineContext();
+        }
+
+        @Override
+        public void setZwangineContext(ZwangineContext zwangineContext) {
+            delegate.setZwangineContext(zwangineContext);
+        }
+    }
+}
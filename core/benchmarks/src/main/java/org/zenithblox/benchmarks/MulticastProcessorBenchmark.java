@@ -0,0 +1,85 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.Processor;
+import org.zenithblox.processor.MulticastProcessor;
+import org.zenithblox.processor.aggregate.UseLatestAggregationStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a sequential {@link MulticastProcessor} with a varying number of recipients and headers to copy.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MulticastProcessorBenchmark extends ZwangineContextState {
+
+    @Param({ "2", "10" })
+    public int recipients;
+
+    @Param({ "0", "40" })
+    public int headers;
+
+    private String[] headerNames;
+
+    private MulticastProcessor multicast;
+
+    @Override
+    protected void setupProcessors() {
+        headerNames = new String[headers];
+        for (int i = 0; i < headers; i++) {
+            headerNames[i] = "header" + i;
+        }
+        List<Processor> processors = new ArrayList<>(recipients);
+        for (int i = 0; i < recipients; i++) {
+            final String name = "recipient" + i;
+            processors.add(exchange -> exchange.getMessage().setHeader(name, Boolean.TRUE));
+        }
+        multicast = startService(
+                new MulticastProcessor(context, null, processors, new UseLatestAggregationStrategy()));
+    }
+
+    @Override
+    protected void tearDownProcessors() {
+        multicast.stop();
+    }
+
+    @Benchmark
+    public Exchange multicast() throws Exception {
+        Exchange exchange = createExchange("Hello World");
+        for (int i = 0; i < headers; i++) {
+            exchange.getMessage().setHeader(headerNames[i], i);
+        }
+        multicast.process(exchange);
+        return exchange;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.Processor;
+import org.zenithblox.processor.Pipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks routing an exchange through a {@link Pipeline} of simple steps.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark extends ZwangineContextState {
+
+    @Param({ "1", "5", "20" })
+    public int steps;
+
+    private Processor pipeline;
+
+    @Override
+    protected void setupProcessors() {
+        List<Processor> processors = new ArrayList<>(steps);
+        for (int i = 0; i < steps; i++) {
+            final String name = "step" + i;
+            processors.add(exchange -> exchange.getMessage().setHeader(name, Boolean.TRUE));
+        }
+        // use the constructor as newInstance does not create a pipeline for a single processor
+        pipeline = startService(new Pipeline(context, processors));
+    }
+
+    @Benchmark
+    public Exchange pipeline() throws Exception {
+        Exchange exchange = createExchange("Hello World");
+        pipeline.process(exchange);
+        return exchange;
+    }
+}
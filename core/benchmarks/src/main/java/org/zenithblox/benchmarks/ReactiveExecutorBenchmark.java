@@ -0,0 +1,98 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.impl.engine.DefaultReactiveExecutor;
+import org.zenithblox.spi.ReactiveExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks scheduling chains of continuations on the {@link ReactiveExecutor} of the context, which by default is
+ * the {@link DefaultReactiveExecutor}. Each operation runs a chain of tasks where each task schedules the next, which
+ * is how the asynchronous routing engine hands over between processors.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactiveExecutorBenchmark extends ZwangineContextState {
+
+    @Param({ "1", "10", "100" })
+    public int depth;
+
+    private ReactiveExecutor executor;
+
+    @Override
+    protected void setupProcessors() {
+        executor = context.getZwangineContextExtension().getReactiveExecutor();
+    }
+
+    @Benchmark
+    public void schedule(Blackhole bh) {
+        executor.schedule(new ChainTask(executor, depth, false, bh));
+    }
+
+    @Benchmark
+    public void scheduleMain(Blackhole bh) {
+        executor.scheduleMain(new ChainTask(executor, depth, true, bh));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void scheduleContended(Blackhole bh) {
+        executor.schedule(new ChainTask(executor, depth, false, bh));
+    }
+
+    private static final class ChainTask implements Runnable {
+
+        private final ReactiveExecutor executor;
+        private final boolean main;
+        private final Blackhole bh;
+        private int remaining;
+
+        ChainTask(ReactiveExecutor executor, int remaining, boolean main, Blackhole bh) {
+            this.executor = executor;
+            this.remaining = remaining;
+            this.main = main;
+            this.bh = bh;
+        }
+
+        @Override
+        public void run() {
+            bh.consume(remaining);
+            if (--remaining > 0) {
+                if (main) {
+                    executor.scheduleMain(this);
+                } else {
+                    executor.schedule(this);
+                }
+            }
+        }
+    }
+}
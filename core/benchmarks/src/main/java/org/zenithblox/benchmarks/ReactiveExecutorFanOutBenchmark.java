@@ -0,0 +1,93 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.impl.engine.DefaultReactiveExecutor;
+import org.zenithblox.impl.engine.WorkStealingReactiveExecutor;
+import org.zenithblox.spi.ReactiveExecutor;
+import org.zenithblox.support.service.ServiceHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks a main flow which schedules a number of independent tasks (as the multicast and splitter EIPs do) and
+ * waits for these to complete, with the {@link DefaultReactiveExecutor} (where the calling thread runs all the tasks)
+ * and the {@link WorkStealingReactiveExecutor} (where the idle carrier threads steal tasks from the calling thread).
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactiveExecutorFanOutBenchmark extends ZwangineContextState {
+
+    @Param({ "default", "workStealing", "workStealingVirtual" })
+    public String executorType;
+
+    @Param({ "10", "100" })
+    public int tasks;
+
+    @Param({ "100", "10000" })
+    public int tokens;
+
+    private ReactiveExecutor executor;
+
+    @Override
+    protected void setupProcessors() {
+        if ("default".equals(executorType)) {
+            executor = context.getZwangineContextExtension().getReactiveExecutor();
+        } else {
+            WorkStealingReactiveExecutor workStealing = new WorkStealingReactiveExecutor();
+            workStealing.setZwangineContext(context);
+            workStealing.setVirtualThreads("workStealingVirtual".equals(executorType));
+            executor = startService(workStealing);
+        }
+    }
+
+    @Override
+    protected void tearDownProcessors() {
+        if (executor instanceof WorkStealingReactiveExecutor) {
+            ServiceHelper.stopService(executor);
+        }
+    }
+
+    @Benchmark
+    public void fanOut() {
+        final AtomicInteger remaining = new AtomicInteger(tasks);
+        executor.scheduleMain(() -> {
+            for (int i = 0; i < tasks; i++) {
+                executor.schedule(() -> {
+                    Blackhole.consumeCPU(tokens);
+                    remaining.decrementAndGet();
+                });
+            }
+        });
+        while (remaining.get() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+}
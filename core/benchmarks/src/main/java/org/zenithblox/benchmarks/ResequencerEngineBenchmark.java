@@ -0,0 +1,122 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.processor.resequencer.ResequencerEngine;
+import org.zenithblox.processor.resequencer.RingBufferResequencerEngine;
+import org.zenithblox.processor.resequencer.SequenceElementComparator;
+import org.zenithblox.processor.resequencer.StreamResequencerEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link ResequencerEngine} and the {@link RingBufferResequencerEngine} used by the stream resequencer.
+ * Each operation inserts a batch of elements with dense sequence numbers where pairs of elements arrive swapped, and
+ * delivers them in sequence.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResequencerEngineBenchmark {
+
+    private static final int BATCH = 128;
+
+    @Param({ "sequence", "ringBuffer" })
+    public String engine;
+
+    @Param({ "1000" })
+    public int capacity;
+
+    private StreamResequencerEngine<Long> resequencer;
+    private long next;
+    private long delivered;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if ("ringBuffer".equals(engine)) {
+            resequencer = new RingBufferResequencerEngine<>(e -> e, capacity);
+        } else {
+            resequencer = new ResequencerEngine<>(new LongComparator());
+        }
+        resequencer.setSequenceSender(e -> delivered++);
+        resequencer.start();
+
+        // deliver the first element so the following elements are in sequence
+        resequencer.setTimeout(0);
+        resequencer.insert(next++);
+        Thread.sleep(10);
+        resequencer.deliver();
+        resequencer.setTimeout(TimeUnit.HOURS.toMillis(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        resequencer.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long insertDeliver() throws Exception {
+        for (int i = 0; i < BATCH; i += 2) {
+            resequencer.insert(next + 1);
+            resequencer.insert(next);
+            next += 2;
+        }
+        resequencer.deliver();
+        return delivered;
+    }
+
+    private static final class LongComparator implements SequenceElementComparator<Long> {
+
+        @Override
+        public boolean predecessor(Long o1, Long o2) {
+            return o1 == o2 - 1;
+        }
+
+        @Override
+        public boolean successor(Long o1, Long o2) {
+            return o2 == o1 - 1;
+        }
+
+        @Override
+        public boolean isValid(Long o1) {
+            return o1 != null;
+        }
+
+        @Override
+        public int compare(Long o1, Long o2) {
+            return o1.compareTo(o2);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.Predicate;
+import org.zenithblox.language.simple.SimpleLanguage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks evaluating simple predicates (as used by the content based router and filter EIPs) when interpreted and
+ * when compiled to bytecode.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimplePredicateBenchmark extends ZwangineContextState {
+
+    @Param({ "true", "false" })
+    public boolean compile;
+
+    @Param({
+            "${body} contains 'important'",
+            "${header.priority} > 5 && ${header.type} == 'order' || ${exchangeProperty.retry} == true" })
+    public String predicate;
+
+    private Predicate compiled;
+    private Exchange exchange;
+
+    @Override
+    protected void setupProcessors() {
+        SimpleLanguage language = new SimpleLanguage();
+        language.setZwangineContext(context);
+        language.setCompilePredicates(compile);
+        language.init();
+        compiled = language.createPredicate(predicate);
+        compiled.init(context);
+
+        exchange = createExchange("This is an important message");
+        exchange.getMessage().setHeader("priority", 3);
+        exchange.getMessage().setHeader("type", "order");
+        exchange.setProperty("retry", true);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return compiled.matches(exchange);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.processor.Splitter;
+import org.zenithblox.processor.aggregate.UseLatestAggregationStrategy;
+import org.zenithblox.support.builder.ExpressionBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a {@link Splitter} tokenizing a comma separated body, in both the default and the streaming mode.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SplitterBenchmark extends ZwangineContextState {
+
+    @Param({ "10", "1000" })
+    public int size;
+
+    @Param({ "false", "true" })
+    public boolean streaming;
+
+    private Splitter splitter;
+    private String body;
+
+    @Override
+    protected void setupProcessors() {
+        StringJoiner sj = new StringJoiner(",");
+        for (int i = 0; i < size; i++) {
+            sj.add("line" + i);
+        }
+        body = sj.toString();
+
+        splitter = startService(new Splitter(
+                context, null, ExpressionBuilder.tokenizeExpression(ExpressionBuilder.bodyExpression(), ","),
+                exchange -> exchange.getMessage().setHeader("split", Boolean.TRUE),
+                new UseLatestAggregationStrategy(), false, null, false, streaming, false, 0, null, false, false));
+    }
+
+    @Override
+    protected void tearDownProcessors() {
+        splitter.stop();
+    }
+
+    @Benchmark
+    public Exchange split() throws Exception {
+        Exchange exchange = createExchange(body);
+        splitter.process(exchange);
+        return exchange;
+    }
+}
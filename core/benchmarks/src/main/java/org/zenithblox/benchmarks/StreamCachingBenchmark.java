@@ -0,0 +1,108 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.StreamCache;
+import org.zenithblox.impl.engine.DefaultStreamCachingStrategy;
+import org.zenithblox.spi.StreamCachingStrategy;
+import org.zenithblox.spi.Synchronization;
+import org.zenithblox.stream.CachedOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks caching a body with {@link CachedOutputStream} and reading it back by two readers (as the branches of a
+ * multicast would) with the heap and off-heap cache modes of the {@link StreamCachingStrategy}. The sizes are chosen
+ * to stay in-memory and to be spooled to disk.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamCachingBenchmark extends ZwangineContextState {
+
+    @Param({ "Heap", "OffHeap" })
+    public StreamCachingStrategy.CacheMode cacheMode;
+
+    @Param({ "65536", "4194304" })
+    public int size;
+
+    private DefaultStreamCachingStrategy strategy;
+    private byte[] data;
+    private byte[] buffer;
+
+    @Override
+    protected void setupProcessors() {
+        strategy = new DefaultStreamCachingStrategy();
+        strategy.setZwangineContext(context);
+        strategy.setEnabled(true);
+        strategy.setSpoolEnabled(true);
+        strategy.setSpoolThreshold(1024 * 1024);
+        strategy.setCacheMode(cacheMode);
+        context.setStreamCachingStrategy(startService(strategy));
+
+        data = new byte[size];
+        ThreadLocalRandom.current().nextBytes(data);
+        buffer = new byte[8192];
+    }
+
+    @Override
+    protected void tearDownProcessors() {
+        strategy.stop();
+    }
+
+    @Benchmark
+    public long cacheAndReadTwice() throws Exception {
+        Exchange exchange = createExchange(null);
+        CachedOutputStream cos = new CachedOutputStream(exchange);
+        for (int off = 0; off < data.length; off += buffer.length) {
+            cos.write(data, off, Math.min(buffer.length, data.length - off));
+        }
+        StreamCache cache = cos.newStreamCache();
+        long answer = read((InputStream) cache);
+        answer += read((InputStream) cache.copy(exchange));
+        List<Synchronization> completions = exchange.getExchangeExtension().handoverCompletions();
+        if (completions != null) {
+            for (Synchronization synchronization : completions) {
+                synchronization.onComplete(exchange);
+            }
+        }
+        return answer;
+    }
+
+    private long read(InputStream in) throws Exception {
+        long answer = 0;
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            answer += n;
+        }
+        return answer;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.TimeoutMap;
+import org.zenithblox.support.DefaultTimeoutMap;
+import org.zenithblox.support.TimingWheelTimeoutMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link DefaultTimeoutMap} and the {@link TimingWheelTimeoutMap} holding many entries which have not
+ * yet timed out, such as the correlation groups of an aggregator using a completion timeout. Each operation adds and
+ * removes an entry, and runs the check for timed out entries, which is otherwise done by a background task.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimeoutMapBenchmark {
+
+    @Param({ "default", "timingWheel" })
+    public String type;
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private ScheduledExecutorService executor;
+    private TimeoutMap<Integer, String> map;
+    private Runnable purge;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        // the maps are not started, as the benchmark runs the check for timed out entries
+        if ("timingWheel".equals(type)) {
+            PurgeableTimingWheelTimeoutMap wheel = new PurgeableTimingWheelTimeoutMap(executor);
+            purge = wheel::purge;
+            map = wheel;
+        } else {
+            PurgeableDefaultTimeoutMap timeouts = new PurgeableDefaultTimeoutMap(executor);
+            purge = timeouts::purge;
+            map = timeouts;
+        }
+        for (int i = 0; i < size; i++) {
+            map.put(i, "value" + i, TimeUnit.HOURS.toMillis(1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int putRemovePurge() {
+        int key = size + (counter++ & 1023);
+        map.put(key, "value", TimeUnit.MINUTES.toMillis(1));
+        map.remove(key);
+        purge.run();
+        return map.size();
+    }
+
+    private static final class PurgeableDefaultTimeoutMap extends DefaultTimeoutMap<Integer, String> {
+
+        PurgeableDefaultTimeoutMap(ScheduledExecutorService executor) {
+            super(executor);
+        }
+
+        @Override
+        public void purge() {
+            super.purge();
+        }
+    }
+
+    private static final class PurgeableTimingWheelTimeoutMap extends TimingWheelTimeoutMap<Integer, String> {
+
+        PurgeableTimingWheelTimeoutMap(ScheduledExecutorService executor) {
+            super(executor);
+        }
+
+        @Override
+        public void purge() {
+            super.purge();
+        }
+    }
+}
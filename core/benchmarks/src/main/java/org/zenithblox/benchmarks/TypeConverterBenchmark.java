@@ -0,0 +1,69 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.TypeConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the type converter registry looking up converters: a converter found for the type pair, a converter
+ * found for a super type, and a pair without a converter (which is cached as a miss).
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeConverterBenchmark extends ZwangineContextState {
+
+    private TypeConverter typeConverter;
+    private final StringBuilder builder = new StringBuilder("123");
+    private final Object unconvertible = new Object();
+
+    @Override
+    protected void setupProcessors() {
+        typeConverter = context.getTypeConverter();
+    }
+
+    @Benchmark
+    public Integer stringToInteger() {
+        return typeConverter.convertTo(Integer.class, "123");
+    }
+
+    @Benchmark
+    public byte[] stringToBytes() {
+        return typeConverter.convertTo(byte[].class, "123");
+    }
+
+    @Benchmark
+    public Integer charSequenceToInteger() {
+        return typeConverter.convertTo(Integer.class, builder);
+    }
+
+    @Benchmark
+    public Object miss() {
+        return typeConverter.tryConvertTo(Thread.class, unconvertible);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.benchmarks;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.impl.DefaultZwangineContext;
+import org.zenithblox.support.DefaultExchange;
+import org.zenithblox.support.service.ServiceHelper;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base JMH state which starts a plain {@link DefaultZwangineContext} (without JMX) that the processors under test are
+ * bound to.
+ * <p/>
+ * Sub classes build their processors in {@link #setupProcessors()} and must use {@link #startService(Object)} so
+ * the processors go through the same init/start lifecycle as when they are part of a workflow.
+ */
+@State(Scope.Benchmark)
+public abstract class ZwangineContextState {
+
+    protected ZwangineContext context;
+
+    @Setup(Level.Trial)
+    public void setupContext() throws Exception {
+        DefaultZwangineContext.setDisableJmx(true);
+        context = new DefaultZwangineContext();
+        context.start();
+        setupProcessors();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownContext() throws Exception {
+        tearDownProcessors();
+        if (context != null) {
+            context.stop();
+        }
+        DefaultZwangineContext.clearOptions();
+    }
+
+    /**
+     * Creates and starts the processors used by the benchmark.
+     */
+    protected abstract void setupProcessors() throws Exception;
+
+    /**
+     * Stops the processors used by the benchmark.
+     */
+    protected void tearDownProcessors() throws Exception {
+        // noop
+    }
+
+    protected <T> T startService(T service) {
+        ServiceHelper.initService(service);
+        ServiceHelper.startService(service);
+        return service;
+    }
+
+    protected Exchange createExchange(Object body) {
+        Exchange exchange = new DefaultExchange(context);
+        exchange.getMessage().setBody(body);
+        return exchange;
+    }
+}
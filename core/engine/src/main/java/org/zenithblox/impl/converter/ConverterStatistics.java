@@ -21,6 +21,7 @@ import org.zenithblox.TypeConverter;
 import org.zenithblox.spi.TypeConverterRegistry;
 import org.zenithblox.spi.TypeConvertible;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -50,11 +51,42 @@ interface ConverterStatistics extends TypeConverterRegistry.Statistics {
      */
     void incrementMiss();
 
+    /**
+     * Increment the count of conversions that hit the cache, and the count of the type pair
+     *
+     * @param from the type converted from
+     * @param to   the type converted to
+     */
+    void incrementHit(Class<?> from, Class<?> to);
+
+    /**
+     * Increment the count of conversions that missed the cache, and the count of the type pair
+     *
+     * @param from the type converted from
+     * @param to   the type converted to
+     */
+    void incrementMiss(Class<?> from, Class<?> to);
+
+    /**
+     * Increment the count of the type pair of conversions done by a fallback converter
+     *
+     * @param from the type converted from
+     * @param to   the type converted to
+     */
+    void incrementFallback(Class<?> from, Class<?> to);
+
     /**
      * Increment the count of total conversion attempts
      */
     void incrementAttempt();
 
+    /**
+     * The counters per type pair
+     *
+     * @return the counters per type pair, which is empty if statistics is disabled
+     */
+    List<PairStatistics> getPairStatistics();
+
     /**
      * Log the statistics from the converters
      *
@@ -62,4 +94,11 @@ interface ConverterStatistics extends TypeConverterRegistry.Statistics {
      * @param missConverter the type that represents a type conversion miss
      */
     void logMappingStatisticsMessage(Map<TypeConvertible<?, ?>, TypeConverter> converters, TypeConverter missConverter);
+
+    /**
+     * The number of conversions of a type pair which hit or missed the cache, and which were done by a fallback
+     * converter (which are also counted as hits).
+     */
+    record PairStatistics(Class<?> from, Class<?> to, long hits, long misses, long fallbacks) {
+    }
 }
@@ -26,6 +26,7 @@ import org.zenithblox.util.ObjectHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -58,6 +59,9 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
     // Why 256: as of Zwangine 4, we have about 230 type converters. Therefore, set the capacity to a few more to provide
     // space for others added during runtime
     private final Map<TypeConvertible<?, ?>, TypeConverter> converters = new ConcurrentHashMap<>(256);
+    // the converters (and misses) resolved per from and to type, which are looked up without allocating a key
+    private volatile ResolvedConverters resolvedConverters = new ResolvedConverters();
+    private volatile boolean cachedMisses;
 
     protected CoreTypeConverterRegistry(boolean statisticsEnabled) {
         if (statisticsEnabled) {
@@ -270,13 +274,17 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
         if (answer == TypeConverter.MISS_VALUE) {
             if (!tryConvert) {
                 // Could not find suitable conversion
-                statistics.incrementMiss();
+                statistics.incrementMiss(value.getClass(), type);
             }
 
             return null;
         } else {
             if (!tryConvert) {
-                statistics.incrementHit();
+                if (value != null) {
+                    statistics.incrementHit(value.getClass(), type);
+                } else {
+                    statistics.incrementHit();
+                }
             }
 
             return answer;
@@ -358,9 +366,18 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
 
         // attempt bulk first which is the fastest (also taking into account primitives)
         final Class<?> aClass = type.isPrimitive() ? ObjectHelper.convertPrimitiveTypeToWrapperType(type) : type;
-        final TypeConvertible<?, ?> typeConvertible = new TypeConvertible<>(value.getClass(), aClass);
 
-        final Object ret = tryCachedConverters(type, exchange, value, typeConvertible);
+        // the converter (or miss) resolved previously for the pair
+        final TypeConverter typeConverter = resolveConverter(value.getClass(), aClass);
+        if (typeConverter != null) {
+            final Object ret = typeConverter.convertTo(type, exchange, value);
+            if (ret != null) {
+                return ret;
+            }
+        }
+
+        final TypeConvertible<?, ?> typeConvertible = new TypeConvertible<>(value.getClass(), aClass);
+        final Object ret = trySuperConverters(type, exchange, value, typeConvertible);
         if (ret != null) {
             return ret;
         }
@@ -373,37 +390,80 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
 
         final TypeConverter assignableConverter = tryAssignableFrom(typeConvertible, converters);
         if (assignableConverter != null) {
-            converters.put(typeConvertible, assignableConverter);
+            putConverter(typeConvertible, assignableConverter);
             return assignableConverter.convertTo(type, exchange, value);
         }
 
         // This is the last resort: if nothing else works, try to find something that converts from an Object to the target type
         final TypeConverter objConverter = converters.get(new TypeConvertible<>(Object.class, type));
         if (objConverter != null) {
-            converters.put(typeConvertible, objConverter);
+            putConverter(typeConvertible, objConverter);
             return objConverter.convertTo(type, exchange, value);
         }
 
-        converters.put(typeConvertible, MISS_CONVERTER);
+        cachedMisses = true;
+        putConverter(typeConvertible, MISS_CONVERTER);
 
         // Could not find suitable conversion, so return Void to indicate not found
         return TypeConverter.MISS_VALUE;
     }
 
-    private Object tryCachedConverters(Class<?> type, Exchange exchange, Object value, TypeConvertible<?, ?> typeConvertible) {
-        final TypeConverter typeConverter = converters.get(typeConvertible);
-        if (typeConverter != null) {
-            final Object ret = typeConverter.convertTo(type, exchange, value);
-            if (ret != null) {
-                return ret;
+    /**
+     * Resolves the converter for the pair (which is {@link #MISS_CONVERTER} for a confirmed miss) from the converters
+     * cached per from and to type, which avoids allocating a {@link TypeConvertible} key for each conversion.
+     *
+     * @return the converter, or <tt>null</tt> if no converter is known for the pair
+     */
+    private TypeConverter resolveConverter(Class<?> fromType, Class<?> toType) {
+        final ResolvedToConverters resolved = resolvedConverters.get(fromType);
+        // read the version before the converters, so a concurrent change is detected on the next lookup
+        final long current = resolved.version;
+        final ResolvedConverter cached = resolved.get(toType);
+        if (cached != null && cached.version == current) {
+            return cached.converter;
+        }
+        final TypeConverter converter = converters.get(new TypeConvertible<>(fromType, toType));
+        resolved.put(new ResolvedConverter(toType, converter, current));
+        return converter;
+    }
+
+    private void putConverter(TypeConvertible<?, ?> typeConvertible, TypeConverter typeConverter) {
+        final TypeConverter previous = converters.put(typeConvertible, typeConverter);
+        if (previous != typeConverter) {
+            invalidate(typeConvertible.getFrom());
+        }
+    }
+
+    /**
+     * Invalidates the converters resolved for the given from type, which must be called after the converters of the
+     * from type have changed. A conversion only looks up the converter of its exact pair, so the converters resolved
+     * for other from types are unaffected.
+     */
+    private void invalidate(Class<?> fromType) {
+        resolvedConverters.get(fromType).invalidate();
+    }
+
+    /**
+     * Removes the misses cached for the pairs which could not be converted, as they may be convertable by a
+     * converter added at runtime.
+     */
+    private void invalidateMisses() {
+        if (cachedMisses) {
+            cachedMisses = false;
+            if (converters.values().removeIf(converter -> converter == MISS_CONVERTER)) {
+                // the misses may be cached for any from type, so start over
+                resolvedConverters = new ResolvedConverters();
             }
         }
+    }
 
+    private Object trySuperConverters(
+            Class<?> type, Exchange exchange, Object value, TypeConvertible<?, ?> typeConvertible) {
         final TypeConverter superConverterTc = TypeResolverHelper.tryMatch(typeConvertible, converters);
         if (superConverterTc != null) {
             final Object ret = superConverterTc.convertTo(type, exchange, value);
             if (ret != null) {
-                converters.put(typeConvertible, superConverterTc);
+                putConverter(typeConvertible, superConverterTc);
                 return ret;
             }
         }
@@ -428,7 +488,10 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
             }
 
             if (rc != null) {
-                converters.put(typeConvertible, tc);
+                if (!tryConvert) {
+                    statistics.incrementFallback(typeConvertible.getFrom(), typeConvertible.getTo());
+                }
+                putConverter(typeConvertible, tc);
                 // if fallback can promote then let it be promoted to a first class type converter
                 if (fallback.isCanPromote()) {
                     // add it as a known type converter since we found a fallback that could do it
@@ -453,12 +516,13 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
     }
 
     public TypeConverter getTypeConverter(Class<?> toType, Class<?> fromType) {
-        return converters.get(new TypeConvertible<>(fromType, toType));
+        return resolveConverter(fromType, toType);
     }
 
     @Override
     public void addConverter(TypeConvertible<?, ?> typeConvertible, TypeConverter typeConverter) {
-        converters.put(typeConvertible, typeConverter);
+        invalidateMisses();
+        putConverter(typeConvertible, typeConverter);
     }
 
     @Override
@@ -470,6 +534,7 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
         LOG.trace("Adding type converter: {}", typeConverter);
         final TypeConvertible<?, ?> typeConvertible = new TypeConvertible<>(fromType, toType);
 
+        invalidateMisses();
         addOrReplaceTypeConverter(typeConverter, typeConvertible);
     }
 
@@ -478,7 +543,7 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
 
         if (converter == MISS_CONVERTER) {
             // we have previously attempted to convert but missed, so add this converter
-            converters.put(typeConvertible, typeConverter);
+            putConverter(typeConvertible, typeConverter);
             return;
         }
 
@@ -495,7 +560,7 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
             }
 
             if (add) {
-                converters.put(typeConvertible, typeConverter);
+                putConverter(typeConvertible, typeConverter);
             }
         }
     }
@@ -520,6 +585,9 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
     public boolean removeTypeConverter(Class<?> toType, Class<?> fromType) {
         LOG.trace("Removing type converter from: {} to: {}", fromType, toType);
         final TypeConverter removed = converters.remove(new TypeConvertible<>(fromType, toType));
+        if (removed != null) {
+            invalidate(fromType);
+        }
         return removed != null;
     }
 
@@ -534,6 +602,8 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
         // add in top of fallback as the toString() fallback will nearly always be able to convert
         // the last one which is add to the FallbackTypeConverter will be called at the first place
         fallbackConverters.add(0, new FallbackTypeConverter(typeConverter, canPromote));
+        // the new fallback may be able to convert what could not be converted before
+        invalidateMisses();
     }
 
     public TypeConverter lookup(Class<?> toType, Class<?> fromType) {
@@ -549,7 +619,7 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
             // converter not found, try to lookup then
             converter = lookup(toType, fromType);
             if (converter != null) {
-                converters.put(typeConvertible, converter);
+                putConverter(typeConvertible, converter);
             }
         }
         return converter;
@@ -615,6 +685,68 @@ public abstract class CoreTypeConverterRegistry extends ServiceSupport implement
         statistics.logMappingStatisticsMessage(converters, MISS_CONVERTER);
 
         statistics.reset();
+
+        // discard the converters resolved per class, so the class value (and this registry) is not kept reachable by
+        // the values associated with the classes
+        resolvedConverters = new ResolvedConverters();
+    }
+
+    /**
+     * The converters resolved per from type.
+     * <p/>
+     * The values associated with the classes hold the resolved converters, and converters such as
+     * {@link InstanceMethodTypeConverter} (through its injector) and the fallback converters refer to the registry,
+     * which refers to this class value. A class value is only released when it is no longer reachable other than from
+     * its own values, so the registry must replace it when stopping (see {@link #doStop()}), or the values would be
+     * kept for as long as the from types (such as <tt>String</tt>) are loaded.
+     */
+    private static final class ResolvedConverters extends ClassValue<ResolvedToConverters> {
+        @Override
+        protected ResolvedToConverters computeValue(Class<?> fromType) {
+            return new ResolvedToConverters();
+        }
+    }
+
+    /**
+     * The converters resolved for a from type per to type. A type is converted to a few types only, so the resolved
+     * converters are kept in a copy-on-write array which is scanned by identity. The version is incremented whenever a
+     * converter of the from type changes, which invalidates the converters resolved for a previous version.
+     */
+    private static final class ResolvedToConverters {
+        private volatile ResolvedConverter[] resolved = new ResolvedConverter[0];
+        private volatile long version;
+
+        synchronized void invalidate() {
+            version++;
+        }
+
+        ResolvedConverter get(Class<?> toType) {
+            for (ResolvedConverter converter : resolved) {
+                if (converter.toType == toType) {
+                    return converter;
+                }
+            }
+            return null;
+        }
+
+        synchronized void put(ResolvedConverter converter) {
+            ResolvedConverter[] array = resolved;
+            for (int i = 0; i < array.length; i++) {
+                if (array[i].toType == converter.toType) {
+                    // replace the converter resolved for a previous version
+                    array = array.clone();
+                    array[i] = converter;
+                    resolved = array;
+                    return;
+                }
+            }
+            array = Arrays.copyOf(array, array.length + 1);
+            array[array.length - 1] = converter;
+            resolved = array;
+        }
+    }
+
+    private record ResolvedConverter(Class<?> toType, TypeConverter converter, long version) {
     }
 
     /**
@@ -20,6 +20,8 @@ package org.zenithblox.impl.converter;
 import org.zenithblox.TypeConverter;
 import org.zenithblox.spi.TypeConvertible;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 final class NoopTypeConverterStatistics implements ConverterStatistics {
@@ -78,11 +80,31 @@ final class NoopTypeConverterStatistics implements ConverterStatistics {
         // NO-OP
     }
 
+    @Override
+    public void incrementHit(Class<?> from, Class<?> to) {
+        // NO-OP
+    }
+
+    @Override
+    public void incrementMiss(Class<?> from, Class<?> to) {
+        // NO-OP
+    }
+
+    @Override
+    public void incrementFallback(Class<?> from, Class<?> to) {
+        // NO-OP
+    }
+
     @Override
     public void incrementAttempt() {
         // NO-OP
     }
 
+    @Override
+    public List<PairStatistics> getPairStatistics() {
+        return Collections.emptyList();
+    }
+
     @Override
     public void logMappingStatisticsMessage(Map<TypeConvertible<?, ?>, TypeConverter> converters, TypeConverter missConverter) {
         // NO-OP
@@ -22,7 +22,13 @@ import org.zenithblox.spi.TypeConvertible;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -31,12 +37,16 @@ import java.util.concurrent.atomic.LongAdder;
  */
 final class TypeConverterStatistics implements ConverterStatistics {
     private static final Logger LOG = LoggerFactory.getLogger(TypeConverterStatistics.class);
+    // the number of type pairs to log when stopping
+    private static final int LOG_PAIRS = 10;
 
     private final LongAdder noopCounter = new LongAdder();
     private final LongAdder attemptCounter = new LongAdder();
     private final LongAdder missCounter = new LongAdder();
     private final LongAdder hitCounter = new LongAdder();
     private final LongAdder failedCounter = new LongAdder();
+    // counters per from type and to type (keyed by class, so counting does not allocate a key)
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, PairCounters>> pairCounters = new ConcurrentHashMap<>();
 
     @Override
     public long getNoopCounter() {
@@ -88,11 +98,48 @@ final class TypeConverterStatistics implements ConverterStatistics {
         missCounter.increment();
     }
 
+    @Override
+    public void incrementHit(Class<?> from, Class<?> to) {
+        hitCounter.increment();
+        pairCounters(from, to).hits.increment();
+    }
+
+    @Override
+    public void incrementMiss(Class<?> from, Class<?> to) {
+        missCounter.increment();
+        pairCounters(from, to).misses.increment();
+    }
+
+    @Override
+    public void incrementFallback(Class<?> from, Class<?> to) {
+        pairCounters(from, to).fallbacks.increment();
+    }
+
     @Override
     public void incrementAttempt() {
         attemptCounter.increment();
     }
 
+    private PairCounters pairCounters(Class<?> from, Class<?> to) {
+        ConcurrentMap<Class<?>, PairCounters> counters = pairCounters.get(from);
+        if (counters == null) {
+            counters = pairCounters.computeIfAbsent(from, k -> new ConcurrentHashMap<>());
+        }
+        PairCounters answer = counters.get(to);
+        if (answer == null) {
+            answer = counters.computeIfAbsent(to, k -> new PairCounters());
+        }
+        return answer;
+    }
+
+    @Override
+    public List<PairStatistics> getPairStatistics() {
+        List<PairStatistics> answer = new ArrayList<>();
+        pairCounters.forEach((from, counters) -> counters.forEach((to, pair) -> answer.add(new PairStatistics(
+                from, to, pair.hits.longValue(), pair.misses.longValue(), pair.fallbacks.longValue()))));
+        return answer;
+    }
+
     @Override
     public void reset() {
         noopCounter.reset();
@@ -100,6 +147,7 @@ final class TypeConverterStatistics implements ConverterStatistics {
         hitCounter.reset();
         missCounter.reset();
         failedCounter.reset();
+        pairCounters.clear();
     }
 
     /**
@@ -129,5 +177,23 @@ final class TypeConverterStatistics implements ConverterStatistics {
                 "TypeConverterStatistics utilization[noop={}, attempts={}, hits={}, misses={}, failures={}] mappings[total={}, misses={}]",
                 getNoopCounter(), getAttemptCounter(), getHitCounter(), getMissCounter(), getFailedCounter(), converters.size(),
                 misses);
+
+        List<PairStatistics> pairs = getPairStatistics();
+        if (!pairs.isEmpty()) {
+            // log the most used type pairs
+            pairs.sort(Comparator.comparingLong((PairStatistics p) -> p.hits() + p.misses()).reversed());
+            StringJoiner sj = new StringJoiner(", ");
+            for (PairStatistics pair : pairs.subList(0, Math.min(LOG_PAIRS, pairs.size()))) {
+                sj.add(pair.from().getName() + "->" + pair.to().getName() + "[hits=" + pair.hits() + ", misses="
+                       + pair.misses() + ", fallbacks=" + pair.fallbacks() + "]");
+            }
+            LOG.info("TypeConverterStatistics pairs[total={}] top: {}", pairs.size(), sj);
+        }
+    }
+
+    private static final class PairCounters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
     }
 }
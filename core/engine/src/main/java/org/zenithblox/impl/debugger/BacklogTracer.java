@@ -18,11 +18,13 @@ package org.zenithblox.impl.debugger;
 
 import org.zenithblox.ZwangineContext;
 import org.zenithblox.Exchange;
+import org.zenithblox.ExchangePropertyKey;
 import org.zenithblox.NamedNode;
 import org.zenithblox.Predicate;
 import org.zenithblox.spi.BacklogTracerEventMessage;
 import org.zenithblox.spi.Language;
 import org.zenithblox.support.ZwangineContextHelper;
+import org.zenithblox.support.MessageHelper;
 import org.zenithblox.support.PatternHelper;
 import org.zenithblox.support.service.ServiceSupport;
 import org.zenithblox.util.StringHelper;
@@ -32,28 +34,55 @@ import org.zenithblox.util.json.Jsoner;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * A tracer used for message tracing, storing a copy of the message details in a backlog.
  * <p/>
- * This tracer allows to store message tracers per node in the Zwangine workflows. The tracers is stored in a backlog queue
+ * This tracer allows to store message tracers per node in the Zwangine workflows. The tracers is stored in a backlog
  * (FIFO based) which allows to pull the traced messages on demand.
+ * <p/>
+ * The backlog is a preallocated ring buffer which the routing threads write to without locking, and where the oldest
+ * messages are overwritten when the backlog is full. The message details are captured as a shallow copy of the exchange
+ * and rendered when the traced messages are read, and the exchanges to trace can be sampled.
  */
 public final class BacklogTracer extends ServiceSupport implements org.zenithblox.spi.BacklogTracer {
 
     // limit the tracer to a thousand messages in total
     public static final int MAX_BACKLOG_SIZE = 1000;
+    // the ring is larger than the backlog, so writers never lap a slot which is being read
+    private static final int RING_SIZE = 2048;
+    private static final int RING_MASK = RING_SIZE - 1;
+    // upper limit of exchanges held aside for tail sampling, in case exchanges never complete
+    private static final int MAX_PENDING_EXCHANGES = 10000;
     private final ZwangineContext zwangineContext;
     private final Language simple;
     private boolean enabled;
     private boolean standby;
     private final AtomicLong traceCounter = new AtomicLong();
-    // use a queue with an upper limit to avoid storing too many messages
-    private final Queue<BacklogTracerEventMessage> queue = new LinkedBlockingQueue<>(MAX_BACKLOG_SIZE);
+    // the ring buffer of traced messages, where the sequence of the slot tells whether the slot holds the expected message
+    private final AtomicReferenceArray<BacklogTracerEventMessage> ring = new AtomicReferenceArray<>(RING_SIZE);
+    private final AtomicLongArray sequences = new AtomicLongArray(RING_SIZE);
+    private final AtomicLong tail = new AtomicLong();
+    private final Lock readLock = new ReentrantLock();
+    // sequence of the oldest message which has not been removed by dumping (guarded by the read lock)
+    private long head;
+    // the traces of exchanges which were not sampled, until they complete (tail sampling)
+    private final Map<String, PendingEvents> pending = new ConcurrentHashMap<>();
+    private double sampleRate = 1.0d;
+    private int sampleThreshold = -1;
+    private boolean tailSampling;
+    private long tailSamplingThreshold;
     // how many of the last messages to keep in the backlog at total
     private int backlogSize = 100;
     private boolean removeOnDump = true;
@@ -74,6 +103,9 @@ public final class BacklogTracer extends ServiceSupport implements org.zenithblo
     private BacklogTracer(ZwangineContext zwangineContext) {
         this.zwangineContext = zwangineContext;
         this.simple = zwangineContext.resolveLanguage("simple");
+        for (int i = 0; i < RING_SIZE; i++) {
+            sequences.set(i, -1);
+        }
     }
 
     /**
@@ -130,20 +162,153 @@ public final class BacklogTracer extends ServiceSupport implements org.zenithblo
         return false;
     }
 
+    /**
+     * Whether the exchange is sampled to be traced, which is decided by the exchange id (or the id of the parent
+     * exchange of split and multicast copies), so the decision is the same at all the nodes.
+     */
+    public boolean isSampled(Exchange exchange) {
+        int threshold = sampleThreshold;
+        if (threshold < 0) {
+            return true;
+        }
+        Object id = exchange.getProperty(ExchangePropertyKey.CORRELATION_ID);
+        if (!(id instanceof String)) {
+            id = exchange.getExchangeId();
+        }
+        // spread the hash as exchange ids only differ by a counter
+        int hash = id.hashCode() * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) < threshold;
+    }
+
+    /**
+     * Gets the traces held aside for an exchange which was not sampled, when using tail sampling.
+     *
+     * @param  exchange the exchange
+     * @param  create   whether to create the pending events if absent (at the first node of a workflow)
+     * @return          the pending events, or <tt>null</tt> to not trace the exchange
+     */
+    public PendingEvents getPendingEvents(Exchange exchange, boolean create) {
+        if (!tailSampling) {
+            return null;
+        }
+        String key = pendingKey(exchange);
+        PendingEvents answer = pending.get(key);
+        if (answer == null && create && pending.size() < MAX_PENDING_EXCHANGES) {
+            answer = new PendingEvents(exchange.getExchangeId());
+            PendingEvents existing = pending.putIfAbsent(key, answer);
+            if (existing != null) {
+                answer = existing;
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Called when an exchange which was not sampled completes, to keep its traces if the exchange failed or was slow.
+     * Only the exchange which the pending events were created for decides, as split and multicast copies share the
+     * pending events of their parent.
+     */
+    public void completePendingEvents(Exchange exchange, PendingEvents events) {
+        if (!events.exchangeId.equals(exchange.getExchangeId()) || !pending.remove(pendingKey(exchange), events)) {
+            return;
+        }
+        boolean keep = exchange.isFailed()
+                || tailSamplingThreshold > 0 && exchange.getClock().elapsed() > tailSamplingThreshold;
+        if (keep) {
+            for (DefaultBacklogTracerEventMessage event : events.events) {
+                traceEvent(event);
+            }
+        }
+    }
+
+    private static String pendingKey(Exchange exchange) {
+        Object id = exchange.getProperty(ExchangePropertyKey.CORRELATION_ID);
+        return id instanceof String ? (String) id : exchange.getExchangeId();
+    }
+
+    /**
+     * Captures the message of the exchange to be traced.
+     * <p/>
+     * The message is rendered when the traced message is read, from a shallow copy of the exchange. Message bodies
+     * which may change or be consumed (such as streams), or which are bigger than the body max chars, are rendered
+     * right away.
+     */
+    public Supplier<JsonObject> captureMessage(Exchange exchange) {
+        if (isImmutableBody(exchange.getIn().getBody())) {
+            Exchange copy = exchange.copy();
+            copy.setExchangeId(exchange.getExchangeId());
+            return new CapturedMessage(copy);
+        }
+        return new CapturedMessage(renderMessage(exchange));
+    }
+
+    private boolean isImmutableBody(Object body) {
+        return body == null || body instanceof Number || body instanceof Boolean || body instanceof Character
+                || body instanceof String str && str.length() <= bodyMaxChars
+                || body instanceof byte[] arr && arr.length <= bodyMaxChars;
+    }
+
+    private JsonObject renderMessage(Exchange exchange) {
+        return MessageHelper.dumpAsJSonObject(exchange.getIn(), includeExchangeProperties, includeExchangeVariables, true,
+                true, bodyIncludeStreams, bodyIncludeFiles, bodyMaxChars);
+    }
+
     public void traceEvent(DefaultBacklogTracerEventMessage event) {
         if (!enabled) {
             return;
         }
 
-        // ensure there is space on the queue by polling until at least single slot is free
-        int drain = queue.size() - backlogSize + 1;
-        if (drain > 0) {
-            for (int i = 0; i < drain; i++) {
-                queue.poll();
+        long sequence = tail.getAndIncrement();
+        int index = (int) sequence & RING_MASK;
+        // invalidate the slot while writing so readers do not pair the old sequence with the new message
+        sequences.set(index, -1);
+        ring.set(index, event);
+        sequences.set(index, sequence);
+
+        // release the message which has just fallen out of the backlog
+        long evicted = sequence - backlogSize;
+        if (evicted >= 0) {
+            int evictedIndex = (int) evicted & RING_MASK;
+            if (sequences.get(evictedIndex) == evicted) {
+                ring.compareAndSet(evictedIndex, ring.get(evictedIndex), null);
             }
         }
+    }
 
-        queue.add(event);
+    /**
+     * Collects the messages in the backlog (oldest first) matching the node id, or all messages if the node id is
+     * <tt>null</tt>.
+     */
+    private List<BacklogTracerEventMessage> collect(String nodeId, boolean remove) {
+        List<BacklogTracerEventMessage> answer = new ArrayList<>();
+        readLock.lock();
+        try {
+            long end = tail.get();
+            long start = Math.max(head, end - backlogSize);
+            for (long sequence = start; sequence < end; sequence++) {
+                int index = (int) sequence & RING_MASK;
+                if (sequences.get(index) != sequence) {
+                    continue;
+                }
+                BacklogTracerEventMessage message = ring.get(index);
+                if (message == null || sequences.get(index) != sequence) {
+                    continue;
+                }
+                if (nodeId == null || nodeId.equals(message.getToNode()) || nodeId.equals(message.getWorkflowId())) {
+                    answer.add(message);
+                    if (remove) {
+                        ring.compareAndSet(index, message, null);
+                    }
+                }
+            }
+            if (remove && nodeId == null) {
+                head = end;
+            }
+        } finally {
+            readLock.unlock();
+        }
+        return answer;
     }
 
     private boolean shouldTraceFilter(Exchange exchange) {
@@ -310,6 +475,43 @@ public final class BacklogTracer extends ServiceSupport implements org.zenithblo
         }
     }
 
+    @Override
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("The sample rate must be between 0.0 and 1.0, was: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+        this.sampleThreshold = sampleRate >= 1 ? -1 : (int) (sampleRate * Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isTailSampling() {
+        return tailSampling;
+    }
+
+    @Override
+    public void setTailSampling(boolean tailSampling) {
+        this.tailSampling = tailSampling;
+        if (!tailSampling) {
+            pending.clear();
+        }
+    }
+
+    @Override
+    public long getTailSamplingThreshold() {
+        return tailSamplingThreshold;
+    }
+
+    @Override
+    public void setTailSamplingThreshold(long tailSamplingThreshold) {
+        this.tailSamplingThreshold = tailSamplingThreshold;
+    }
+
     @Override
     public long getTraceCounter() {
         return traceCounter.get();
@@ -317,7 +519,15 @@ public final class BacklogTracer extends ServiceSupport implements org.zenithblo
 
     @Override
     public long getQueueSize() {
-        return queue.size();
+        long end = tail.get();
+        long answer = 0;
+        for (long sequence = Math.max(head, end - backlogSize); sequence < end; sequence++) {
+            int index = (int) sequence & RING_MASK;
+            if (sequences.get(index) == sequence && ring.get(index) != null) {
+                answer++;
+            }
+        }
+        return answer;
     }
 
     @Override
@@ -326,20 +536,10 @@ public final class BacklogTracer extends ServiceSupport implements org.zenithblo
     }
 
     public List<BacklogTracerEventMessage> dumpTracedMessages(String nodeId) {
-        List<BacklogTracerEventMessage> answer = new ArrayList<>();
-        if (nodeId != null) {
-            for (BacklogTracerEventMessage message : queue) {
-                if (nodeId.equals(message.getToNode()) || nodeId.equals(message.getWorkflowId())) {
-                    answer.add(message);
-                }
-            }
-        }
-
-        if (removeOnDump) {
-            queue.removeAll(answer);
+        if (nodeId == null) {
+            return new ArrayList<>();
         }
-
-        return answer;
+        return collect(nodeId, removeOnDump);
     }
 
     @Override
@@ -364,11 +564,7 @@ public final class BacklogTracer extends ServiceSupport implements org.zenithblo
 
     @Override
     public List<BacklogTracerEventMessage> dumpAllTracedMessages() {
-        List<BacklogTracerEventMessage> answer = new ArrayList<>(queue);
-        if (isRemoveOnDump()) {
-            queue.clear();
-        }
-        return answer;
+        return collect(null, isRemoveOnDump());
     }
 
     @Override
@@ -403,7 +599,15 @@ public final class BacklogTracer extends ServiceSupport implements org.zenithblo
 
     @Override
     public void clear() {
-        queue.clear();
+        readLock.lock();
+        try {
+            head = tail.get();
+            for (int i = 0; i < RING_SIZE; i++) {
+                ring.set(i, null);
+            }
+        } finally {
+            readLock.unlock();
+        }
     }
 
     public long incrementTraceCounter() {
@@ -412,7 +616,58 @@ public final class BacklogTracer extends ServiceSupport implements org.zenithblo
 
     @Override
     protected void doStop() throws Exception {
-        queue.clear();
+        clear();
+        pending.clear();
+    }
+
+    /**
+     * The traces of an exchange (and its split and multicast copies) which was not sampled, until it completes.
+     */
+    public static final class PendingEvents {
+
+        private final String exchangeId;
+        private final Queue<DefaultBacklogTracerEventMessage> events = new ConcurrentLinkedQueue<>();
+
+        private PendingEvents(String exchangeId) {
+            this.exchangeId = exchangeId;
+        }
+
+        public void add(DefaultBacklogTracerEventMessage event) {
+            events.add(event);
+        }
+    }
+
+    /**
+     * The message of a traced exchange, which is rendered once when first read.
+     */
+    private final class CapturedMessage implements Supplier<JsonObject> {
+
+        private volatile Exchange exchange;
+        private volatile JsonObject data;
+
+        private CapturedMessage(Exchange exchange) {
+            this.exchange = exchange;
+        }
+
+        private CapturedMessage(JsonObject data) {
+            this.data = data;
+        }
+
+        @Override
+        public JsonObject get() {
+            JsonObject answer = data;
+            if (answer == null) {
+                Exchange copy = exchange;
+                if (copy == null) {
+                    // rendered by another thread, which sets the data before releasing the exchange
+                    return data;
+                }
+                answer = renderMessage(copy);
+                data = answer;
+                exchange = null;
+            }
+            return answer;
+        }
     }
 
 }
@@ -28,6 +28,7 @@ import org.zenithblox.util.json.Jsoner;
 
 import java.text.SimpleDateFormat;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.zenithblox.support.MessageHelper.dumpExceptionAsJSonObject;
 
@@ -54,7 +55,7 @@ public final class DefaultBacklogTracerEventMessage implements BacklogTracerEven
     private Map<String, String> endpointServiceMetadata;
     private final boolean rest;
     private final boolean template;
-    private final JsonObject data;
+    private final Supplier<JsonObject> data;
     private volatile String dataAsJson;
     private volatile String dataAsXml;
     private Throwable exception;
@@ -67,6 +68,17 @@ public final class DefaultBacklogTracerEventMessage implements BacklogTracerEven
     public DefaultBacklogTracerEventMessage(ZwangineContext zwangineContext, boolean first, boolean last, long uid, long timestamp,
                                             String location, String workflowId, String toNode, String exchangeId,
                                             boolean rest, boolean template, JsonObject data) {
+        this(zwangineContext, first, last, uid, timestamp, location, workflowId, toNode, exchangeId, rest, template,
+             () -> data);
+    }
+
+    /**
+     * Creates an event message where the message data is supplied when first read, such as from
+     * {@link BacklogTracer#captureMessage(org.zenithblox.Exchange)}.
+     */
+    public DefaultBacklogTracerEventMessage(ZwangineContext zwangineContext, boolean first, boolean last, long uid, long timestamp,
+                                            String location, String workflowId, String toNode, String exchangeId,
+                                            boolean rest, boolean template, Supplier<JsonObject> data) {
         this.zwangineContext = zwangineContext;
         this.watch = new StopWatch();
         this.first = first;
@@ -153,7 +165,7 @@ public final class DefaultBacklogTracerEventMessage implements BacklogTracerEven
 
     public String getMessageAsXml(int indent) {
         if (dataAsXml == null) {
-            dataAsXml = toXML(data, indent);
+            dataAsXml = toXML(data.get(), indent);
         }
         return dataAsXml;
     }
@@ -161,7 +173,7 @@ public final class DefaultBacklogTracerEventMessage implements BacklogTracerEven
     @Override
     public String getMessageAsJSon() {
         if (dataAsJson == null) {
-            dataAsJson = data.toJson();
+            dataAsJson = data.get().toJson();
         }
         return dataAsJson;
     }
@@ -524,7 +536,7 @@ public final class DefaultBacklogTracerEventMessage implements BacklogTracerEven
             }
             jo.put("endpointService", es);
         }
-        jo.put("message", data.getMap("message"));
+        jo.put("message", data.get().getMap("message"));
         if (exception != null) {
             if (exceptionAsJsonObject == null) {
                 try {
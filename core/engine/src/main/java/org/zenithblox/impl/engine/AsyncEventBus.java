@@ -0,0 +1,567 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.engine;
+
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.ZwangineContextAware;
+import org.zenithblox.spi.ZwangineEvent;
+import org.zenithblox.spi.EventNotifier;
+import org.zenithblox.support.service.ServiceSupport;
+import org.zenithblox.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers the events to the {@link EventNotifier#isAsync() asynchronous} event notifiers on a dedicated thread.
+ * <p/>
+ * The routing threads write the events into a bounded ring buffer without locking, and the dispatcher thread takes the
+ * events from the ring buffer in batches and delivers them to the notifiers in the order they were published. When the
+ * ring buffer is full the {@link OverflowPolicy} decides whether the event is dropped, the routing thread waits for
+ * space, or the routing thread delivers the event itself.
+ */
+public class AsyncEventBus extends ServiceSupport implements ZwangineContextAware, Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEventBus.class);
+
+    /**
+     * What to do when an event is published while the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The event is dropped (and counted)
+         */
+        Drop,
+        /**
+         * The routing thread waits until there is space in the ring buffer (events published by the dispatcher thread
+         * itself are delivered right away)
+         */
+        Block,
+        /**
+         * The routing thread delivers the event to the notifier itself
+         */
+        CallerRuns
+    }
+
+    private ZwangineContext zwangineContext;
+    private int capacity = 8192;
+    private int batchSize = 256;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.Drop;
+
+    // the ring buffer where the sequence of a slot tells whether the slot is free (sequence == position) or holds
+    // the published event (sequence == position + 1) for the position in the ring
+    private AtomicLongArray sequences;
+    private EventNotifier[] notifiers;
+    private ZwangineEvent[] events;
+    private long[] published;
+    private int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // position of the next event to deliver (only written by the dispatcher)
+    private volatile long head;
+
+    private final LongAdder publishedCounter = new LongAdder();
+    private final LongAdder droppedCounter = new LongAdder();
+    private final LongAdder callerRunsCounter = new LongAdder();
+    private volatile long deliveredCounter;
+    private volatile long lastLag;
+    private volatile long maxLag;
+
+    private ExecutorService executorService;
+    private volatile Thread dispatcher;
+    private volatile boolean waiting;
+    private volatile boolean running;
+
+    @Override
+    public ZwangineContext getZwangineContext() {
+        return zwangineContext;
+    }
+
+    @Override
+    public void setZwangineContext(ZwangineContext zwangineContext) {
+        this.zwangineContext = zwangineContext;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The maximum number of events waiting to be delivered (rounded up to a power of two). Default is 8192.
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * The maximum number of events the dispatcher takes from the ring buffer at a time. Default is 256.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * What to do when the ring buffer is full. Default is to drop the events.
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Number of events published to the bus
+     */
+    public long getPublishedCounter() {
+        return publishedCounter.sum();
+    }
+
+    /**
+     * Number of events delivered to the notifiers by the dispatcher
+     */
+    public long getDeliveredCounter() {
+        return deliveredCounter;
+    }
+
+    /**
+     * Number of events dropped because the ring buffer was full
+     */
+    public long getDroppedCounter() {
+        return droppedCounter.sum();
+    }
+
+    /**
+     * Number of events delivered by the routing thread because the ring buffer was full, or the bus was not running
+     */
+    public long getCallerRunsCounter() {
+        return callerRunsCounter.sum();
+    }
+
+    /**
+     * Number of events waiting to be delivered
+     */
+    public int getPendingSize() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * Time in nanos from the event was published until it was delivered, for the last delivered event
+     */
+    public long getLag() {
+        return lastLag;
+    }
+
+    /**
+     * The highest time in nanos from an event was published until it was delivered
+     */
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    /**
+     * Publishes the event to be delivered to the notifier on the dispatcher thread.
+     *
+     * @return <tt>true</tt> if the event was delivered or is to be delivered, <tt>false</tt> if the event was dropped
+     */
+    public boolean publish(EventNotifier notifier, ZwangineEvent event) {
+        publishedCounter.increment();
+        if (!running) {
+            // not running so deliver the event right away
+            callerRunsCounter.increment();
+            deliver(notifier, event);
+            return true;
+        }
+        while (!offer(notifier, event)) {
+            if (overflowPolicy == OverflowPolicy.Drop) {
+                droppedCounter.increment();
+                return false;
+            } else if (overflowPolicy == OverflowPolicy.CallerRuns || !running || Thread.currentThread() == dispatcher) {
+                // the dispatcher cannot wait for itself to make space (when a notifier publishes events)
+                callerRunsCounter.increment();
+                deliver(notifier, event);
+                return true;
+            }
+            // block until the dispatcher has made space
+            wakeup();
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        if (waiting) {
+            wakeup();
+        }
+        return true;
+    }
+
+    private boolean offer(EventNotifier notifier, ZwangineEvent event) {
+        long pos = tail.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // the slot still holds an event from the previous lap, so the ring buffer is full
+                return false;
+            } else {
+                // another thread claimed the slot
+                pos = tail.get();
+            }
+        }
+        notifiers[index] = notifier;
+        events[index] = event;
+        published[index] = System.nanoTime();
+        // publish the event to the dispatcher
+        sequences.set(index, pos + 1);
+        return true;
+    }
+
+    private void wakeup() {
+        Thread thread = dispatcher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    @Override
+    public void run() {
+        dispatcher = Thread.currentThread();
+        EventNotifier[] batchNotifiers = new EventNotifier[batchSize];
+        ZwangineEvent[] batchEvents = new ZwangineEvent[batchSize];
+        long[] batchPublished = new long[batchSize];
+        try {
+            while (running) {
+                if (drain(batchNotifiers, batchEvents, batchPublished) == 0) {
+                    waiting = true;
+                    // check again after flagging we are waiting, as a publisher may not have seen the flag
+                    if (running && !hasPending()) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                    }
+                    waiting = false;
+                }
+            }
+            // deliver the remaining events before stopping
+            while (drain(batchNotifiers, batchEvents, batchPublished) > 0) {
+                // noop
+            }
+        } finally {
+            dispatcher = null;
+        }
+    }
+
+    private boolean hasPending() {
+        long pos = head;
+        return sequences.get((int) (pos & mask)) == pos + 1;
+    }
+
+    /**
+     * Takes a batch of events from the ring buffer and delivers them (only called by one thread at a time).
+     */
+    private int drain(EventNotifier[] batchNotifiers, ZwangineEvent[] batchEvents, long[] batchPublished) {
+        long pos = head;
+        int count = 0;
+        while (count < batchNotifiers.length) {
+            int index = (int) (pos & mask);
+            if (sequences.get(index) != pos + 1) {
+                break;
+            }
+            batchNotifiers[count] = notifiers[index];
+            batchEvents[count] = events[index];
+            batchPublished[count] = published[index];
+            notifiers[index] = null;
+            events[index] = null;
+            // free the slot for the next lap
+            sequences.set(index, pos + mask + 1);
+            pos++;
+            count++;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        head = pos;
+
+        long max = maxLag;
+        for (int i = 0; i < count; i++) {
+            deliver(batchNotifiers[i], batchEvents[i]);
+            long lag = System.nanoTime() - batchPublished[i];
+            lastLag = lag;
+            if (lag > max) {
+                max = lag;
+            }
+            batchNotifiers[i] = null;
+            batchEvents[i] = null;
+        }
+        maxLag = max;
+        deliveredCounter += count;
+        return count;
+    }
+
+    private static void deliver(EventNotifier notifier, ZwangineEvent event) {
+        try {
+            notifier.notify(event);
+        } catch (Throwable e) {
+            LOG.warn("Error notifying event {}. This exception will be ignored.", event, e);
+        }
+    }
+
+    /**
+     * Wraps the asynchronous notifier, so the events are published to this bus instead of delivered to the notifier
+     * on the routing thread.
+     */
+    public EventNotifier wrap(EventNotifier notifier) {
+        return new AsyncEventNotifier(this, notifier);
+    }
+
+    /**
+     * Unwraps the notifier if it was wrapped by {@link #wrap(EventNotifier)}.
+     */
+    public static EventNotifier unwrap(EventNotifier notifier) {
+        if (notifier instanceof AsyncEventNotifier async) {
+            return async.getDelegate();
+        }
+        return notifier;
+    }
+
+    @Override
+    protected void doInit() throws Exception {
+        ObjectHelper.notNull(zwangineContext, "ZwangineContext", this);
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be 2 or higher, was: " + capacity);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("BatchSize must be 1 or higher, was: " + batchSize);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        notifiers = new EventNotifier[size];
+        events = new ZwangineEvent[size];
+        published = new long[size];
+        mask = size - 1;
+        tail.set(0);
+        head = 0;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        running = true;
+        executorService = zwangineContext.getExecutorServiceManager().newSingleThreadExecutor(this, "AsyncEventNotifier");
+        executorService.execute(this);
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        running = false;
+        if (executorService != null) {
+            wakeup();
+            // wait for the dispatcher to deliver the remaining events
+            zwangineContext.getExecutorServiceManager().shutdownGraceful(executorService);
+            executorService = null;
+        }
+        // deliver events which were published while stopping
+        drain(new EventNotifier[batchSize], new ZwangineEvent[batchSize], new long[batchSize]);
+    }
+
+    /**
+     * An event notifier which publishes the events to the bus, and otherwise delegates to the asynchronous notifier,
+     * so the notifier is still filtering the events on the routing thread.
+     */
+    static final class AsyncEventNotifier implements EventNotifier {
+
+        private final AsyncEventBus bus;
+        private final EventNotifier delegate;
+
+        AsyncEventNotifier(AsyncEventBus bus, EventNotifier delegate) {
+            this.bus = bus;
+            this.delegate = delegate;
+        }
+
+        EventNotifier getDelegate() {
+            return delegate;
+        }
+
+        @Override
+        public void notify(ZwangineEvent event) throws Exception {
+            bus.publish(delegate, event);
+        }
+
+        @Override
+        public boolean isEnabled(ZwangineEvent event) {
+            return delegate.isEnabled(event);
+        }
+
+        @Override
+        public boolean isDisabled() {
+            return delegate.isDisabled();
+        }
+
+        @Override
+        public boolean isAsync() {
+            return true;
+        }
+
+        @Override
+        public boolean isIgnoreZwangineContextInitEvents() {
+            return delegate.isIgnoreZwangineContextInitEvents();
+        }
+
+        @Override
+        public void setIgnoreZwangineContextInitEvents(boolean ignoreZwangineContextInitEvents) {
+            delegate.setIgnoreZwangineContextInitEvents(ignoreZwangineContextInitEvents);
+        }
+
+        @Override
+        public boolean isIgnoreZwangineContextEvents() {
+            return delegate.isIgnoreZwangineContextEvents();
+        }
+
+        @Override
+        public void setIgnoreZwangineContextEvents(boolean ignoreZwangineContextEvents) {
+            delegate.setIgnoreZwangineContextEvents(ignoreZwangineContextEvents);
+        }
+
+        @Override
+        public boolean isIgnoreWorkflowEvents() {
+            return delegate.isIgnoreWorkflowEvents();
+        }
+
+        @Override
+        public void setIgnoreWorkflowEvents(boolean ignoreWorkflowEvents) {
+            delegate.setIgnoreWorkflowEvents(ignoreWorkflowEvents);
+        }
+
+        @Override
+        public boolean isIgnoreServiceEvents() {
+            return delegate.isIgnoreServiceEvents();
+        }
+
+        @Override
+        public void setIgnoreServiceEvents(boolean ignoreServiceEvents) {
+            delegate.setIgnoreServiceEvents(ignoreServiceEvents);
+        }
+
+        @Override
+        public boolean isIgnoreExchangeEvents() {
+            return delegate.isIgnoreExchangeEvents();
+        }
+
+        @Override
+        public void setIgnoreExchangeEvents(boolean ignoreExchangeEvents) {
+            delegate.setIgnoreExchangeEvents(ignoreExchangeEvents);
+        }
+
+        @Override
+        public boolean isIgnoreExchangeCreatedEvent() {
+            return delegate.isIgnoreExchangeCreatedEvent();
+        }
+
+        @Override
+        public void setIgnoreExchangeCreatedEvent(boolean ignoreExchangeCreatedEvent) {
+            delegate.setIgnoreExchangeCreatedEvent(ignoreExchangeCreatedEvent);
+        }
+
+        @Override
+        public boolean isIgnoreExchangeCompletedEvent() {
+            return delegate.isIgnoreExchangeCompletedEvent();
+        }
+
+        @Override
+        public void setIgnoreExchangeCompletedEvent(boolean ignoreExchangeCompletedEvent) {
+            delegate.setIgnoreExchangeCompletedEvent(ignoreExchangeCompletedEvent);
+        }
+
+        @Override
+        public boolean isIgnoreExchangeFailedEvents() {
+            return delegate.isIgnoreExchangeFailedEvents();
+        }
+
+        @Override
+        public void setIgnoreExchangeFailedEvents(boolean ignoreExchangeFailureEvents) {
+            delegate.setIgnoreExchangeFailedEvents(ignoreExchangeFailureEvents);
+        }
+
+        @Override
+        public boolean isIgnoreExchangeRedeliveryEvents() {
+            return delegate.isIgnoreExchangeRedeliveryEvents();
+        }
+
+        @Override
+        public void setIgnoreExchangeRedeliveryEvents(boolean ignoreExchangeRedeliveryEvents) {
+            delegate.setIgnoreExchangeRedeliveryEvents(ignoreExchangeRedeliveryEvents);
+        }
+
+        @Override
+        public boolean isIgnoreExchangeSentEvents() {
+            return delegate.isIgnoreExchangeSentEvents();
+        }
+
+        @Override
+        public void setIgnoreExchangeSentEvents(boolean ignoreExchangeSentEvents) {
+            delegate.setIgnoreExchangeSentEvents(ignoreExchangeSentEvents);
+        }
+
+        @Override
+        public boolean isIgnoreExchangeSendingEvents() {
+            return delegate.isIgnoreExchangeSendingEvents();
+        }
+
+        @Override
+        public void setIgnoreExchangeSendingEvents(boolean ignoreExchangeSendingEvents) {
+            delegate.setIgnoreExchangeSendingEvents(ignoreExchangeSendingEvents);
+        }
+
+        @Override
+        public boolean isIgnoreStepEvents() {
+            return delegate.isIgnoreStepEvents();
+        }
+
+        @Override
+        public void setIgnoreStepEvents(boolean ignoreStepEvents) {
+            delegate.setIgnoreStepEvents(ignoreStepEvents);
+        }
+
+        @Override
+        public void setIgnoreExchangeAsyncProcessingStartedEvents(boolean ignoreExchangeAsyncProcessingStartedEvents) {
+            delegate.setIgnoreExchangeAsyncProcessingStartedEvents(ignoreExchangeAsyncProcessingStartedEvents);
+        }
+
+        @Override
+        public boolean isIgnoreExchangeAsyncProcessingStartedEvents() {
+            return delegate.isIgnoreExchangeAsyncProcessingStartedEvents();
+        }
+
+        @Override
+        public String toString() {
+            return "Async[" + delegate + "]";
+        }
+    }
+}
@@ -35,6 +35,7 @@ import org.zenithblox.util.concurrent.ZwangineThreadFactory;
 import org.zenithblox.util.concurrent.SizedScheduledExecutorService;
 import org.zenithblox.util.concurrent.ThreadHelper;
 import org.zenithblox.util.concurrent.ThreadPoolRejectedPolicy;
+import org.zenithblox.util.concurrent.ThreadType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -186,7 +187,8 @@ public class BaseExecutorServiceManager extends ServiceSupport implements Execut
         ThreadPoolProfile defaultProfile = getDefaultThreadPoolProfile();
         profile.addDefaults(defaultProfile);
 
-        ThreadFactory threadFactory = createThreadFactory(sanitizedName, true);
+        boolean virtual = Boolean.TRUE.equals(profile.getVirtualThreads()) || ThreadType.current() == ThreadType.VIRTUAL;
+        ThreadFactory threadFactory = createThreadFactory(sanitizedName, true, virtual);
         ExecutorService executorService = threadPoolFactory.newThreadPool(profile, threadFactory);
         onThreadPoolCreated(executorService, source, profile.getId());
         if (LOG.isDebugEnabled()) {
@@ -578,7 +580,11 @@ public class BaseExecutorServiceManager extends ServiceSupport implements Execut
     }
 
     protected ThreadFactory createThreadFactory(String name, boolean daemon) {
-        ThreadFactory factory = new ZwangineThreadFactory(threadNamePattern, name, daemon);
+        return createThreadFactory(name, daemon, ThreadType.current() == ThreadType.VIRTUAL);
+    }
+
+    protected ThreadFactory createThreadFactory(String name, boolean daemon, boolean virtual) {
+        ThreadFactory factory = new ZwangineThreadFactory(threadNamePattern, name, daemon, virtual);
         for (ThreadFactoryListener listener : threadFactoryListeners) {
             factory = listener.onNewThreadFactory(factory);
         }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.engine;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.spi.HeadersMapFactory;
+import org.zenithblox.util.CaseInsensitiveHashMap;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link HeadersMapFactory} which uses the {@link CaseInsensitiveHashMap}, a case insensitive hash map using open
+ * addressing. Compared to the {@link DefaultHeadersMapFactory} looking up a header is O(1) instead of O(log n), and
+ * creating and copying the headers allocates less.
+ * <p/>
+ * The case folded hashes of the header names defined as constants on {@link Exchange}, and of the headers of the file
+ * component which are not defined on {@link Exchange}, are precomputed.
+ * <p/>
+ * This factory can be configured with
+ * {@link org.zenithblox.ExtendedZwangineContext#setHeadersMapFactory(HeadersMapFactory)}.
+ */
+public class CaseInsensitiveHashMapHeadersMapFactory implements HeadersMapFactory {
+
+    // the headers of the file component which are not defined on Exchange (the engine cannot depend on the component)
+    private static final String[] FILE_HEADERS = {
+            "ZwangineFileAbsolute", "ZwangineFileAbsolutePath", "ZwangineFileExtendedAttributes",
+            "ZwangineFileRelativePath", "ZwangineFileInitialOffset" };
+
+    private static final CaseInsensitiveHashMap.KnownKeys KNOWN_KEYS = new CaseInsensitiveHashMap.KnownKeys(knownKeys());
+
+    @Override
+    public Map<String, Object> newMap() {
+        return new CaseInsensitiveHashMap(KNOWN_KEYS);
+    }
+
+    @Override
+    public Map<String, Object> newMap(Map<String, Object> map) {
+        return new CaseInsensitiveHashMap(map, KNOWN_KEYS);
+    }
+
+    @Override
+    public boolean isInstanceOf(Map<String, Object> map) {
+        return map instanceof CaseInsensitiveHashMap;
+    }
+
+    @Override
+    public boolean isCaseInsensitive() {
+        return true;
+    }
+
+    private static Set<String> knownKeys() {
+        Set<String> answer = new LinkedHashSet<>();
+        for (Field field : Exchange.class.getFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers) && field.getType() == String.class) {
+                try {
+                    answer.add((String) field.get(null));
+                } catch (IllegalAccessException e) {
+                    // ignore
+                }
+            }
+        }
+        answer.addAll(Arrays.asList(FILE_HEADERS));
+        return answer;
+    }
+}
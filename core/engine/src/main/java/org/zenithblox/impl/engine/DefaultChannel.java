@@ -165,9 +165,25 @@ public class DefaultChannel extends ZwangineInternalProcessor implements Channel
             addAdvice(new TracingAdvice(zwangineContext, tracer, targetOutputDef, workflowDefinition, first));
         }
 
+        if (workflow.isMessageHistory() != null && workflow.isMessageHistory()) {
+            // add message history advice
+            MessageHistoryFactory factory = zwangineContext.getMessageHistoryFactory();
+            addAdvice(new MessageHistoryAdvice(factory, targetOutputDef));
+        }
+
         // add advice that keeps track of which node is processing
         addAdvice(new NodeHistoryAdvice(targetOutputDef));
 
+        ZwangineMetricsService metricsService = PluginHelper.getZwangineMetricsService(zwangineContext);
+        if (metricsService != null) {
+            // add advice that records the metrics of the processor
+            ZwangineInternalProcessorAdvice<?> advice
+                    = metricsService.createProcessorAdvice(workflow.getWorkflowId(), targetOutputDef.getId());
+            if (advice != null) {
+                addAdvice(advice);
+            }
+        }
+
         // sort interceptors according to ordered
         interceptors.sort(OrderedComparator.get());
         // reverse list so the first will be wrapped last, as it would then be first being invoked
@@ -20,6 +20,7 @@ import org.zenithblox.Exchange;
 import org.zenithblox.ExchangePropertyKey;
 import org.zenithblox.MessageHistory;
 import org.zenithblox.spi.InflightRepository;
+import org.zenithblox.support.CompactMessageHistory;
 import org.zenithblox.support.ExchangeHelper;
 import org.zenithblox.support.service.ServiceSupport;
 import org.slf4j.Logger;
@@ -232,7 +233,12 @@ public class DefaultInflightRepository extends ServiceSupport implements Infligh
         @SuppressWarnings("unchecked")
         public long getElapsed() {
             // this can only be calculate if message history is enabled
-            List<MessageHistory> list = exchange.getProperty(ExchangePropertyKey.MESSAGE_HISTORY, List.class);
+            Object value = exchange.getProperty(ExchangePropertyKey.MESSAGE_HISTORY);
+            if (value instanceof CompactMessageHistory compact) {
+                // avoid creating the message history of the node
+                return compact.getLatestElapsed();
+            }
+            List<MessageHistory> list = (List<MessageHistory>) value;
             if (list == null || list.isEmpty()) {
                 return 0;
             }
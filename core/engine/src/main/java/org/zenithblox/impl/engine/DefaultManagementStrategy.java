@@ -49,6 +49,7 @@ public class DefaultManagementStrategy extends ServiceSupport implements Managem
     private ManagementObjectStrategy managementObjectStrategy;
     private ManagementAgent managementAgent;
     private ZwangineContext zwangineContext;
+    private AsyncEventBus asyncEventBus;
 
     public DefaultManagementStrategy() {
     }
@@ -72,12 +73,26 @@ public class DefaultManagementStrategy extends ServiceSupport implements Managem
         return startedEventNotifiers;
     }
 
+    /**
+     * The bus which delivers the events to the {@link EventNotifier#isAsync() asynchronous} event notifiers.
+     */
+    public AsyncEventBus getAsyncEventBus() {
+        if (asyncEventBus == null) {
+            asyncEventBus = new AsyncEventBus();
+        }
+        return asyncEventBus;
+    }
+
+    public void setAsyncEventBus(AsyncEventBus asyncEventBus) {
+        this.asyncEventBus = asyncEventBus;
+    }
+
     @Override
     public void addEventNotifier(EventNotifier eventNotifier) {
         this.eventNotifiers.add(eventNotifier);
         if (isStarted()) {
             // already started
-            this.startedEventNotifiers.add(eventNotifier);
+            this.startedEventNotifiers.add(startedEventNotifier(eventNotifier));
         }
         if (getZwangineContext() != null) {
             // inject zwangine context if needed
@@ -91,10 +106,21 @@ public class DefaultManagementStrategy extends ServiceSupport implements Managem
 
     @Override
     public boolean removeEventNotifier(EventNotifier eventNotifier) {
-        startedEventNotifiers.remove(eventNotifier);
+        startedEventNotifiers.removeIf(n -> AsyncEventBus.unwrap(n) == eventNotifier);
         return eventNotifiers.remove(eventNotifier);
     }
 
+    private EventNotifier startedEventNotifier(EventNotifier eventNotifier) {
+        if (!eventNotifier.isAsync()) {
+            return eventNotifier;
+        }
+        // asynchronous notifiers get the events from the bus, which must be started before the first event
+        AsyncEventBus bus = getAsyncEventBus();
+        bus.setZwangineContext(getZwangineContext());
+        ServiceHelper.startService(bus);
+        return bus.wrap(eventNotifier);
+    }
+
     @Override
     public EventFactory getEventFactory() {
         return eventFactory;
@@ -177,7 +203,11 @@ public class DefaultManagementStrategy extends ServiceSupport implements Managem
         if (!eventNotifiers.isEmpty()) {
             for (EventNotifier notifier : eventNotifiers) {
                 if (notifier.isEnabled(event)) {
-                    notifier.notify(event);
+                    if (notifier.isAsync() && asyncEventBus != null) {
+                        asyncEventBus.publish(notifier, event);
+                    } else {
+                        notifier.notify(event);
+                    }
                 }
             }
         }
@@ -211,12 +241,16 @@ public class DefaultManagementStrategy extends ServiceSupport implements Managem
     @Override
     protected void doStart() throws Exception {
         ServiceHelper.startService(eventNotifiers, managementAgent, managementObjectStrategy, managementObjectNameStrategy);
-        startedEventNotifiers.addAll(eventNotifiers);
+        for (EventNotifier notifier : eventNotifiers) {
+            startedEventNotifiers.add(startedEventNotifier(notifier));
+        }
     }
 
     @Override
     protected void doStop() throws Exception {
         startedEventNotifiers.clear();
+        // deliver the pending asynchronous events before the notifiers are stopped
+        ServiceHelper.stopService(asyncEventBus);
         ServiceHelper.stopService(managementObjectNameStrategy, managementObjectStrategy, managementAgent, eventNotifiers);
     }
 
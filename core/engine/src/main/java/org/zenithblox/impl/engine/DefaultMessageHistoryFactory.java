@@ -18,6 +18,7 @@ package org.zenithblox.impl.engine;
 
 import org.zenithblox.*;
 import org.zenithblox.spi.MessageHistoryFactory;
+import org.zenithblox.support.CompactMessageHistory;
 import org.zenithblox.support.DefaultMessageHistory;
 import org.zenithblox.support.PatternHelper;
 import org.zenithblox.support.service.ServiceSupport;
@@ -41,14 +42,8 @@ public class DefaultMessageHistoryFactory extends ServiceSupport implements Mess
 
     @Override
     public MessageHistory newMessageHistory(String workflowId, NamedNode node, Exchange exchange) {
-        if (nodePatternParts != null) {
-            String name = node.getShortName();
-            for (String part : nodePatternParts) {
-                boolean match = PatternHelper.matchPattern(name, part);
-                if (!match) {
-                    return null;
-                }
-            }
+        if (!isIncluded(node)) {
+            return null;
         }
 
         Message msg = null;
@@ -60,6 +55,43 @@ public class DefaultMessageHistoryFactory extends ServiceSupport implements Mess
         return answer;
     }
 
+    /**
+     * Adds the node to the {@link CompactMessageHistory} of the exchange, which is used instead of creating a
+     * {@link MessageHistory} per node.
+     *
+     * @param  node     the node in the workflow
+     * @param  exchange the current exchange
+     * @return          the message history of the exchange, or <tt>null</tt> if the node is not included, or the
+     *                  exchange has message history which is not compact
+     */
+    public CompactMessageHistory addMessageHistory(CompactMessageHistory.Node node, Exchange exchange) {
+        if (!isIncluded(node.getNode())) {
+            return null;
+        }
+        CompactMessageHistory answer = CompactMessageHistory.getOrCreate(exchange);
+        if (answer != null) {
+            Message msg = null;
+            if (copyMessage) {
+                msg = exchange.getMessage().copy();
+            }
+            answer.add(node, msg);
+        }
+        return answer;
+    }
+
+    private boolean isIncluded(NamedNode node) {
+        if (nodePatternParts != null) {
+            String name = node.getShortName();
+            for (String part : nodePatternParts) {
+                boolean match = PatternHelper.matchPattern(name, part);
+                if (!match) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     public boolean isEnabled() {
         return zwangineContext != null ? zwangineContext.isMessageHistory() : false;
     }
@@ -18,6 +18,8 @@ package org.zenithblox.impl.engine;
 
 import org.zenithblox.*;
 import org.zenithblox.spi.StreamCachingStrategy;
+import org.zenithblox.stream.ByteBufferInputStreamCache;
+import org.zenithblox.stream.DirectBufferPool;
 import org.zenithblox.support.TempDirHelper;
 import org.zenithblox.support.service.ServiceSupport;
 import org.zenithblox.util.FileUtil;
@@ -55,6 +57,9 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
     private String spoolCipher;
     private int bufferSize = IOHelper.DEFAULT_BUFFER_SIZE;
     private boolean removeSpoolDirectoryWhenStopping = true;
+    private CacheMode cacheMode = CacheMode.Heap;
+    private long offHeapPoolSize = 64 * 1024 * 1024L;
+    private volatile DirectBufferPool directBufferPool;
     private final UtilizationStatistics statistics = new UtilizationStatistics();
     private final Set<SpoolRule> spoolRules = new LinkedHashSet<>();
     private boolean anySpoolRules;
@@ -182,6 +187,33 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
         this.bufferSize = bufferSize;
     }
 
+    @Override
+    public CacheMode getCacheMode() {
+        return cacheMode;
+    }
+
+    @Override
+    public void setCacheMode(CacheMode cacheMode) {
+        this.cacheMode = cacheMode;
+    }
+
+    @Override
+    public long getOffHeapPoolSize() {
+        return offHeapPoolSize;
+    }
+
+    @Override
+    public void setOffHeapPoolSize(long offHeapPoolSize) {
+        this.offHeapPoolSize = offHeapPoolSize;
+    }
+
+    /**
+     * The pool of direct buffers used when the cache mode is {@link CacheMode#OffHeap}, or <tt>null</tt> if not in use.
+     */
+    public DirectBufferPool getDirectBufferPool() {
+        return directBufferPool;
+    }
+
     @Override
     public boolean isRemoveSpoolDirectoryWhenStopping() {
         return removeSpoolDirectoryWhenStopping;
@@ -306,10 +338,11 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
 
     private void computeStatistics(StreamCache cache) {
         try {
+            boolean offHeap = cache instanceof ByteBufferInputStreamCache;
             if (cache.inMemory()) {
-                statistics.updateMemory(cache.length());
+                statistics.updateMemory(cache.length(), offHeap);
             } else {
-                statistics.updateSpool(cache.length());
+                statistics.updateSpool(cache.length(), offHeap);
             }
         } catch (Exception e) {
             LOG.debug("Error updating cache statistics. This exception is ignored.", e);
@@ -327,6 +360,12 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
 
     @Override
     protected void doStart() throws Exception {
+        if (cacheMode == CacheMode.OffHeap && directBufferPool == null) {
+            // the cached output stream may be used by components also when stream caching is not enabled
+            directBufferPool = new DirectBufferPool(offHeapPoolSize);
+            statistics.pool = directBufferPool;
+            LOG.debug("Using off-heap stream caching with {}", directBufferPool);
+        }
         if (!enabled) {
             LOG.debug("StreamCaching is not enabled");
             return;
@@ -426,6 +465,10 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
         }
 
         statistics.reset();
+        if (directBufferPool != null) {
+            // buffers still in use are dropped when released, and reclaimed by the GC
+            directBufferPool.clear();
+        }
     }
 
     private boolean isSpoolRemovable() {
@@ -441,6 +484,7 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
                + ", spoolThreshold=" + spoolThreshold
                + ", spoolUsedHeapMemoryThreshold=" + spoolUsedHeapMemoryThreshold
                + ", bufferSize=" + bufferSize
+               + ", cacheMode=" + cacheMode
                + ", anySpoolRules=" + anySpoolRules + "]";
     }
 
@@ -520,22 +564,35 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
         private final AtomicLong spoolCounter = new AtomicLong();
         private final AtomicLong spoolSize = new AtomicLong();
         private final AtomicLong spoolAverageSize = new AtomicLong();
+        private final AtomicLong offHeapCounter = new AtomicLong();
+        private final AtomicLong offHeapSize = new AtomicLong();
+        private final AtomicLong mappedCounter = new AtomicLong();
+        private final AtomicLong mappedSize = new AtomicLong();
+        private volatile DirectBufferPool pool;
 
-        void updateMemory(long size) {
+        void updateMemory(long size, boolean offHeap) {
             lock.lock();
             try {
                 memoryAverageSize.set(memorySize.addAndGet(size) / memoryCounter.incrementAndGet());
+                if (offHeap) {
+                    offHeapCounter.incrementAndGet();
+                    offHeapSize.addAndGet(size);
+                }
             } finally {
                 lock.unlock();
             }
         }
 
-        void updateSpool(long size) {
+        void updateSpool(long size, boolean mapped) {
             lock.lock();
             try {
                 spoolAverageSize.set(spoolSize.addAndGet(size) / spoolCounter.incrementAndGet());
+                if (mapped) {
+                    mappedCounter.incrementAndGet();
+                    mappedSize.addAndGet(size);
+                }
             } finally {
-                lock.lock();
+                lock.unlock();
             }
         }
 
@@ -569,6 +626,44 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
             return spoolAverageSize.get();
         }
 
+        @Override
+        public long getCacheOffHeapCounter() {
+            return offHeapCounter.get();
+        }
+
+        @Override
+        public long getCacheOffHeapSize() {
+            return offHeapSize.get();
+        }
+
+        @Override
+        public long getCacheMappedCounter() {
+            return mappedCounter.get();
+        }
+
+        @Override
+        public long getCacheMappedSize() {
+            return mappedSize.get();
+        }
+
+        @Override
+        public long getOffHeapPoolAllocated() {
+            DirectBufferPool pool = this.pool;
+            return pool != null ? pool.getAllocatedSize() : 0;
+        }
+
+        @Override
+        public long getOffHeapPoolUsed() {
+            DirectBufferPool pool = this.pool;
+            return pool != null ? pool.getUsedSize() : 0;
+        }
+
+        @Override
+        public long getOffHeapPoolExhaustedCounter() {
+            DirectBufferPool pool = this.pool;
+            return pool != null ? pool.getExhaustedCounter() : 0;
+        }
+
         @Override
         public void reset() {
             lock.lock();
@@ -579,6 +674,14 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
                 spoolCounter.set(0);
                 spoolSize.set(0);
                 spoolAverageSize.set(0);
+                offHeapCounter.set(0);
+                offHeapSize.set(0);
+                mappedCounter.set(0);
+                mappedSize.set(0);
+                DirectBufferPool pool = this.pool;
+                if (pool != null) {
+                    pool.resetStatistics();
+                }
             } finally {
                 lock.unlock();
             }
@@ -597,8 +700,10 @@ public class DefaultStreamCachingStrategy extends ServiceSupport implements Zwan
         @Override
         public String toString() {
             return String.format(
-                    "[memoryCounter=%s, memorySize=%s, memoryAverageSize=%s, spoolCounter=%s, spoolSize=%s, spoolAverageSize=%s]",
-                    memoryCounter, memorySize, memoryAverageSize, spoolCounter, spoolSize, spoolAverageSize);
+                    "[memoryCounter=%s, memorySize=%s, memoryAverageSize=%s, spoolCounter=%s, spoolSize=%s, spoolAverageSize=%s"
+                    + ", offHeapCounter=%s, offHeapSize=%s, mappedCounter=%s, mappedSize=%s, offHeapPoolUsed=%s]",
+                    memoryCounter, memorySize, memoryAverageSize, spoolCounter, spoolSize, spoolAverageSize,
+                    offHeapCounter, offHeapSize, mappedCounter, mappedSize, getOffHeapPoolUsed());
         }
     }
 
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free work queue owned by a single thread, which adds the tasks at the bottom, and which any thread (the owner
+ * as well as the threads stealing work) takes the tasks from the top (in FIFO order).
+ * <p/>
+ * This is the queue of the Chase-Lev work stealing deque where the owner also takes from the top (as in the async mode
+ * of the fork join pool), as the tasks of the reactive executor are event-style tasks which are never joined. The
+ * array grows when full, and slots are not cleared when taking a task (as the owner may already reuse the slot), so a
+ * queue may keep a reference to at most its capacity of tasks which have already been run.
+ */
+final class WorkStealingQueue<T> {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final VarHandle TOP;
+
+    static {
+        try {
+            TOP = MethodHandles.lookup().findVarHandle(WorkStealingQueue.class, "top", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long top;
+    private volatile long bottom;
+    private volatile AtomicReferenceArray<T> array = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+    /**
+     * Adds the task at the bottom of the queue, which must only be called by the owner thread.
+     */
+    void push(T task) {
+        final long b = bottom;
+        AtomicReferenceArray<T> a = array;
+        if (b - top >= a.length()) {
+            a = grow(a, top, b);
+        }
+        a.setRelease((int) b & (a.length() - 1), task);
+        // publishes the task to the threads taking from the queue
+        bottom = b + 1;
+    }
+
+    /**
+     * Takes the task at the top of the queue, which can be called by any thread.
+     *
+     * @return the task, or <tt>null</tt> if the queue is empty
+     */
+    T poll() {
+        for (;;) {
+            final long t = top;
+            final long b = bottom;
+            if (t >= b) {
+                return null;
+            }
+            final AtomicReferenceArray<T> a = array;
+            final T task = a.getAcquire((int) t & (a.length() - 1));
+            if (TOP.compareAndSet(this, t, t + 1)) {
+                return task;
+            }
+            // another thread took the task, so try the next
+        }
+    }
+
+    /**
+     * The number of tasks in the queue (which is an estimate when the queue is used concurrently).
+     */
+    int size() {
+        final long size = bottom - top;
+        return size > 0 ? (int) size : 0;
+    }
+
+    boolean isEmpty() {
+        return bottom <= top;
+    }
+
+    private AtomicReferenceArray<T> grow(AtomicReferenceArray<T> a, long t, long b) {
+        // the tasks keep their index, so threads taking from the previous array still take the same task
+        final AtomicReferenceArray<T> grown = new AtomicReferenceArray<>(a.length() << 1);
+        for (long i = t; i < b; i++) {
+            grown.setPlain((int) i & (grown.length() - 1), a.getPlain((int) i & (a.length() - 1)));
+        }
+        array = grown;
+        return grown;
+    }
+}
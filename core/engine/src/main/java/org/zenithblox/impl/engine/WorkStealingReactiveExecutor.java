@@ -0,0 +1,497 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.engine;
+
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.ZwangineContextAware;
+import org.zenithblox.StaticService;
+import org.zenithblox.spi.ReactiveExecutor;
+import org.zenithblox.support.service.ServiceSupport;
+import org.zenithblox.util.concurrent.NamedThreadLocal;
+import org.zenithblox.util.concurrent.ZwangineThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link ReactiveExecutor} which runs the reactive work on a pool of carrier threads, where each thread has its own
+ * lock-free work queue, and the threads which are idle steal work from the queues of the other threads.
+ * <p/>
+ * The tasks are scheduled as follows:
+ * <ul>
+ * <li>a task scheduled by a thread which is running reactive work (a carrier thread, or any thread running a main
+ * flow) is added to the work queue of the thread, which other threads can steal from</li>
+ * <li>a task scheduled by any other thread (such as an asynchronous continuation called back by a component thread) is
+ * handed over to the carrier threads, instead of being run by the calling thread as the
+ * {@link DefaultReactiveExecutor} does</li>
+ * <li>a main flow and a synchronous task are run by the calling thread (which makes its work queue available for
+ * stealing while running), and transacted tasks are only run by the calling thread, the same as the
+ * {@link DefaultReactiveExecutor}</li>
+ * </ul>
+ * The carrier threads are platform threads (which bounds the work running concurrently to the parallelism), or virtual
+ * threads when {@link #setVirtualThreads(boolean)} is enabled.
+ * <p/>
+ * This executor is used by setting it with {@link org.zenithblox.ExtendedZwangineContext#setReactiveExecutor} before
+ * the context is started.
+ */
+public class WorkStealingReactiveExecutor extends ServiceSupport
+        implements ReactiveExecutor, StaticService, ZwangineContextAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WorkStealingReactiveExecutor.class);
+
+    // the idle carrier threads park with a timeout, so they recover from a missed signal
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // how often a carrier thread looks for handed over tasks before its own tasks, so these are not starved
+    private static final int INJECTED_INTERVAL = 64;
+
+    private ZwangineContext zwangineContext;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean virtualThreads;
+
+    // use for statistics so we have insights at runtime
+    private boolean statisticsEnabled;
+    private final AtomicInteger createdWorkers = new AtomicInteger();
+    private final LongAdder runningWorkers = new LongAdder();
+    private final LongAdder pendingTasks = new LongAdder();
+    private final LongAdder stolenTasks = new LongAdder();
+    private final LongAdder injectedTasks = new LongAdder();
+
+    // the tasks handed over to the carrier threads
+    private final Queue<Runnable> injected = new ConcurrentLinkedQueue<>();
+    // the workers which are running reactive work, and which work can be stolen from
+    private final Set<Worker> active = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger idleCarriers = new AtomicInteger();
+    private volatile Worker[] carriers;
+    private volatile boolean stopping;
+
+    private final NamedThreadLocal<Worker> workers = new NamedThreadLocal<>("ZwangineReactiveWorker", () -> {
+        int number = createdWorkers.incrementAndGet();
+        return new Worker(number, WorkStealingReactiveExecutor.this);
+    });
+
+    @Override
+    public ZwangineContext getZwangineContext() {
+        return zwangineContext;
+    }
+
+    @Override
+    public void setZwangineContext(ZwangineContext zwangineContext) {
+        this.zwangineContext = zwangineContext;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * The number of carrier threads. Is by default the number of available processors.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Whether the carrier threads are virtual threads instead of platform threads.
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public void schedule(Runnable runnable) {
+        final Worker worker = workers.get();
+        if (worker.running) {
+            worker.push(runnable);
+        } else if (carriers != null && !stopping) {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Handing over to carrier threads: {}", runnable);
+            }
+            injected.add(runnable);
+            injectedTasks.increment();
+            worker.incrementPendingTasks();
+            signalWork();
+        } else {
+            // not started or stopping, so run by the calling thread
+            worker.schedule(runnable, false);
+        }
+    }
+
+    @Override
+    public void scheduleMain(Runnable runnable) {
+        workers.get().schedule(runnable, false);
+    }
+
+    @Override
+    public void scheduleSync(Runnable runnable) {
+        workers.get().schedule(runnable, true);
+    }
+
+    @Override
+    public void scheduleQueue(Runnable runnable) {
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("ScheduleQueue: {}", runnable);
+        }
+        workers.get().transacted.add(runnable);
+    }
+
+    @Override
+    public boolean executeFromQueue() {
+        return workers.get().executeFromQueue();
+    }
+
+    @Override
+    public boolean isStatisticsEnabled() {
+        return statisticsEnabled;
+    }
+
+    @Override
+    public void setStatisticsEnabled(boolean statisticsEnabled) {
+        this.statisticsEnabled = statisticsEnabled;
+    }
+
+    public int getCreatedWorkers() {
+        return createdWorkers.get();
+    }
+
+    public int getRunningWorkers() {
+        return runningWorkers.intValue();
+    }
+
+    public int getPendingTasks() {
+        return pendingTasks.intValue();
+    }
+
+    /**
+     * The number of tasks taken from the work queue of another thread.
+     */
+    public long getStolenTasks() {
+        return stolenTasks.sum();
+    }
+
+    /**
+     * The number of tasks handed over to the carrier threads by threads which were not running reactive work.
+     */
+    public long getInjectedTasks() {
+        return injectedTasks.sum();
+    }
+
+    /**
+     * The number of tasks waiting in the work queues and to be handed over to the carrier threads.
+     */
+    public int getQueueDepth() {
+        int answer = injected.size();
+        for (Worker worker : active) {
+            answer += worker.queue.size();
+        }
+        return answer;
+    }
+
+    /**
+     * The number of carrier threads which are idle.
+     */
+    public int getIdleCarriers() {
+        return idleCarriers.get();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be a positive number, was: " + parallelism);
+        }
+        stopping = false;
+        String pattern = zwangineContext != null ? zwangineContext.getExecutorServiceManager().getThreadNamePattern() : null;
+        ThreadFactory factory = new ZwangineThreadFactory(pattern, "ReactiveCarrier", true, virtualThreads);
+        Worker[] array = new Worker[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            Worker carrier = new Worker(createdWorkers.incrementAndGet(), this);
+            carrier.thread = factory.newThread(carrier::runCarrier);
+            array[i] = carrier;
+        }
+        carriers = array;
+        for (Worker carrier : array) {
+            carrier.thread.start();
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (LOG.isDebugEnabled() && statisticsEnabled) {
+            LOG.debug(
+                    "Stopping WorkStealingReactiveExecutor [createdWorkers: {}, runningWorkers: {}, pendingTasks: {}, stolenTasks: {}, injectedTasks: {}]",
+                    getCreatedWorkers(), getRunningWorkers(), getPendingTasks(), getStolenTasks(), getInjectedTasks());
+        }
+        stopping = true;
+        final Worker[] array = carriers;
+        if (array != null) {
+            // the carrier threads run the pending work before they end
+            for (Worker carrier : array) {
+                LockSupport.unpark(carrier.thread);
+            }
+            for (Worker carrier : array) {
+                carrier.thread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+            carriers = null;
+        }
+        // run the work handed over while the carrier threads were ending
+        Runnable polled;
+        while ((polled = injected.poll()) != null) {
+            workers.get().doRun(polled);
+        }
+    }
+
+    @Override
+    protected void doShutdown() throws Exception {
+        workers.remove();
+    }
+
+    /**
+     * Wakes up an idle carrier thread, if any, to take the work which has been scheduled.
+     */
+    private void signalWork() {
+        if (idleCarriers.get() > 0) {
+            final Worker[] array = carriers;
+            if (array != null) {
+                for (Worker carrier : array) {
+                    if (carrier.parked) {
+                        LockSupport.unpark(carrier.thread);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private Runnable steal(Worker thief) {
+        for (Worker worker : active) {
+            if (worker != thief) {
+                final Runnable stolen = worker.queue.poll();
+                if (stolen != null) {
+                    stolenTasks.increment();
+                    if (LOG.isTraceEnabled()) {
+                        LOG.trace("Worker #{} stole from worker #{}: {}", thief.number, worker.number, stolen);
+                    }
+                    return stolen;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean hasWork() {
+        if (!injected.isEmpty()) {
+            return true;
+        }
+        for (Worker worker : active) {
+            if (!worker.queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Worker {
+
+        private final int number;
+        private final WorkStealingReactiveExecutor executor;
+        private final boolean stats;
+        // the tasks which may be stolen by other threads
+        private final WorkStealingQueue<Runnable> queue = new WorkStealingQueue<>();
+        // the main flows and synchronous tasks, which are run by this thread before the queued tasks
+        private final Deque<Runnable> main = new ArrayDeque<>();
+        // the transacted tasks, which are run by this thread only
+        private final Deque<Runnable> transacted = new ArrayDeque<>();
+        private boolean running;
+        private Thread thread;
+        private volatile boolean parked;
+
+        Worker(int number, WorkStealingReactiveExecutor executor) {
+            this.number = number;
+            this.executor = executor;
+            this.stats = executor.isStatisticsEnabled();
+        }
+
+        void push(Runnable runnable) {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Worker #{} queuing reactive work: {}", number, runnable);
+            }
+            queue.push(runnable);
+            incrementPendingTasks();
+            // the owner takes the next task itself, so only wake up other threads to help with more
+            if (queue.size() > 1) {
+                executor.signalWork();
+            }
+        }
+
+        void schedule(Runnable runnable, boolean sync) {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Schedule [sync={}]: {}", sync, runnable);
+            }
+            main.addFirst(runnable);
+            incrementPendingTasks();
+            if (!running) {
+                running = true;
+                executor.active.add(this);
+                incrementRunningWorkers();
+                try {
+                    executeReactiveWork();
+                } finally {
+                    running = false;
+                    executor.active.remove(this);
+                    decrementRunningWorkers();
+                }
+            } else if (sync) {
+                executeReactiveWork();
+            }
+        }
+
+        private void executeReactiveWork() {
+            for (;;) {
+                final Runnable polled = next();
+                if (polled == null) {
+                    break;
+                }
+                doRun(polled);
+            }
+        }
+
+        private Runnable next() {
+            final Runnable polled = main.pollFirst();
+            return polled != null ? polled : queue.poll();
+        }
+
+        void runCarrier() {
+            executor.workers.set(this);
+            executor.active.add(this);
+            running = true;
+            incrementRunningWorkers();
+            try {
+                int count = 0;
+                for (;;) {
+                    Runnable polled = null;
+                    if (++count % INJECTED_INTERVAL == 0) {
+                        polled = executor.injected.poll();
+                    }
+                    if (polled == null) {
+                        polled = next();
+                    }
+                    if (polled == null) {
+                        polled = executor.injected.poll();
+                    }
+                    if (polled == null) {
+                        polled = executor.steal(this);
+                    }
+                    if (polled != null) {
+                        doRun(polled);
+                    } else if (executor.stopping) {
+                        break;
+                    } else {
+                        idle();
+                    }
+                }
+            } finally {
+                running = false;
+                executor.active.remove(this);
+                decrementRunningWorkers();
+                executor.workers.remove();
+            }
+        }
+
+        private void idle() {
+            decrementRunningWorkers();
+            executor.idleCarriers.incrementAndGet();
+            parked = true;
+            try {
+                // check again after announcing being idle, so work scheduled meanwhile is not missed
+                if (!executor.hasWork() && !executor.stopping) {
+                    LockSupport.parkNanos(executor, IDLE_PARK_NANOS);
+                }
+            } finally {
+                parked = false;
+                executor.idleCarriers.decrementAndGet();
+                incrementRunningWorkers();
+            }
+        }
+
+        void doRun(Runnable polled) {
+            try {
+                decrementPendingTasks();
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("Worker #{} running: {}", number, polled);
+                }
+                polled.run();
+            } catch (Exception t) {
+                LOG.warn("Error executing reactive work due to {}. This exception is ignored.",
+                        t.getMessage(), t);
+            }
+        }
+
+        private void decrementRunningWorkers() {
+            if (stats) {
+                executor.runningWorkers.decrement();
+            }
+        }
+
+        private void incrementRunningWorkers() {
+            if (stats) {
+                executor.runningWorkers.increment();
+            }
+        }
+
+        private void incrementPendingTasks() {
+            if (stats) {
+                executor.pendingTasks.increment();
+            }
+        }
+
+        private void decrementPendingTasks() {
+            if (stats) {
+                executor.pendingTasks.decrement();
+            }
+        }
+
+        boolean executeFromQueue() {
+            // transacted tasks first, and then help with the work of this thread (which a blocked thread would
+            // otherwise hold up until stolen)
+            Runnable polled = transacted.pollFirst();
+            if (polled == null && running) {
+                polled = next();
+            }
+            if (polled == null) {
+                return false;
+            }
+            doRun(polled);
+            return true;
+        }
+
+    }
+
+}
@@ -32,11 +32,13 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
 
@@ -581,18 +583,22 @@ public class ZwangineInternalProcessor extends DelegateAsyncProcessor implements
         public DefaultBacklogTracerEventMessage before(Exchange exchange) throws Exception {
             if (!skip && backlogTracer.shouldTrace(processorDefinition, exchange)) {
 
+                // exchanges which are not sampled are only traced when tail sampling, where the traces are held aside
+                BacklogTracer.PendingEvents pending = null;
+                if (!backlogTracer.isSampled(exchange)) {
+                    pending = backlogTracer.getPendingEvents(exchange, first);
+                    if (pending == null) {
+                        return null;
+                    }
+                }
+
                 // to capture if the exchange was sent to an endpoint during this event
                 notifier.before(exchange);
 
                 long timestamp = System.currentTimeMillis();
                 String toNode = processorDefinition.getId();
                 String exchangeId = exchange.getExchangeId();
-                boolean includeExchangeProperties = backlogTracer.isIncludeExchangeProperties();
-                boolean includeExchangeVariables = backlogTracer.isIncludeExchangeVariables();
-                JsonObject data = MessageHelper.dumpAsJSonObject(exchange.getIn(), includeExchangeProperties,
-                        includeExchangeVariables, true,
-                        true, backlogTracer.isBodyIncludeStreams(), backlogTracer.isBodyIncludeFiles(),
-                        backlogTracer.getBodyMaxChars());
+                Supplier<JsonObject> data = backlogTracer.captureMessage(exchange);
 
                 // if first we should add a pseudo trace message as well, so we have a starting message (eg from the workflow)
                 String workflowId = workflowDefinition != null ? workflowDefinition.getWorkflowId() : null;
@@ -609,15 +615,15 @@ public class ZwangineInternalProcessor extends DelegateAsyncProcessor implements
                         pseudoFirst.setEndpointServiceProtocol(esl.getServiceProtocol());
                         pseudoFirst.setEndpointServiceMetadata(esl.getServiceMetadata());
                     }
-                    backlogTracer.traceEvent(pseudoFirst);
-                    exchange.getExchangeExtension().addOnCompletion(createOnCompletion(source, pseudoFirst));
+                    traceEvent(pseudoFirst, pending);
+                    exchange.getExchangeExtension().addOnCompletion(createOnCompletion(source, pseudoFirst, pending));
                 }
                 String source = LoggerHelper.getLineNumberLoggerName(processorDefinition);
                 DefaultBacklogTracerEventMessage event = new DefaultBacklogTracerEventMessage(
                         zwangineContext,
                         false, false, backlogTracer.incrementTraceCounter(), timestamp, source, workflowId, toNode, exchangeId,
                         rest, template, data);
-                backlogTracer.traceEvent(event);
+                traceEvent(event, pending);
 
                 return event;
             }
@@ -625,30 +631,36 @@ public class ZwangineInternalProcessor extends DelegateAsyncProcessor implements
             return null;
         }
 
-        private SynchronizationAdapter createOnCompletion(String source, DefaultBacklogTracerEventMessage pseudoFirst) {
+        private void traceEvent(DefaultBacklogTracerEventMessage event, BacklogTracer.PendingEvents pending) {
+            if (pending != null) {
+                pending.add(event);
+            } else {
+                backlogTracer.traceEvent(event);
+            }
+        }
+
+        private SynchronizationAdapter createOnCompletion(
+                String source, DefaultBacklogTracerEventMessage pseudoFirst, BacklogTracer.PendingEvents pending) {
             return new SynchronizationAdapter() {
                 @Override
                 public void onDone(Exchange exchange) {
                     // create pseudo last
                     String workflowId = workflowDefinition != null ? workflowDefinition.getWorkflowId() : null;
                     String exchangeId = exchange.getExchangeId();
-                    boolean includeExchangeProperties = backlogTracer.isIncludeExchangeProperties();
-                    boolean includeExchangeVariables = backlogTracer.isIncludeExchangeVariables();
                     long created = exchange.getClock().getCreated();
-                    JsonObject data = MessageHelper.dumpAsJSonObject(exchange.getIn(), includeExchangeProperties,
-                            includeExchangeVariables, true,
-                            true, backlogTracer.isBodyIncludeStreams(), backlogTracer.isBodyIncludeFiles(),
-                            backlogTracer.getBodyMaxChars());
                     DefaultBacklogTracerEventMessage pseudoLast = new DefaultBacklogTracerEventMessage(
                             zwangineContext,
                             false, true, backlogTracer.incrementTraceCounter(), created, source, workflowId, null,
-                            exchangeId, rest, template, data);
-                    backlogTracer.traceEvent(pseudoLast);
+                            exchangeId, rest, template, backlogTracer.captureMessage(exchange));
+                    traceEvent(pseudoLast, pending);
                     doneProcessing(exchange, pseudoLast);
                     doneProcessing(exchange, pseudoFirst);
                     // to not be confused then lets store duration on first/last as (first = 0, last = total time to process)
                     pseudoLast.setElapsed(pseudoFirst.getElapsed());
                     pseudoFirst.setElapsed(0);
+                    if (pending != null) {
+                        backlogTracer.completePendingEvents(exchange, pending);
+                    }
                 }
             };
         }
@@ -810,22 +822,29 @@ public class ZwangineInternalProcessor extends DelegateAsyncProcessor implements
 
     /**
      * Advice when Message History has been enabled.
+     * <p/>
+     * The default message history factory keeps the history in a {@link CompactMessageHistory}, instead of creating a
+     * {@link MessageHistory} per node.
      */
     @SuppressWarnings("unchecked")
-    public static class MessageHistoryAdvice implements ZwangineInternalProcessorAdvice<MessageHistory> {
+    public static class MessageHistoryAdvice implements ZwangineInternalProcessorAdvice<Object> {
 
         private final MessageHistoryFactory factory;
         private final NamedNode definition;
         private final String workflowId;
+        private final CompactMessageHistory.Node node;
+        private final Map<String, CompactMessageHistory.Node> workflowNodes;
 
         public MessageHistoryAdvice(MessageHistoryFactory factory, NamedNode definition) {
             this.factory = factory;
             this.definition = definition;
             this.workflowId = ZwangineContextHelper.getWorkflowId(definition);
+            this.node = new CompactMessageHistory.Node(workflowId, definition);
+            this.workflowNodes = workflowId == null ? new ConcurrentHashMap<>() : null;
         }
 
         @Override
-        public MessageHistory before(Exchange exchange) throws Exception {
+        public Object before(Exchange exchange) throws Exception {
             // we may be routing outside a workflow in an onException or interceptor and if so then grab
             // workflow id from the exchange UoW state
             String targetWorkflowId = this.workflowId;
@@ -833,6 +852,18 @@ public class ZwangineInternalProcessor extends DelegateAsyncProcessor implements
                 targetWorkflowId = ExchangeHelper.getWorkflowId(exchange);
             }
 
+            if (factory instanceof DefaultMessageHistoryFactory defaultFactory) {
+                CompactMessageHistory.Node target = node;
+                if (workflowId == null && targetWorkflowId != null) {
+                    target = workflowNodes.computeIfAbsent(targetWorkflowId,
+                            id -> new CompactMessageHistory.Node(id, definition));
+                }
+                CompactMessageHistory history = defaultFactory.addMessageHistory(target, exchange);
+                if (history != null) {
+                    return history;
+                }
+            }
+
             MessageHistory history = factory.newMessageHistory(targetWorkflowId, definition, exchange);
             if (history != null) {
                 List<MessageHistory> list = exchange.getProperty(ExchangePropertyKey.MESSAGE_HISTORY, List.class);
@@ -847,9 +878,11 @@ public class ZwangineInternalProcessor extends DelegateAsyncProcessor implements
         }
 
         @Override
-        public void after(Exchange exchange, MessageHistory history) throws Exception {
-            if (history != null) {
-                history.nodeProcessingDone();
+        public void after(Exchange exchange, Object history) throws Exception {
+            if (history instanceof CompactMessageHistory compact) {
+                compact.nodeProcessingDone(definition);
+            } else if (history instanceof MessageHistory messageHistory) {
+                messageHistory.nodeProcessingDone();
             }
         }
     }
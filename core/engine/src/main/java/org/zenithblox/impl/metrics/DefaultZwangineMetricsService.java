@@ -0,0 +1,195 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.metrics;
+
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.spi.MetricsExporter;
+import org.zenithblox.spi.MetricsSnapshot;
+import org.zenithblox.spi.ZwangineInternalProcessorAdvice;
+import org.zenithblox.spi.ZwangineMetricsService;
+import org.zenithblox.support.service.ServiceSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default {@link ZwangineMetricsService} which records the metrics with striped counters, so recording the metrics of
+ * an exchange does not allocate nor contend between threads.
+ * <p/>
+ * A snapshot of the metrics is taken periodically (every 10 seconds by default) and exported to the exporters, such as
+ * the {@link InMemoryMetricsExporter} and the {@link MicrometerMetricsExporter}.
+ */
+public class DefaultZwangineMetricsService extends ServiceSupport implements ZwangineMetricsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultZwangineMetricsService.class);
+
+    private static final Comparator<MetricsSnapshot.Metrics> ORDER
+            = Comparator.comparing(MetricsSnapshot.Metrics::workflowId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(MetricsSnapshot.Metrics::processorId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private ZwangineContext zwangineContext;
+    private boolean processorMetrics = true;
+    private long snapshotPeriod = 10000;
+    private int latencySampling = 16;
+
+    private final Map<String, NodeMetrics> workflows = new ConcurrentHashMap<>();
+    private final Map<String, NodeMetrics> processors = new ConcurrentHashMap<>();
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+    private volatile MetricsSnapshot lastSnapshot;
+    private ScheduledExecutorService executorService;
+
+    @Override
+    public ZwangineContext getZwangineContext() {
+        return zwangineContext;
+    }
+
+    @Override
+    public void setZwangineContext(ZwangineContext zwangineContext) {
+        this.zwangineContext = zwangineContext;
+    }
+
+    public boolean isProcessorMetrics() {
+        return processorMetrics;
+    }
+
+    /**
+     * Whether to record the metrics of each processor, besides the metrics of the workflows. Is by default enabled.
+     */
+    public void setProcessorMetrics(boolean processorMetrics) {
+        this.processorMetrics = processorMetrics;
+    }
+
+    public long getSnapshotPeriod() {
+        return snapshotPeriod;
+    }
+
+    /**
+     * The period (millis) the snapshots are exported at. Use 0 to only export when stopping. Is by default 10000.
+     */
+    public void setSnapshotPeriod(long snapshotPeriod) {
+        this.snapshotPeriod = snapshotPeriod;
+    }
+
+    public int getLatencySampling() {
+        return latencySampling;
+    }
+
+    /**
+     * The latency is recorded for 1 in this number of exchanges (which is rounded up to a power of two), as timing
+     * every exchange is the most expensive part of recording the metrics. Use 1 to record the latency of every
+     * exchange. Is by default 16.
+     */
+    public void setLatencySampling(int latencySampling) {
+        if (latencySampling <= 0) {
+            throw new IllegalArgumentException("Latency sampling must be a positive number, was: " + latencySampling);
+        }
+        this.latencySampling = latencySampling == 1 ? 1 : Integer.highestOneBit(latencySampling - 1) << 1;
+    }
+
+    public List<MetricsExporter> getExporters() {
+        return exporters;
+    }
+
+    @Override
+    public void addExporter(MetricsExporter exporter) {
+        exporters.add(exporter);
+    }
+
+    @Override
+    public void removeExporter(MetricsExporter exporter) {
+        exporters.remove(exporter);
+    }
+
+    /**
+     * The last snapshot exported, or <tt>null</tt> if no snapshot has been exported yet.
+     */
+    public MetricsSnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+
+    @Override
+    public ZwangineInternalProcessorAdvice<?> createWorkflowAdvice(String workflowId) {
+        NodeMetrics metrics = workflows.computeIfAbsent(workflowId, id -> new NodeMetrics(id, null));
+        return new MetricsAdvice(metrics, latencySampling);
+    }
+
+    @Override
+    public ZwangineInternalProcessorAdvice<?> createProcessorAdvice(String workflowId, String processorId) {
+        if (!processorMetrics) {
+            return null;
+        }
+        NodeMetrics metrics = processors.computeIfAbsent(workflowId + "/" + processorId,
+                key -> new NodeMetrics(workflowId, processorId));
+        return new MetricsAdvice(metrics, latencySampling);
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(System.currentTimeMillis(), snapshot(workflows), snapshot(processors));
+    }
+
+    private static List<MetricsSnapshot.Metrics> snapshot(Map<String, NodeMetrics> metrics) {
+        List<MetricsSnapshot.Metrics> answer = new ArrayList<>(metrics.size());
+        for (NodeMetrics node : metrics.values()) {
+            answer.add(node.snapshot());
+        }
+        answer.sort(ORDER);
+        return answer;
+    }
+
+    /**
+     * Takes a snapshot and exports it to the exporters.
+     */
+    public void export() {
+        MetricsSnapshot snapshot = snapshot();
+        lastSnapshot = snapshot;
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.export(snapshot);
+            } catch (Exception e) {
+                LOG.warn("Error exporting metrics to {} due to {}. This exception is ignored.", exporter, e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (snapshotPeriod > 0) {
+            executorService = zwangineContext.getExecutorServiceManager()
+                    .newSingleThreadScheduledExecutor(this, "MetricsSnapshot");
+            executorService.scheduleWithFixedDelay(this::export, snapshotPeriod, snapshotPeriod, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (executorService != null) {
+            zwangineContext.getExecutorServiceManager().shutdown(executorService);
+            executorService = null;
+        }
+        // export the metrics recorded since the last snapshot
+        export();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.metrics;
+
+import org.zenithblox.spi.MetricsExporter;
+import org.zenithblox.spi.MetricsSnapshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * {@link MetricsExporter} which keeps the last snapshots in memory, so the metrics can be read by the application (such
+ * as a health or status endpoint).
+ */
+public class InMemoryMetricsExporter implements MetricsExporter {
+
+    private final int capacity;
+    private final Deque<MetricsSnapshot> snapshots;
+
+    public InMemoryMetricsExporter() {
+        this(60);
+    }
+
+    /**
+     * @param capacity the number of snapshots to keep
+     */
+    public InMemoryMetricsExporter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be a positive number, was: " + capacity);
+        }
+        this.capacity = capacity;
+        this.snapshots = new ArrayDeque<>(capacity);
+    }
+
+    @Override
+    public synchronized void export(MetricsSnapshot snapshot) {
+        if (snapshots.size() == capacity) {
+            snapshots.pollFirst();
+        }
+        snapshots.addLast(snapshot);
+    }
+
+    /**
+     * The snapshots kept, oldest first.
+     */
+    public synchronized List<MetricsSnapshot> getSnapshots() {
+        return new ArrayList<>(snapshots);
+    }
+
+    /**
+     * The latest snapshot, or <tt>null</tt> if none has been exported yet.
+     */
+    public synchronized MetricsSnapshot getLatest() {
+        return snapshots.peekLast();
+    }
+
+    /**
+     * The latest metrics of the workflow, or <tt>null</tt> if not found.
+     */
+    public MetricsSnapshot.Metrics getWorkflowMetrics(String workflowId) {
+        MetricsSnapshot latest = getLatest();
+        return latest != null ? find(latest.workflows(), workflowId, null) : null;
+    }
+
+    /**
+     * The latest metrics of the processor, or <tt>null</tt> if not found.
+     */
+    public MetricsSnapshot.Metrics getProcessorMetrics(String workflowId, String processorId) {
+        MetricsSnapshot latest = getLatest();
+        return latest != null ? find(latest.processors(), workflowId, processorId) : null;
+    }
+
+    private static MetricsSnapshot.Metrics find(List<MetricsSnapshot.Metrics> metrics, String workflowId, String processorId) {
+        for (MetricsSnapshot.Metrics m : metrics) {
+            if (m.workflowId().equals(workflowId)
+                    && (processorId == null ? m.processorId() == null : processorId.equals(m.processorId()))) {
+                return m;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "InMemoryMetricsExporter[" + capacity + "]";
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.metrics;
+
+import org.zenithblox.spi.MetricsSnapshot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies (in nanos) in the style of HdrHistogram, which records the latencies in logarithmic buckets
+ * (with 8 linear sub buckets per power of two, so a percentile is accurate within 12.5%) without allocating.
+ * <p/>
+ * The buckets are striped by thread, as the {@link java.util.concurrent.atomic.LongAdder} does, so threads recording
+ * concurrently do not contend on the same counters.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // latencies above 2^40 nanos (about 18 minutes) are recorded in the highest bucket
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    // each stripe has the buckets followed by the sum and max, and is padded to avoid false sharing with the next
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+    private static final int STRIDE = BUCKETS + 16;
+    private static final int STRIPES = stripes();
+
+    private final AtomicLongArray counters = new AtomicLongArray(STRIPES * STRIDE);
+
+    void record(long nanos) {
+        final long value = Math.max(nanos, 0);
+        final int base = ((int) Thread.currentThread().threadId() & (STRIPES - 1)) * STRIDE;
+        counters.getAndIncrement(base + index(value));
+        counters.getAndAdd(base + SUM, value);
+        long max = counters.get(base + MAX);
+        while (value > max && !counters.weakCompareAndSetVolatile(base + MAX, max, value)) {
+            max = counters.get(base + MAX);
+        }
+    }
+
+    MetricsSnapshot.Latency snapshot() {
+        final long[] buckets = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            final int base = stripe * STRIDE;
+            for (int i = 0; i < BUCKETS; i++) {
+                final long n = counters.get(base + i);
+                buckets[i] += n;
+                count += n;
+            }
+            sum += counters.get(base + SUM);
+            max = Math.max(max, counters.get(base + MAX));
+        }
+        return new MetricsSnapshot.Latency(
+                count, sum, max,
+                percentile(buckets, count, max, 0.5), percentile(buckets, count, max, 0.9),
+                percentile(buckets, count, max, 0.99), percentile(buckets, count, max, 0.999));
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * The highest value which is recorded in the bucket.
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    private static long percentile(long[] buckets, long count, long max, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                // the bucket has a range of values, so report its highest value but never above the highest recorded
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int stripes() {
+        // a power of two, so the stripe of a thread is found by masking its id
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        return Integer.highestOneBit(Math.max(processors, 1) * 2 - 1);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.metrics;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.spi.ZwangineInternalProcessorAdvice;
+import org.zenithblox.util.concurrent.NamedThreadLocal;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Advice which records the metrics of the exchanges processed by a workflow or a processor.
+ * <p/>
+ * The exchanges are all counted, but the latency is only recorded for a random sample of the exchanges (by default 1
+ * in 16), as reading the clock twice is the most expensive part of recording the metrics.
+ * <p/>
+ * The start times kept as the state of the advice are recycled per thread, so recording does not allocate once the
+ * threads routing the exchanges have recycled enough start times.
+ */
+final class MetricsAdvice implements ZwangineInternalProcessorAdvice<MetricsAdvice.StartTime> {
+
+    private static final int MAX_RECYCLED = 256;
+    private static final NamedThreadLocal<Recycler> RECYCLERS
+            = new NamedThreadLocal<>("ZwangineMetricsStartTimes", Recycler::new);
+
+    private final NodeMetrics metrics;
+    private final int sampleMask;
+
+    /**
+     * @param metrics         the metrics to record
+     * @param latencySampling the latency is recorded for 1 in this number of exchanges (a power of two)
+     */
+    MetricsAdvice(NodeMetrics metrics, int latencySampling) {
+        this.metrics = metrics;
+        this.sampleMask = latencySampling - 1;
+    }
+
+    @Override
+    public StartTime before(Exchange exchange) throws Exception {
+        metrics.begin();
+        if (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return null;
+        }
+        StartTime start = RECYCLERS.get().acquire();
+        start.nanos = System.nanoTime();
+        return start;
+    }
+
+    @Override
+    public void after(Exchange exchange, StartTime start) throws Exception {
+        if (start != null) {
+            final long elapsed = System.nanoTime() - start.nanos;
+            // the exchange may be completed by another thread, which then recycles the start time
+            RECYCLERS.get().release(start);
+            metrics.done(exchange, elapsed);
+        } else {
+            metrics.done(exchange);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsAdvice[" + metrics.getWorkflowId()
+               + (metrics.getProcessorId() != null ? "/" + metrics.getProcessorId() : "") + "]";
+    }
+
+    static final class StartTime {
+        private long nanos;
+        private StartTime next;
+    }
+
+    private static final class Recycler {
+        private StartTime head;
+        private int size;
+
+        StartTime acquire() {
+            StartTime answer = head;
+            if (answer == null) {
+                return new StartTime();
+            }
+            head = answer.next;
+            answer.next = null;
+            size--;
+            return answer;
+        }
+
+        void release(StartTime start) {
+            if (size < MAX_RECYCLED) {
+                start.next = head;
+                head = start;
+                size++;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import org.zenithblox.spi.MetricsExporter;
+import org.zenithblox.spi.MetricsSnapshot;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link MetricsExporter} which bridges the metrics to a micrometer {@link MeterRegistry}.
+ * <p/>
+ * The meters are registered when a workflow or processor is first exported, and read the metrics of the last exported
+ * snapshot. This requires micrometer-core on the classpath, which is an optional dependency.
+ */
+public class MicrometerMetricsExporter implements MetricsExporter {
+
+    private final MeterRegistry meterRegistry;
+    private final String prefix;
+    // only accessed by the thread exporting the snapshots
+    private final Map<String, Meters> meters = new HashMap<>();
+
+    public MicrometerMetricsExporter(MeterRegistry meterRegistry) {
+        this(meterRegistry, "zwangine");
+    }
+
+    /**
+     * @param meterRegistry the registry to register the meters in
+     * @param prefix        the prefix of the meter names
+     */
+    public MicrometerMetricsExporter(MeterRegistry meterRegistry, String prefix) {
+        this.meterRegistry = meterRegistry;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public void export(MetricsSnapshot snapshot) {
+        export(snapshot.workflows(), prefix + ".workflow");
+        export(snapshot.processors(), prefix + ".processor");
+    }
+
+    private void export(List<MetricsSnapshot.Metrics> metrics, String name) {
+        for (MetricsSnapshot.Metrics m : metrics) {
+            String key = m.processorId() != null ? m.workflowId() + "/" + m.processorId() : m.workflowId();
+            meters.computeIfAbsent(key, k -> register(name, m)).metrics = m;
+        }
+    }
+
+    private Meters register(String name, MetricsSnapshot.Metrics metrics) {
+        final Meters answer = new Meters(metrics);
+        Tags tags = metrics.processorId() != null
+                ? Tags.of("workflowId", metrics.workflowId(), "processorId", metrics.processorId())
+                : Tags.of("workflowId", metrics.workflowId());
+
+        FunctionCounter.builder(name + ".exchanges.total", answer, m -> m.metrics.total())
+                .description("Number of exchanges completed").tags(tags).register(meterRegistry);
+        FunctionCounter.builder(name + ".exchanges.failed", answer, m -> m.metrics.failed())
+                .description("Number of exchanges completed which failed").tags(tags).register(meterRegistry);
+        Gauge.builder(name + ".exchanges.inflight", answer, m -> m.metrics.inflight())
+                .description("Number of exchanges being processed").tags(tags).register(meterRegistry);
+        FunctionTimer.builder(name + ".latency", answer,
+                m -> m.metrics.latency().count(), m -> m.metrics.latency().totalNanos(), TimeUnit.NANOSECONDS)
+                .description("Latency of the exchanges completed").tags(tags).register(meterRegistry);
+        registerLatency(name + ".latency.max", tags, answer, MetricsSnapshot.Latency::maxNanos);
+        registerLatency(name + ".latency.percentile", tags.and("quantile", "0.5"), answer, MetricsSnapshot.Latency::p50Nanos);
+        registerLatency(name + ".latency.percentile", tags.and("quantile", "0.9"), answer, MetricsSnapshot.Latency::p90Nanos);
+        registerLatency(name + ".latency.percentile", tags.and("quantile", "0.99"), answer, MetricsSnapshot.Latency::p99Nanos);
+        registerLatency(name + ".latency.percentile", tags.and("quantile", "0.999"), answer,
+                MetricsSnapshot.Latency::p999Nanos);
+        return answer;
+    }
+
+    private void registerLatency(
+            String name, Tags tags, Meters meters, ToLongFunction<MetricsSnapshot.Latency> function) {
+        TimeGauge.builder(name, meters, TimeUnit.NANOSECONDS, m -> function.applyAsLong(m.metrics.latency()))
+                .tags(tags).register(meterRegistry);
+    }
+
+    @Override
+    public String toString() {
+        return "MicrometerMetricsExporter[" + meterRegistry + "]";
+    }
+
+    /**
+     * Holds the last exported metrics of a workflow or processor, which its meters read.
+     */
+    private static final class Meters {
+        private volatile MetricsSnapshot.Metrics metrics;
+
+        Meters(MetricsSnapshot.Metrics metrics) {
+            this.metrics = metrics;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.impl.metrics;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.spi.MetricsSnapshot;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a workflow or a processor.
+ */
+final class NodeMetrics {
+
+    private final String workflowId;
+    private final String processorId;
+    private final LongAdder total = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder inflight = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    NodeMetrics(String workflowId, String processorId) {
+        this.workflowId = workflowId;
+        this.processorId = processorId;
+    }
+
+    String getWorkflowId() {
+        return workflowId;
+    }
+
+    String getProcessorId() {
+        return processorId;
+    }
+
+    void begin() {
+        inflight.increment();
+    }
+
+    void done(Exchange exchange) {
+        inflight.decrement();
+        total.increment();
+        if (exchange.isFailed()) {
+            failed.increment();
+        }
+    }
+
+    void done(Exchange exchange, long nanos) {
+        done(exchange);
+        latency.record(nanos);
+    }
+
+    MetricsSnapshot.Metrics snapshot() {
+        return new MetricsSnapshot.Metrics(
+                workflowId, processorId, total.sum(), failed.sum(), inflight.sum(), latency.snapshot());
+    }
+}
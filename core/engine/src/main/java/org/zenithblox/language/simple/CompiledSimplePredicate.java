@@ -0,0 +1,173 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zentihblox.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.language.simple;
+
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.Exchange;
+import org.zenithblox.Expression;
+import org.zenithblox.Predicate;
+import org.zenithblox.support.ExchangeHelper;
+import org.zenithblox.support.LanguageHelper;
+import org.zenithblox.support.ObjectHelper;
+
+import java.util.regex.Pattern;
+
+/**
+ * Base class for the simple predicates compiled to bytecode by the {@link SimplePredicateCompiler}.
+ * <p/>
+ * The generated subclasses implement {@link #matches(Exchange)} as straight-line code which calls the static helper
+ * methods of this class for the functions and operators (which behave the same as the interpreted simple language),
+ * and the interpreted expressions and predicates for anything the compiler does not support.
+ */
+public abstract class CompiledSimplePredicate implements Predicate {
+
+    private final String text;
+    private final Object[] constants;
+
+    protected CompiledSimplePredicate(String text, Object[] constants) {
+        this.text = text;
+        this.constants = constants;
+    }
+
+    @Override
+    public void init(ZwangineContext context) {
+        for (Object constant : constants) {
+            if (constant instanceof Predicate predicate) {
+                predicate.initPredicate(context);
+            } else if (constant instanceof Expression expression) {
+                expression.init(context);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    protected static Object body(Exchange exchange) {
+        return exchange.getIn().getBody();
+    }
+
+    protected static Object header(Exchange exchange, String name) {
+        Object answer = exchange.getIn().getHeader(name);
+        if (answer == null) {
+            // fall back on a property
+            answer = exchange.getProperty(name);
+        }
+        return answer;
+    }
+
+    protected static Object exchangeProperty(Exchange exchange, String name) {
+        return exchange.getProperty(name);
+    }
+
+    protected static Object variable(Exchange exchange, String name) {
+        return ExchangeHelper.getVariable(exchange, name);
+    }
+
+    protected static boolean evaluateValuePredicate(Object value) {
+        return org.zenithblox.util.ObjectHelper.evaluateValuePredicate(value);
+    }
+
+    protected static Object evaluate(Expression expression, Exchange exchange) {
+        return expression.evaluate(exchange, Object.class);
+    }
+
+    protected static boolean isEqualTo(Exchange exchange, Object leftValue, Object rightValue) {
+        if (leftValue == null && rightValue == null) {
+            return true;
+        } else if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        return ObjectHelper.typeCoerceEquals(exchange.getContext().getTypeConverter(), leftValue, rightValue);
+    }
+
+    protected static boolean isEqualToIgnoreCase(Exchange exchange, Object leftValue, Object rightValue) {
+        if (leftValue == null && rightValue == null) {
+            return true;
+        } else if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        return ObjectHelper.typeCoerceEquals(exchange.getContext().getTypeConverter(), leftValue, rightValue, true);
+    }
+
+    protected static boolean isGreaterThan(Exchange exchange, Object leftValue, Object rightValue) {
+        if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        return ObjectHelper.typeCoerceCompare(exchange.getContext().getTypeConverter(), leftValue, rightValue) > 0;
+    }
+
+    protected static boolean isGreaterThanOrEqualTo(Exchange exchange, Object leftValue, Object rightValue) {
+        if (leftValue == null && rightValue == null) {
+            return true;
+        } else if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        return ObjectHelper.typeCoerceCompare(exchange.getContext().getTypeConverter(), leftValue, rightValue) >= 0;
+    }
+
+    protected static boolean isLessThan(Exchange exchange, Object leftValue, Object rightValue) {
+        if (leftValue == null && rightValue == null) {
+            return true;
+        } else if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        return ObjectHelper.typeCoerceCompare(exchange.getContext().getTypeConverter(), leftValue, rightValue) < 0;
+    }
+
+    protected static boolean isLessThanOrEqualTo(Exchange exchange, Object leftValue, Object rightValue) {
+        if (leftValue == null && rightValue == null) {
+            return true;
+        } else if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        return ObjectHelper.typeCoerceCompare(exchange.getContext().getTypeConverter(), leftValue, rightValue) <= 0;
+    }
+
+    protected static boolean contains(Exchange exchange, Object leftValue, Object rightValue) {
+        if (leftValue == null && rightValue == null) {
+            return true;
+        } else if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        return ObjectHelper.typeCoerceContains(exchange.getContext().getTypeConverter(), leftValue, rightValue, false);
+    }
+
+    protected static boolean containsIgnoreCase(Exchange exchange, Object leftValue, Object rightValue) {
+        if (leftValue == null && rightValue == null) {
+            return true;
+        } else if (leftValue == null || rightValue == null) {
+            return false;
+        }
+        return ObjectHelper.typeCoerceContains(exchange.getContext().getTypeConverter(), leftValue, rightValue, true);
+    }
+
+    protected static boolean startsWith(Exchange exchange, Object leftValue, Object rightValue) {
+        return LanguageHelper.startsWith(exchange, leftValue, rightValue);
+    }
+
+    protected static boolean endsWith(Exchange exchange, Object leftValue, Object rightValue) {
+        return LanguageHelper.endsWith(exchange, leftValue, rightValue);
+    }
+
+    protected static boolean regex(Exchange exchange, Object leftValue, Pattern pattern) {
+        String value = exchange.getContext().getTypeConverter().convertTo(String.class, exchange, leftValue);
+        return value != null && pattern.matcher(value).matches();
+    }
+}
@@ -44,6 +44,7 @@ public class SimpleLanguage extends LanguageSupport implements StaticService {
     private static final String CACHE_KEY_PREFIX = "@SIMPLE@";
 
     boolean allowEscape = true;
+    private boolean compilePredicates;
 
     // use caches to avoid re-parsing the same expressions over and over again
     private Map<String, Expression> cacheExpression;
@@ -68,6 +69,25 @@ public class SimpleLanguage extends LanguageSupport implements StaticService {
                 LOG.debug("Simple language disabled predicate/expression cache");
             }
         }
+        if (getZwangineContext() != null) {
+            String compile = getZwangineContext().getGlobalOption(Exchange.SIMPLE_COMPILE_PREDICATES);
+            if (compile != null) {
+                compilePredicates = Boolean.parseBoolean(compile);
+            }
+        }
+    }
+
+    public boolean isCompilePredicates() {
+        return compilePredicates;
+    }
+
+    /**
+     * Whether to compile the simple predicates to bytecode, which is faster than interpreting the parsed predicates.
+     * Predicates which cannot be compiled are interpreted. This is disabled by default and can also be enabled with the
+     * {@link Exchange#SIMPLE_COMPILE_PREDICATES} global option.
+     */
+    public void setCompilePredicates(boolean compilePredicates) {
+        this.compilePredicates = compilePredicates;
     }
 
     @Override
@@ -118,7 +138,8 @@ public class SimpleLanguage extends LanguageSupport implements StaticService {
 
             // using the expression cache here with the predicate parser is okay
             SimplePredicateParser parser
-                    = new SimplePredicateParser(getZwangineContext(), expression, allowEscape, cacheExpression);
+                    = new SimplePredicateParser(
+                            getZwangineContext(), expression, allowEscape, cacheExpression, compilePredicates);
             answer = parser.parsePredicate();
 
             if (cachePredicate != null && answer != null) {
@@ -0,0 +1,631 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zentihblox.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.language.simple;
+
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.Expression;
+import org.zenithblox.Predicate;
+import org.zenithblox.language.simple.ast.*;
+import org.zenithblox.language.simple.types.BinaryOperatorType;
+import org.zenithblox.language.simple.types.LogicalOperatorType;
+import org.zenithblox.support.ExpressionToPredicateAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles the AST of a simple predicate to a hidden class which evaluates the predicate as straight-line code, so the
+ * JIT can inline the function lookups and operators instead of walking the tree of interpreted expressions.
+ * <p/>
+ * The logical and binary operators, the <tt>body</tt>, <tt>header</tt>, <tt>exchangeProperty</tt> and
+ * <tt>variable</tt> functions and the literals are compiled. Any other node (such as other functions, or the
+ * <tt>in</tt>, <tt>is</tt> and <tt>range</tt> operators) is evaluated by its interpreted expression, which the compiled
+ * class calls. If the predicate cannot be compiled then <tt>null</tt> is returned and the caller should use the
+ * interpreted predicate instead.
+ */
+public final class SimplePredicateCompiler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SimplePredicateCompiler.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // functions which are compiled to a direct call to the helper methods in CompiledSimplePredicate
+    private static final Pattern HEADER_FUNCTION = Pattern.compile("(?:in\\.)?(headers?)[.:]([\\w-]+)");
+    private static final Pattern PROPERTY_FUNCTION = Pattern.compile("exchangeProperty[.:]([\\w-]+)");
+    private static final Pattern VARIABLE_FUNCTION = Pattern.compile("(variables?)[.:]([\\w-]+)");
+
+    private static final String CLASS_NAME = "org/zenithblox/language/simple/CompiledSimplePredicate$Generated";
+    private static final String SUPER_NAME = "org/zenithblox/language/simple/CompiledSimplePredicate";
+    private static final String EXCHANGE = "Lorg/zenithblox/Exchange;";
+    private static final String OBJECT = "Ljava/lang/Object;";
+    private static final String BINARY_DESCRIPTOR = "(" + EXCHANGE + OBJECT + OBJECT + ")Z";
+
+    // class file (version 49 so no stack map frames are needed for the branches)
+    private static final int CLASS_VERSION = 49;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    // opcodes
+    private static final int ACONST_NULL = 0x01;
+    private static final int ICONST_0 = 0x03;
+    private static final int ICONST_1 = 0x04;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int AALOAD = 0x32;
+    private static final int IXOR = 0x82;
+    private static final int IFEQ = 0x99;
+    private static final int IFNE = 0x9a;
+    private static final int GOTO = 0xa7;
+    private static final int IRETURN = 0xac;
+    private static final int RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int INVOKEINTERFACE = 0xb9;
+    private static final int CHECKCAST = 0xc0;
+
+    private final ZwangineContext zwangineContext;
+    private final String expression;
+    private final ConstantPool pool = new ConstantPool();
+    private final Code code = new Code();
+    private final List<Object> constants = new ArrayList<>();
+    private final List<String> constantTypes = new ArrayList<>();
+    private int compiled;
+
+    private SimplePredicateCompiler(ZwangineContext zwangineContext, String expression) {
+        this.zwangineContext = zwangineContext;
+        this.expression = expression;
+    }
+
+    /**
+     * Compiles the parsed nodes of the simple predicate.
+     *
+     * @param  zwangineContext the zwangine context
+     * @param  expression      the simple predicate
+     * @param  nodes           the nodes parsed from the predicate, which are evaluated as a logical AND
+     * @return                 the compiled predicate, or <tt>null</tt> if the predicate could not be compiled or
+     *                         nothing in the predicate would benefit from being compiled
+     */
+    public static Predicate compile(ZwangineContext zwangineContext, String expression, List<SimpleNode> nodes) {
+        if (nodes.isEmpty()) {
+            return null;
+        }
+        try {
+            return new SimplePredicateCompiler(zwangineContext, expression).doCompile(nodes);
+        } catch (Exception | LinkageError e) {
+            LOG.debug("Cannot compile simple predicate: {} due to: {}. Using the interpreted predicate instead.",
+                    expression, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private Predicate doCompile(List<SimpleNode> nodes) throws Exception {
+        int end = -1;
+        boolean first = true;
+        for (SimpleNode node : nodes) {
+            if (!first) {
+                // the nodes are combined with a logical AND
+                end = code.branch(IFEQ, end);
+            }
+            condition(node);
+            first = false;
+        }
+        if (end != -1) {
+            int done = code.branch(GOTO, -1);
+            code.bind(end);
+            code.stack(-1);
+            code.op(ICONST_0, 1);
+            code.bind(done);
+        }
+        code.op(IRETURN, -1);
+
+        if (compiled == 0) {
+            // everything is interpreted anyway
+            return null;
+        }
+        if (code.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Predicate is too large to compile");
+        }
+
+        byte[] bytes = toClassFile();
+        Class<?> type = LOOKUP.defineHiddenClass(bytes, true).lookupClass();
+        Object answer = type.getConstructor(String.class, Object[].class).newInstance(expression, constants.toArray());
+        LOG.debug("Compiled simple predicate: {} ({} bytes of bytecode)", expression, code.size());
+        return (Predicate) answer;
+    }
+
+    /**
+     * Emits code which evaluates the node as a predicate and leaves a boolean on the stack.
+     */
+    private void condition(SimpleNode node) throws Exception {
+        if (node instanceof LogicalExpression logical) {
+            condition(logical.getLeft());
+            boolean and = logical.getOperator() == LogicalOperatorType.AND;
+            int shortCircuit = code.branch(and ? IFEQ : IFNE, -1);
+            condition(logical.getRight());
+            int done = code.branch(GOTO, -1);
+            code.bind(shortCircuit);
+            code.stack(-1);
+            code.op(and ? ICONST_0 : ICONST_1, 1);
+            code.bind(done);
+            compiled++;
+        } else if (node instanceof BinaryExpression binary && binaryOperator(binary)) {
+            compiled++;
+        } else if (node instanceof BooleanExpression bool) {
+            code.op(bool.isValue() ? ICONST_1 : ICONST_0, 1);
+            compiled++;
+        } else if (node instanceof SimpleFunctionStart || node instanceof SingleQuoteStart
+                || node instanceof DoubleQuoteStart) {
+            // a value which is evaluated as a predicate (such as a boolean header)
+            value(node);
+            code.invoke(INVOKESTATIC, SUPER_NAME, "evaluateValuePredicate", "(" + OBJECT + ")Z", 0);
+        } else {
+            Expression exp = node.createExpression(zwangineContext, expression);
+            Predicate predicate = ExpressionToPredicateAdapter.toPredicate(exp);
+            code.op(ALOAD_0, 1);
+            code.field(GETFIELD, constant(predicate, "org/zenithblox/Predicate"), 0);
+            code.op(ALOAD_1, 1);
+            code.invoke(INVOKEINTERFACE, "org/zenithblox/Predicate", "matches", "(" + EXCHANGE + ")Z", -1);
+        }
+    }
+
+    private boolean binaryOperator(BinaryExpression binary) throws Exception {
+        BinaryOperatorType operator = binary.getOperator();
+        if (operator == BinaryOperatorType.REGEX || operator == BinaryOperatorType.NOT_REGEX) {
+            // the pattern is compiled once if its a literal
+            String regex = literal(binary.getRight());
+            if (regex == null) {
+                return false;
+            }
+            Pattern pattern = Pattern.compile(regex);
+            code.op(ALOAD_1, 1);
+            value(binary.getLeft());
+            code.op(ALOAD_0, 1);
+            code.field(GETFIELD, constant(pattern, "java/util/regex/Pattern"), 0);
+            code.invoke(INVOKESTATIC, SUPER_NAME, "regex", "(" + EXCHANGE + OBJECT + "Ljava/util/regex/Pattern;)Z", -2);
+            if (operator == BinaryOperatorType.NOT_REGEX) {
+                negate();
+            }
+            return true;
+        }
+
+        String method = switch (operator) {
+            case EQ, NOT_EQ -> "isEqualTo";
+            case EQ_IGNORE, NOT_EQ_IGNORE -> "isEqualToIgnoreCase";
+            case GT -> "isGreaterThan";
+            case GTE -> "isGreaterThanOrEqualTo";
+            case LT -> "isLessThan";
+            case LTE -> "isLessThanOrEqualTo";
+            case CONTAINS, NOT_CONTAINS -> "contains";
+            case CONTAINS_IGNORECASE, NOT_CONTAINS_IGNORECASE -> "containsIgnoreCase";
+            case STARTS_WITH -> "startsWith";
+            case ENDS_WITH -> "endsWith";
+            default -> null;
+        };
+        if (method == null) {
+            return false;
+        }
+        code.op(ALOAD_1, 1);
+        value(binary.getLeft());
+        value(binary.getRight());
+        code.invoke(INVOKESTATIC, SUPER_NAME, method, BINARY_DESCRIPTOR, -2);
+        if (operator == BinaryOperatorType.NOT_EQ || operator == BinaryOperatorType.NOT_EQ_IGNORE
+                || operator == BinaryOperatorType.NOT_CONTAINS || operator == BinaryOperatorType.NOT_CONTAINS_IGNORECASE) {
+            negate();
+        }
+        return true;
+    }
+
+    private void negate() {
+        code.op(ICONST_1, 1);
+        code.op(IXOR, -1);
+    }
+
+    /**
+     * Emits code which evaluates the node as a value and leaves the value on the stack.
+     */
+    private void value(SimpleNode node) throws Exception {
+        String text = literal(node);
+        if (text != null) {
+            code.ldc(pool.string(text));
+            compiled++;
+        } else if (node instanceof NullExpression) {
+            code.op(ACONST_NULL, 1);
+            compiled++;
+        } else if (node instanceof NumericExpression numeric) {
+            loadConstant(numeric.getNumber());
+            compiled++;
+        } else if (node instanceof BooleanExpression bool) {
+            loadConstant(bool.isValue());
+            compiled++;
+        } else if (!function(node)) {
+            Expression exp = node.createExpression(zwangineContext, expression);
+            if (exp == null) {
+                throw new IllegalArgumentException("Node has no expression: " + node);
+            }
+            code.op(ALOAD_0, 1);
+            code.field(GETFIELD, constant(exp, "org/zenithblox/Expression"), 0);
+            code.op(ALOAD_1, 1);
+            code.invoke(INVOKESTATIC, SUPER_NAME, "evaluate", "(Lorg/zenithblox/Expression;" + EXCHANGE + ")" + OBJECT, -1);
+        }
+    }
+
+    private boolean function(SimpleNode node) {
+        if (!(node instanceof SimpleFunctionStart start) || start.getBlock().getChildren().size() != 1
+                || !(start.getBlock().getChildren().get(0) instanceof LiteralNode literal)) {
+            return false;
+        }
+        String function = literal.getText();
+        if ("body".equals(function) || "in.body".equals(function)) {
+            code.op(ALOAD_1, 1);
+            code.invoke(INVOKESTATIC, SUPER_NAME, "body", "(" + EXCHANGE + ")" + OBJECT, 0);
+            compiled++;
+            return true;
+        }
+        String method = null;
+        String name = null;
+        Matcher matcher = HEADER_FUNCTION.matcher(function);
+        if (matcher.matches() && !isSizeFunction(matcher.group(1), matcher.group(2))) {
+            method = "header";
+            name = matcher.group(2);
+        } else if ((matcher = PROPERTY_FUNCTION.matcher(function)).matches()) {
+            method = "exchangeProperty";
+            name = matcher.group(1);
+        } else if ((matcher = VARIABLE_FUNCTION.matcher(function)).matches()
+                && !isSizeFunction(matcher.group(1), matcher.group(2))) {
+            method = "variable";
+            name = matcher.group(2);
+        }
+        if (method == null) {
+            return false;
+        }
+        code.op(ALOAD_1, 1);
+        code.ldc(pool.string(name));
+        code.invoke(INVOKESTATIC, SUPER_NAME, method, "(" + EXCHANGE + "Ljava/lang/String;)" + OBJECT, -1);
+        compiled++;
+        return true;
+    }
+
+    private static boolean isSizeFunction(String prefix, String name) {
+        // ${headers.size} and ${variables.length} are functions and not a header or variable
+        return prefix.endsWith("s") && ("size".equals(name) || "length".equals(name));
+    }
+
+    /**
+     * The text of the node if its a quoted literal without any embedded functions, otherwise <tt>null</tt>.
+     */
+    private static String literal(SimpleNode node) {
+        CompositeNodes block;
+        if (node instanceof SingleQuoteStart single) {
+            block = single.getBlock();
+        } else if (node instanceof DoubleQuoteStart quote) {
+            block = quote.getBlock();
+        } else {
+            return null;
+        }
+        List<SimpleNode> children = block.getChildren();
+        if (children.isEmpty()) {
+            return "";
+        } else if (children.size() == 1 && children.get(0) instanceof LiteralExpression literal) {
+            return literal.getText();
+        }
+        return null;
+    }
+
+    private void loadConstant(Object value) {
+        code.op(ALOAD_0, 1);
+        code.field(GETFIELD, constant(value, "java/lang/Object"), 0);
+    }
+
+    /**
+     * Adds a constant which is stored in a final field of the compiled class.
+     *
+     * @return the field index
+     */
+    private int constant(Object value, String type) {
+        constants.add(value);
+        constantTypes.add(type);
+        int index = constants.size() - 1;
+        return pool.fieldRef(CLASS_NAME, "c" + index, "L" + type + ";");
+    }
+
+    private byte[] toClassFile() throws IOException {
+        // constructor which calls super and copies the constants into the final fields
+        Code init = new Code();
+        init.op(ALOAD_0, 1);
+        init.op(ALOAD_1, 1);
+        init.op(ALOAD_2, 1);
+        init.u1(INVOKESPECIAL);
+        init.u2(pool.methodRef(SUPER_NAME, "<init>", "(Ljava/lang/String;[Ljava/lang/Object;)V"));
+        init.stack(-3);
+        for (int i = 0; i < constants.size(); i++) {
+            String type = constantTypes.get(i);
+            init.op(ALOAD_0, 1);
+            init.op(ALOAD_2, 1);
+            init.push(i);
+            init.op(AALOAD, -1);
+            init.u1(CHECKCAST);
+            init.u2(pool.classRef(type));
+            init.u1(PUTFIELD);
+            init.u2(pool.fieldRef(CLASS_NAME, "c" + i, "L" + type + ";"));
+            init.stack(-2);
+        }
+        init.op(RETURN, 0);
+
+        int thisClass = pool.classRef(CLASS_NAME);
+        int superClass = pool.classRef(SUPER_NAME);
+        int codeName = pool.utf8("Code");
+        int initName = pool.utf8("<init>");
+        int initDescriptor = pool.utf8("(Ljava/lang/String;[Ljava/lang/Object;)V");
+        int matchesName = pool.utf8("matches");
+        int matchesDescriptor = pool.utf8("(" + EXCHANGE + ")Z");
+        int[] fieldNames = new int[constants.size()];
+        int[] fieldDescriptors = new int[constants.size()];
+        for (int i = 0; i < constants.size(); i++) {
+            fieldNames[i] = pool.utf8("c" + i);
+            fieldDescriptors[i] = pool.utf8("L" + constantTypes.get(i) + ";");
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512 + code.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(CLASS_VERSION);
+        pool.writeTo(out);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(0);
+        out.writeShort(constants.size());
+        for (int i = 0; i < constants.size(); i++) {
+            out.writeShort(ACC_PRIVATE | ACC_FINAL);
+            out.writeShort(fieldNames[i]);
+            out.writeShort(fieldDescriptors[i]);
+            out.writeShort(0);
+        }
+        out.writeShort(2);
+        writeMethod(out, initName, initDescriptor, codeName, init, 3);
+        writeMethod(out, matchesName, matchesDescriptor, codeName, code, 2);
+        out.writeShort(0);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeName, Code code, int maxLocals)
+            throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeName);
+        out.writeInt(12 + code.size());
+        out.writeShort(code.maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.size());
+        out.write(code.bytes, 0, code.size());
+        out.writeShort(0);
+        out.writeShort(0);
+    }
+
+    /**
+     * The constant pool of the class file being generated.
+     */
+    private static final class ConstantPool {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, () -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, () -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        int string(String value) {
+            int utf = utf8(value);
+            return entry("S" + value, () -> {
+                out.writeByte(8);
+                out.writeShort(utf);
+            });
+        }
+
+        int fieldRef(String owner, String name, String descriptor) {
+            return memberRef(9, owner, name, descriptor);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            return memberRef(10, owner, name, descriptor);
+        }
+
+        int interfaceMethodRef(String owner, String name, String descriptor) {
+            return memberRef(11, owner, name, descriptor);
+        }
+
+        private int memberRef(int tag, String owner, String name, String descriptor) {
+            int ownerIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = entry("N" + name + ' ' + descriptor, () -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return entry(tag + owner + '.' + name + ' ' + descriptor, () -> {
+                out.writeByte(tag);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int entry(String key, Entry entry) {
+            Integer index = entries.get(key);
+            if (index == null) {
+                try {
+                    entry.write();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                index = count++;
+                entries.put(key, index);
+            }
+            return index;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            out.flush();
+            target.writeShort(count);
+            bytes.writeTo(target);
+        }
+
+        @FunctionalInterface
+        private interface Entry {
+            void write() throws IOException;
+        }
+    }
+
+    /**
+     * The bytecode of a method being generated, which keeps track of the maximum stack depth.
+     */
+    private final class Code {
+
+        private byte[] bytes = new byte[64];
+        private int size;
+        private int stack;
+        private int maxStack;
+
+        int size() {
+            return size;
+        }
+
+        void u1(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void u2(int value) {
+            u1(value >> 8);
+            u1(value);
+        }
+
+        void stack(int delta) {
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        void op(int opcode, int delta) {
+            u1(opcode);
+            stack(delta);
+        }
+
+        void push(int value) {
+            if (value <= 5) {
+                op(ICONST_0 + value, 1);
+            } else if (value <= Byte.MAX_VALUE) {
+                op(BIPUSH, 1);
+                u1(value);
+            } else {
+                op(SIPUSH, 1);
+                u2(value);
+            }
+        }
+
+        void ldc(int index) {
+            op(LDC_W, 1);
+            u2(index);
+        }
+
+        void field(int opcode, int index, int delta) {
+            op(opcode, delta);
+            u2(index);
+        }
+
+        void invoke(int opcode, String owner, String name, String descriptor, int delta) {
+            if (opcode == INVOKEINTERFACE) {
+                op(opcode, delta);
+                u2(pool.interfaceMethodRef(owner, name, descriptor));
+                // the number of argument slots including the receiver (only single argument methods are called)
+                u1(2);
+                u1(0);
+            } else {
+                op(opcode, delta);
+                u2(pool.methodRef(owner, name, descriptor));
+            }
+        }
+
+        /**
+         * Emits a branch instruction.
+         *
+         * @param  next the previous branch to the same target (chained until bound), or -1
+         * @return      the position of the branch to bind later
+         */
+        int branch(int opcode, int next) {
+            int position = size;
+            op(opcode, opcode == GOTO ? 0 : -1);
+            // temporary store the previous branch to the same target in the offset
+            u2(next == -1 ? 0 : position - next);
+            return position;
+        }
+
+        /**
+         * Binds the branch (and the chained branches to the same target) to the current position.
+         */
+        void bind(int branch) {
+            int position = branch;
+            while (true) {
+                int previous = (short) ((bytes[position + 1] & 0xff) << 8 | bytes[position + 2] & 0xff);
+                int offset = size - position;
+                bytes[position + 1] = (byte) (offset >> 8);
+                bytes[position + 2] = (byte) offset;
+                if (previous == 0) {
+                    break;
+                }
+                position -= previous;
+            }
+        }
+    }
+}
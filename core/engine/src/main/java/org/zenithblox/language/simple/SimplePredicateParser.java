@@ -37,16 +37,33 @@ public class SimplePredicateParser extends BaseSimpleParser {
 
     // use caches to avoid re-parsing the same expressions over and over again
     private final Map<String, Expression> cacheExpression;
+    private final boolean compile;
 
     public SimplePredicateParser(ZwangineContext zwangineContext, String expression, boolean allowEscape,
                                  Map<String, Expression> cacheExpression) {
+        this(zwangineContext, expression, allowEscape, cacheExpression, false);
+    }
+
+    /**
+     * @param compile whether to compile the predicate to bytecode using the {@link SimplePredicateCompiler} (falls
+     *                back to the interpreted predicate if the predicate cannot be compiled)
+     */
+    public SimplePredicateParser(ZwangineContext zwangineContext, String expression, boolean allowEscape,
+                                 Map<String, Expression> cacheExpression, boolean compile) {
         super(zwangineContext, expression, allowEscape);
         this.cacheExpression = cacheExpression;
+        this.compile = compile;
     }
 
     public Predicate parsePredicate() {
         try {
             parseTokens();
+            if (compile) {
+                Predicate answer = SimplePredicateCompiler.compile(zwangineContext, expression, nodes);
+                if (answer != null) {
+                    return answer;
+                }
+            }
             return doParsePredicate();
         } catch (SimpleParserException e) {
             // catch parser exception and turn that into a syntax exceptions
@@ -34,6 +34,10 @@ public class BooleanExpression extends BaseSimpleNode {
         this.value = "true".equals(token.getText());
     }
 
+    public boolean isValue() {
+        return value;
+    }
+
     @Override
     public Expression createExpression(ZwangineContext zwangineContext, String expression) throws SimpleParserException {
         return new Expression() {
@@ -65,6 +65,8 @@ public class AggregateDefinition extends OutputDefinition<AggregateDefinition>
     private String parallelProcessing;
     @Metadata(javaType = "java.lang.Boolean")
     private String optimisticLocking;
+    @Metadata(label = "advanced", javaType = "java.lang.Integer")
+    private String lockStripes;
     @Metadata(label = "advanced", javaType = "java.util.concurrent.ExecutorService")
     private String executorService;
     @Metadata(label = "advanced", javaType = "java.util.concurrent.ScheduledExecutorService")
@@ -88,6 +90,8 @@ public class AggregateDefinition extends OutputDefinition<AggregateDefinition>
     @Metadata(label = "advanced", defaultValue = "1000", javaType = "java.time.Duration")
     private String completionTimeoutCheckerInterval;
     @Metadata(label = "advanced", javaType = "java.lang.Boolean")
+    private String completionTimeoutTimingWheel;
+    @Metadata(label = "advanced", javaType = "java.lang.Boolean")
     private String completionFromBatchConsumer;
     @Metadata(label = "advanced", javaType = "java.lang.Boolean")
     private String completionOnNewCorrelationGroup;
@@ -129,6 +133,7 @@ public class AggregateDefinition extends OutputDefinition<AggregateDefinition>
                 ? source.optimisticLockRetryPolicyDefinition.copyDefinition() : null;
         this.parallelProcessing = source.parallelProcessing;
         this.optimisticLocking = source.optimisticLocking;
+        this.lockStripes = source.lockStripes;
         this.executorService = source.executorService;
         this.timeoutCheckerExecutorService = source.timeoutCheckerExecutorService;
         this.aggregateController = source.aggregateController;
@@ -140,6 +145,7 @@ public class AggregateDefinition extends OutputDefinition<AggregateDefinition>
         this.completionInterval = source.completionInterval;
         this.completionTimeout = source.completionTimeout;
         this.completionTimeoutCheckerInterval = source.completionTimeoutCheckerInterval;
+        this.completionTimeoutTimingWheel = source.completionTimeoutTimingWheel;
         this.completionFromBatchConsumer = source.completionFromBatchConsumer;
         this.completionOnNewCorrelationGroup = source.completionOnNewCorrelationGroup;
         this.eagerCheckCompletion = source.eagerCheckCompletion;
@@ -388,6 +394,14 @@ public class AggregateDefinition extends OutputDefinition<AggregateDefinition>
         this.completionTimeoutCheckerInterval = completionTimeoutCheckerInterval;
     }
 
+    public String getCompletionTimeoutTimingWheel() {
+        return completionTimeoutTimingWheel;
+    }
+
+    public void setCompletionTimeoutTimingWheel(String completionTimeoutTimingWheel) {
+        this.completionTimeoutTimingWheel = completionTimeoutTimingWheel;
+    }
+
     public ExpressionSubElementDefinition getCompletionPredicate() {
         return completionPredicate;
     }
@@ -457,6 +471,14 @@ public class AggregateDefinition extends OutputDefinition<AggregateDefinition>
         this.optimisticLocking = optimisticLocking;
     }
 
+    public String getLockStripes() {
+        return lockStripes;
+    }
+
+    public void setLockStripes(String lockStripes) {
+        this.lockStripes = lockStripes;
+    }
+
     public String getParallelProcessing() {
         return parallelProcessing;
     }
@@ -783,6 +805,32 @@ public class AggregateDefinition extends OutputDefinition<AggregateDefinition>
         return this;
     }
 
+    /**
+     * Whether to keep track of the completion timeouts using a timing wheel, which does not have to check every
+     * correlation group for timeout on each run of the timeout checker. This is faster when there are many correlation
+     * groups in progress.
+     * <p/>
+     * The timeouts are triggered with the same precision as otherwise, which is set by the
+     * completionTimeoutCheckerInterval option.
+     */
+    public AggregateDefinition completionTimeoutTimingWheel() {
+        setCompletionTimeoutTimingWheel(Boolean.toString(true));
+        return this;
+    }
+
+    /**
+     * Whether to keep track of the completion timeouts using a timing wheel, which does not have to check every
+     * correlation group for timeout on each run of the timeout checker. This is faster when there are many correlation
+     * groups in progress.
+     * <p/>
+     * The timeouts are triggered with the same precision as otherwise, which is set by the
+     * completionTimeoutCheckerInterval option.
+     */
+    public AggregateDefinition completionTimeoutTimingWheel(boolean completionTimeoutTimingWheel) {
+        setCompletionTimeoutTimingWheel(Boolean.toString(completionTimeoutTimingWheel));
+        return this;
+    }
+
     /**
      * Sets the AggregationStrategy to use with a fluent builder.
      */
@@ -956,6 +1004,31 @@ public class AggregateDefinition extends OutputDefinition<AggregateDefinition>
         return this;
     }
 
+    /**
+     * Sets the number of locks the correlation groups are striped over, so exchanges with different correlation keys
+     * are aggregated in parallel, instead of one at a time using a single lock. The aggregationRepository must support
+     * concurrent access to different correlation keys.
+     * <p/>
+     * Lock striping is not in use with optimisticLocking, completionFromBatchConsumer or
+     * completionOnNewCorrelationGroup.
+     */
+    public AggregateDefinition lockStripes(int lockStripes) {
+        return lockStripes(Integer.toString(lockStripes));
+    }
+
+    /**
+     * Sets the number of locks the correlation groups are striped over, so exchanges with different correlation keys
+     * are aggregated in parallel, instead of one at a time using a single lock. The aggregationRepository must support
+     * concurrent access to different correlation keys.
+     * <p/>
+     * Lock striping is not in use with optimisticLocking, completionFromBatchConsumer or
+     * completionOnNewCorrelationGroup.
+     */
+    public AggregateDefinition lockStripes(String lockStripes) {
+        setLockStripes(lockStripes);
+        return this;
+    }
+
     /**
      * Allows to configure retry settings when using optimistic locking.
      */
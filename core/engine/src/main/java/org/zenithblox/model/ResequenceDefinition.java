@@ -20,6 +20,7 @@ import org.zenithblox.Expression;
 import org.zenithblox.model.config.BatchResequencerConfig;
 import org.zenithblox.model.config.ResequencerConfig;
 import org.zenithblox.model.config.StreamResequencerConfig;
+import org.zenithblox.model.config.StreamResequencerEngineType;
 import org.zenithblox.model.language.ExpressionDefinition;
 import org.zenithblox.processor.resequencer.ExpressionResultComparator;
 import org.zenithblox.spi.Metadata;
@@ -217,6 +218,21 @@ public class ResequenceDefinition extends OutputDefinition<ResequenceDefinition>
 
     }
 
+    /**
+     * Uses the ring buffer engine for the stream resequencer, which keeps the messages in a preallocated ring buffer
+     * indexed by their sequence number. This requires dense sequence numbers and cannot be used with a custom
+     * comparator.
+     *
+     * @return the builder
+     */
+    public ResequenceDefinition ringBuffer() {
+        if (streamConfig == null) {
+            throw new IllegalStateException("ringBuffer() only supported for stream resequencer");
+        }
+        streamConfig.setEngine(StreamResequencerEngineType.RingBuffer.name());
+        return this;
+    }
+
     /**
      * Enables duplicates for the batch resequencer mode
      *
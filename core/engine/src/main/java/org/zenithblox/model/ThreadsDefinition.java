@@ -46,6 +46,8 @@ public class ThreadsDefinition extends NoOutputDefinition<ThreadsDefinition>
     private String maxQueueSize;
     @Metadata(label = "advanced", javaType = "java.lang.Boolean")
     private String allowCoreThreadTimeOut;
+    @Metadata(label = "advanced", javaType = "java.lang.Boolean")
+    private String virtualThreads;
     @Metadata(defaultValue = "Threads")
     private String threadName;
     @Metadata(label = "advanced", javaType = "org.zenithblox.util.concurrent.ThreadPoolRejectedPolicy",
@@ -68,6 +70,7 @@ public class ThreadsDefinition extends NoOutputDefinition<ThreadsDefinition>
         this.timeUnit = source.timeUnit;
         this.maxQueueSize = source.maxQueueSize;
         this.allowCoreThreadTimeOut = source.allowCoreThreadTimeOut;
+        this.virtualThreads = source.virtualThreads;
         this.threadName = source.threadName;
         this.rejectedPolicy = source.rejectedPolicy;
         this.callerRunsWhenRejected = source.callerRunsWhenRejected;
@@ -306,6 +309,37 @@ public class ThreadsDefinition extends NoOutputDefinition<ThreadsDefinition>
         return this;
     }
 
+    /**
+     * Whether to execute each task in a new virtual thread, instead of using a pool of platform threads. The max pool
+     * size is then the maximum number of tasks executing concurrently, and the max queue size the maximum number of
+     * tasks waiting to be executed, after which tasks are rejected. This allows thousands of concurrent tasks which are
+     * blocked on I/O, without the cost of as many platform threads.
+     * <p/>
+     * Is by default <tt>false</tt>
+     *
+     * @param  virtualThreads <tt>true</tt> to use virtual threads
+     * @return                the builder
+     */
+    public ThreadsDefinition virtualThreads(boolean virtualThreads) {
+        return virtualThreads(Boolean.toString(virtualThreads));
+    }
+
+    /**
+     * Whether to execute each task in a new virtual thread, instead of using a pool of platform threads. The max pool
+     * size is then the maximum number of tasks executing concurrently, and the max queue size the maximum number of
+     * tasks waiting to be executed, after which tasks are rejected. This allows thousands of concurrent tasks which are
+     * blocked on I/O, without the cost of as many platform threads.
+     * <p/>
+     * Is by default <tt>false</tt>
+     *
+     * @param  virtualThreads <tt>true</tt> to use virtual threads
+     * @return                the builder
+     */
+    public ThreadsDefinition virtualThreads(String virtualThreads) {
+        setVirtualThreads(virtualThreads);
+        return this;
+    }
+
     @Override
     public ExecutorService getExecutorServiceBean() {
         return executorServiceBean;
@@ -388,6 +422,14 @@ public class ThreadsDefinition extends NoOutputDefinition<ThreadsDefinition>
         this.allowCoreThreadTimeOut = allowCoreThreadTimeOut;
     }
 
+    public String getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(String virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     public String getExecutorService() {
         return executorService;
     }
@@ -32,7 +32,7 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     private ExecutorService executorServiceBean;
 
     @Metadata(javaType = "org.zenithblox.model.ThrottlingMode", defaultValue = "TotalRequests",
-              enums = "TotalRequests,ConcurrentRequests")
+              enums = "TotalRequests,ConcurrentRequests,TokenBucket")
     private String mode;
     private ExpressionSubElementDefinition correlationExpression;
     @Metadata(label = "advanced", javaType = "java.util.concurrent.ExecutorService")
@@ -45,6 +45,8 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     private String rejectExecution;
     @Metadata(defaultValue = "1000", javaType = "java.time.Duration")
     private String timePeriodMillis;
+    @Metadata(label = "advanced", javaType = "java.lang.Integer")
+    private String burstCapacity;
 
     public ThrottleDefinition() {
         totalRequestsMode();
@@ -61,6 +63,7 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
         this.callerRunsWhenRejected = source.callerRunsWhenRejected;
         this.rejectExecution = source.rejectExecution;
         this.timePeriodMillis = source.timePeriodMillis;
+        this.burstCapacity = source.burstCapacity;
     }
 
     public ThrottleDefinition(Expression maximumRequestsPerPeriod) {
@@ -98,6 +101,11 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
         return this;
     }
 
+    public ThrottleDefinition tokenBucketMode() {
+        this.mode = ThrottlingMode.TokenBucket.name();
+        return this;
+    }
+
     @Override
     public String toString() {
         return "Throttle[" + description() + "]";
@@ -106,6 +114,8 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     protected String description() {
         if (mode.equals(ThrottlingMode.TotalRequests.name())) {
             return getExpression() + " request per " + getTimePeriodMillis() + " millis";
+        } else if (mode.equals(ThrottlingMode.TokenBucket.name())) {
+            return getExpression() + " request per " + getTimePeriodMillis() + " millis (token bucket)";
         } else {
             return getExpression() + " maximum concurrent requests";
         }
@@ -207,6 +217,29 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
         }
     }
 
+    /**
+     * Sets the maximum number of requests which can be let through at once when using token bucket mode. By default
+     * this is the maximum number of requests per period.
+     *
+     * @param  burstCapacity the capacity of the token bucket
+     * @return               the builder
+     */
+    public ThrottleDefinition burstCapacity(int burstCapacity) {
+        return burstCapacity(Integer.toString(burstCapacity));
+    }
+
+    /**
+     * Sets the maximum number of requests which can be let through at once when using token bucket mode. By default
+     * this is the maximum number of requests per period.
+     *
+     * @param  burstCapacity the capacity of the token bucket
+     * @return               the builder
+     */
+    public ThrottleDefinition burstCapacity(String burstCapacity) {
+        setBurstCapacity(burstCapacity);
+        return this;
+    }
+
     /**
      * To use a correlation expression that can throttle by the given key instead of overall throttling
      *
@@ -339,8 +372,8 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     /**
      * Sets the throttling mode to one of the available modes enumerated in ThrottlingMode
      *
-     * @param  mode The throttling mode as a string parameter. It currently accepts one of 'TotalRequests' or
-     *              `ConcurrentRequests`
+     * @param  mode The throttling mode as a string parameter. It currently accepts one of 'TotalRequests',
+     *              `ConcurrentRequests` or `TokenBucket`
      * @see         ThrottlingMode
      * @return      the builder
      */
@@ -373,21 +406,35 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     }
 
     public String getTimePeriodMillis() {
-        if (ThrottlingMode.toMode(mode) == ThrottlingMode.TotalRequests) {
+        if (ThrottlingMode.toMode(mode) != ThrottlingMode.ConcurrentRequests) {
             return timePeriodMillis;
         }
 
-        throw new IllegalArgumentException("Time period in millis can only be obtained when using total requests mode");
+        throw new IllegalArgumentException(
+                "Time period in millis can only be obtained when using total requests or token bucket mode");
     }
 
     public void setTimePeriodMillis(String timePeriodMillis) {
-        if (ThrottlingMode.toMode(mode) == ThrottlingMode.TotalRequests) {
+        if (ThrottlingMode.toMode(mode) != ThrottlingMode.ConcurrentRequests) {
             this.timePeriodMillis = timePeriodMillis;
         } else {
-            throw new IllegalArgumentException("Time period in millis can only be set when using total requests mode");
+            throw new IllegalArgumentException(
+                    "Time period in millis can only be set when using total requests or token bucket mode");
         }
     }
 
+    public String getBurstCapacity() {
+        return burstCapacity;
+    }
+
+    /**
+     * The maximum number of requests which can be let through at once when using token bucket mode. By default this is
+     * the maximum number of requests per period.
+     */
+    public void setBurstCapacity(String burstCapacity) {
+        this.burstCapacity = burstCapacity;
+    }
+
     public String getAsyncDelayed() {
         return asyncDelayed;
     }
@@ -439,8 +486,8 @@ public class ThrottleDefinition extends ExpressionNode implements ExecutorServic
     /**
      * Sets the throttling mode to one of the available modes enumerated in ThrottlingMode
      *
-     * @param mode The throttling mode as a string parameter. It currently accepts one of 'TotalRequests' or
-     *             `ConcurrentRequests`
+     * @param mode The throttling mode as a string parameter. It currently accepts one of 'TotalRequests',
+     *             `ConcurrentRequests` or `TokenBucket`
      * @see        ThrottlingMode
      */
     public void setMode(String mode) {
@@ -39,6 +39,9 @@ public class StreamResequencerConfig extends ResequencerConfig {
     private String rejectOld;
     @Metadata(label = "advanced", javaType = "org.zenithblox.processor.resequencer.ExpressionResultComparator")
     private String comparator;
+    @Metadata(label = "advanced", javaType = "org.zenithblox.model.config.StreamResequencerEngineType",
+              defaultValue = "Sequence", enums = "Sequence,RingBuffer")
+    private String engine;
 
     /**
      * Creates a new {@link StreamResequencerConfig} instance using default values for <code>capacity</code> (1000) and
@@ -108,6 +111,7 @@ public class StreamResequencerConfig extends ResequencerConfig {
         this.ignoreInvalidExchanges = source.ignoreInvalidExchanges;
         this.rejectOld = source.rejectOld;
         this.comparator = source.comparator;
+        this.engine = source.engine;
     }
 
     @Override
@@ -204,4 +208,18 @@ public class StreamResequencerConfig extends ResequencerConfig {
         return rejectOld;
     }
 
+    public String getEngine() {
+        return engine;
+    }
+
+    /**
+     * The engine used to resequence the messages. The Sequence engine keeps the messages sorted using the comparator.
+     * The RingBuffer engine keeps the messages in a preallocated ring buffer with room for capacity consecutive
+     * sequence numbers, which is faster but requires dense sequence numbers (as with the default comparator) and cannot
+     * be used with a custom comparator.
+     */
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
 }
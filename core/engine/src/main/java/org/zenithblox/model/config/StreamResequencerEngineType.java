@@ -0,0 +1,38 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.model.config;
+
+public enum StreamResequencerEngineType {
+    /**
+     * Keeps the messages in a sorted sequence, using the comparator to find gaps between messages
+     */
+    Sequence,
+
+    /**
+     * Keeps the messages in a preallocated ring buffer indexed by their sequence number, which requires dense
+     * <tt>long</tt> sequence numbers
+     */
+    RingBuffer;
+
+    public static StreamResequencerEngineType toEngine(String engine) {
+        if (engine != null && engine.equals(StreamResequencerEngineType.RingBuffer.name())) {
+            return StreamResequencerEngineType.RingBuffer;
+        }
+
+        return StreamResequencerEngineType.Sequence;
+    }
+}
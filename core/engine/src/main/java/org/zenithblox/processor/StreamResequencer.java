@@ -18,8 +18,10 @@ package org.zenithblox.processor;
 
 import org.zenithblox.*;
 import org.zenithblox.processor.resequencer.ResequencerEngine;
+import org.zenithblox.processor.resequencer.RingBufferResequencerEngine;
 import org.zenithblox.processor.resequencer.SequenceElementComparator;
 import org.zenithblox.processor.resequencer.SequenceSender;
+import org.zenithblox.processor.resequencer.StreamResequencerEngine;
 import org.zenithblox.spi.ExceptionHandler;
 import org.zenithblox.spi.IdAware;
 import org.zenithblox.spi.WorkflowIdAware;
@@ -51,8 +53,12 @@ import java.util.concurrent.locks.ReentrantLock;
  * <p>
  * Instances of this class poll for {@link Exchange}s from a given <code>endpoint</code>. Resequencing work and the
  * delivery of messages to the next <code>processor</code> is done within the single polling thread.
+ * <p>
+ * For dense sequence numbers the {@link RingBufferResequencerEngine} can be used instead, which keeps the messages in a
+ * preallocated ring buffer rather than a tree.
  *
  * @see ResequencerEngine
+ * @see RingBufferResequencerEngine
  */
 public class StreamResequencer extends AsyncProcessorSupport
         implements SequenceSender<Exchange>, Navigate<Processor>, Traceable, IdAware, WorkflowIdAware {
@@ -63,7 +69,7 @@ public class StreamResequencer extends AsyncProcessorSupport
     private String workflowId;
     private final ZwangineContext zwangineContext;
     private final ExceptionHandler exceptionHandler;
-    private final ResequencerEngine<Exchange> engine;
+    private final StreamResequencerEngine<Exchange> engine;
     private final Processor processor;
     private final Expression expression;
     private Delivery delivery;
@@ -79,9 +85,20 @@ public class StreamResequencer extends AsyncProcessorSupport
      */
     public StreamResequencer(ZwangineContext zwangineContext, Processor processor, SequenceElementComparator<Exchange> comparator,
                              Expression expression) {
+        this(zwangineContext, processor, new ResequencerEngine<>(comparator), expression);
+    }
+
+    /**
+     * Creates a new {@link StreamResequencer} instance using the given engine.
+     *
+     * @param processor next processor that processes re-ordered exchanges.
+     * @param engine    the engine resequencing the exchanges.
+     */
+    public StreamResequencer(ZwangineContext zwangineContext, Processor processor, StreamResequencerEngine<Exchange> engine,
+                             Expression expression) {
         ObjectHelper.notNull(zwangineContext, "ZwangineContext");
         this.zwangineContext = zwangineContext;
-        this.engine = new ResequencerEngine<>(comparator);
+        this.engine = engine;
         this.engine.setSequenceSender(this);
         this.processor = processor;
         this.expression = expression;
@@ -120,16 +137,23 @@ public class StreamResequencer extends AsyncProcessorSupport
 
     /**
      * Returns this resequencer's timeout. This sets the resequencer engine's timeout via
-     * {@link ResequencerEngine#setTimeout(long)}. This value is also used to define the polling timeout from the
+     * {@link StreamResequencerEngine#setTimeout(long)}. This value is also used to define the polling timeout from the
      * endpoint.
      *
      * @return this resequencer's timeout. (Processor)
-     * @see    ResequencerEngine#setTimeout(long)
+     * @see    StreamResequencerEngine#setTimeout(long)
      */
     public long getTimeout() {
         return engine.getTimeout();
     }
 
+    /**
+     * Returns the engine resequencing the exchanges.
+     */
+    public StreamResequencerEngine<Exchange> getEngine() {
+        return engine;
+    }
+
     public void setCapacity(int capacity) {
         this.capacity = capacity;
     }
@@ -233,7 +257,7 @@ public class StreamResequencer extends AsyncProcessorSupport
     @Override
     public boolean process(Exchange exchange, AsyncCallback callback) {
         try {
-            engine.waitUntil(s -> s.size() < capacity);
+            engine.awaitCapacity(capacity);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             // we were interrupted so break out
@@ -247,6 +271,10 @@ public class StreamResequencer extends AsyncProcessorSupport
             Exchange copy = ExchangeHelper.createCorrelatedCopy(exchange, true);
             engine.insert(copy);
             delivery.request();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // we were interrupted while waiting for room in the resequencer
+            exchange.setException(e);
         } catch (Exception e) {
             if (isIgnoreInvalidExchanges()) {
                 LOG.debug("Invalid Exchange. This Exchange will be ignored: {}", exchange);
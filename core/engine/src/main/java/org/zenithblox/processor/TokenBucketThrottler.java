@@ -0,0 +1,430 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.processor;
+
+import org.zenithblox.*;
+import org.zenithblox.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A <a href="http://zwangine.zwangine.org/throttler.html">Throttler</a> which uses a token bucket per correlation key
+ * to limit the rate of message exchanges sent to a processor.
+ * <p/>
+ * Each bucket holds up to <tt>burstCapacity</tt> tokens (by default the maximum number of requests) and is refilled at
+ * the rate of maximumRequests tokens per timePeriodMillis. An exchange takes a token from the bucket, so bursts up to
+ * the burst capacity are let through at once, while the long-term rate is limited to maximumRequests per
+ * timePeriodMillis.
+ * <p/>
+ * The tokens and the time of the last refill of a bucket are packed into a single <tt>long</tt> which is updated with
+ * compare-and-set, so acquiring a token is lock-free and does not allocate. When there are no tokens left an exchange
+ * reserves the next token (the bucket goes into debt) and waits until the token is due, either blocking the caller or
+ * (when asyncDelayed is enabled) scheduling the continuation of the exchange, which is handed over to a thread pool
+ * once the token is due, so no thread is blocked while delaying.
+ * <p/>
+ * Buckets which have been idle long enough to be full again are evicted, so the number of buckets is bounded by the
+ * number of correlation keys in active use.
+ */
+public class TokenBucketThrottler extends AbstractThrottler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenBucketThrottler.class);
+
+    // the low bits hold the tokens (offset so a bucket can go into debt) and the high bits the time of the last refill
+    private static final int TOKEN_BITS = 21;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long TOKEN_OFFSET = 1L << (TOKEN_BITS - 1);
+    private static final long TIME_MASK = (1L << (Long.SIZE - TOKEN_BITS)) - 1;
+
+    /**
+     * The maximum number of tokens a bucket can hold.
+     */
+    public static final int MAX_BURST_CAPACITY = (int) TOKEN_OFFSET - 1;
+
+    private final long timePeriodMillis;
+    private final long evictPeriodMillis;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Function<String, TokenBucket> bucketFactory = k -> new TokenBucket();
+    private final LongAdder evicted = new LongAdder();
+    private final long baseNanos = System.nanoTime();
+    private int burstCapacity;
+    private ExecutorService continuationExecutor;
+    private ScheduledFuture<?> evictTask;
+
+    public TokenBucketThrottler(final ZwangineContext zwangineContext, final Expression maxRequestsExpression,
+                                final long timePeriodMillis,
+                                final ScheduledExecutorService asyncExecutor, final boolean shutdownAsyncExecutor,
+                                final boolean rejectExecution, Expression correlation) {
+        super(asyncExecutor, shutdownAsyncExecutor, zwangineContext, rejectExecution, correlation, maxRequestsExpression);
+
+        if (timePeriodMillis <= 0) {
+            throw new IllegalArgumentException("TimePeriodMillis should be a positive number, was: " + timePeriodMillis);
+        }
+        this.timePeriodMillis = timePeriodMillis;
+        this.evictPeriodMillis = Math.max(timePeriodMillis, 1000L);
+    }
+
+    @Override
+    public boolean process(final Exchange exchange, final AsyncCallback callback) {
+        boolean doneSync = true;
+        try {
+            if (!isRunAllowed()) {
+                throw new RejectedExecutionException("Run is not allowed");
+            }
+
+            String key = DEFAULT_KEY;
+            if (correlationExpression != null) {
+                key = correlationExpression.evaluate(exchange, String.class);
+            }
+            TokenBucket bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(key, bucketFactory);
+            }
+            bucket.calculateAndSetMaxRequestsPerPeriod(exchange);
+
+            long delay = bucket.acquire(!isRejectExecution());
+            if (delay < 0) {
+                if (isRejectExecution()) {
+                    throw new ThrottlerRejectedExecutionException(
+                            "Exceeded the max throttle rate of " + bucket.getThrottleRate() + " within "
+                                                                  + timePeriodMillis + "ms");
+                }
+                throw new ThrottlerRejectedExecutionException(
+                        "Exceeded the maximum number of exchanges waiting for the throttle rate of "
+                                                              + bucket.getThrottleRate() + " within " + timePeriodMillis
+                                                              + "ms");
+            }
+
+            if (delay > 0) {
+                if (isAsyncDelayed() && !exchange.isTransacted()) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Throttle rate exceeded but AsyncDelayed enabled, so delaying for {}ns, exchangeId: {}",
+                                delay, exchange.getExchangeId());
+                    }
+                    if (processAsynchronously(exchange, callback, delay)) {
+                        return false;
+                    }
+                    // rejected by the executor so the caller runs
+                }
+
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("Throttled for {}ns, exchangeId: {}", delay, exchange.getExchangeId());
+                }
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } else if (LOG.isTraceEnabled()) {
+                LOG.trace("No throttling applied to exchangeId: {}", exchange.getExchangeId());
+            }
+
+            callback.done(doneSync);
+            return doneSync;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return handleInterrupt(exchange, callback, e, doneSync);
+        } catch (Exception e) {
+            return handleException(exchange, callback, e, doneSync);
+        }
+    }
+
+    /**
+     * Schedules the continuation of the exchange once the token it has reserved is due. The continuation is handed over
+     * to a thread pool so the scheduler thread is only used for the timer.
+     *
+     * @return <tt>true</tt> if scheduled, or <tt>false</tt> if the executor rejected the task and the caller should run
+     */
+    protected boolean processAsynchronously(final Exchange exchange, final AsyncCallback callback, long delay) {
+        try {
+            asyncExecutor.schedule(() -> continueAsync(exchange, callback), delay, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (final RejectedExecutionException e) {
+            if (isCallerRunsWhenRejected()) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("AsyncExecutor is full, rejected exchange will run in the current thread, exchangeId: {}",
+                            exchange.getExchangeId());
+                }
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private void continueAsync(final Exchange exchange, final AsyncCallback callback) {
+        try {
+            continuationExecutor.execute(() -> callback.done(false));
+        } catch (RejectedExecutionException e) {
+            // the token is due so the exchange must continue, even if it has to be on the scheduler thread
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Continuation rejected, exchange will continue on the scheduler thread, exchangeId: {}",
+                        exchange.getExchangeId());
+            }
+            callback.done(false);
+        }
+    }
+
+    /**
+     * Removes the buckets which have been idle long enough to be full again.
+     */
+    protected void evictIdleBuckets() {
+        long now = nowMicros();
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            TokenBucket bucket = entry.getValue();
+            if (bucket.isFull(now) && buckets.remove(entry.getKey(), bucket)) {
+                evicted.increment();
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("Evicted idle throttle bucket with key: {}", entry.getKey());
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (isAsyncDelayed()) {
+            ObjectHelper.notNull(asyncExecutor, "executorService", this);
+            if (continuationExecutor == null) {
+                continuationExecutor
+                        = zwangineContext.getExecutorServiceManager().newDefaultThreadPool(this, "TokenBucketThrottler");
+            }
+        }
+        if (asyncExecutor != null) {
+            evictTask = asyncExecutor.scheduleWithFixedDelay(this::evictIdleBuckets, evictPeriodMillis, evictPeriodMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (evictTask != null) {
+            evictTask.cancel(false);
+            evictTask = null;
+        }
+    }
+
+    @Override
+    protected void doShutdown() throws Exception {
+        if (shutdownAsyncExecutor && asyncExecutor != null) {
+            zwangineContext.getExecutorServiceManager().shutdownNow(asyncExecutor);
+        }
+        if (continuationExecutor != null) {
+            zwangineContext.getExecutorServiceManager().shutdownGraceful(continuationExecutor);
+            continuationExecutor = null;
+        }
+        buckets.clear();
+        super.doShutdown();
+    }
+
+    private long nowMicros() {
+        return ((System.nanoTime() - baseNanos) / 1000) & TIME_MASK;
+    }
+
+    private static long pack(long tokens, long last) {
+        return ((last & TIME_MASK) << TOKEN_BITS) | ((tokens + TOKEN_OFFSET) & TOKEN_MASK);
+    }
+
+    private static long tokens(long state) {
+        return (state & TOKEN_MASK) - TOKEN_OFFSET;
+    }
+
+    private static long last(long state) {
+        return state >>> TOKEN_BITS;
+    }
+
+    protected final class TokenBucket {
+        private final AtomicLong state = new AtomicLong();
+        private volatile int throttleRate;
+        private volatile int capacity;
+        private volatile double microsPerToken;
+
+        public int getThrottleRate() {
+            return throttleRate;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Takes a token from this bucket.
+         *
+         * @param  reserve whether to reserve the next token if there are no tokens left
+         * @return         <tt>0</tt> if a token was taken, the nanos to wait until the reserved token is due, or
+         *                 <tt>-1</tt> if there were no tokens left which could be taken or reserved
+         */
+        long acquire(boolean reserve) {
+            while (true) {
+                double rate = microsPerToken;
+                long now = nowMicros();
+                long current = state.get();
+                long tokens = tokens(current);
+                long last = last(current);
+                long credit = (long) (((now - last) & TIME_MASK) / rate);
+                if (credit > 0) {
+                    if (tokens + credit >= capacity) {
+                        tokens = capacity;
+                        last = now;
+                    } else {
+                        tokens += credit;
+                        last = (last + (long) (credit * rate)) & TIME_MASK;
+                    }
+                }
+                long delay = 0;
+                if (tokens <= 0) {
+                    if (!reserve || tokens - 1 < -TOKEN_OFFSET) {
+                        return -1;
+                    }
+                    // the reserved token is due when the debt has been paid back
+                    long micros = (long) ((1 - tokens) * rate) - ((now - last) & TIME_MASK);
+                    delay = TimeUnit.MICROSECONDS.toNanos(Math.max(micros, 1));
+                }
+                if (state.compareAndSet(current, pack(tokens - 1, last))) {
+                    return delay;
+                }
+            }
+        }
+
+        /**
+         * Whether this bucket has been refilled to its capacity as of the given time.
+         */
+        boolean isFull(long now) {
+            long current = state.get();
+            long credit = (long) (((now - last(current)) & TIME_MASK) / microsPerToken);
+            return tokens(current) + credit >= capacity;
+        }
+
+        /**
+         * Evaluates the maxRequestsPerPeriodExpression and adjusts the refill rate and capacity of this bucket.
+         */
+        public void calculateAndSetMaxRequestsPerPeriod(final Exchange exchange) throws Exception {
+            Integer newThrottle = getMaximumRequestsExpression().evaluate(exchange, Integer.class);
+
+            if (newThrottle == null) {
+                if (throttleRate == 0) {
+                    throw new RuntimeExchangeException(
+                            "The maxRequestsPerPeriodExpression was evaluated as null: " + getMaximumRequestsExpression(),
+                            exchange);
+                }
+                return;
+            }
+            if (newThrottle != throttleRate) {
+                setThrottleRate(newThrottle, exchange);
+            }
+        }
+
+        private synchronized void setThrottleRate(int newThrottle, Exchange exchange) {
+            if (newThrottle == throttleRate) {
+                return;
+            }
+            if (newThrottle <= 0 || newThrottle > MAX_BURST_CAPACITY) {
+                throw new IllegalStateException(
+                        "The maximumRequestsPerPeriod must be a positive number up to " + MAX_BURST_CAPACITY + ", was: "
+                                                + newThrottle);
+            }
+            int newCapacity = burstCapacity > 0 ? burstCapacity : newThrottle;
+            microsPerToken = (double) TimeUnit.MILLISECONDS.toMicros(timePeriodMillis) / newThrottle;
+            capacity = newCapacity;
+            if (throttleRate == 0) {
+                // a new bucket starts full
+                state.set(pack(newCapacity, nowMicros()));
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Initial throttle rate set to {}, triggered by ExchangeId: {}", newThrottle,
+                            exchange.getExchangeId());
+                }
+            } else {
+                // discard the tokens above the new capacity
+                long current;
+                do {
+                    current = state.get();
+                } while (tokens(current) > newCapacity
+                        && !state.compareAndSet(current, pack(newCapacity, last(current))));
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Throttle rate changed from {} to {}, triggered by ExchangeId: {}", throttleRate,
+                            newThrottle, exchange.getExchangeId());
+                }
+            }
+            throttleRate = newThrottle;
+        }
+    }
+
+    @Override
+    public String getMode() {
+        return "TokenBucket";
+    }
+
+    /**
+     * Gets the current maximum request per period value. If it is grouped throttling applied with correlationExpression
+     * than the max per period within the group will return
+     */
+    @Override
+    public int getCurrentMaximumRequests() {
+        return buckets.values().stream().mapToInt(TokenBucket::getThrottleRate).max().orElse(0);
+    }
+
+    public long getTimePeriodMillis() {
+        return timePeriodMillis;
+    }
+
+    /**
+     * Sets the maximum number of tokens a bucket can hold, which is the number of requests that can be let through at
+     * once after the throttler has been idle. By default this is the maximum number of requests per period.
+     */
+    public void setBurstCapacity(int burstCapacity) {
+        if (burstCapacity < 0 || burstCapacity > MAX_BURST_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "BurstCapacity should be a positive number up to " + MAX_BURST_CAPACITY + ", was: " + burstCapacity);
+        }
+        this.burstCapacity = burstCapacity;
+    }
+
+    public int getBurstCapacity() {
+        return burstCapacity;
+    }
+
+    /**
+     * Gets the number of token buckets currently in use (one per correlation key)
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Gets the number of idle token buckets which have been evicted
+     */
+    public long getEvictedBucketCount() {
+        return evicted.sum();
+    }
+
+    @Override
+    public String getTraceLabel() {
+        return "throttle[" + this.getMaximumRequestsExpression() + " per: " + timePeriodMillis + " burst: "
+               + (burstCapacity > 0 ? burstCapacity : getCurrentMaximumRequests()) + "]";
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
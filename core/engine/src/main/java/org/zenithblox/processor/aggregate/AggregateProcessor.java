@@ -34,6 +34,7 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -64,7 +65,8 @@ public class AggregateProcessor extends AsyncProcessorSupport
     public static final String COMPLETED_BY_FORCE = "force";
 
     private static final Logger LOG = LoggerFactory.getLogger(AggregateProcessor.class);
-    private volatile Lock lock;
+    // the locks the correlation groups are striped over (a single lock unless lock striping is enabled)
+    private volatile Lock[] locks;
     private final AtomicBoolean aggregateRepositoryWarned = new AtomicBoolean();
     private final ZwangineContext zwangineContext;
     private final ReactiveExecutor reactiveExecutor;
@@ -85,6 +87,7 @@ public class AggregateProcessor extends AsyncProcessorSupport
     private ScheduledExecutorService recoverService;
     // store correlation key -> exchange id in timeout map
     private TimeoutMap<String, String> timeoutMap;
+    private volatile TimeoutMapStatistics timeoutMapStatistics;
     private ExceptionHandler exceptionHandler;
     private AggregationRepository aggregationRepository;
     private Map<String, String> closedCorrelationKeys;
@@ -113,6 +116,27 @@ public class AggregateProcessor extends AsyncProcessorSupport
         int redeliveryCounter;
     }
 
+    // lock which counts how many times a thread had to wait for another thread to release the lock
+    private static final class ContentionCountingLock extends ReentrantLock {
+        private final LongAdder contention = new LongAdder();
+
+        @Override
+        public void lock() {
+            if (!tryLock()) {
+                contention.increment();
+                super.lock();
+            }
+        }
+
+        long getContention() {
+            return contention.sum();
+        }
+
+        void resetContention() {
+            contention.reset();
+        }
+    }
+
     private class Statistics implements AggregateProcessorStatistics {
 
         private boolean statisticsEnabled = true;
@@ -167,8 +191,53 @@ public class AggregateProcessor extends AsyncProcessorSupport
             return discarded.get();
         }
 
+        @Override
+        public int getLockStripes() {
+            Lock[] current = locks;
+            return current != null ? current.length : 0;
+        }
+
+        @Override
+        public long[] getLockContention() {
+            Lock[] current = locks;
+            if (current == null) {
+                return new long[0];
+            }
+            long[] answer = new long[current.length];
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] instanceof ContentionCountingLock counting) {
+                    answer[i] = counting.getContention();
+                }
+            }
+            return answer;
+        }
+
+        @Override
+        public long getCompletionTimeoutMaxLag() {
+            TimeoutMapStatistics current = timeoutMapStatistics;
+            return current != null ? current.getMaxExpiryLag() : 0;
+        }
+
+        @Override
+        public long getCompletionTimeoutMeanLag() {
+            TimeoutMapStatistics current = timeoutMapStatistics;
+            return current != null ? current.getMeanExpiryLag() : 0;
+        }
+
         @Override
         public void reset() {
+            TimeoutMapStatistics timeouts = timeoutMapStatistics;
+            if (timeouts != null) {
+                timeouts.reset();
+            }
+            Lock[] current = locks;
+            if (current != null) {
+                for (Lock l : current) {
+                    if (l instanceof ContentionCountingLock counting) {
+                        counting.resetContention();
+                    }
+                }
+            }
             totalIn.set(0);
             totalCompleted.set(0);
             completedBySize.set(0);
@@ -196,6 +265,7 @@ public class AggregateProcessor extends AsyncProcessorSupport
     private Integer closeCorrelationKeyOnCompletion;
     private boolean parallelProcessing;
     private boolean optimisticLocking;
+    private int lockStripes;
 
     // different ways to have completion triggered
     private boolean eagerCheckCompletion;
@@ -213,6 +283,7 @@ public class AggregateProcessor extends AsyncProcessorSupport
     private boolean forceCompletionOnStop;
     private boolean completeAllOnStop;
     private long completionTimeoutCheckerInterval = 1000;
+    private boolean completionTimeoutTimingWheel;
 
     private ProducerTemplate deadLetterProducerTemplate;
     private boolean isRecoverableRepository;
@@ -369,15 +440,22 @@ public class AggregateProcessor extends AsyncProcessorSupport
         removeFlagCompleteAllGroupsInclusive(copy);
 
         List<Exchange> aggregated = null;
+        AtomicBoolean completeAllGroups = new AtomicBoolean();
+        Lock lock = lockFor(key);
         lock.lock();
         try {
-            aggregated = doAggregation(key, copy);
+            aggregated = doAggregation(key, copy, completeAllGroups);
         } catch (ZwangineExchangeException e) {
             exchange.setException(e);
         } finally {
             lock.unlock();
         }
 
+        if (completeAllGroups.get()) {
+            // the other groups are completed when the lock of this group has been released (when using lock striping)
+            forceCompletionOfAllGroups();
+        }
+
         // we are completed so do that work outside the lock
         if (aggregated != null) {
             // we are completed so submit to completion
@@ -431,17 +509,23 @@ public class AggregateProcessor extends AsyncProcessorSupport
      * <p/>
      * This method <b>must</b> be run synchronized as we cannot aggregate the same correlation key in parallel.
      * <p/>
+     * When using lock striping only the lock of the correlation key is held, and then completion of all groups cannot
+     * be done while aggregating, as the locks of the other groups may be held by other threads. Then
+     * <tt>completeAllGroups</tt> is set instead, and all groups must be completed after the lock has been released.
+     * <p/>
      * The returned {@link Exchange} should be send downstream using the
      * {@link #onSubmitCompletion(String, org.zenithblox.Exchange)} method which sends out the aggregated and
      * completed {@link Exchange}.
      *
      * @param  key                                     the correlation key
      * @param  newExchange                             the exchange
+     * @param  completeAllGroups                       set if all groups must be completed after releasing the lock
      * @return                                         the aggregated exchange(s) which is complete, or <tt>null</tt> if
      *                                                 not yet complete
      * @throws org.zenithblox.ZwangineExchangeException is thrown if error aggregating
      */
-    private List<Exchange> doAggregation(String key, Exchange newExchange) throws ZwangineExchangeException {
+    private List<Exchange> doAggregation(String key, Exchange newExchange, AtomicBoolean completeAllGroups)
+            throws ZwangineExchangeException {
         LOG.trace("onAggregation +++ start +++ with correlation key: {}", key);
 
         List<Exchange> list = new ArrayList<>();
@@ -541,7 +625,11 @@ public class AggregateProcessor extends AsyncProcessorSupport
         // check for the special exchange property to force completion of all groups
         if (isCompleteAllGroups(answer)) {
             removeFlagCompleteAllGroups(answer);
-            forceCompletionOfAllGroups();
+            if (isLockStriped()) {
+                completeAllGroups.set(true);
+            } else {
+                forceCompletionOfAllGroups();
+            }
         } else if (isCompletionOnNewCorrelationGroup() && originalExchange == null) {
             // its a new group so force complete of all existing groups
             forceCompletionOfAllGroups();
@@ -1046,6 +1134,19 @@ public class AggregateProcessor extends AsyncProcessorSupport
         this.completionTimeoutCheckerInterval = completionTimeoutCheckerInterval;
     }
 
+    public boolean isCompletionTimeoutTimingWheel() {
+        return completionTimeoutTimingWheel;
+    }
+
+    /**
+     * Whether to keep track of the completion timeouts using a timing wheel, which does not have to check every
+     * correlation group for timeout on each run of the timeout checker. This is faster when there are many correlation
+     * groups in progress.
+     */
+    public void setCompletionTimeoutTimingWheel(boolean completionTimeoutTimingWheel) {
+        this.completionTimeoutTimingWheel = completionTimeoutTimingWheel;
+    }
+
     public ExceptionHandler getExceptionHandler() {
         return exceptionHandler;
     }
@@ -1070,6 +1171,55 @@ public class AggregateProcessor extends AsyncProcessorSupport
         this.optimisticLocking = optimisticLocking;
     }
 
+    public int getLockStripes() {
+        return lockStripes;
+    }
+
+    /**
+     * Sets the number of locks the correlation groups are striped over, so exchanges with different correlation keys
+     * can be aggregated in parallel. By default a single lock is used for all the correlation groups. The aggregation
+     * repository must support concurrent access to different correlation keys.
+     * <p/>
+     * Lock striping is not in use with optimistic locking, completionFromBatchConsumer or
+     * completionOnNewCorrelationGroup.
+     */
+    public void setLockStripes(int lockStripes) {
+        this.lockStripes = lockStripes;
+    }
+
+    /**
+     * Whether the correlation groups are striped over several locks
+     */
+    public boolean isLockStriped() {
+        Lock[] current = locks;
+        return current != null && current.length > 1;
+    }
+
+    private Lock lockFor(String key) {
+        Lock[] current = locks;
+        if (current.length == 1) {
+            return current[0];
+        }
+        // spread the hash code as correlation keys often only differ in the last characters
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return current[Math.floorMod(h, current.length)];
+    }
+
+    private void lockAll() {
+        // always acquire in the same order
+        for (Lock l : locks) {
+            l.lock();
+        }
+    }
+
+    private void unlockAll() {
+        Lock[] current = locks;
+        for (int i = current.length - 1; i >= 0; i--) {
+            current[i].unlock();
+        }
+    }
+
     public AggregationRepository getAggregationRepository() {
         return aggregationRepository;
     }
@@ -1224,6 +1374,62 @@ public class AggregateProcessor extends AsyncProcessorSupport
         }
     }
 
+    /**
+     * Purges the timeout map, which must be done while holding the aggregation lock(s).
+     */
+    private void purgeTimeoutMap(Runnable purge) {
+        // wait for lock to be created
+        if (locks != null) {
+            // must acquire the shared aggregation lock(s) to be able to purge
+            lockAll();
+            try {
+                purge.run();
+            } finally {
+                unlockAll();
+            }
+        }
+    }
+
+    /**
+     * Completes the correlation group which has been evicted from the timeout map.
+     */
+    private void onTimeoutMapEvent(TimeoutMap.Listener.Type type, String key, String exchangeId) {
+        if (type != TimeoutMap.Listener.Type.Evict) {
+            return;
+        }
+        LOG.debug("Completion timeout triggered for correlation key: {}", key);
+
+        boolean inProgress = inProgressCompleteExchanges.contains(exchangeId);
+        if (inProgress) {
+            LOG.trace("Aggregated exchange with id: {} is already in progress.", exchangeId);
+            return;
+        }
+
+        // get the aggregated exchange
+        boolean evictionStolen = false;
+        Exchange answer = aggregationRepository.get(zwangineContext, key);
+        if (answer == null) {
+            evictionStolen = true;
+        } else {
+            // indicate it was completed by timeout
+            answer.setProperty(ExchangePropertyKey.AGGREGATED_COMPLETED_BY, COMPLETED_BY_TIMEOUT);
+            try {
+                answer = onCompletion(key, answer, answer, true, false);
+                if (answer != null) {
+                    onSubmitCompletion(key, answer);
+                }
+            } catch (OptimisticLockingAggregationRepository.OptimisticLockingException e) {
+                evictionStolen = true;
+            }
+        }
+
+        if (optimisticLocking && evictionStolen) {
+            LOG.debug("Another Zwangine instance has already successfully correlated or processed this timeout eviction "
+                      + "for exchange with id: {} and correlation id: {}",
+                    exchangeId, key);
+        }
+    }
+
     /**
      * Background task that looks for aggregated exchanges which is triggered by completion timeouts.
      */
@@ -1231,59 +1437,32 @@ public class AggregateProcessor extends AsyncProcessorSupport
 
         private AggregationTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis) {
             // do NOT use locking on the timeout map as this aggregator has its own shared lock we will use instead
-            super(executor, requestMapPollTimeMillis, optimisticLocking);
-            addListener(this::onEviction);
+            // (unless using lock striping where the timeout map is updated while holding the lock of a group)
+            super(executor, requestMapPollTimeMillis, optimisticLocking || isLockStriped());
+            addListener(AggregateProcessor.this::onTimeoutMapEvent);
         }
 
         @Override
         protected void purge() {
-            // wait for lock to be created
-            if (lock != null) {
-                // must acquire the shared aggregation lock to be able to purge
-                lock.lock();
-                try {
-                    super.purge();
-                } finally {
-                    lock.unlock();
-                }
-            }
+            purgeTimeoutMap(super::purge);
         }
+    }
 
-        private void onEviction(Listener.Type type, String key, String exchangeId) {
-            if (type != Listener.Type.Evict) {
-                return;
-            }
-            log.debug("Completion timeout triggered for correlation key: {}", key);
-
-            boolean inProgress = inProgressCompleteExchanges.contains(exchangeId);
-            if (inProgress) {
-                log.trace("Aggregated exchange with id: {} is already in progress.", exchangeId);
-                return;
-            }
+    /**
+     * Background task that looks for aggregated exchanges which is triggered by completion timeouts, using a timing
+     * wheel to find the timed out correlation groups.
+     */
+    private final class AggregationTimingWheelTimeoutMap extends TimingWheelTimeoutMap<String, String> {
 
-            // get the aggregated exchange
-            boolean evictionStolen = false;
-            Exchange answer = aggregationRepository.get(zwangineContext, key);
-            if (answer == null) {
-                evictionStolen = true;
-            } else {
-                // indicate it was completed by timeout
-                answer.setProperty(ExchangePropertyKey.AGGREGATED_COMPLETED_BY, COMPLETED_BY_TIMEOUT);
-                try {
-                    answer = onCompletion(key, answer, answer, true, false);
-                    if (answer != null) {
-                        onSubmitCompletion(key, answer);
-                    }
-                } catch (OptimisticLockingAggregationRepository.OptimisticLockingException e) {
-                    evictionStolen = true;
-                }
-            }
+        private AggregationTimingWheelTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis) {
+            // same locking as the AggregationTimeoutMap
+            super(executor, requestMapPollTimeMillis, optimisticLocking || isLockStriped());
+            addListener(AggregateProcessor.this::onTimeoutMapEvent);
+        }
 
-            if (optimisticLocking && evictionStolen) {
-                log.debug("Another Zwangine instance has already successfully correlated or processed this timeout eviction "
-                          + "for exchange with id: {} and correlation id: {}",
-                        exchangeId, key);
-            }
+        @Override
+        protected void purge() {
+            purgeTimeoutMap(super::purge);
         }
     }
 
@@ -1307,10 +1486,11 @@ public class AggregateProcessor extends AsyncProcessorSupport
             Set<String> keys = aggregationRepository.getKeys();
 
             if (keys != null && !keys.isEmpty()) {
-                // must acquire the shared aggregation lock to be able to trigger interval completion
-                lock.lock();
-                try {
-                    for (String key : keys) {
+                for (String key : keys) {
+                    // must acquire the shared aggregation lock to be able to trigger interval completion
+                    Lock lock = lockFor(key);
+                    lock.lock();
+                    try {
                         boolean stolenInterval = false;
                         Exchange exchange = aggregationRepository.get(zwangineContext, key);
                         if (exchange == null) {
@@ -1333,9 +1513,9 @@ public class AggregateProcessor extends AsyncProcessorSupport
                                     "Another Zwangine instance has already processed this interval aggregation for exchange with correlation id: {}",
                                     key);
                         }
+                    } finally {
+                        lock.unlock();
                     }
-                } finally {
-                    lock.unlock();
                 }
             }
 
@@ -1376,7 +1556,8 @@ public class AggregateProcessor extends AsyncProcessorSupport
                         LOG.info("We are shutting down so stop recovering");
                         return;
                     }
-                    lock.lock();
+                    // the correlation key is not known until recovered, so acquire all the locks
+                    lockAll();
                     try {
                         // consider in progress if it was in progress before we did the scan, or currently after we did the scan
                         // its safer to consider it in progress than risk duplicates due both in progress + recovered
@@ -1453,7 +1634,7 @@ public class AggregateProcessor extends AsyncProcessorSupport
                             }
                         }
                     } finally {
-                        lock.unlock();
+                        unlockAll();
                     }
                 }
             } finally {
@@ -1495,6 +1676,26 @@ public class AggregateProcessor extends AsyncProcessorSupport
             }
         }
 
+        if (optimisticLocking) {
+            locks = new Lock[] { NoLock.INSTANCE };
+        } else {
+            int stripes = 1;
+            if (lockStripes > 1) {
+                // these completions aggregate or complete other groups while holding the lock of the current group
+                if (isCompletionFromBatchConsumer() || isCompletionOnNewCorrelationGroup()) {
+                    LOG.info("Lock striping is not in use with completionFromBatchConsumer or completionOnNewCorrelationGroup");
+                } else {
+                    LOG.info("Using lock striping with {} locks", lockStripes);
+                    stripes = lockStripes;
+                }
+            }
+            Lock[] answer = new Lock[stripes];
+            for (int i = 0; i < stripes; i++) {
+                answer[i] = new ContentionCountingLock();
+            }
+            locks = answer;
+        }
+
         if (getCloseCorrelationKeyOnCompletion() != null) {
             if (getCloseCorrelationKeyOnCompletion() > 0) {
                 LOG.info("Using ClosedCorrelationKeys with a LRUCache with a capacity of {}",
@@ -1583,7 +1784,17 @@ public class AggregateProcessor extends AsyncProcessorSupport
                 shutdownTimeoutCheckerExecutorService = true;
             }
             // check for timed out aggregated messages once every second
-            timeoutMap = new AggregationTimeoutMap(getTimeoutCheckerExecutorService(), getCompletionTimeoutCheckerInterval());
+            if (isCompletionTimeoutTimingWheel()) {
+                AggregationTimingWheelTimeoutMap map = new AggregationTimingWheelTimeoutMap(
+                        getTimeoutCheckerExecutorService(), getCompletionTimeoutCheckerInterval());
+                timeoutMapStatistics = map.getStatistics();
+                timeoutMap = map;
+            } else {
+                AggregationTimeoutMap map = new AggregationTimeoutMap(
+                        getTimeoutCheckerExecutorService(), getCompletionTimeoutCheckerInterval());
+                timeoutMapStatistics = map.getStatistics();
+                timeoutMap = map;
+            }
             // fill in existing timeout values from the aggregation repository, for example if a restart occurred, then we
             // need to re-establish the timeout map so timeout can trigger
             restoreTimeoutMapFromAggregationRepository();
@@ -1596,14 +1807,11 @@ public class AggregateProcessor extends AsyncProcessorSupport
         aggregateController.onStart(this);
 
         if (optimisticLocking) {
-            lock = NoLock.INSTANCE;
             if (getOptimisticLockingExecutorService() == null) {
                 setOptimisticLockingExecutorService(zwangineContext.getExecutorServiceManager()
                         .newSingleThreadScheduledExecutor(this, AGGREGATE_OPTIMISTIC_LOCKING_EXECUTOR));
                 shutdownOptimisticLockingExecutorService = true;
             }
-        } else {
-            lock = new ReentrantLock();
         }
     }
 
@@ -1715,6 +1923,7 @@ public class AggregateProcessor extends AsyncProcessorSupport
         // must acquire the shared aggregation lock to be able to trigger force completion
         int total = 0;
 
+        Lock lock = lockFor(key);
         lock.lock();
         try {
             Exchange exchange = aggregationRepository.get(zwangineContext, key);
@@ -1756,11 +1965,12 @@ public class AggregateProcessor extends AsyncProcessorSupport
 
         int total = 0;
         if (keys != null && !keys.isEmpty()) {
-            // must acquire the shared aggregation lock to be able to trigger force completion
-            lock.lock();
             total = keys.size();
-            try {
-                for (String key : keys) {
+            for (String key : keys) {
+                // must acquire the shared aggregation lock to be able to trigger force completion
+                Lock lock = lockFor(key);
+                lock.lock();
+                try {
                     Exchange exchange = aggregationRepository.get(zwangineContext, key);
                     if (exchange != null) {
                         LOG.trace("Force completion triggered for correlation key: {}", key);
@@ -1771,9 +1981,9 @@ public class AggregateProcessor extends AsyncProcessorSupport
                             onSubmitCompletion(key, answer);
                         }
                     }
+                } finally {
+                    lock.unlock();
                 }
-            } finally {
-                lock.unlock();
             }
         }
         LOG.trace("Completed force completion of all groups task");
@@ -1788,6 +1998,7 @@ public class AggregateProcessor extends AsyncProcessorSupport
         // must acquire the shared aggregation lock to be able to trigger force completion
         int total = 0;
 
+        Lock lock = lockFor(key);
         lock.lock();
         try {
             Exchange exchange = aggregationRepository.get(zwangineContext, key);
@@ -1825,20 +2036,21 @@ public class AggregateProcessor extends AsyncProcessorSupport
 
         int total = 0;
         if (keys != null && !keys.isEmpty()) {
-            // must acquire the shared aggregation lock to be able to trigger force completion
-            lock.lock();
             total = keys.size();
-            try {
-                for (String key : keys) {
+            for (String key : keys) {
+                // must acquire the shared aggregation lock to be able to trigger force completion
+                Lock lock = lockFor(key);
+                lock.lock();
+                try {
                     Exchange exchange = aggregationRepository.get(zwangineContext, key);
                     if (exchange != null) {
                         LOG.trace("Force discarded triggered for correlation key: {}", key);
                         // force discarding by setting aggregate failed as true
                         onCompletion(key, exchange, exchange, false, true);
                     }
+                } finally {
+                    lock.unlock();
                 }
-            } finally {
-                lock.unlock();
             }
         }
         LOG.trace("Completed force discarding of all groups task");
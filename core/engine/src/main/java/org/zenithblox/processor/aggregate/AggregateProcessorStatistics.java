@@ -71,6 +71,26 @@ public interface AggregateProcessorStatistics {
      */
     long getDiscarded();
 
+    /**
+     * Number of locks the correlation groups are striped over
+     */
+    int getLockStripes();
+
+    /**
+     * Number of times a thread had to wait for another thread to release the lock, for each of the locks
+     */
+    long[] getLockContention();
+
+    /**
+     * Largest time in millis from when a correlation group timed out until it was completed by the completion timeout
+     */
+    long getCompletionTimeoutMaxLag();
+
+    /**
+     * Average time in millis from when a correlation group timed out until it was completed by the completion timeout
+     */
+    long getCompletionTimeoutMeanLag();
+
     /**
      * Reset the counters
      */
@@ -0,0 +1,329 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.processor.aggregate;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.ExchangePattern;
+import org.zenithblox.Message;
+import org.zenithblox.RuntimeExchangeException;
+import org.zenithblox.WrappedFile;
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.support.DefaultExchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A compact binary codec for the {@link Exchange}s stored by {@link MappedFileAggregationRepository}.
+ * <p/>
+ * The exchange id, pattern, message bodies and headers, exchange properties (including the internal properties) and
+ * variables, and the exception are stored. The same values are supported as by
+ * {@link org.zenithblox.support.DefaultExchangeHolder}: strings, numbers, characters, booleans and dates are written
+ * with a type tag instead of being serialized, and byte arrays are written as is. Other values are serialized when
+ * they are {@link Serializable} and serialized values are allowed, and otherwise skipped. Bodies of other types are
+ * converted to {@link Serializable}, and exchange properties may also hold exceptions. Serialized values are only
+ * deserialized when their classes pass the given {@link ObjectInputFilter}.
+ */
+final class BinaryExchangeCodec {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryExchangeCodec.class);
+
+    private static final byte FORMAT = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BYTES = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte FLOAT = 7;
+    private static final byte SHORT = 8;
+    private static final byte BYTE = 9;
+    private static final byte CHAR = 10;
+    private static final byte BIG_INTEGER = 11;
+    private static final byte BIG_DECIMAL = 12;
+    private static final byte DATE = 13;
+    private static final byte SERIALIZED = 14;
+
+    private BinaryExchangeCodec() {
+    }
+
+    /**
+     * Encodes the exchange.
+     *
+     * @param  exchange               the exchange
+     * @param  allowSerializedHeaders whether to serialize header, property and variable values which are not of the
+     *                                basic types
+     * @param  skipProperty           an exchange property to leave out, or <tt>null</tt>
+     * @return                        the encoded exchange
+     */
+    static byte[] encode(Exchange exchange, boolean allowSerializedHeaders, String skipProperty) throws IOException {
+        Object body = exchange.getIn().getBody();
+        if (body instanceof WrappedFile || body instanceof File) {
+            throw new RuntimeExchangeException(
+                    "Message body of type " + body.getClass().getCanonicalName() + " is not supported by this codec.",
+                    exchange);
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeByte(FORMAT);
+        writeString(out, exchange.getExchangeId());
+        out.writeByte(exchange.getPattern().ordinal());
+        writeMessage(out, exchange, exchange.getIn(), allowSerializedHeaders);
+        out.writeBoolean(exchange.hasOut());
+        if (exchange.hasOut()) {
+            writeMessage(out, exchange, exchange.getOut(), allowSerializedHeaders);
+        }
+        writeMap(out, "properties", exchange.getAllProperties(), allowSerializedHeaders, true, skipProperty);
+        writeMap(out, "variables", exchange.getVariables(), allowSerializedHeaders, true, null);
+        Exception cause = exchange.getException();
+        writeValue(out, cause instanceof Serializable ? cause : null);
+        out.flush();
+        return bos.toByteArray();
+    }
+
+    /**
+     * Decodes an exchange.
+     *
+     * @param  zwangineContext the context of the new exchange
+     * @param  data            the encoded exchange
+     * @param  filter          the filter for the classes of serialized values, or <tt>null</tt> to use the filter of
+     *                         the JVM
+     * @return                 the decoded exchange
+     */
+    static Exchange decode(ZwangineContext zwangineContext, byte[] data, ObjectInputFilter filter) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        byte format = in.readByte();
+        if (format != FORMAT) {
+            throw new IOException("Unsupported exchange format: " + format);
+        }
+        Exchange exchange = new DefaultExchange(zwangineContext);
+        exchange.setExchangeId(readString(in));
+        exchange.setPattern(ExchangePattern.values()[in.readByte()]);
+        readMessage(in, exchange.getIn(), filter);
+        if (in.readBoolean()) {
+            readMessage(in, exchange.getOut(), filter);
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            exchange.setProperty(readString(in), readValue(in, filter));
+        }
+        count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            exchange.setVariable(readString(in), readValue(in, filter));
+        }
+        exchange.setException((Throwable) readValue(in, filter));
+        return exchange;
+    }
+
+    private static void writeMessage(DataOutputStream out, Exchange exchange, Message message, boolean allowSerialized)
+            throws IOException {
+        Object body = message.getBody();
+        if (body != null && !isBasicType(body) && !(body instanceof byte[])) {
+            Serializable converted = exchange.getContext().getTypeConverter().convertTo(Serializable.class, exchange, body);
+            if (converted == null) {
+                LOG.warn("Exchange body containing object: {} of type: {} cannot be serialized, it will be excluded.",
+                        body, body.getClass().getCanonicalName());
+            }
+            body = converted;
+        }
+        writeValue(out, body);
+        writeMap(out, "headers", message.hasHeaders() ? message.getHeaders() : null, allowSerialized, false, null);
+    }
+
+    private static void readMessage(DataInputStream in, Message message, ObjectInputFilter filter) throws IOException {
+        message.setBody(readValue(in, filter));
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            message.setHeader(readString(in), readValue(in, filter));
+        }
+    }
+
+    private static void writeMap(
+            DataOutputStream out, String type, Map<String, Object> map, boolean allowSerialized, boolean allowThrowable,
+            String skip)
+            throws IOException {
+        Map<String, Object> valid = new LinkedHashMap<>();
+        if (map != null) {
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                Object value = entry.getValue();
+                // silently skip any values which is null
+                if (value == null || entry.getKey().equals(skip)) {
+                    continue;
+                }
+                if (value instanceof CharSequence && !(value instanceof String)) {
+                    value = value.toString();
+                }
+                if (isBasicType(value)
+                        || (allowThrowable && value instanceof Throwable && value instanceof Serializable)
+                        || (allowSerialized && value instanceof Serializable)) {
+                    valid.put(entry.getKey(), value);
+                } else {
+                    LOG.debug("Exchange {} containing key: {} with object: {} of type: {} will be excluded.", type,
+                            entry.getKey(), value, value.getClass().getCanonicalName());
+                }
+            }
+        }
+        out.writeInt(valid.size());
+        for (Map.Entry<String, Object> entry : valid.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static boolean isBasicType(Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Character
+                || value instanceof Boolean || value instanceof Date;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            writeString(out, s);
+        } else if (value instanceof byte[] data) {
+            out.writeByte(BYTES);
+            out.writeInt(data.length);
+            out.write(data);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INT);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof Float f) {
+            out.writeByte(FLOAT);
+            out.writeFloat(f);
+        } else if (value instanceof Short s) {
+            out.writeByte(SHORT);
+            out.writeShort(s);
+        } else if (value instanceof Byte b) {
+            out.writeByte(BYTE);
+            out.writeByte(b);
+        } else if (value instanceof Character c) {
+            out.writeByte(CHAR);
+            out.writeChar(c);
+        } else if (value.getClass() == BigInteger.class) {
+            out.writeByte(BIG_INTEGER);
+            byte[] data = ((BigInteger) value).toByteArray();
+            out.writeInt(data.length);
+            out.write(data);
+        } else if (value.getClass() == BigDecimal.class) {
+            out.writeByte(BIG_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (!(value instanceof Serializable)) {
+            out.writeByte(NULL);
+        } else {
+            out.writeByte(SERIALIZED);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(value);
+            }
+            out.writeInt(bos.size());
+            bos.writeTo(out);
+        }
+    }
+
+    private static Object readValue(DataInputStream in, ObjectInputFilter filter) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case BYTES:
+                return readBytes(in);
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BOOLEAN:
+                return in.readBoolean();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case SHORT:
+                return in.readShort();
+            case BYTE:
+                return in.readByte();
+            case CHAR:
+                return in.readChar();
+            case BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case DATE:
+                return new Date(in.readLong());
+            case SERIALIZED:
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                    if (filter != null) {
+                        ois.setObjectInputFilter(filter);
+                    }
+                    return ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Cannot deserialize value due to: " + e.getMessage(), e);
+                }
+            default:
+                throw new IOException("Unknown value type: " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return data;
+    }
+}
@@ -0,0 +1,1019 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.processor.aggregate;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.RuntimeZwangineException;
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.ZwangineContextAware;
+import org.zenithblox.spi.Configurer;
+import org.zenithblox.spi.Metadata;
+import org.zenithblox.spi.OptimisticLockingAggregationRepository;
+import org.zenithblox.spi.RecoverableAggregationRepository;
+import org.zenithblox.support.service.ServiceSupport;
+import org.zenithblox.util.FileUtil;
+import org.zenithblox.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A file based {@link org.zenithblox.spi.AggregationRepository} which stores the {@link Exchange}s in memory-mapped
+ * segment files on the local disk, so in-flight aggregations do not take up heap space and survive a restart.
+ * <p/>
+ * Every change is written as a record to an append-only log before it becomes visible, and an in-memory index points
+ * to the record holding the current exchange of each correlation key. This makes {@link #get(ZwangineContext, String)},
+ * {@link #add(ZwangineContext, String, Exchange)} and {@link #remove(ZwangineContext, String, Exchange)} O(1) while the
+ * exchanges themselves are stored off-heap using a compact binary format. On start the index is rebuilt by replaying
+ * the segments, and an incomplete record from a crash while writing is detected by its checksum and ignored.
+ * <p/>
+ * When to force the written records to the storage device is controlled by the {@link #getSyncPolicy() sync policy}.
+ * As the segments are memory-mapped, records are never lost when only the JVM crashes.
+ * <p/>
+ * The repository supports recovery: a completed exchange is kept in the repository until it has been confirmed, and
+ * the {@link AggregateProcessor} recovery task will redeliver unconfirmed exchanges, for example after a crash.
+ * Optimistic locking is supported as well, where the version of the stored exchange is kept as an exchange property.
+ * <p/>
+ * Older segments with few records still in use are compacted in the background (records still in use are re-appended
+ * to the active segment and the old segment file is deleted).
+ */
+@Metadata(label = "bean",
+          description = "A file based AggregationRepository which stores Exchange in memory-mapped segment files on the local"
+                        + " disk, with support for recovery.",
+          annotations = { "interfaceName=org.zenithblox.spi.AggregationRepository" })
+@Configurer(metadataOnly = true)
+public class MappedFileAggregationRepository extends ServiceSupport
+        implements RecoverableAggregationRepository, OptimisticLockingAggregationRepository, ZwangineContextAware {
+
+    /**
+     * The exchange property holding the version of an exchange loaded from the repository when using optimistic
+     * locking.
+     */
+    public static final String VERSION_PROPERTY = "ZwangineAggregationRepositoryVersion";
+
+    /**
+     * When to force the written records to the storage device
+     */
+    public enum SyncPolicy {
+        /**
+         * Force every record before returning, so nothing is lost if the operating system crashes.
+         */
+        ALWAYS,
+        /**
+         * Force the written records in the background at the sync interval.
+         */
+        INTERVAL,
+        /**
+         * Leave it to the operating system to write the records.
+         */
+        NEVER
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(MappedFileAggregationRepository.class);
+    private static final String SEGMENT_PREFIX = "aggregation-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    // record header is the length and checksum of the record body
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte COMPLETE = 3;
+    private static final byte COMPLETED = 4;
+    private static final byte CONFIRM = 5;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final Map<String, Location> completed = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Lock appendLock = new ReentrantLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private volatile boolean compactionPending;
+    private final AtomicLong compactions = new AtomicLong();
+    private Lock[] stripes;
+    private Lock[] completedStripes;
+    private volatile Segment active;
+    private ZwangineContext zwangineContext;
+    private ScheduledExecutorService executorService;
+    private ObjectInputFilter inputFilter;
+
+    @Metadata(description = "The directory where the segment files are stored", required = true)
+    private File directory;
+    @Metadata(description = "The size in bytes of a segment file. Larger exchanges are stored in a segment of their own.",
+              defaultValue = "" + 64 * 1024 * 1024)
+    private int segmentSize = 64 * 1024 * 1024;
+    @Metadata(description = "When to force the written records to the storage device", defaultValue = "INTERVAL",
+              enums = "ALWAYS,INTERVAL,NEVER")
+    private SyncPolicy syncPolicy = SyncPolicy.INTERVAL;
+    @Metadata(description = "The interval in millis to force the written records when using the INTERVAL sync policy",
+              defaultValue = "1000")
+    private long syncInterval = 1000;
+    @Metadata(description = "Compact a segment when the ratio of bytes still in use drops below this value",
+              defaultValue = "0.5")
+    private double compactionRatio = 0.5;
+    @Metadata(description = "The number of lock stripes used to serialize operations on the same key", defaultValue = "64")
+    private int concurrencyLevel = 64;
+    @Metadata(description = "Whether to use optimistic locking")
+    private boolean optimisticLocking;
+    @Metadata(description = "Whether headers, exchange properties and variables which are not of the basic types should be"
+                            + " stored using Java serialization")
+    private boolean allowSerializedHeaders;
+    @Metadata(description = "Sets a deserialization filter while reading serialized values from the repository. See"
+                            + " java.io.ObjectInputFilter.Config.createFilter for the syntax of the pattern.",
+              defaultValue = "java.**;org.zenithblox.**;!*")
+    private String deserializationFilter = "java.**;org.zenithblox.**;!*";
+    @Metadata(description = "Whether or not recovery is enabled", defaultValue = "true")
+    private boolean useRecovery = true;
+    @Metadata(description = "The interval in millis between recovery scans", defaultValue = "5000")
+    private long recoveryInterval = 5000;
+    @Metadata(description = "An optional dead letter channel which exhausted recovered Exchange should be send to")
+    private String deadLetterUri;
+    @Metadata(description = "An optional limit of the number of redelivery attempts of recovered Exchange before its"
+                            + " exhausted")
+    private int maximumRedeliveries;
+
+    public MappedFileAggregationRepository() {
+    }
+
+    public MappedFileAggregationRepository(File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public ZwangineContext getZwangineContext() {
+        return zwangineContext;
+    }
+
+    @Override
+    public void setZwangineContext(ZwangineContext zwangineContext) {
+        this.zwangineContext = zwangineContext;
+    }
+
+    @Override
+    public Exchange add(ZwangineContext zwangineContext, String key, Exchange oldExchange, Exchange newExchange) {
+        if (!optimisticLocking) {
+            throw new UnsupportedOperationException();
+        }
+        byte[] data = encode(newExchange);
+        Lock lock = stripe(key);
+        lock.lock();
+        try {
+            Location current = index.get(key);
+            if (oldExchange == null) {
+                if (current != null) {
+                    throw new OptimisticLockingException();
+                }
+            } else {
+                Long version = oldExchange.getProperty(VERSION_PROPERTY, Long.class);
+                if (current == null || version == null || current.version != version) {
+                    throw new OptimisticLockingException();
+                }
+            }
+            put(key, current, data);
+        } finally {
+            lock.unlock();
+        }
+        afterWrite();
+        return oldExchange;
+    }
+
+    @Override
+    public Exchange add(ZwangineContext zwangineContext, String key, Exchange exchange) {
+        if (optimisticLocking) {
+            throw new UnsupportedOperationException();
+        }
+        byte[] data = encode(exchange);
+        Location current;
+        Lock lock = stripe(key);
+        lock.lock();
+        try {
+            current = index.get(key);
+            put(key, current, data);
+        } finally {
+            lock.unlock();
+        }
+        afterWrite();
+        // the old record is still mapped so it can be decoded outside the lock
+        return current != null ? decode(zwangineContext, current) : null;
+    }
+
+    @Override
+    public Exchange get(ZwangineContext zwangineContext, String key) {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        Exchange answer = decode(zwangineContext, location);
+        if (optimisticLocking) {
+            answer.setProperty(VERSION_PROPERTY, location.version);
+        }
+        return answer;
+    }
+
+    @Override
+    public void remove(ZwangineContext zwangineContext, String key, Exchange exchange) {
+        String exchangeId = exchange.getExchangeId();
+        byte[] data = encode(exchange);
+        Lock lock = stripe(key);
+        lock.lock();
+        try {
+            Location current = index.get(key);
+            if (optimisticLocking) {
+                Long version = exchange.getProperty(VERSION_PROPERTY, Long.class);
+                if (current == null || version == null || current.version != version) {
+                    throw new OptimisticLockingException();
+                }
+            }
+            // remove the key and keep the exchange as completed using a single record so its never lost
+            byte[] body = body(COMPLETE, key, exchangeId, 0, data);
+            Location location = append(body, data.length);
+            if (current != null) {
+                index.remove(key);
+                current.release();
+            }
+            Lock completedLock = completedStripe(exchangeId);
+            completedLock.lock();
+            try {
+                release(completed.put(exchangeId, location));
+            } finally {
+                completedLock.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (optimisticLocking) {
+            // the version is only used while aggregating, so it should not be sent out with the completed exchange
+            exchange.removeProperty(VERSION_PROPERTY);
+        }
+        afterWrite();
+    }
+
+    @Override
+    public void confirm(ZwangineContext zwangineContext, String exchangeId) {
+        confirmWithResult(zwangineContext, exchangeId);
+    }
+
+    @Override
+    public boolean confirmWithResult(ZwangineContext zwangineContext, String exchangeId) {
+        Lock lock = completedStripe(exchangeId);
+        lock.lock();
+        try {
+            Location current = completed.get(exchangeId);
+            if (current == null) {
+                return false;
+            }
+            append(body(CONFIRM, null, exchangeId, 0, null), 0);
+            completed.remove(exchangeId);
+            current.release();
+        } finally {
+            lock.unlock();
+        }
+        afterWrite();
+        return true;
+    }
+
+    @Override
+    public Set<String> getKeys() {
+        // do not allow edits to the set
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    @Override
+    public Set<String> scan(ZwangineContext zwangineContext) {
+        Set<String> answer = new LinkedHashSet<>(completed.keySet());
+        LOG.trace("Scanned and found {} exchange(s) to recover in aggregation repository: {}", answer.size(), directory);
+        return answer;
+    }
+
+    @Override
+    public Exchange recover(ZwangineContext zwangineContext, String exchangeId) {
+        Location location = completed.get(exchangeId);
+        return location != null ? decode(zwangineContext, location) : null;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * The directory where the segment files are stored.
+     */
+    public void setDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * The size in bytes of a segment file. The space is reserved up front when a segment is started, and an exchange
+     * larger than the segment size is stored in a segment of its own.
+     * <p/>
+     * The default is 64mb.
+     */
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public SyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    /**
+     * When to force the written records to the storage device.
+     * <p/>
+     * The default is INTERVAL.
+     */
+    public void setSyncPolicy(SyncPolicy syncPolicy) {
+        this.syncPolicy = syncPolicy;
+    }
+
+    public long getSyncInterval() {
+        return syncInterval;
+    }
+
+    /**
+     * The interval in millis to force the written records when using the {@link SyncPolicy#INTERVAL} sync policy.
+     * <p/>
+     * The default is 1000.
+     */
+    public void setSyncInterval(long syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    public double getCompactionRatio() {
+        return compactionRatio;
+    }
+
+    /**
+     * Compact a segment when the ratio of bytes in the segment still in use drops below this value.
+     * <p/>
+     * The default is 0.5.
+     */
+    public void setCompactionRatio(double compactionRatio) {
+        this.compactionRatio = compactionRatio;
+    }
+
+    public int getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    /**
+     * The number of lock stripes used to serialize operations on the same key (rounded up to a power of two).
+     * <p/>
+     * The default is 64.
+     */
+    public void setConcurrencyLevel(int concurrencyLevel) {
+        this.concurrencyLevel = concurrencyLevel;
+    }
+
+    public boolean isOptimisticLocking() {
+        return optimisticLocking;
+    }
+
+    /**
+     * Whether to use optimistic locking
+     */
+    public void setOptimisticLocking(boolean optimisticLocking) {
+        this.optimisticLocking = optimisticLocking;
+    }
+
+    public boolean isAllowSerializedHeaders() {
+        return allowSerializedHeaders;
+    }
+
+    /**
+     * Whether headers, exchange properties and variables which are not of the basic types should be stored using Java
+     * serialization. Otherwise, such values are not stored.
+     */
+    public void setAllowSerializedHeaders(boolean allowSerializedHeaders) {
+        this.allowSerializedHeaders = allowSerializedHeaders;
+    }
+
+    public String getDeserializationFilter() {
+        return deserializationFilter;
+    }
+
+    /**
+     * Sets a deserialization filter while reading serialized values from the repository, such as message bodies which
+     * are not of the basic types. See {@link ObjectInputFilter.Config#createFilter(String)} for the syntax of the
+     * pattern. By default only classes in the <tt>java</tt> and <tt>org.zenithblox</tt> packages are allowed. Set the
+     * filter to <tt>null</tt> to use the filter of the JVM instead.
+     */
+    public void setDeserializationFilter(String deserializationFilter) {
+        this.deserializationFilter = deserializationFilter;
+    }
+
+    @Override
+    public boolean isUseRecovery() {
+        return useRecovery;
+    }
+
+    @Override
+    public void setUseRecovery(boolean useRecovery) {
+        this.useRecovery = useRecovery;
+    }
+
+    @Override
+    @Deprecated(since = "4.5.0")
+    public void setRecoveryInterval(long interval, TimeUnit timeUnit) {
+        this.recoveryInterval = timeUnit.toMillis(interval);
+    }
+
+    @Override
+    public void setRecoveryInterval(long interval) {
+        this.recoveryInterval = interval;
+    }
+
+    @Override
+    public long getRecoveryInterval() {
+        return recoveryInterval;
+    }
+
+    @Override
+    public String getDeadLetterUri() {
+        return deadLetterUri;
+    }
+
+    @Override
+    public void setDeadLetterUri(String deadLetterUri) {
+        this.deadLetterUri = deadLetterUri;
+    }
+
+    @Override
+    public int getMaximumRedeliveries() {
+        return maximumRedeliveries;
+    }
+
+    @Override
+    public void setMaximumRedeliveries(int maximumRedeliveries) {
+        this.maximumRedeliveries = maximumRedeliveries;
+    }
+
+    /**
+     * Number of in-progress aggregations in the repository
+     */
+    public int getSize() {
+        return index.size();
+    }
+
+    /**
+     * Number of completed exchanges which has not been confirmed yet
+     */
+    public int getCompletedSize() {
+        return completed.size();
+    }
+
+    /**
+     * Number of segment files
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Number of segments which has been compacted
+     */
+    public long getCompactions() {
+        return compactions.get();
+    }
+
+    /**
+     * Forces the written records to the storage device.
+     */
+    public void sync() {
+        for (Segment segment : segments.values()) {
+            if (segment.dirty) {
+                segment.dirty = false;
+                segment.buffer.force();
+            }
+        }
+    }
+
+    /**
+     * Compacts the segments, which is done automatically in the background when a new segment is started.
+     */
+    public void compact() {
+        compactionLock.lock();
+        try {
+            compactionScheduled.set(false);
+            compactionPending = false;
+            if (active == null) {
+                // not started
+                return;
+            }
+            // only the segments sealed before this compaction as moving records may start new segments
+            List<Segment> sealed = new ArrayList<>(segments.headMap(active.id).values());
+            for (Segment segment : sealed) {
+                if (segment.live.sum() < segment.position * compactionRatio) {
+                    compactSegment(segment, segment.id == segments.firstKey());
+                }
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private byte[] encode(Exchange exchange) {
+        try {
+            return BinaryExchangeCodec.encode(exchange, allowSerializedHeaders, VERSION_PROPERTY);
+        } catch (IOException e) {
+            throw RuntimeZwangineException.wrapRuntimeZwangineException(e);
+        }
+    }
+
+    private Exchange decode(ZwangineContext zwangineContext, Location location) {
+        byte[] data = new byte[location.length];
+        location.segment.buffer.get(location.offset, data);
+        try {
+            return BinaryExchangeCodec.decode(zwangineContext, data, inputFilter);
+        } catch (IOException e) {
+            throw RuntimeZwangineException.wrapRuntimeZwangineException(e);
+        }
+    }
+
+    private void put(String key, Location current, byte[] data) {
+        long version = current != null ? current.version + 1 : 1;
+        Location location = append(body(PUT, key, null, version, data), data.length);
+        location.version = version;
+        index.put(key, location);
+        if (current != null) {
+            current.release();
+        }
+    }
+
+    private void afterWrite() {
+        if (compactionPending) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Creates the body of a record, which is the type followed by the fields of the type, where the exchange data is
+     * always last.
+     */
+    private static byte[] body(byte type, String key, String exchangeId, long version, byte[] data) {
+        byte[] k = key != null ? key.getBytes(StandardCharsets.UTF_8) : null;
+        byte[] id = exchangeId != null ? exchangeId.getBytes(StandardCharsets.UTF_8) : null;
+        int size = 1 + (k != null ? 4 + k.length : 0) + (id != null ? 4 + id.length : 0) + (type == PUT ? 8 : 0)
+                   + (data != null ? 4 + data.length : 0);
+        ByteBuffer bb = ByteBuffer.allocate(size);
+        bb.put(type);
+        if (k != null) {
+            bb.putInt(k.length).put(k);
+        }
+        if (id != null) {
+            bb.putInt(id.length).put(id);
+        }
+        if (type == PUT) {
+            bb.putLong(version);
+        }
+        if (data != null) {
+            bb.putInt(data.length).put(data);
+        }
+        return bb.array();
+    }
+
+    /**
+     * Whether a record of the type holds an exchange, and is live until the exchange is replaced or removed. The
+     * records which remove an exchange are never live, so they do not keep a segment from being compacted.
+     */
+    private static boolean isLive(byte type) {
+        return type == PUT || type == COMPLETE || type == COMPLETED;
+    }
+
+    /**
+     * Appends the record to the active segment.
+     *
+     * @param  body       the record body, which starts with the type of the record
+     * @param  dataLength the length of the exchange data at the end of the body
+     * @return            the location of the exchange data
+     */
+    protected Location append(byte[] body, int dataLength) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        int checksum = (int) crc.getValue();
+        int size = HEADER_SIZE + body.length;
+
+        Segment segment;
+        int position;
+        appendLock.lock();
+        try {
+            segment = active;
+            if (segment.position + size > segment.buffer.capacity()) {
+                // the rest of the segment is left empty which marks its end
+                segment.dirty = true;
+                segment = openSegment(segment.id + 1, Math.max(segmentSize, size));
+                active = segment;
+                // compaction is scheduled by the caller when the key lock has been released
+                compactionPending = true;
+            }
+            position = segment.position;
+            segment.buffer.putInt(position + 4, checksum);
+            segment.buffer.put(position + HEADER_SIZE, body);
+            // write the length last as a record with no length marks the end of the segment
+            segment.buffer.putInt(position, body.length);
+            segment.position = position + size;
+            segment.dirty = true;
+        } catch (IOException e) {
+            throw RuntimeZwangineException.wrapRuntimeZwangineException(e);
+        } finally {
+            appendLock.unlock();
+        }
+
+        if (syncPolicy == SyncPolicy.ALWAYS) {
+            segment.buffer.force(position, size);
+        }
+        Location location = new Location(segment, position + size - dataLength, dataLength, size);
+        if (isLive(body[0])) {
+            segment.live.add(size);
+        }
+        return location;
+    }
+
+    protected void scheduleCompaction() {
+        if (compactionLock.isHeldByCurrentThread()) {
+            // already compacting
+            return;
+        }
+        if (compactionScheduled.compareAndSet(false, true)) {
+            if (executorService != null) {
+                executorService.execute(this::compact);
+            } else {
+                compact();
+            }
+        }
+    }
+
+    private void compactSegment(Segment segment, boolean oldest) {
+        LOG.debug("Compacting segment: {} with {} of {} bytes in use", segment.file, segment.live.sum(), segment.position);
+        for (Record record : readRecords(segment, null)) {
+            if (record.key != null) {
+                Lock lock = stripe(record.key);
+                lock.lock();
+                try {
+                    Location current = index.get(record.key);
+                    if (record.type == PUT && current != null && current.isAt(segment, record.dataOffset)) {
+                        // the exchange is still in use so move it to the active segment
+                        byte[] data = record.data(segment);
+                        Location location = append(body(PUT, record.key, null, current.version, data), data.length);
+                        location.version = current.version;
+                        index.put(record.key, location);
+                        current.release();
+                    } else if (record.type != PUT && current == null && !oldest) {
+                        // the removal must be kept as older segments may hold the key
+                        append(body(REMOVE, record.key, null, 0, null), 0);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (record.exchangeId != null) {
+                Lock lock = completedStripe(record.exchangeId);
+                lock.lock();
+                try {
+                    Location current = completed.get(record.exchangeId);
+                    if (record.type != CONFIRM && current != null && current.isAt(segment, record.dataOffset)) {
+                        // the exchange is not confirmed yet so move it to the active segment
+                        byte[] data = record.data(segment);
+                        Location location = append(body(COMPLETED, null, record.exchangeId, 0, data), data.length);
+                        completed.put(record.exchangeId, location);
+                        current.release();
+                    } else if (record.type == CONFIRM && current == null && !oldest) {
+                        // the confirm must be kept as older segments may hold the exchange
+                        append(body(CONFIRM, null, record.exchangeId, 0, null), 0);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        segments.remove(segment.id);
+        FileUtil.deleteFile(segment.file);
+        compactions.incrementAndGet();
+    }
+
+    private Segment openSegment(long id, int size) throws IOException {
+        File file = new File(directory, String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = new Segment(id, file, map(file, size));
+        segments.put(id, segment);
+        LOG.debug("Opened segment: {}", file);
+        return segment;
+    }
+
+    private static MappedByteBuffer map(File file, long size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            // the mapping remains valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Loads the segments from the directory and replays their records into the index.
+     */
+    protected void loadStore() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory: " + directory);
+        }
+
+        index.clear();
+        completed.clear();
+        segments.clear();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(id, new Segment(id, file, map(file, file.length())));
+            }
+        }
+
+        boolean clean = true;
+        for (Segment segment : segments.values()) {
+            boolean[] valid = new boolean[] { true };
+            for (Record record : readRecords(segment, valid)) {
+                replay(segment, record);
+            }
+            clean = valid[0];
+            if (!clean) {
+                LOG.warn("Ignoring incomplete record at position: {} in segment: {}", segment.position, segment.file);
+            }
+        }
+
+        Map.Entry<Long, Segment> last = segments.lastEntry();
+        if (last != null && clean) {
+            // continue appending to the newest segment
+            active = last.getValue();
+        } else {
+            // do not append after an incomplete record
+            active = openSegment(last != null ? last.getKey() + 1 : 1, segmentSize);
+        }
+
+        LOG.debug("Loaded {} aggregations and {} completed exchanges from {} segments in aggregation repository: {}",
+                index.size(), completed.size(), segments.size(), directory);
+    }
+
+    private void replay(Segment segment, Record record) {
+        Location location = new Location(segment, record.dataOffset, record.dataLength, record.size);
+        switch (record.type) {
+            case PUT:
+                location.version = record.version;
+                release(index.put(record.key, location));
+                segment.live.add(record.size);
+                break;
+            case REMOVE:
+                release(index.remove(record.key));
+                break;
+            case COMPLETE:
+                release(index.remove(record.key));
+                release(completed.put(record.exchangeId, location));
+                segment.live.add(record.size);
+                break;
+            case COMPLETED:
+                release(completed.put(record.exchangeId, location));
+                segment.live.add(record.size);
+                break;
+            case CONFIRM:
+                release(completed.remove(record.exchangeId));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void release(Location location) {
+        if (location != null) {
+            location.release();
+        }
+    }
+
+    private static List<Record> readRecords(Segment segment, boolean[] valid) {
+        List<Record> answer = new ArrayList<>();
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int position = 0;
+        int capacity = buffer.capacity();
+        while (position + HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + HEADER_SIZE + length > capacity) {
+                if (valid != null) {
+                    valid[0] = false;
+                }
+                break;
+            }
+            byte[] body = new byte[length];
+            buffer.get(position + HEADER_SIZE, body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                if (valid != null) {
+                    valid[0] = false;
+                }
+                break;
+            }
+            answer.add(Record.parse(body, position));
+            position += HEADER_SIZE + length;
+        }
+        if (valid != null) {
+            // continue after the last valid record when loading the segment
+            segment.position = position;
+        }
+        return answer;
+    }
+
+    private Lock stripe(String key) {
+        return stripe(stripes, key);
+    }
+
+    private Lock completedStripe(String exchangeId) {
+        // separate stripes for the completed exchanges as they are locked while holding the lock of a key
+        return stripe(completedStripes, exchangeId);
+    }
+
+    private static Lock stripe(Lock[] stripes, String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        ObjectHelper.notNull(directory, "directory", this);
+
+        int size = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1)) << 1;
+        stripes = new Lock[size];
+        completedStripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+            completedStripes[i] = new ReentrantLock();
+        }
+
+        inputFilter = ObjectHelper.isNotEmpty(deserializationFilter)
+                ? ObjectInputFilter.Config.createFilter(deserializationFilter) : null;
+
+        loadStore();
+
+        if (zwangineContext != null) {
+            executorService = zwangineContext.getExecutorServiceManager().newSingleThreadScheduledExecutor(this,
+                    "MappedFileAggregationRepository");
+            if (syncPolicy == SyncPolicy.INTERVAL && syncInterval > 0) {
+                executorService.scheduleWithFixedDelay(this::sync, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+            }
+        } else if (syncPolicy == SyncPolicy.INTERVAL) {
+            LOG.warn("No ZwangineContext set on aggregation repository: {}. Written records are only forced on stop.",
+                    directory);
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (executorService != null) {
+            // let a scheduled compaction finish before the segments are released
+            zwangineContext.getExecutorServiceManager().shutdownGraceful(executorService);
+            executorService = null;
+        }
+        compactionLock.lock();
+        try {
+            appendLock.lock();
+            try {
+                if (syncPolicy != SyncPolicy.NEVER) {
+                    sync();
+                }
+                active = null;
+            } finally {
+                appendLock.unlock();
+            }
+            index.clear();
+            completed.clear();
+            segments.clear();
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * The location of the exchange data of a record.
+     */
+    protected static final class Location {
+        private final Segment segment;
+        private final int offset;
+        private final int length;
+        private final int size;
+        private long version;
+
+        private Location(Segment segment, int offset, int length, int size) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.size = size;
+        }
+
+        private boolean isAt(Segment segment, int offset) {
+            return this.segment == segment && this.offset == offset;
+        }
+
+        private void release() {
+            segment.live.add(-size);
+        }
+    }
+
+    private static final class Record {
+        private final byte type;
+        private final String key;
+        private final String exchangeId;
+        private final long version;
+        private final int dataOffset;
+        private final int dataLength;
+        private final int size;
+
+        private Record(byte type, String key, String exchangeId, long version, int dataOffset, int dataLength, int size) {
+            this.type = type;
+            this.key = key;
+            this.exchangeId = exchangeId;
+            this.version = version;
+            this.dataOffset = dataOffset;
+            this.dataLength = dataLength;
+            this.size = size;
+        }
+
+        private static Record parse(byte[] body, int position) {
+            ByteBuffer bb = ByteBuffer.wrap(body);
+            byte type = bb.get();
+            String key = type == PUT || type == REMOVE || type == COMPLETE ? string(bb) : null;
+            String exchangeId = type == COMPLETE || type == COMPLETED || type == CONFIRM ? string(bb) : null;
+            long version = type == PUT ? bb.getLong() : 0;
+            int dataLength = type == PUT || type == COMPLETE || type == COMPLETED ? bb.getInt() : 0;
+            int dataOffset = position + HEADER_SIZE + bb.position();
+            return new Record(type, key, exchangeId, version, dataOffset, dataLength, HEADER_SIZE + body.length);
+        }
+
+        private static String string(ByteBuffer bb) {
+            byte[] data = new byte[bb.getInt()];
+            bb.get(data);
+            return new String(data, StandardCharsets.UTF_8);
+        }
+
+        private byte[] data(Segment segment) {
+            byte[] data = new byte[dataLength];
+            segment.buffer.get(dataOffset, data);
+            return data;
+        }
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private final LongAdder live = new LongAdder();
+        // guarded by the append lock
+        private int position;
+        private volatile boolean dirty;
+
+        private Segment(long id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+}
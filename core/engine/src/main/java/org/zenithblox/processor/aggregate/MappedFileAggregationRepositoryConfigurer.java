@@ -0,0 +1,102 @@
+package org.zenithblox.processor.aggregate;
+
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.spi.GeneratedPropertyConfigurer;
+import org.zenithblox.spi.PropertyConfigurerGetter;
+import org.zenithblox.support.component.PropertyConfigurerSupport;
+
+public class MappedFileAggregationRepositoryConfigurer extends PropertyConfigurerSupport implements GeneratedPropertyConfigurer, PropertyConfigurerGetter {
+
+    @Override
+    public boolean configure(ZwangineContext zwangineContext, Object obj, String name, Object value, boolean ignoreCase) {
+        MappedFileAggregationRepository target = (MappedFileAggregationRepository) obj;
+        switch (ignoreCase ? name.toLowerCase() : name) {
+            case "directory": target.setDirectory(property(zwangineContext, java.io.File.class, value)); return true;
+            case "segmentsize":
+            case "segmentSize": target.setSegmentSize(property(zwangineContext, int.class, value)); return true;
+            case "syncpolicy":
+            case "syncPolicy": target.setSyncPolicy(property(zwangineContext, org.zenithblox.processor.aggregate.MappedFileAggregationRepository.SyncPolicy.class, value)); return true;
+            case "syncinterval":
+            case "syncInterval": target.setSyncInterval(property(zwangineContext, long.class, value)); return true;
+            case "compactionratio":
+            case "compactionRatio": target.setCompactionRatio(property(zwangineContext, double.class, value)); return true;
+            case "concurrencylevel":
+            case "concurrencyLevel": target.setConcurrencyLevel(property(zwangineContext, int.class, value)); return true;
+            case "optimisticlocking":
+            case "optimisticLocking": target.setOptimisticLocking(property(zwangineContext, boolean.class, value)); return true;
+            case "allowserializedheaders":
+            case "allowSerializedHeaders": target.setAllowSerializedHeaders(property(zwangineContext, boolean.class, value)); return true;
+            case "userecovery":
+            case "useRecovery": target.setUseRecovery(property(zwangineContext, boolean.class, value)); return true;
+            case "recoveryinterval":
+            case "recoveryInterval": target.setRecoveryInterval(property(zwangineContext, long.class, value)); return true;
+            case "deadletteruri":
+            case "deadLetterUri": target.setDeadLetterUri(property(zwangineContext, java.lang.String.class, value)); return true;
+            case "maximumredeliveries":
+            case "maximumRedeliveries": target.setMaximumRedeliveries(property(zwangineContext, int.class, value)); return true;
+            default: return false;
+        }
+    }
+
+    @Override
+    public Class<?> getOptionType(String name, boolean ignoreCase) {
+        switch (ignoreCase ? name.toLowerCase() : name) {
+            case "directory": return java.io.File.class;
+            case "segmentsize":
+            case "segmentSize": return int.class;
+            case "syncpolicy":
+            case "syncPolicy": return org.zenithblox.processor.aggregate.MappedFileAggregationRepository.SyncPolicy.class;
+            case "syncinterval":
+            case "syncInterval": return long.class;
+            case "compactionratio":
+            case "compactionRatio": return double.class;
+            case "concurrencylevel":
+            case "concurrencyLevel": return int.class;
+            case "optimisticlocking":
+            case "optimisticLocking": return boolean.class;
+            case "allowserializedheaders":
+            case "allowSerializedHeaders": return boolean.class;
+            case "userecovery":
+            case "useRecovery": return boolean.class;
+            case "recoveryinterval":
+            case "recoveryInterval": return long.class;
+            case "deadletteruri":
+            case "deadLetterUri": return java.lang.String.class;
+            case "maximumredeliveries":
+            case "maximumRedeliveries": return int.class;
+            default: return null;
+        }
+    }
+
+    @Override
+    public Object getOptionValue(Object obj, String name, boolean ignoreCase) {
+        MappedFileAggregationRepository target = (MappedFileAggregationRepository) obj;
+        switch (ignoreCase ? name.toLowerCase() : name) {
+            case "directory": return target.getDirectory();
+            case "segmentsize":
+            case "segmentSize": return target.getSegmentSize();
+            case "syncpolicy":
+            case "syncPolicy": return target.getSyncPolicy();
+            case "syncinterval":
+            case "syncInterval": return target.getSyncInterval();
+            case "compactionratio":
+            case "compactionRatio": return target.getCompactionRatio();
+            case "concurrencylevel":
+            case "concurrencyLevel": return target.getConcurrencyLevel();
+            case "optimisticlocking":
+            case "optimisticLocking": return target.isOptimisticLocking();
+            case "allowserializedheaders":
+            case "allowSerializedHeaders": return target.isAllowSerializedHeaders();
+            case "userecovery":
+            case "useRecovery": return target.isUseRecovery();
+            case "recoveryinterval":
+            case "recoveryInterval": return target.getRecoveryInterval();
+            case "deadletteruri":
+            case "deadLetterUri": return target.getDeadLetterUri();
+            case "maximumredeliveries":
+            case "maximumRedeliveries": return target.getMaximumRedeliveries();
+            default: return null;
+        }
+    }
+}
+
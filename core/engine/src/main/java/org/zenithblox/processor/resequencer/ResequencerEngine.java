@@ -51,7 +51,7 @@ import java.util.function.Predicate;
  * first arriving element needs <code>timeout</code> milliseconds in any case for becoming <i>ready-for-delivery</i>.
  * <p>
  */
-public class ResequencerEngine<E> {
+public class ResequencerEngine<E> implements StreamResequencerEngine<E> {
 
     /**
      * The element that most recently hash been delivered or <code>null</code> if no element has been delivered yet.
@@ -103,6 +103,7 @@ public class ResequencerEngine<E> {
         this.lastDelivered = null;
     }
 
+    @Override
     public void start() {
         timer = new Timer(
                 ThreadHelper.resolveThreadName("Zwangine Thread ${counter} - ${name}", "Stream Resequencer Timer"), true);
@@ -111,6 +112,7 @@ public class ResequencerEngine<E> {
     /**
      * Stops this resequencer (i.e. this resequencer's {@link Timer} instance).
      */
+    @Override
     public void stop() {
         timer.cancel();
     }
@@ -120,6 +122,7 @@ public class ResequencerEngine<E> {
      *
      * @return the number of elements currently maintained by this resequencer.
      */
+    @Override
     public int size() {
         lock.lock();
         try {
@@ -151,6 +154,11 @@ public class ResequencerEngine<E> {
         latch.await();
     }
 
+    @Override
+    public void awaitCapacity(int capacity) throws InterruptedException {
+        waitUntil(s -> s.size() < capacity);
+    }
+
     private void evaluateConditions() {
         lock.lock();
         try {
@@ -171,6 +179,7 @@ public class ResequencerEngine<E> {
      *
      * @return the timeout in milliseconds.
      */
+    @Override
     public long getTimeout() {
         return timeout;
     }
@@ -180,14 +189,17 @@ public class ResequencerEngine<E> {
      *
      * @param timeout the timeout in milliseconds.
      */
+    @Override
     public void setTimeout(long timeout) {
         this.timeout = timeout;
     }
 
+    @Override
     public Boolean getRejectOld() {
         return rejectOld;
     }
 
+    @Override
     public void setRejectOld(Boolean rejectOld) {
         this.rejectOld = rejectOld;
     }
@@ -197,6 +209,7 @@ public class ResequencerEngine<E> {
      *
      * @return the sequence sender.
      */
+    @Override
     public SequenceSender<E> getSequenceSender() {
         return sequenceSender;
     }
@@ -206,6 +219,7 @@ public class ResequencerEngine<E> {
      *
      * @param sequenceSender a sequence element sender.
      */
+    @Override
     public void setSequenceSender(SequenceSender<E> sequenceSender) {
         this.sequenceSender = sequenceSender;
     }
@@ -238,6 +252,7 @@ public class ResequencerEngine<E> {
      * @param  o                        an element.
      * @throws IllegalArgumentException if the element cannot be used with this resequencer engine
      */
+    @Override
     public void insert(E o) {
         lock.lock();
         try {
@@ -287,6 +302,7 @@ public class ResequencerEngine<E> {
      *
      * @see              ResequencerEngine#deliverNext()
      */
+    @Override
     @SuppressWarnings("StatementWithEmptyBody")
     public void deliver() throws Exception {
         lock.lock();
@@ -309,6 +325,7 @@ public class ResequencerEngine<E> {
      * @throws Exception thrown by {@link SequenceSender#sendElement(Object)}.
      *
      */
+    @Override
     public boolean deliverNext() throws Exception {
         lock.lock();
         try {
@@ -0,0 +1,317 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.processor.resequencer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Resequences elements with dense <code>long</code> sequence numbers using a preallocated ring buffer. This is an
+ * alternative to the {@link ResequencerEngine}, which keeps the elements in a {@link Sequence} (a tree).
+ * <p>
+ * The ring buffer holds a window of <code>capacity</code> consecutive sequence numbers starting at the next sequence
+ * number to deliver, and an element is stored in the slot given by its sequence number modulo the capacity. Inserting
+ * an element and delivering the next in-order element are therefore O(1) and do not allocate. An element with a
+ * sequence number beyond the window waits until enough elements have been delivered.
+ * <p>
+ * The timeout works as with the {@link ResequencerEngine}: the element after a gap in the sequence is delivered once
+ * it has waited <code>timeout</code> milliseconds for the missing elements, and the first element is always delayed
+ * by the timeout. The timeouts are evaluated when delivery is triggered (using {@link #deliver()} or
+ * {@link #deliverNext()}), so no timer task is scheduled per element.
+ * <p>
+ * An element older than the last delivered element is delivered on the next delivery (out of sequence), unless
+ * <code>rejectOld</code> is enabled. As with the {@link ResequencerEngine} an element with the same sequence number as
+ * an element already maintained by this resequencer is ignored.
+ */
+public class RingBufferResequencerEngine<E> implements StreamResequencerEngine<E> {
+
+    /**
+     * Returns the sequence number of an element, or <code>null</code> if the element cannot be used with this
+     * resequencer.
+     */
+    private final Function<E, Long> sequenceNumber;
+
+    /**
+     * The elements indexed by their sequence number modulo the capacity.
+     */
+    private final Object[] elements;
+
+    /**
+     * The time (in nanos) each element was inserted.
+     */
+    private final long[] arrivals;
+
+    private final int mask;
+
+    /**
+     * Elements older than the last delivered element which are delivered out of sequence.
+     */
+    private final ArrayDeque<E> late = new ArrayDeque<>();
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * The next sequence number to deliver, which is the first slot of the window.
+     */
+    private long base;
+
+    /**
+     * The highest sequence number in the ring buffer.
+     */
+    private long high;
+
+    /**
+     * The lowest sequence number in the ring buffer, when there is a gap at the base of the window. A value below
+     * <code>base</code> means it must be looked up again.
+     */
+    private long gapEnd = Long.MIN_VALUE;
+
+    private int count;
+    private boolean started;
+    private boolean delivered;
+    private E lastDelivered;
+    private long timeout;
+    private Boolean rejectOld;
+    private SequenceSender<E> sequenceSender;
+
+    /**
+     * Creates a new resequencer instance with a default timeout of 2000 milliseconds.
+     *
+     * @param sequenceNumber returns the sequence number of an element, or <code>null</code> if the element is invalid
+     * @param capacity       the number of consecutive sequence numbers the ring buffer can hold (rounded up to a power
+     *                       of two)
+     */
+    public RingBufferResequencerEngine(Function<E, Long> sequenceNumber, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, was: " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.sequenceNumber = sequenceNumber;
+        this.elements = new Object[size];
+        this.arrivals = new long[size];
+        this.mask = size - 1;
+        this.timeout = 2000L;
+    }
+
+    @Override
+    public void start() {
+        // noop
+    }
+
+    @Override
+    public void stop() {
+        // noop
+    }
+
+    /**
+     * Returns the number of slots in the ring buffer.
+     */
+    public int getCapacity() {
+        return elements.length;
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count + late.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Boolean getRejectOld() {
+        return rejectOld;
+    }
+
+    @Override
+    public void setRejectOld(Boolean rejectOld) {
+        this.rejectOld = rejectOld;
+    }
+
+    @Override
+    public SequenceSender<E> getSequenceSender() {
+        return sequenceSender;
+    }
+
+    @Override
+    public void setSequenceSender(SequenceSender<E> sequenceSender) {
+        this.sequenceSender = sequenceSender;
+    }
+
+    @Override
+    public void awaitCapacity(int capacity) throws InterruptedException {
+        lock.lock();
+        try {
+            while (count + late.size() >= capacity) {
+                notFull.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void insert(E o) throws InterruptedException {
+        Long num = sequenceNumber.apply(o);
+        if (num == null) {
+            throw new IllegalArgumentException("Element cannot be used in resequencer: " + o);
+        }
+        long seq = num;
+
+        lock.lock();
+        try {
+            if (!started) {
+                started = true;
+                base = seq;
+                high = seq;
+            }
+            while (true) {
+                if (seq < base) {
+                    if (delivered) {
+                        if (rejectOld != null && rejectOld) {
+                            throw new MessageRejectedException(
+                                    "rejecting message [" + o + "], it should have been sent before the last delivered message ["
+                                                               + lastDelivered + "]");
+                        }
+                        late.add(o);
+                        return;
+                    }
+                    if (count > 0 && high - seq >= elements.length) {
+                        // cannot move the window back as far
+                        late.add(o);
+                        return;
+                    }
+                    // nothing delivered yet so move the window back
+                    base = seq;
+                } else if (seq - base >= elements.length) {
+                    if (count > 0) {
+                        // wait for delivery to make room in the window
+                        notFull.await();
+                        continue;
+                    }
+                    // skip ahead as there is nothing to wait for
+                    base = seq - elements.length + 1;
+                }
+                break;
+            }
+
+            int index = (int) seq & mask;
+            if (elements[index] != null) {
+                // same sequence number as an element already maintained
+                return;
+            }
+            elements[index] = o;
+            arrivals[index] = System.nanoTime();
+            if (count == 0 || seq > high) {
+                high = seq;
+            }
+            count++;
+            if (seq < gapEnd) {
+                gapEnd = seq;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("StatementWithEmptyBody")
+    public void deliver() throws Exception {
+        lock.lock();
+        try {
+            while (deliverNext()) {
+                // do nothing here
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean deliverNext() throws Exception {
+        lock.lock();
+        try {
+            E element = late.poll();
+            if (element == null) {
+                if (count == 0) {
+                    return false;
+                }
+                int index = (int) base & mask;
+                if (elements[index] == null) {
+                    // there is a gap so wait for the missing elements until the element after the gap times out
+                    if (gapEnd < base) {
+                        gapEnd = findGapEnd();
+                    }
+                    index = (int) gapEnd & mask;
+                    if (!timedOut(index)) {
+                        return false;
+                    }
+                    base = gapEnd;
+                } else if (!delivered && !timedOut(index)) {
+                    // the first element may have predecessors which have not arrived yet
+                    return false;
+                }
+                element = (E) elements[index];
+                elements[index] = null;
+                count--;
+                base++;
+                delivered = true;
+                lastDelivered = element;
+            }
+            notFull.signalAll();
+
+            // deliver the sequence element
+            sequenceSender.sendElement(element);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean timedOut(int index) {
+        return System.nanoTime() - arrivals[index] >= TimeUnit.MILLISECONDS.toNanos(timeout);
+    }
+
+    private long findGapEnd() {
+        for (long seq = base + 1; seq <= high; seq++) {
+            if (elements[(int) seq & mask] != null) {
+                return seq;
+            }
+        }
+        // should not happen as there are elements in the window
+        throw new IllegalStateException("No element found in resequencer window starting at: " + base);
+    }
+
+}
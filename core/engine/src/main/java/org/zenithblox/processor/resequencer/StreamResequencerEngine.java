@@ -0,0 +1,106 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.processor.resequencer;
+
+/**
+ * An engine which resequences a stream of elements for the {@link org.zenithblox.processor.StreamResequencer}.
+ * Resequenced elements are delivered via a {@link SequenceSender}.
+ *
+ * @see ResequencerEngine
+ * @see RingBufferResequencerEngine
+ */
+public interface StreamResequencerEngine<E> {
+
+    /**
+     * Starts this resequencer.
+     */
+    void start();
+
+    /**
+     * Stops this resequencer.
+     */
+    void stop();
+
+    /**
+     * Returns the number of elements currently maintained by this resequencer.
+     */
+    int size();
+
+    /**
+     * Returns this resequencer's timeout value.
+     *
+     * @return the timeout in milliseconds.
+     */
+    long getTimeout();
+
+    /**
+     * Sets this sequencer's timeout value, which is the minimum amount of time to wait for out-of-sequence elements.
+     *
+     * @param timeout the timeout in milliseconds.
+     */
+    void setTimeout(long timeout);
+
+    Boolean getRejectOld();
+
+    /**
+     * Sets whether an error should be thrown if an element older than the last delivered element is inserted.
+     */
+    void setRejectOld(Boolean rejectOld);
+
+    /**
+     * Returns the sequence sender.
+     */
+    SequenceSender<E> getSequenceSender();
+
+    /**
+     * Sets the sequence sender.
+     */
+    void setSequenceSender(SequenceSender<E> sequenceSender);
+
+    /**
+     * Waits until this resequencer maintains less than the given number of elements.
+     *
+     * @param  capacity             the maximum number of elements
+     * @throws InterruptedException if the thread is interrupted
+     */
+    void awaitCapacity(int capacity) throws InterruptedException;
+
+    /**
+     * Inserts the given element into this resequencer.
+     *
+     * @param  o                        an element.
+     * @throws IllegalArgumentException if the element cannot be used with this resequencer engine
+     * @throws InterruptedException     if the thread is interrupted while waiting for room for the element
+     */
+    void insert(E o) throws InterruptedException;
+
+    /**
+     * Delivers all elements which are currently ready to deliver.
+     *
+     * @throws Exception thrown by {@link SequenceSender#sendElement(Object)}.
+     */
+    void deliver() throws Exception;
+
+    /**
+     * Attempts to deliver a single element which is ready to deliver.
+     *
+     * @return           <code>true</code> if the element has been delivered <code>false</code> otherwise.
+     * @throws Exception thrown by {@link SequenceSender#sendElement(Object)}.
+     */
+    boolean deliverNext() throws Exception;
+
+}
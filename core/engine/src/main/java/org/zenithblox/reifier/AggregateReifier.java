@@ -124,6 +124,10 @@ public class AggregateReifier extends ProcessorReifier<AggregateDefinition> {
         if (optimisticLocking != null) {
             answer.setOptimisticLocking(optimisticLocking);
         }
+        Integer lockStripes = parseInt(definition.getLockStripes());
+        if (lockStripes != null) {
+            answer.setLockStripes(lockStripes);
+        }
         if (definition.getCompletionPredicate() != null) {
             Predicate predicate = createPredicate(definition.getCompletionPredicate());
             answer.setCompletionPredicate(predicate);
@@ -202,6 +206,10 @@ public class AggregateReifier extends ProcessorReifier<AggregateDefinition> {
         if (completionTimeoutCheckerInterval != null) {
             answer.setCompletionTimeoutCheckerInterval(completionTimeoutCheckerInterval);
         }
+        Boolean completionTimeoutTimingWheel = parseBoolean(definition.getCompletionTimeoutTimingWheel());
+        if (completionTimeoutTimingWheel != null) {
+            answer.setCompletionTimeoutTimingWheel(completionTimeoutTimingWheel);
+        }
         return answer;
     }
 
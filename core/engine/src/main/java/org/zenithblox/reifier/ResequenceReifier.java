@@ -17,6 +17,7 @@
 package org.zenithblox.reifier;
 
 import org.zenithblox.AsyncProcessor;
+import org.zenithblox.Exchange;
 import org.zenithblox.Expression;
 import org.zenithblox.Processor;
 import org.zenithblox.Workflow;
@@ -25,10 +26,12 @@ import org.zenithblox.model.ResequenceDefinition;
 import org.zenithblox.model.config.BatchResequencerConfig;
 import org.zenithblox.model.config.ResequencerConfig;
 import org.zenithblox.model.config.StreamResequencerConfig;
+import org.zenithblox.model.config.StreamResequencerEngineType;
 import org.zenithblox.processor.Resequencer;
 import org.zenithblox.processor.StreamResequencer;
 import org.zenithblox.processor.resequencer.DefaultExchangeComparator;
 import org.zenithblox.processor.resequencer.ExpressionResultComparator;
+import org.zenithblox.processor.resequencer.RingBufferResequencerEngine;
 import org.zenithblox.support.PluginHelper;
 import org.zenithblox.util.ObjectHelper;
 
@@ -116,18 +119,30 @@ public class ResequenceReifier extends ProcessorReifier<ResequenceDefinition> {
         ObjectHelper.notNull(config, "config", this);
         ObjectHelper.notNull(expression, "expression", this);
 
-        ExpressionResultComparator comparator;
-        if (config.getComparator() != null) {
-            comparator = mandatoryLookup(config.getComparator(), ExpressionResultComparator.class);
+        Integer num = parseInt(config.getCapacity());
+
+        StreamResequencer resequencer;
+        if (StreamResequencerEngineType.toEngine(parseString(config.getEngine())) == StreamResequencerEngineType.RingBuffer) {
+            if (config.getComparator() != null || config.getComparatorBean() != null) {
+                throw new IllegalArgumentException("A custom comparator cannot be used with the RingBuffer engine");
+            }
+            // the ring buffer holds the capacity of consecutive sequence numbers
+            RingBufferResequencerEngine<Exchange> engine = new RingBufferResequencerEngine<>(
+                    e -> expression.evaluate(e, Long.class), num != null ? num : 1000);
+            resequencer = new StreamResequencer(zwangineContext, target, engine, expression);
         } else {
-            comparator = config.getComparatorBean();
-            if (comparator == null) {
-                comparator = new DefaultExchangeComparator();
+            ExpressionResultComparator comparator;
+            if (config.getComparator() != null) {
+                comparator = mandatoryLookup(config.getComparator(), ExpressionResultComparator.class);
+            } else {
+                comparator = config.getComparatorBean();
+                if (comparator == null) {
+                    comparator = new DefaultExchangeComparator();
+                }
             }
+            comparator.setExpression(expression);
+            resequencer = new StreamResequencer(zwangineContext, target, comparator, expression);
         }
-        comparator.setExpression(expression);
-
-        StreamResequencer resequencer = new StreamResequencer(zwangineContext, target, comparator, expression);
         Long dur = parseDuration(config.getTimeout());
         if (dur != null) {
             resequencer.setTimeout(dur);
@@ -136,7 +151,6 @@ public class ResequenceReifier extends ProcessorReifier<ResequenceDefinition> {
         if (dur != null) {
             resequencer.setDeliveryAttemptInterval(dur);
         }
-        Integer num = parseInt(config.getCapacity());
         if (num != null) {
             resequencer.setCapacity(num);
         }
@@ -23,6 +23,7 @@ import org.zenithblox.model.ProcessorDefinition;
 import org.zenithblox.model.ThrottleDefinition;
 import org.zenithblox.model.ThrottlingMode;
 import org.zenithblox.processor.ConcurrentRequestsThrottler;
+import org.zenithblox.processor.TokenBucketThrottler;
 import org.zenithblox.processor.TotalRequestsThrottler;
 
 import java.util.concurrent.ScheduledExecutorService;
@@ -52,7 +53,8 @@ public class ThrottleReifier extends ExpressionReifier<ThrottleDefinition> {
             throw new IllegalArgumentException("MaxRequestsPerPeriod expression must be provided on " + this);
         }
 
-        if (ThrottlingMode.toMode(parseString(definition.getMode())) == ThrottlingMode.ConcurrentRequests) {
+        ThrottlingMode mode = ThrottlingMode.toMode(parseString(definition.getMode()));
+        if (mode == ThrottlingMode.ConcurrentRequests) {
             ConcurrentRequestsThrottler answer = new ConcurrentRequestsThrottler(
                     zwangineContext, maxRequestsExpression, threadPool, shutdownThreadPool, reject, correlation);
 
@@ -60,6 +62,18 @@ public class ThrottleReifier extends ExpressionReifier<ThrottleDefinition> {
             // should be true by default
             answer.setCallerRunsWhenRejected(parseBoolean(definition.getCallerRunsWhenRejected(), true));
 
+            return answer;
+        } else if (mode == ThrottlingMode.TokenBucket) {
+            long period = parseDuration(definition.getTimePeriodMillis(), 1000L);
+
+            TokenBucketThrottler answer = new TokenBucketThrottler(
+                    zwangineContext, maxRequestsExpression, period, threadPool, shutdownThreadPool, reject, correlation);
+
+            answer.setAsyncDelayed(async);
+            // should be true by default
+            answer.setCallerRunsWhenRejected(parseBoolean(definition.getCallerRunsWhenRejected(), true));
+            answer.setBurstCapacity(parseInt(definition.getBurstCapacity(), 0));
+
             return answer;
         } else {
             long period = parseDuration(definition.getTimePeriodMillis(), 1000L);
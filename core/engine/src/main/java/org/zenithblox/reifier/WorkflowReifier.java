@@ -284,6 +284,12 @@ public class WorkflowReifier extends ProcessorReifier<WorkflowDefinition> {
             internal.addManagementInterceptStrategy(managementInterceptStrategy.createProcessor("workflow"));
         }
 
+        // wrap in metrics advice that records the metrics of the workflow
+        ZwangineMetricsService metricsService = PluginHelper.getZwangineMetricsService(zwangineContext);
+        if (metricsService != null) {
+            internal.addAdvice(metricsService.createWorkflowAdvice(workflow.getWorkflowId()));
+        }
+
         // wrap in workflow lifecycle
         internal.addWorkflowLifecycleAdvice();
 
@@ -0,0 +1,216 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.stream;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.StreamCache;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A {@link StreamCache} for content held in {@link ByteBuffer}s, which are either pooled direct buffers or segments of
+ * a memory-mapped file.
+ * <p/>
+ * Copies share the buffers, so multiple readers (such as the branches of a multicast) read the same memory without
+ * copying the content. The buffers are released when all the exchanges using them are completed.
+ * <p/>
+ * <b>Important:</b> All the classes from the Zwangine release that implements {@link StreamCache} is NOT intended for end
+ * users to create as instances, but they are part of Zwangines
+ * <a href="https://zwangine.zwangine.org/manual/stream-caching.html">stream-caching</a> functionality.
+ */
+public final class ByteBufferInputStreamCache extends InputStream implements StreamCache {
+
+    private final FileInputStreamCache.TempFileManager tempFileManager;
+    private final ByteBuffer[] source;
+    private final ByteBuffer[] buffers;
+    private final long length;
+    private final boolean mapped;
+    private int index;
+
+    ByteBufferInputStreamCache(FileInputStreamCache.TempFileManager tempFileManager, ByteBuffer[] source, long length,
+                               boolean mapped) {
+        this.tempFileManager = tempFileManager;
+        this.source = source;
+        this.length = length;
+        this.mapped = mapped;
+        this.buffers = new ByteBuffer[source.length];
+        for (int i = 0; i < source.length; i++) {
+            buffers[i] = source[i].duplicate();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        Lock lock = tempFileManager.getLock();
+        lock.lock();
+        try {
+            ByteBuffer buffer = current();
+            return buffer != null ? buffer.get() & 0xff : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        int total = 0;
+        Lock lock = tempFileManager.getLock();
+        lock.lock();
+        try {
+            ByteBuffer buffer;
+            while (total < len && (buffer = current()) != null) {
+                int n = Math.min(len - total, buffer.remaining());
+                buffer.get(b, off + total, n);
+                total += n;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return total > 0 ? total : -1;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long total = 0;
+        Lock lock = tempFileManager.getLock();
+        lock.lock();
+        try {
+            ByteBuffer buffer;
+            while (total < n && (buffer = current()) != null) {
+                int step = (int) Math.min(n - total, buffer.remaining());
+                buffer.position(buffer.position() + step);
+                total += step;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return total;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureNotReleased();
+        return (int) Math.min(Integer.MAX_VALUE, length - position());
+    }
+
+    /**
+     * The buffer to read from, which must be called while holding the lock of the temp file manager, so the buffers
+     * cannot be released while they are being read.
+     */
+    private ByteBuffer current() throws IOException {
+        ensureNotReleased();
+        while (index < buffers.length) {
+            ByteBuffer buffer = buffers[index];
+            if (buffer.hasRemaining()) {
+                return buffer;
+            }
+            index++;
+        }
+        return null;
+    }
+
+    private void ensureNotReleased() throws IOException {
+        if (tempFileManager.isReleased()) {
+            throw new IOException("Cannot read from stream cache as it has been released");
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (ByteBuffer buffer : buffers) {
+            buffer.rewind();
+        }
+        index = 0;
+    }
+
+    @Override
+    public void writeTo(OutputStream os) throws IOException {
+        Lock lock = tempFileManager.getLock();
+        lock.lock();
+        try {
+            doWriteTo(os);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void doWriteTo(OutputStream os) throws IOException {
+        ensureNotReleased();
+        FileChannel channel = os instanceof FileOutputStream fos ? fos.getChannel() : null;
+        byte[] chunk = null;
+        for (int i = index; i < buffers.length; i++) {
+            ByteBuffer buffer = buffers[i].duplicate();
+            if (channel != null) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } else {
+                if (chunk == null) {
+                    chunk = new byte[(int) Math.min(length, DirectBufferPool.DEFAULT_CHUNK_SIZE)];
+                }
+                while (buffer.hasRemaining()) {
+                    int n = Math.min(chunk.length, buffer.remaining());
+                    buffer.get(chunk, 0, n);
+                    os.write(chunk, 0, n);
+                }
+            }
+        }
+    }
+
+    @Override
+    public StreamCache copy(Exchange exchange) throws IOException {
+        tempFileManager.addExchange(exchange);
+        return new ByteBufferInputStreamCache(tempFileManager, source, length, mapped);
+    }
+
+    @Override
+    public boolean inMemory() {
+        return !mapped;
+    }
+
+    /**
+     * Whether the content is held in a memory-mapped file, or otherwise in pooled direct buffers.
+     */
+    public boolean isMemoryMapped() {
+        return mapped;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public long position() {
+        long answer = 0;
+        for (ByteBuffer buffer : buffers) {
+            answer += buffer.position();
+        }
+        return answer;
+    }
+}
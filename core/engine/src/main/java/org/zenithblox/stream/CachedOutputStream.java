@@ -18,8 +18,10 @@ package org.zenithblox.stream;
 
 import org.zenithblox.Exchange;
 import org.zenithblox.StreamCache;
+import org.zenithblox.impl.engine.DefaultStreamCachingStrategy;
 import org.zenithblox.spi.StreamCachingStrategy;
 import org.zenithblox.util.IOHelper;
+import org.zenithblox.util.ObjectHelper;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -38,12 +40,19 @@ import java.util.concurrent.locks.ReentrantLock;
  * You can get a cached input stream of this stream. The temp file which is created with this output stream will be
  * deleted when you close this output stream or the cached fileInputStream(s) is/are closed after all the exchanges
  * using the temp file are completed.
+ * <p/>
+ * When the {@link StreamCachingStrategy.CacheMode#OffHeap} cache mode is in use, then content larger than the buffer
+ * size is moved to direct buffers borrowed from a {@link DirectBufferPool} (or kept on the heap if the pool is
+ * exhausted), and spooled content is read back from a memory-mapped temp file.
  */
 public class CachedOutputStream extends OutputStream {
 
     private final StreamCachingStrategy strategy;
+    private final DirectBufferPool pool;
     private OutputStream currentStream;
     private boolean inMemory = true;
+    private boolean mapped;
+    private boolean heapOnly;
     private int totalLength;
     private final FileInputStreamCache.TempFileManager tempFileManager;
     private final boolean closedOnCompletion;
@@ -57,6 +66,8 @@ public class CachedOutputStream extends OutputStream {
         this.tempFileManager = new FileInputStreamCache.TempFileManager(closedOnCompletion);
         this.tempFileManager.addExchange(exchange);
         this.strategy = exchange.getContext().getStreamCachingStrategy();
+        this.pool = strategy.getCacheMode() == StreamCachingStrategy.CacheMode.OffHeap
+                && strategy instanceof DefaultStreamCachingStrategy dscs ? dscs.getDirectBufferPool() : null;
         this.currentStream = new CachedByteArrayOutputStream(strategy.getBufferSize());
     }
 
@@ -100,31 +111,39 @@ public class CachedOutputStream extends OutputStream {
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException {
-        this.totalLength += len;
-        if (inMemory && currentStream instanceof ByteArrayOutputStream && strategy.shouldSpoolCache(totalLength)) {
-            pageToFileStream();
-        }
+        beforeWrite(len);
         currentStream.write(b, off, len);
     }
 
     @Override
     public void write(byte[] b) throws IOException {
-        this.totalLength += b.length;
-        if (inMemory && currentStream instanceof ByteArrayOutputStream && strategy.shouldSpoolCache(totalLength)) {
-            pageToFileStream();
-        }
+        beforeWrite(b.length);
         currentStream.write(b);
     }
 
     @Override
     public void write(int b) throws IOException {
-        this.totalLength++;
-        if (inMemory && currentStream instanceof ByteArrayOutputStream && strategy.shouldSpoolCache(totalLength)) {
-            pageToFileStream();
-        }
+        beforeWrite(1);
         currentStream.write(b);
     }
 
+    private void beforeWrite(int len) throws IOException {
+        this.totalLength += len;
+        if (inMemory) {
+            if (strategy.shouldSpoolCache(totalLength)) {
+                pageToFileStream();
+            } else if (pool != null && !heapOnly) {
+                if (currentStream instanceof DirectBufferOutputStream direct) {
+                    if (!direct.ensureCapacity(len)) {
+                        pageToHeap(direct);
+                    }
+                } else if (totalLength > strategy.getBufferSize()) {
+                    pageToDirectBuffers();
+                }
+            }
+        }
+    }
+
     public InputStream getInputStream() throws IOException {
         return (InputStream) newStreamCache();
     }
@@ -143,11 +162,15 @@ public class CachedOutputStream extends OutputStream {
         if (inMemory) {
             if (currentStream instanceof CachedByteArrayOutputStream cachedByteArrayOutputStream) {
                 return cachedByteArrayOutputStream.newInputStreamCache();
+            } else if (currentStream instanceof DirectBufferOutputStream) {
+                return tempFileManager.newDirectBufferStreamCache();
             } else {
                 throw new IllegalStateException(
                         "CurrentStream should be an instance of CachedByteArrayOutputStream but is: "
                                                 + currentStream.getClass().getName());
             }
+        } else if (mapped) {
+            return tempFileManager.newMappedStreamCache();
         } else {
             return tempFileManager.newStreamCache();
         }
@@ -155,17 +178,53 @@ public class CachedOutputStream extends OutputStream {
 
     private void pageToFileStream() throws IOException {
         flush();
-        ByteArrayOutputStream bout = (ByteArrayOutputStream) currentStream;
+        OutputStream current = currentStream;
         try {
+            // encrypted content cannot be read back from a memory-mapped file
+            mapped = pool != null && ObjectHelper.isEmpty(strategy.getSpoolCipher());
             // creates a tmp file and a file output stream
-            currentStream = tempFileManager.createOutputStream(strategy);
-            bout.writeTo(currentStream);
+            if (mapped) {
+                currentStream = tempFileManager.createChannelOutputStream(strategy);
+            } else {
+                currentStream = tempFileManager.createOutputStream(strategy);
+            }
+            if (current instanceof DirectBufferOutputStream direct) {
+                if (mapped) {
+                    direct.writeTo(tempFileManager.getChannel());
+                } else {
+                    direct.writeTo(currentStream);
+                }
+                tempFileManager.releaseDirectBuffers();
+            } else {
+                ((ByteArrayOutputStream) current).writeTo(currentStream);
+            }
         } finally {
             // ensure flag is flipped to file based
             inMemory = false;
         }
     }
 
+    private void pageToDirectBuffers() throws IOException {
+        ByteArrayOutputStream bout = (ByteArrayOutputStream) currentStream;
+        DirectBufferOutputStream direct = tempFileManager.createDirectBufferOutputStream(pool);
+        if (direct != null && direct.ensureCapacity(totalLength)) {
+            bout.writeTo(direct);
+            currentStream = direct;
+        } else {
+            tempFileManager.releaseDirectBuffers();
+            heapOnly = true;
+        }
+    }
+
+    private void pageToHeap(DirectBufferOutputStream direct) throws IOException {
+        // the pool is exhausted so keep the content on the heap
+        CachedByteArrayOutputStream bout = new CachedByteArrayOutputStream(totalLength);
+        direct.writeTo(bout);
+        tempFileManager.releaseDirectBuffers();
+        currentStream = bout;
+        heapOnly = true;
+    }
+
     public int getStrategyBufferSize() {
         return strategy.getBufferSize();
     }
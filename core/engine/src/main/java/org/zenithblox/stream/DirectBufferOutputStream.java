@@ -0,0 +1,137 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An {@link OutputStream} which writes into chunks borrowed from a {@link DirectBufferPool}.
+ * <p/>
+ * The chunks must be reserved up front by {@link #ensureCapacity(int)}, which allows {@link CachedOutputStream} to
+ * fall back to the heap when the pool is exhausted.
+ */
+final class DirectBufferOutputStream extends OutputStream {
+
+    private final DirectBufferPool pool;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private int index;
+    private long count;
+
+    DirectBufferOutputStream(DirectBufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Borrows chunks from the pool until the given number of bytes can be written.
+     *
+     * @return <tt>true</tt> if the bytes can be written, or <tt>false</tt> if the pool is exhausted
+     */
+    boolean ensureCapacity(long len) {
+        long capacity = (long) chunks.size() * pool.getChunkSize();
+        while (capacity - count < len) {
+            ByteBuffer chunk = pool.acquire();
+            if (chunk == null) {
+                return false;
+            }
+            chunks.add(chunk);
+            capacity += chunk.capacity();
+        }
+        return true;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        nextChunk().put((byte) b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        while (len > 0) {
+            ByteBuffer chunk = nextChunk();
+            int n = Math.min(len, chunk.remaining());
+            chunk.put(b, off, n);
+            off += n;
+            len -= n;
+            count += n;
+        }
+    }
+
+    private ByteBuffer nextChunk() throws IOException {
+        while (index < chunks.size()) {
+            ByteBuffer chunk = chunks.get(index);
+            if (chunk.hasRemaining()) {
+                return chunk;
+            }
+            index++;
+        }
+        throw new IOException("No capacity reserved in the direct buffers");
+    }
+
+    /**
+     * Read-only views of the written content, one per chunk.
+     */
+    ByteBuffer[] views() {
+        ByteBuffer[] answer = new ByteBuffer[index < chunks.size() ? index + 1 : index];
+        for (int i = 0; i < answer.length; i++) {
+            answer[i] = chunks.get(i).duplicate().flip().asReadOnlyBuffer();
+        }
+        return answer;
+    }
+
+    void writeTo(OutputStream os) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(count, pool.getChunkSize())];
+        for (ByteBuffer view : views()) {
+            while (view.hasRemaining()) {
+                int n = Math.min(buffer.length, view.remaining());
+                view.get(buffer, 0, n);
+                os.write(buffer, 0, n);
+            }
+        }
+    }
+
+    void writeTo(WritableByteChannel channel) throws IOException {
+        for (ByteBuffer view : views()) {
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+        }
+    }
+
+    long size() {
+        return count;
+    }
+
+    /**
+     * Returns the chunks to the pool. The views returned by {@link #views()} must no longer be used.
+     */
+    void release() {
+        for (ByteBuffer chunk : chunks) {
+            pool.release(chunk);
+        }
+        chunks.clear();
+        index = 0;
+        count = 0;
+    }
+}
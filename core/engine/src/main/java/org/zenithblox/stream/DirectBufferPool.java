@@ -0,0 +1,156 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.stream;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of fixed size direct {@link ByteBuffer} chunks used by {@link CachedOutputStream} to keep stream
+ * caches off the heap.
+ * <p/>
+ * Chunks are allocated lazily until the maximum size of the pool is reached, and are reused when the stream caches
+ * holding them are released at the end of the exchange.
+ */
+public final class DirectBufferPool {
+
+    /**
+     * The default size of the chunks (64kb).
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final int chunkSize;
+    private final long maxSize;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong used = new AtomicLong();
+    // the number of bytes borrowed before the pool was cleared, which are dropped instead of pooled when released
+    private final AtomicLong retired = new AtomicLong();
+    private final LongAdder exhausted = new LongAdder();
+
+    public DirectBufferPool(long maxSize) {
+        this(DEFAULT_CHUNK_SIZE, maxSize);
+    }
+
+    public DirectBufferPool(int chunkSize, long maxSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("ChunkSize must be positive, was: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Borrows a cleared chunk from the pool.
+     *
+     * @return the chunk, or <tt>null</tt> if the pool is exhausted
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer answer = free.poll();
+        if (answer == null) {
+            long current;
+            do {
+                current = allocated.get();
+                if (current + chunkSize > maxSize) {
+                    exhausted.increment();
+                    return null;
+                }
+            } while (!allocated.compareAndSet(current, current + chunkSize));
+            answer = ByteBuffer.allocateDirect(chunkSize);
+        } else {
+            answer.clear();
+        }
+        used.addAndGet(chunkSize);
+        return answer;
+    }
+
+    /**
+     * Returns a chunk previously borrowed with {@link #acquire()} to the pool.
+     */
+    public void release(ByteBuffer chunk) {
+        used.addAndGet(-chunkSize);
+        if (retire()) {
+            allocated.addAndGet(-chunkSize);
+        } else {
+            free.offer(chunk);
+        }
+    }
+
+    private boolean retire() {
+        long current;
+        do {
+            current = retired.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!retired.compareAndSet(current, current - chunkSize));
+        return true;
+    }
+
+    /**
+     * Frees the chunks which are not in use, so their direct memory can be reclaimed. The chunks which are in use are
+     * dropped (instead of returned to the pool) when they are released.
+     */
+    public void clear() {
+        retired.set(used.get());
+        ByteBuffer chunk;
+        while ((chunk = free.poll()) != null) {
+            allocated.addAndGet(-chunk.capacity());
+        }
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Number of bytes of direct memory allocated by the pool.
+     */
+    public long getAllocatedSize() {
+        return allocated.get();
+    }
+
+    /**
+     * Number of bytes currently borrowed from the pool.
+     */
+    public long getUsedSize() {
+        return used.get();
+    }
+
+    /**
+     * Number of times a chunk could not be borrowed because the pool was exhausted.
+     */
+    public long getExhaustedCounter() {
+        return exhausted.sum();
+    }
+
+    public void resetStatistics() {
+        exhausted.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "DirectBufferPool[chunkSize=" + chunkSize + ", maxSize=" + maxSize + ", allocated=" + allocated.get()
+               + ", used=" + used.get() + "]";
+    }
+}
@@ -33,6 +33,9 @@ import org.slf4j.LoggerFactory;
 import javax.crypto.CipherInputStream;
 import javax.crypto.CipherOutputStream;
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.security.GeneralSecurityException;
@@ -115,6 +118,20 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
         return false;
     }
 
+    /**
+     * Gets the file the content is spooled to.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Whether the spooled content is encrypted, in which case the file cannot be read directly.
+     */
+    public boolean isEncrypted() {
+        return ciphers != null;
+    }
+
     @Override
     public long length() {
         return length;
@@ -200,12 +217,17 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
      *
      * Collects all FileInputStreamCache instances of the temporary file. Counts the number of exchanges which have a
      * FileInputStreamCache instance of the temporary file. Deletes the temporary file, if all exchanges are done.
+     * <p/>
+     * When caching off-heap the direct buffers borrowed from the pool, and the segments of the memory-mapped temporary
+     * file, are released in the same way.
      *
      * @see CachedOutputStream
      */
     static class TempFileManager {
 
         private static final Logger LOG = LoggerFactory.getLogger(TempFileManager.class);
+        // a mapped byte buffer cannot be larger than 2gb, so larger files are mapped in segments
+        private static final long MAX_SEGMENT_SIZE = 1L << 30;
         /**
          * Indicator whether the file input stream caches are closed on completion of the exchanges.
          */
@@ -215,6 +237,15 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
         private File tempFile;
         private OutputStream outputStream; // file output stream
         private CipherPair ciphers;
+        private FileChannel channel; // file channel when spooling to a memory-mapped file
+        private DirectBufferOutputStream directBuffers;
+        // whether stream caches have been created with views of the direct buffers
+        private boolean directBuffersShared;
+        // the direct buffers which have been paged out while stream caches still hold views of them
+        private List<DirectBufferOutputStream> retiredDirectBuffers;
+        private ByteBuffer[] segments;
+        private long mappedLength;
+        private volatile boolean released;
 
         // there can be several input streams, for example in the multi-cast, or wiretap parallel processing
         private List<FileInputStreamCache> fileInputStreamCaches;
@@ -298,6 +329,45 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
         }
 
         OutputStream createOutputStream(StreamCachingStrategy strategy) throws IOException {
+            createTempFile(strategy);
+            OutputStream out = new BufferedOutputStream(
+                    Files.newOutputStream(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE));
+            if (ObjectHelper.isNotEmpty(strategy.getSpoolCipher())) {
+                try {
+                    if (ciphers == null) {
+                        ciphers = new CipherPair(strategy.getSpoolCipher());
+                    }
+                } catch (GeneralSecurityException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+                out = new CipherOutputStream(out, ciphers.getEncryptor()) {
+                    boolean closed;
+
+                    @Override
+                    public void close() throws IOException {
+                        if (!closed) {
+                            super.close();
+                            closed = true;
+                        }
+                    }
+                };
+            }
+            outputStream = out;
+            return out;
+        }
+
+        /**
+         * Creates the temporary file and an output stream which writes to it through a {@link FileChannel}, so the
+         * content can be read back from a memory-mapped file with {@link #newMappedStreamCache()}.
+         */
+        OutputStream createChannelOutputStream(StreamCachingStrategy strategy) throws IOException {
+            createTempFile(strategy);
+            channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE);
+            outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), strategy.getBufferSize());
+            return outputStream;
+        }
+
+        private void createTempFile(StreamCachingStrategy strategy) throws IOException {
             // should only be called once
             if (tempFile != null) {
                 throw new IllegalStateException("The method 'createOutputStream' can only be called once!");
@@ -317,30 +387,98 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
             tempFile = FileUtil.createTempFile("cos", ".tmp", strategy.getSpoolDirectory());
 
             LOG.trace("Creating temporary stream cache file: {}", tempFile);
-            OutputStream out = new BufferedOutputStream(
-                    Files.newOutputStream(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE));
-            if (ObjectHelper.isNotEmpty(strategy.getSpoolCipher())) {
-                try {
-                    if (ciphers == null) {
-                        ciphers = new CipherPair(strategy.getSpoolCipher());
+        }
+
+        /**
+         * Creates an output stream which writes to direct buffers borrowed from the pool.
+         *
+         * @return the output stream, or <tt>null</tt> if the buffers would never be released
+         */
+        DirectBufferOutputStream createDirectBufferOutputStream(DirectBufferPool pool) {
+            if (closedOnCompletion && exchangeCounter.get() == 0) {
+                // exchange was already stopped (see createOutputStream) so keep the cache on the heap
+                return null;
+            }
+            directBuffers = new DirectBufferOutputStream(pool);
+            return directBuffers;
+        }
+
+        /**
+         * Stops using the direct buffers, such as when their content has been moved to the heap or spooled. The buffers
+         * are returned to the pool, unless stream caches created earlier still read from them, in which case they are
+         * kept until the temporary file is cleaned up.
+         */
+        void releaseDirectBuffers() {
+            lock.lock();
+            try {
+                if (directBuffers != null) {
+                    if (directBuffersShared) {
+                        if (retiredDirectBuffers == null) {
+                            retiredDirectBuffers = new ArrayList<>(2);
+                        }
+                        retiredDirectBuffers.add(directBuffers);
+                    } else {
+                        directBuffers.release();
                     }
-                } catch (GeneralSecurityException e) {
-                    throw new IOException(e.getMessage(), e);
+                    directBuffers = null;
+                    directBuffersShared = false;
                 }
-                out = new CipherOutputStream(out, ciphers.getEncryptor()) {
-                    boolean closed;
+            } finally {
+                lock.unlock();
+            }
+        }
 
-                    @Override
-                    public void close() throws IOException {
-                        if (!closed) {
-                            super.close();
-                            closed = true;
+        ByteBufferInputStreamCache newDirectBufferStreamCache() {
+            lock.lock();
+            try {
+                directBuffersShared = true;
+                return new ByteBufferInputStreamCache(this, directBuffers.views(), directBuffers.size(), false);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Creates a stream cache which reads the temporary file from memory-mapped segments. The segments are mapped
+         * once and shared by all the stream caches of the file.
+         */
+        ByteBufferInputStreamCache newMappedStreamCache() throws IOException {
+            lock.lock();
+            try {
+                long length = tempFile.length();
+                if (segments == null || mappedLength != length) {
+                    try (FileChannel in = FileChannel.open(tempFile.toPath(), StandardOpenOption.READ)) {
+                        int count = (int) ((length + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE);
+                        ByteBuffer[] answer = new ByteBuffer[count];
+                        for (int i = 0; i < count; i++) {
+                            long offset = (long) i * MAX_SEGMENT_SIZE;
+                            long size = Math.min(MAX_SEGMENT_SIZE, length - offset);
+                            answer[i] = in.map(FileChannel.MapMode.READ_ONLY, offset, size);
                         }
+                        segments = answer;
+                        mappedLength = length;
                     }
-                };
+                }
+                return new ByteBufferInputStreamCache(this, segments, mappedLength, true);
+            } finally {
+                lock.unlock();
             }
-            outputStream = out;
-            return out;
+        }
+
+        FileChannel getChannel() {
+            return channel;
+        }
+
+        boolean isReleased() {
+            return released;
+        }
+
+        /**
+         * The lock held while the buffers are released, which readers of the buffers hold so the buffers are not
+         * returned to the pool (and reused by another exchange) while being read.
+         */
+        Lock getLock() {
+            return lock;
         }
 
         FileInputStreamCache newStreamCache() {
@@ -357,6 +495,24 @@ public final class FileInputStreamCache extends InputStream implements StreamCac
         }
 
         void cleanUpTempFile() {
+            // release the off-heap buffers (the mapped segments are unmapped when garbage collected)
+            released = true;
+            lock.lock();
+            try {
+                if (directBuffers != null) {
+                    directBuffers.release();
+                    directBuffers = null;
+                }
+                if (retiredDirectBuffers != null) {
+                    for (DirectBufferOutputStream retired : retiredDirectBuffers) {
+                        retired.release();
+                    }
+                    retiredDirectBuffers = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            segments = null;
             // cleanup temporary file
             try {
                 if (tempFile != null) {
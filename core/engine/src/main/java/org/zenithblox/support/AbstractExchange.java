@@ -34,6 +34,9 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * Zwangine end users should use {@link DefaultExchange} if creating an {@link Exchange} manually. However that is more
  * seldom to use, as exchanges are created via {@link Endpoint}.
  *
+ * A copy of an exchange shares the properties and variables with the exchange it was copied from, and the exchange
+ * which first modifies them makes its own copy (copy-on-write).
+ *
  * @see DefaultExchange
  */
 abstract class AbstractExchange implements Exchange {
@@ -51,6 +54,9 @@ abstract class AbstractExchange implements Exchange {
     protected boolean rollbackOnlyLast;
     protected Map<String, SafeCopyProperty> safeCopyProperties;
     protected ExchangeVariableRepository variableRepository;
+    // whether the properties and variables are shared with copies of this exchange, and must be copied before modified
+    private volatile boolean propertiesShared;
+    private volatile boolean variablesShared;
     private final ExtendedExchangeExtension privateExtension;
     private RedeliveryTraitPayload externalRedelivered = RedeliveryTraitPayload.UNDEFINED_REDELIVERY;
 
@@ -115,13 +121,16 @@ abstract class AbstractExchange implements Exchange {
         privateExtension.setStreamCacheDisabled(parent.getExchangeExtension().isStreamCacheDisabled());
 
         if (parent.hasVariables()) {
-            if (this.variableRepository == null) {
-                this.variableRepository = new ExchangeVariableRepository(getContext());
-            }
-            this.variableRepository.copyFrom(parent.variableRepository);
+            // share the variables until either exchange modifies them
+            parent.variablesShared = true;
+            this.variableRepository = parent.variableRepository;
+            this.variablesShared = true;
         }
         if (parent.hasProperties()) {
-            this.properties = safeCopyProperties(parent.properties);
+            // share the properties until either exchange modifies them
+            parent.propertiesShared = true;
+            this.properties = parent.properties;
+            this.propertiesShared = true;
         }
         if (parent.hasSafeCopyProperties()) {
             this.safeCopyProperties = parent.copySafeCopyProperties();
@@ -139,7 +148,9 @@ abstract class AbstractExchange implements Exchange {
     public Exchange copy() {
         AbstractExchange exchange = newCopy();
 
-        if (getContext().isMessageHistory()) {
+        if (internalProperties.get(ExchangePropertyKey.MESSAGE_HISTORY) instanceof CompactMessageHistory history) {
+            exchange.internalProperties.put(ExchangePropertyKey.MESSAGE_HISTORY, history.copy());
+        } else if (getContext().isMessageHistory()) {
             exchange.internalProperties.computeIfPresent(ExchangePropertyKey.MESSAGE_HISTORY,
                     (k, v) -> new CopyOnWriteArrayList<>((List<MessageHistory>) v));
         }
@@ -253,24 +264,16 @@ abstract class AbstractExchange implements Exchange {
         if (key != null) {
             setProperty(key, value);
         } else if (value != null) {
-            // avoid the NullPointException
-            if (properties == null) {
-                this.properties = new ConcurrentHashMap<>(8);
-            }
-            properties.put(name, value);
+            writableProperties().put(name, value);
         } else if (properties != null) {
             // if the value is null, we just remove the key from the map
-            properties.remove(name);
+            writableProperties().remove(name);
         }
     }
 
     void setProperties(Map<String, Object> properties) {
-        if (this.properties == null) {
-            this.properties = new ConcurrentHashMap<>(8);
-        } else {
-            this.properties.clear();
-        }
-        this.properties.putAll(properties);
+        clearProperties();
+        writableProperties().putAll(properties);
     }
 
     @Override
@@ -282,7 +285,7 @@ abstract class AbstractExchange implements Exchange {
         if (!hasProperties()) {
             return null;
         }
-        return properties.remove(name);
+        return writableProperties().remove(name);
     }
 
     @Override
@@ -294,9 +297,7 @@ abstract class AbstractExchange implements Exchange {
     public boolean removeProperties(String pattern, String... excludePatterns) {
         // special optimized
         if (excludePatterns == null && "*".equals(pattern)) {
-            if (properties != null) {
-                properties.clear();
-            }
+            clearProperties();
             internalProperties.clear();
             return true;
         }
@@ -321,8 +322,9 @@ abstract class AbstractExchange implements Exchange {
                 matches = true;
                 if (toBeRemoved.size() == properties.size()) {
                     // special optimization when all should be removed
-                    properties.clear();
+                    clearProperties();
                 } else {
+                    Map<String, Object> properties = writableProperties();
                     for (String key : toBeRemoved) {
                         properties.remove(key);
                     }
@@ -335,12 +337,62 @@ abstract class AbstractExchange implements Exchange {
 
     @Override
     public Map<String, Object> getProperties() {
+        if (propertiesShared) {
+            // the properties may be modified by the caller, but are only copied when they are
+            return new CopyOnWriteMapView(() -> properties, this::writableProperties);
+        }
+        return writableProperties();
+    }
+
+    /**
+     * Returns the properties which can be modified, copying the properties first if they are shared with another
+     * exchange
+     */
+    private Map<String, Object> writableProperties() {
         if (properties == null) {
             this.properties = new ConcurrentHashMap<>(8);
+        } else if (propertiesShared) {
+            synchronized (this) {
+                if (propertiesShared) {
+                    this.properties = new ConcurrentHashMap<>(properties);
+                    propertiesShared = false;
+                }
+            }
         }
         return properties;
     }
 
+    /**
+     * Copies the properties to the target exchange, sharing the properties if the target has no properties
+     */
+    void copyPropertiesTo(AbstractExchange target) {
+        if (!hasProperties()) {
+            return;
+        }
+        if (target.hasProperties()) {
+            target.writableProperties().putAll(properties);
+        } else {
+            propertiesShared = true;
+            target.properties = properties;
+            target.propertiesShared = true;
+        }
+    }
+
+    void clearProperties() {
+        if (propertiesShared) {
+            synchronized (this) {
+                if (propertiesShared) {
+                    this.properties = new ConcurrentHashMap<>(8);
+                    propertiesShared = false;
+                    return;
+                }
+            }
+        }
+        if (properties != null) {
+            properties.clear();
+        }
+    }
+
     private Map<String, SafeCopyProperty> copySafeCopyProperties() {
         Map<String, SafeCopyProperty> copy = new ConcurrentHashMap<>();
         for (Map.Entry<String, SafeCopyProperty> entry : this.safeCopyProperties.entrySet()) {
@@ -408,10 +460,7 @@ abstract class AbstractExchange implements Exchange {
         if (repo != null) {
             repo.setVariable(name, value);
         } else {
-            if (variableRepository == null) {
-                variableRepository = new ExchangeVariableRepository(getContext());
-            }
-            variableRepository.setVariable(name, value);
+            writableVariables().setVariable(name, value);
         }
     }
 
@@ -427,21 +476,58 @@ abstract class AbstractExchange implements Exchange {
             return repo.removeVariable(name);
         } else if (variableRepository != null) {
             if ("*".equals(name)) {
-                variableRepository.clear();
+                clearVariables();
                 return null;
             }
-            return variableRepository.removeVariable(name);
+            return writableVariables().removeVariable(name);
         }
         return null;
     }
 
     @Override
     public Map<String, Object> getVariables() {
+        if (variablesShared) {
+            // the variables may be modified by the caller, but are only copied when they are
+            return new CopyOnWriteMapView(() -> variableRepository != null ? variableRepository.getVariables() : null,
+                    () -> writableVariables().getVariables());
+        }
+        return writableVariables().getVariables();
+    }
+
+    /**
+     * Returns the variables which can be modified, copying the variables first if they are shared with another
+     * exchange
+     */
+    private ExchangeVariableRepository writableVariables() {
         if (variableRepository == null) {
             // force creating variables
             variableRepository = new ExchangeVariableRepository(getContext());
+        } else if (variablesShared) {
+            synchronized (this) {
+                if (variablesShared) {
+                    ExchangeVariableRepository copy = new ExchangeVariableRepository(getContext());
+                    copy.copyFrom(variableRepository);
+                    variableRepository = copy;
+                    variablesShared = false;
+                }
+            }
+        }
+        return variableRepository;
+    }
+
+    void clearVariables() {
+        if (variablesShared) {
+            synchronized (this) {
+                if (variablesShared) {
+                    variableRepository = null;
+                    variablesShared = false;
+                    return;
+                }
+            }
+        }
+        if (variableRepository != null) {
+            variableRepository.clear();
         }
-        return variableRepository.getVariables();
     }
 
     @Override
@@ -687,6 +773,11 @@ abstract class AbstractExchange implements Exchange {
 
     void copyInternalProperties(Exchange target) {
         ((AbstractExchange) target).internalProperties.putAll(internalProperties);
+        if (target != this
+                && internalProperties.get(ExchangePropertyKey.MESSAGE_HISTORY) instanceof CompactMessageHistory history) {
+            // the message history is now shared by both exchanges so it must not be recycled
+            history.markShared();
+        }
     }
 
     Map<String, Object> getInternalProperties() {
@@ -0,0 +1,401 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.support;
+
+import org.zenithblox.Exchange;
+import org.zenithblox.ExchangePropertyKey;
+import org.zenithblox.Message;
+import org.zenithblox.MessageHistory;
+import org.zenithblox.NamedNode;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The list of {@link MessageHistory} stored on the exchange when message history is enabled, which keeps the history
+ * in compact form.
+ * <p/>
+ * Instead of a {@link MessageHistory} per node, the history is kept as arrays of the nodes and their start and elapsed
+ * times in nanos, and the {@link MessageHistory} instances are only created when the list is queried (such as when the
+ * message history is logged on failures). The list is recycled together with pooled exchanges, unless it has been
+ * queried or shared with other exchanges.
+ * <p/>
+ * The message history is updated by the thread routing the exchange, and can be read concurrently (such as by the
+ * inflight repository). When the message history is shared by multiple exchanges, then the updates are guarded by a
+ * lock, as the exchanges may be routed concurrently.
+ */
+public final class CompactMessageHistory extends AbstractList<MessageHistory> implements RandomAccess {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long IN_PROGRESS = -1;
+
+    private final Lock lock = new ReentrantLock();
+    private final Exchange owner;
+    private Node[] nodes = new Node[INITIAL_CAPACITY];
+    // the start time and elapsed time in nanos of each node (the elapsed time is -1 while in progress)
+    private long[] times = new long[INITIAL_CAPACITY * 2];
+    private Message[] messages;
+    // the message history which was added as objects, or shared from the message history this was copied from
+    private MessageHistory[] histories;
+    // written after the arrays are updated, so readers see the added nodes
+    private volatile int size;
+    private volatile boolean shared;
+    private volatile boolean queried;
+    private long createdMillis;
+    private long createdNanos;
+
+    /**
+     * A node in the workflow which is kept in the message history.
+     */
+    public static final class Node {
+
+        private final String workflowId;
+        private final NamedNode node;
+
+        public Node(String workflowId, NamedNode node) {
+            this.workflowId = workflowId;
+            this.node = node;
+        }
+
+        public String getWorkflowId() {
+            return workflowId;
+        }
+
+        public NamedNode getNode() {
+            return node;
+        }
+    }
+
+    private CompactMessageHistory(Exchange owner) {
+        this.owner = owner;
+        this.createdMillis = System.currentTimeMillis();
+        this.createdNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets the message history of the exchange, and creates the message history if the exchange has none.
+     *
+     * @param  exchange the exchange
+     * @return          the message history, or <tt>null</tt> if the exchange has message history which is not compact
+     */
+    public static CompactMessageHistory getOrCreate(Exchange exchange) {
+        Object history = exchange.getProperty(ExchangePropertyKey.MESSAGE_HISTORY);
+        if (history instanceof CompactMessageHistory compact) {
+            return compact;
+        } else if (history != null) {
+            return null;
+        }
+
+        CompactMessageHistory answer = null;
+        if (exchange instanceof DefaultPooledExchange pooled) {
+            answer = pooled.pollMessageHistory();
+        }
+        if (answer == null) {
+            answer = new CompactMessageHistory(exchange);
+        }
+        exchange.setProperty(ExchangePropertyKey.MESSAGE_HISTORY, answer);
+        return answer;
+    }
+
+    /**
+     * Adds the node which is starting processing to the message history.
+     *
+     * @param node    the node
+     * @param message optional copy of the message
+     */
+    public void add(Node node, Message message) {
+        long now = System.nanoTime();
+        boolean locked = shared;
+        if (locked) {
+            lock.lock();
+        }
+        try {
+            int index = size;
+            ensureCapacity(index + 1);
+            nodes[index] = node;
+            times[index * 2] = now;
+            times[index * 2 + 1] = IN_PROGRESS;
+            if (message != null) {
+                if (messages == null) {
+                    messages = new Message[nodes.length];
+                }
+                messages[index] = message;
+            }
+            size = index + 1;
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean add(MessageHistory history) {
+        boolean locked = shared;
+        if (locked) {
+            lock.lock();
+        }
+        try {
+            int index = size;
+            ensureCapacity(index + 1);
+            if (histories == null) {
+                histories = new MessageHistory[nodes.length];
+            }
+            histories[index] = history;
+            size = index + 1;
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Signals that processing of the node is done, for the latest occurrence of the node which is in progress.
+     *
+     * @param node the node in the workflow
+     */
+    public void nodeProcessingDone(NamedNode node) {
+        long now = System.nanoTime();
+        boolean locked = shared;
+        if (locked) {
+            lock.lock();
+        }
+        try {
+            for (int i = size - 1; i >= 0; i--) {
+                Node candidate = nodes[i];
+                if (candidate != null && candidate.node == node && times[i * 2 + 1] == IN_PROGRESS) {
+                    times[i * 2 + 1] = now - times[i * 2];
+                    return;
+                }
+            }
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Gets the elapsed time in millis of the latest node in the message history, which is the time since the node was
+     * created, if the node processing is still in progress.
+     */
+    public long getLatestElapsed() {
+        int index = size - 1;
+        if (index < 0) {
+            return 0;
+        }
+        MessageHistory[] objects = histories;
+        MessageHistory history = objects != null && index < objects.length ? objects[index] : null;
+        if (history != null) {
+            long elapsed = history.getElapsed();
+            return elapsed != 0 ? elapsed : history.getElapsedSinceCreated();
+        }
+        long[] array = times;
+        long elapsed = array[index * 2 + 1];
+        if (elapsed == IN_PROGRESS) {
+            elapsed = System.nanoTime() - array[index * 2];
+        }
+        return TimeUnit.NANOSECONDS.toMillis(elapsed);
+    }
+
+    @Override
+    public MessageHistory get(int index) {
+        int count = size;
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+        // the message history can no longer be recycled
+        queried = true;
+        MessageHistory[] objects = histories;
+        MessageHistory answer = objects != null && index < objects.length ? objects[index] : null;
+        if (answer == null) {
+            answer = new Entry(index);
+        }
+        return answer;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Creates a copy of the message history, to be used by a copy of the exchange.
+     * <p/>
+     * The copy shares the {@link MessageHistory} of the nodes which are still in progress, so they are done in the
+     * copy when they are done in this message history.
+     */
+    public CompactMessageHistory copy() {
+        CompactMessageHistory answer = new CompactMessageHistory(null);
+        answer.createdMillis = createdMillis;
+        answer.createdNanos = createdNanos;
+        int count = size;
+        answer.ensureCapacity(count);
+        System.arraycopy(nodes, 0, answer.nodes, 0, count);
+        System.arraycopy(times, 0, answer.times, 0, count * 2);
+        if (messages != null) {
+            answer.messages = Arrays.copyOf(messages, answer.nodes.length);
+        }
+        for (int i = 0; i < count; i++) {
+            MessageHistory history = histories != null ? histories[i] : null;
+            if (history == null && answer.times[i * 2 + 1] == IN_PROGRESS) {
+                history = get(i);
+            }
+            if (history != null) {
+                if (answer.histories == null) {
+                    answer.histories = new MessageHistory[answer.nodes.length];
+                }
+                answer.histories[i] = history;
+                // the node is done via the shared message history
+                answer.nodes[i] = null;
+            }
+        }
+        answer.size = count;
+        return answer;
+    }
+
+    /**
+     * Marks the message history as shared by multiple exchanges, so it is updated under lock, and is not recycled.
+     */
+    void markShared() {
+        shared = true;
+    }
+
+    /**
+     * Clears the message history so it can be reused by the given exchange, which is done.
+     *
+     * @return <tt>true</tt> if cleared, or <tt>false</tt> if the message history cannot be reused as it belongs to
+     *         another exchange, has been shared, or has been queried
+     */
+    boolean recycle(Exchange exchange) {
+        if (owner != exchange || shared || queried || histories != null) {
+            return false;
+        }
+        size = 0;
+        Arrays.fill(nodes, null);
+        if (messages != null) {
+            Arrays.fill(messages, null);
+        }
+        createdMillis = System.currentTimeMillis();
+        createdNanos = System.nanoTime();
+        return true;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > nodes.length) {
+            int length = Math.max(capacity, nodes.length * 2);
+            nodes = Arrays.copyOf(nodes, length);
+            times = Arrays.copyOf(times, length * 2);
+            if (messages != null) {
+                messages = Arrays.copyOf(messages, length);
+            }
+            if (histories != null) {
+                histories = Arrays.copyOf(histories, length);
+            }
+        }
+    }
+
+    /**
+     * The {@link MessageHistory} of a node in the compact message history, which is created when queried.
+     */
+    private final class Entry implements MessageHistory {
+
+        private final int index;
+        private final Node node;
+        private final Message message;
+
+        private Entry(int index) {
+            this.index = index;
+            this.node = nodes[index];
+            this.message = messages != null ? messages[index] : null;
+        }
+
+        @Override
+        public String getWorkflowId() {
+            return node.getWorkflowId();
+        }
+
+        @Override
+        public NamedNode getNode() {
+            return node.getNode();
+        }
+
+        @Override
+        public long getTime() {
+            return createdMillis + TimeUnit.NANOSECONDS.toMillis(start() - createdNanos);
+        }
+
+        @Override
+        public long getElapsed() {
+            long elapsed = elapsed();
+            return elapsed == IN_PROGRESS ? 0 : TimeUnit.NANOSECONDS.toMillis(elapsed);
+        }
+
+        @Override
+        public long getElapsedSinceCreated() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start());
+        }
+
+        @Override
+        public void nodeProcessingDone() {
+            long now = System.nanoTime();
+            lock.lock();
+            try {
+                long[] array = times;
+                if (array[index * 2 + 1] == IN_PROGRESS) {
+                    array[index * 2 + 1] = now - array[index * 2];
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Message getMessage() {
+            return message;
+        }
+
+        private long start() {
+            return time(0);
+        }
+
+        private long elapsed() {
+            return time(1);
+        }
+
+        private long time(int offset) {
+            // read the size first, so the times written by the thread routing the exchange are visible
+            int count = size;
+            long[] array = times;
+            return index < count ? array[index * 2 + offset] : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "DefaultMessageHistory["
+                   + "workflowId=" + node.getWorkflowId()
+                   + ", node=" + node.getNode().getId()
+                   + ']';
+        }
+    }
+}
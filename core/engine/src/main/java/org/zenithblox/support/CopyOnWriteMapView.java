@@ -0,0 +1,199 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.support;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * A view of a map which is shared between copies of a message or exchange. Reads go to the current map, while
+ * modifications go to the writable map, which is copied from the shared map when it is first modified. This allows
+ * {@link DefaultMessage#getHeaders()} and {@link AbstractExchange#getProperties()} to return a map which can be
+ * modified, without copying the shared map when the caller only reads it.
+ */
+final class CopyOnWriteMapView extends AbstractMap<String, Object> {
+
+    private final Supplier<Map<String, Object>> reader;
+    private final Supplier<Map<String, Object>> writer;
+
+    /**
+     * @param reader returns the current map, which may be shared, or <tt>null</tt> if there is no map
+     * @param writer returns the map which can be modified, copying the shared map first
+     */
+    CopyOnWriteMapView(Supplier<Map<String, Object>> reader, Supplier<Map<String, Object>> writer) {
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    private Map<String, Object> map() {
+        Map<String, Object> map = reader.get();
+        return map != null ? map : Collections.emptyMap();
+    }
+
+    @Override
+    public int size() {
+        return map().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map().containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return map().containsValue(value);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return map().get(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return writer.get().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        // avoid copying the shared map if there is nothing to remove
+        return map().containsKey(key) ? writer.get().remove(key) : null;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        if (!m.isEmpty()) {
+            writer.get().putAll(m);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (!map().isEmpty()) {
+            writer.get().clear();
+        }
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                Iterator<Entry<String, Object>> it = entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return it.next().getKey();
+                    }
+
+                    @Override
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CopyOnWriteMapView.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (containsKey(o)) {
+                    CopyOnWriteMapView.this.remove(o);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                // iterate the map as of now, modifications are written to the writable map
+                Map<String, Object> map = map();
+                Iterator<Entry<String, Object>> it = map.entrySet().iterator();
+                return new Iterator<>() {
+                    private String last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        Entry<String, Object> entry = it.next();
+                        last = entry.getKey();
+                        return new SimpleEntry<>(entry) {
+                            @Override
+                            public Object setValue(Object value) {
+                                super.setValue(value);
+                                return put(getKey(), value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last == null) {
+                            throw new IllegalStateException();
+                        }
+                        Map<String, Object> writable = writer.get();
+                        if (writable == map) {
+                            // the map was not shared
+                            it.remove();
+                        } else {
+                            writable.remove(last);
+                        }
+                        last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CopyOnWriteMapView.this.size();
+            }
+        };
+    }
+}
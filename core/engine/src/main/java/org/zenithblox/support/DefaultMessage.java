@@ -18,6 +18,7 @@ package org.zenithblox.support;
 
 import org.zenithblox.ZwangineContext;
 import org.zenithblox.Exchange;
+import org.zenithblox.Message;
 import org.zenithblox.spi.HeadersMapFactory;
 
 import java.util.HashMap;
@@ -33,9 +34,18 @@ import java.util.function.Supplier;
  * about using exact keys. See more details at {@link org.zenithblox.util.CaseInsensitiveMap}. The implementation of
  * the map can be configured by the {@link HeadersMapFactory} which can be set on the {@link ZwangineContext}. The default
  * implementation uses the {@link org.zenithblox.util.CaseInsensitiveMap CaseInsensitiveMap}.
+ * <p/>
+ * When a message is copied from another {@link DefaultMessage} the headers are shared between both messages, and the
+ * message which first modifies its headers makes its own copy (copy-on-write). This avoids copying all the headers for
+ * every copy of an exchange (such as by the multicast and splitter EIPs) where most copies only read the headers.
+ * While the headers are shared {@link #getHeaders()} returns a view which only copies the headers when it is modified.
+ * Notice that a headers map obtained from {@link #getHeaders()} before the message was copied should not be modified
+ * afterwards.
  */
 public class DefaultMessage extends MessageSupport {
     private Map<String, Object> headers;
+    // whether the headers are shared with another message, and must be copied before they are modified
+    private volatile boolean headersShared;
 
     public DefaultMessage(Exchange exchange) {
         setExchange(exchange);
@@ -52,7 +62,10 @@ public class DefaultMessage extends MessageSupport {
     @Override
     public void reset() {
         super.reset();
-        if (headers != null) {
+        if (headersShared) {
+            headers = null;
+            headersShared = false;
+        } else if (headers != null) {
             headers.clear();
         }
     }
@@ -202,10 +215,7 @@ public class DefaultMessage extends MessageSupport {
 
     @Override
     public void setHeader(String name, Object value) {
-        if (headers == null) {
-            headers = createHeaders();
-        }
-        headers.put(name, value);
+        writableHeaders().put(name, value);
     }
 
     @Override
@@ -214,10 +224,10 @@ public class DefaultMessage extends MessageSupport {
             // force creating headers
             headers = createHeaders();
         }
-        if (headers.isEmpty()) {
+        if (headers.isEmpty() || headersShared && !headers.containsKey(name)) {
             return null;
         }
-        return headers.remove(name);
+        return writableHeaders().remove(name);
     }
 
     @Override
@@ -237,7 +247,7 @@ public class DefaultMessage extends MessageSupport {
 
         // special optimized
         if (excludePatterns == null && "*".equals(pattern)) {
-            headers.clear();
+            clearHeaders();
             return true;
         }
 
@@ -246,8 +256,9 @@ public class DefaultMessage extends MessageSupport {
         if (toBeRemoved != null) {
             if (toBeRemoved.size() == headers.size()) {
                 // special optimization when all should be removed
-                headers.clear();
+                clearHeaders();
             } else {
+                Map<String, Object> headers = writableHeaders();
                 for (String key : toBeRemoved) {
                     headers.remove(key);
                 }
@@ -261,14 +272,16 @@ public class DefaultMessage extends MessageSupport {
 
     @Override
     public Map<String, Object> getHeaders() {
-        if (headers == null) {
-            headers = createHeaders();
+        if (headersShared) {
+            // the headers may be modified by the caller, but are only copied when they are
+            return new CopyOnWriteMapView(() -> headers, this::writableHeaders);
         }
-        return headers;
+        return writableHeaders();
     }
 
     @Override
     public void setHeaders(Map<String, Object> headers) {
+        this.headersShared = false;
         HeadersMapFactory factory = zwangineContext.getZwangineContextExtension().getHeadersMapFactory();
         if (factory != null) {
             if (factory.isInstanceOf(headers)) {
@@ -292,6 +305,74 @@ public class DefaultMessage extends MessageSupport {
         return !headers.isEmpty();
     }
 
+    @Override
+    protected void copyHeadersFrom(Message that) {
+        if (that instanceof DefaultMessage other) {
+            if (other.headers == null) {
+                // force creating headers
+                other.headers = other.createHeaders();
+            }
+            if (other.headers == headers) {
+                // already the same headers
+                return;
+            }
+            if (other.headers.isEmpty()) {
+                if (headers != null && !headers.isEmpty()) {
+                    clearHeaders();
+                }
+                return;
+            }
+            // share the headers until either message modifies them
+            other.headersShared = true;
+            headers = other.headers;
+            headersShared = true;
+            return;
+        }
+        super.copyHeadersFrom(that);
+    }
+
+    /**
+     * Returns the headers which can be modified, copying the headers first if they are shared with another message
+     */
+    private Map<String, Object> writableHeaders() {
+        if (headers == null) {
+            headers = createHeaders();
+        } else if (headersShared) {
+            synchronized (this) {
+                if (headersShared) {
+                    headers = newHeadersMap(headers);
+                    headersShared = false;
+                }
+            }
+        }
+        return headers;
+    }
+
+    private void clearHeaders() {
+        if (headersShared) {
+            synchronized (this) {
+                if (headersShared) {
+                    headers = newHeadersMap(null);
+                    headersShared = false;
+                    return;
+                }
+            }
+        }
+        if (headers != null) {
+            headers.clear();
+        }
+    }
+
+    private Map<String, Object> newHeadersMap(Map<String, Object> source) {
+        HeadersMapFactory factory = zwangineContext.getZwangineContextExtension().getHeadersMapFactory();
+        if (factory != null) {
+            return source != null ? factory.newMap(source) : factory.newMap();
+        } else {
+            // should not really happen but some tests rely on using zwangine context that is not started
+            return source != null ? new HashMap<>(source) : new HashMap<>();
+        }
+    }
+
     @Override
     public DefaultMessage newInstance() {
         return new DefaultMessage(zwangineContext);
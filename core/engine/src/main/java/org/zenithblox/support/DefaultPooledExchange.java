@@ -31,6 +31,7 @@ public final class DefaultPooledExchange extends AbstractExchange implements Poo
     private Message originalOut;
     private final ExchangePattern originalPattern;
     private boolean autoRelease;
+    private CompactMessageHistory messageHistory;
 
     public DefaultPooledExchange(ZwangineContext context) {
         super(context);
@@ -85,7 +86,13 @@ public final class DefaultPooledExchange extends AbstractExchange implements Poo
             // by unsetting (setting to 0) we also flag that this exchange is done and needs to be reset to use again
             clock.unset();
 
-            this.properties.clear();
+            // keep the message history for reuse
+            if (internalProperties.get(ExchangePropertyKey.MESSAGE_HISTORY) instanceof CompactMessageHistory history
+                    && history.recycle(this)) {
+                messageHistory = history;
+            }
+
+            clearProperties();
             internalProperties.clear();
             if (this.safeCopyProperties != null) {
                 this.safeCopyProperties.clear();
@@ -117,6 +124,12 @@ public final class DefaultPooledExchange extends AbstractExchange implements Poo
         }
     }
 
+    CompactMessageHistory pollMessageHistory() {
+        CompactMessageHistory answer = messageHistory;
+        messageHistory = null;
+        return answer;
+    }
+
     @Override
     @Deprecated(since = "4.4.0")
     public void reset(long created) {
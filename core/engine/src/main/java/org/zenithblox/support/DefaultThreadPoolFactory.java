@@ -51,6 +51,11 @@ public class DefaultThreadPoolFactory extends ServiceSupport implements Zwangine
 
     @Override
     public ExecutorService newThreadPool(ThreadPoolProfile profile, ThreadFactory factory) {
+        if (Boolean.TRUE.equals(profile.getVirtualThreads())) {
+            // a thread per task, where the max pool size is the max number of tasks executing concurrently
+            return newVirtualThreadPool(profile.getMaxPoolSize(), profile.getMaxQueueSize(), profile.getRejectedPolicy(),
+                    factory);
+        }
         // allow core thread timeout is default true if not configured
         boolean allow = profile.getAllowCoreThreadTimeOut() != null ? profile.getAllowCoreThreadTimeOut() : true;
         return newThreadPool(profile.getPoolSize(),
@@ -88,6 +93,24 @@ public class DefaultThreadPoolFactory extends ServiceSupport implements Zwangine
         return ThreadPoolFactoryType.from(threadFactory, profile).newScheduledThreadPool(profile, threadFactory);
     }
 
+    /**
+     * Creates a thread pool which executes each task in a new thread, and uses a semaphore to limit the number of tasks
+     * executing concurrently, instead of a bounded number of threads.
+     *
+     * @param  maxConcurrency the max number of tasks executing concurrently
+     * @param  maxQueueSize   the max number of tasks waiting to be executed, when the max number of tasks are executing
+     * @param  rejectedPolicy the policy for tasks which cannot be executed, or <tt>null</tt> to use caller runs
+     * @param  threadFactory  the thread factory, which should create virtual threads
+     * @return                the created thread pool
+     */
+    public ExecutorService newVirtualThreadPool(
+            int maxConcurrency, int maxQueueSize, ThreadPoolRejectedPolicy rejectedPolicy, ThreadFactory threadFactory) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("MaxPoolSize must be > 0, was " + maxConcurrency);
+        }
+        return new SizedVirtualThreadExecutorService(threadFactory, maxConcurrency, maxQueueSize, rejectedPolicy);
+    }
+
     private enum ThreadPoolFactoryType {
         PLATFORM {
             ExecutorService newCachedThreadPool(ThreadFactory threadFactory) {
@@ -157,7 +180,9 @@ public class DefaultThreadPoolFactory extends ServiceSupport implements Zwangine
                                           int maxQueueSize, boolean allowCoreThreadTimeOut,
                                           RejectedExecutionHandler rejectedExecutionHandler,
                                           ThreadFactory threadFactory) throws IllegalArgumentException {
-                return Executors.newThreadPerTaskExecutor(threadFactory);
+                // only the policies of the JDK and zwangine can be applied without a thread pool executor
+                return new SizedVirtualThreadExecutorService(
+                        threadFactory, maxPoolSize, maxQueueSize, rejectedExecutionHandler);
             }
 
             @Override
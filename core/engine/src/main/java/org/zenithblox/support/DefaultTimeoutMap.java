@@ -52,6 +52,7 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
     private volatile ScheduledFuture<?> future;
     private final long purgePollTime;
     private final Lock lock;
+    private final TimeoutMapStatistics statistics = new TimeoutMapStatistics();
 
     private final List<Listener<K, V>> listeners = new ArrayList<>(2);
 
@@ -199,6 +200,7 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
                 // and must remove from list after we have fired the notifications
                 for (TimeoutMapEntry<K, V> entry : expired) {
                     map.remove(entry.getKey());
+                    statistics.onEviction(now - entry.getExpireTime());
                 }
             }
         } finally {
@@ -220,6 +222,13 @@ public class DefaultTimeoutMap<K, V> extends ServiceSupport implements TimeoutMa
         return executor;
     }
 
+    /**
+     * Statistics of the evicted entries, such as how late they are evicted after they have expired.
+     */
+    public TimeoutMapStatistics getStatistics() {
+        return statistics;
+    }
+
     // Implementation methods
     // -------------------------------------------------------------------------
 
@@ -22,6 +22,7 @@ import org.zenithblox.spi.UnitOfWork;
 import org.zenithblox.spi.VariableRepository;
 import org.zenithblox.spi.VariableRepositoryFactory;
 import org.zenithblox.util.IOHelper;
+import org.zenithblox.util.MappedFileTokenizer;
 import org.zenithblox.util.ObjectHelper;
 import org.zenithblox.util.Scanner;
 import org.zenithblox.util.StringHelper;
@@ -47,6 +48,7 @@ public final class ExchangeHelper {
     private static final String DEFAULT_CHARSET_NAME
             = ObjectHelper.getSystemProperty(Exchange.DEFAULT_CHARSET_PROPERTY, "UTF-8");
     private static final Charset DEFAULT_CHARSET = Charset.forName(DEFAULT_CHARSET_NAME);
+    private static final long DEFAULT_TOKENIZE_MEMORY_MAPPED_THRESHOLD = 16 * 1024 * 1024;
 
     private static Exchange DUMMY;
 
@@ -349,7 +351,10 @@ public final class ExchangeHelper {
             copyFromInMessage(result, source, preserverPattern);
         }
 
-        if (source.hasProperties()) {
+        if (source instanceof AbstractExchange ae && result instanceof AbstractExchange re) {
+            // avoid copying properties which can be shared
+            ae.copyPropertiesTo(re);
+        } else if (source.hasProperties()) {
             result.getProperties().putAll(source.getProperties());
         }
 
@@ -809,7 +814,9 @@ public final class ExchangeHelper {
      */
     private static void setMessageHistory(Exchange target, Exchange source) {
         final Object history = source.getProperty(ExchangePropertyKey.MESSAGE_HISTORY);
-        if (history != null) {
+        if (history instanceof CompactMessageHistory compact) {
+            target.setProperty(ExchangePropertyKey.MESSAGE_HISTORY, compact.copy());
+        } else if (history != null) {
             // use thread-safe list as message history may be accessed concurrently
             target.setProperty(ExchangePropertyKey.MESSAGE_HISTORY, new CopyOnWriteArrayList<>((List<MessageHistory>) history));
         }
@@ -967,6 +974,95 @@ public final class ExchangeHelper {
         return DEFAULT_CHARSET;
     }
 
+    /**
+     * Creates a {@link MappedFileTokenizer} for tokenizing the given value, if the value is a file which is at least as
+     * large as the threshold configured with the {@link Exchange#TOKENIZE_MEMORY_MAPPED_THRESHOLD} global option (16mb
+     * by default, use -1 to turn off), and the delimiter and charset are supported by the memory mapped tokenizer.
+     *
+     * @param  exchange  the current exchange
+     * @param  value     the value, typically the message IN body
+     * @param  delimiter the delimiter to use
+     * @return           the tokenizer, or <tt>null</tt> if the value should be scanned with {@link #getScanner(Exchange,
+     *                   Object, String)} instead
+     */
+    public static MappedFileTokenizer getMappedFileTokenizer(Exchange exchange, Object value, String delimiter) {
+        return getMappedFileTokenizer(exchange, value, delimiter,
+                getMappedFileTokenizerThreshold(exchange.getContext()));
+    }
+
+    /**
+     * Creates a {@link MappedFileTokenizer} for tokenizing the given value, if the value is a file which is at least as
+     * large as the given threshold, and the delimiter and charset are supported by the memory mapped tokenizer.
+     *
+     * @param  exchange  the current exchange
+     * @param  value     the value, typically the message IN body
+     * @param  delimiter the delimiter to use
+     * @param  threshold the minimum file size in bytes, or <tt>-1</tt> to never use the memory mapped tokenizer
+     * @return           the tokenizer, or <tt>null</tt> if the value should be scanned with {@link #getScanner(Exchange,
+     *                   Object, String)} instead
+     * @see              #getMappedFileTokenizerThreshold(ZwangineContext)
+     */
+    public static MappedFileTokenizer getMappedFileTokenizer(
+            Exchange exchange, Object value, String delimiter, long threshold) {
+        if (value instanceof WrappedFile<?> gf) {
+            Object body = gf.getBody();
+            if (body != null) {
+                // the body is the real file (such as java.io.File from the file component), or its loaded content
+                value = body;
+            } else {
+                value = gf.getFile();
+            }
+        }
+        Path path;
+        if (value instanceof File file) {
+            path = file.toPath();
+        } else if (value instanceof Path p) {
+            path = p;
+        } else {
+            return null;
+        }
+
+        String charset = exchange.getProperty(ExchangePropertyKey.CHARSET_NAME, String.class);
+        if (threshold < 0 || !MappedFileTokenizer.isSupported(delimiter, charset)) {
+            return null;
+        }
+        try {
+            if (Files.size(path) < threshold) {
+                return null;
+            }
+            return new MappedFileTokenizer(path, charset, delimiter);
+        } catch (IOException e) {
+            throw new RuntimeZwangineException(e);
+        }
+    }
+
+    /**
+     * Gets the minimum file size in bytes for tokenizing a file with the {@link MappedFileTokenizer}, which is configured
+     * with the {@link Exchange#TOKENIZE_MEMORY_MAPPED_THRESHOLD} global option (16mb by default).
+     *
+     * @param  zwangineContext          the zwangine context
+     * @return                          the threshold, or <tt>-1</tt> if the memory mapped tokenizer is turned off
+     * @throws IllegalArgumentException if the option is not a positive number or -1
+     */
+    public static long getMappedFileTokenizerThreshold(ZwangineContext zwangineContext) {
+        String option = zwangineContext.getGlobalOption(Exchange.TOKENIZE_MEMORY_MAPPED_THRESHOLD);
+        if (ObjectHelper.isEmpty(option)) {
+            return DEFAULT_TOKENIZE_MEMORY_MAPPED_THRESHOLD;
+        }
+        long threshold;
+        try {
+            threshold = Long.parseLong(option.trim());
+        } catch (NumberFormatException e) {
+            threshold = 0;
+        }
+        if (threshold <= 0 && threshold != -1) {
+            throw new IllegalArgumentException(
+                    "The global option " + Exchange.TOKENIZE_MEMORY_MAPPED_THRESHOLD
+                                               + " must be a positive number of bytes, or -1 to turn off, was: " + option);
+        }
+        return threshold;
+    }
+
     /**
      * Creates a {@link Scanner} for scanning the given value.
      *
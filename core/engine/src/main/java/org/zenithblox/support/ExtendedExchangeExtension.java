@@ -315,9 +315,7 @@ public class ExtendedExchangeExtension implements ExchangeExtension {
         if (this.onCompletions != null) {
             this.onCompletions.clear();
         }
-        if (this.exchange.variableRepository != null) {
-            this.exchange.variableRepository.clear();
-        }
+        this.exchange.clearVariables();
 
         setHistoryNodeId(null);
         setHistoryNodeLabel(null);
@@ -21,6 +21,7 @@ import org.zenithblox.Exchange;
 import org.zenithblox.NoTypeConversionAvailableException;
 import org.zenithblox.RuntimeZwangineException;
 import org.zenithblox.util.IOHelper;
+import org.zenithblox.util.MappedFileTokenizer;
 import org.zenithblox.util.Scanner;
 
 import java.io.ByteArrayOutputStream;
@@ -69,6 +70,8 @@ public final class GroupTokenIterator implements Iterator<Object>, Closeable {
         // so we need to use the actual evaluated delimiter as token
         if (LanguageSupport.hasSimpleFunction(token) && it instanceof Scanner scanner) {
             this.token = scanner.getDelim();
+        } else if (LanguageSupport.hasSimpleFunction(token) && it instanceof MappedFileTokenizer tokenizer) {
+            this.token = tokenizer.getDelim();
         } else {
             this.token = token;
         }
@@ -210,6 +210,15 @@ public abstract class MessageSupport implements Message, ZwangineContextAware, D
         // should likely not set DataType as the new body may be a different type than the original body
         setBody(newBody);
 
+        copyHeadersFrom(that);
+    }
+
+    /**
+     * Copies the headers from the given message, replacing the headers of this message
+     *
+     * @param that the message to copy the headers from
+     */
+    protected void copyHeadersFrom(Message that) {
         // the headers may be the same instance if the end user has made some mistake
         // and set the OUT message with the same header instance of the IN message etc
         if (!sameHeaders(that)) {
@@ -18,6 +18,7 @@ package org.zenithblox.support;
 
 import org.zenithblox.ZwangineContext;
 import org.zenithblox.ExtendedZwangineContext;
+import org.zenithblox.RuntimeZwangineException;
 import org.zenithblox.catalog.RuntimeZwangineCatalog;
 import org.zenithblox.health.HealthCheckResolver;
 import org.zenithblox.spi.*;
@@ -531,4 +532,54 @@ public final class PluginHelper {
             ExtendedZwangineContext extendedZwangineContext) {
         return extendedZwangineContext.getContextPlugin(AnnotationBasedProcessorFactory.class);
     }
+
+    /**
+     * Gets the {@link ZwangineMetricsService} if metrics are enabled (the service is a context plugin or is bound in
+     * the registry), or <tt>null</tt> if metrics are not enabled.
+     */
+    public static ZwangineMetricsService getZwangineMetricsService(ZwangineContext zwangineContext) {
+        ExtendedZwangineContext extendedZwangineContext = zwangineContext.getZwangineContextExtension();
+        ZwangineMetricsService answer = getZwangineMetricsService(extendedZwangineContext);
+        if (answer == null) {
+            // this is called for every processor, and metrics are not enabled by default,
+            // so remember the outcome of the registry lookup (also when it is not found)
+            MetricsServiceLookup lookup = extendedZwangineContext.getContextPlugin(MetricsServiceLookup.class);
+            if (lookup == null) {
+                lookup = new MetricsServiceLookup(lookupZwangineMetricsService(zwangineContext));
+                extendedZwangineContext.addContextPlugin(MetricsServiceLookup.class, lookup);
+            }
+            answer = lookup.metricsService();
+        }
+        return answer;
+    }
+
+    private static ZwangineMetricsService lookupZwangineMetricsService(ZwangineContext zwangineContext) {
+        if (zwangineContext.getRegistry() == null) {
+            return null;
+        }
+        ZwangineMetricsService answer = zwangineContext.getRegistry().findSingleByType(ZwangineMetricsService.class);
+        if (answer != null) {
+            // a service bound in the registry must be added to the context, so it is started and stopped with it
+            answer.setZwangineContext(zwangineContext);
+            try {
+                zwangineContext.addService(answer);
+            } catch (Exception e) {
+                throw RuntimeZwangineException.wrapRuntimeZwangineException(e);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Gets the {@link ZwangineMetricsService} if it is a context plugin, or <tt>null</tt>.
+     */
+    public static ZwangineMetricsService getZwangineMetricsService(ExtendedZwangineContext extendedZwangineContext) {
+        return extendedZwangineContext.getContextPlugin(ZwangineMetricsService.class);
+    }
+
+    /**
+     * The {@link ZwangineMetricsService} found in the registry, or <tt>null</tt> if none was found.
+     */
+    private record MetricsServiceLookup(ZwangineMetricsService metricsService) {
+    }
 }
@@ -44,6 +44,7 @@ public abstract class SimpleEventNotifierSupport extends ServiceSupport implemen
     boolean ignoreExchangeSendingEvents;
     boolean ignoreExchangeSentEvents;
     boolean ignoreStepEvents;
+    boolean async;
 
     public SimpleEventNotifierSupport() {
         setupIgnore(true);
@@ -75,6 +76,20 @@ public abstract class SimpleEventNotifierSupport extends ServiceSupport implemen
         return false;
     }
 
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Whether the events are delivered asynchronously, in batches on a dedicated thread.
+     *
+     * @see EventNotifier#isAsync()
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
     @Override
     public boolean isIgnoreZwangineContextInitEvents() {
         return ignoreZwangineContextInitEvents;
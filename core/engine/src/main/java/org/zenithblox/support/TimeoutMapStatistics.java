@@ -0,0 +1,75 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.support;
+
+import org.zenithblox.TimeoutMap;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the entries evicted by a {@link TimeoutMap}.
+ * <p/>
+ * The expiry lag is the time from when an entry expired until it was evicted, which depends on how often the timeout
+ * map checks for expired entries, and how long it takes to find them.
+ */
+public class TimeoutMapStatistics {
+
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder totalLag = new LongAdder();
+    private final LongAccumulator maxLag = new LongAccumulator(Math::max, 0);
+
+    void onEviction(long lag) {
+        evicted.increment();
+        totalLag.add(lag);
+        maxLag.accumulate(lag);
+    }
+
+    /**
+     * Number of entries evicted
+     */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    /**
+     * Largest expiry lag in millis
+     */
+    public long getMaxExpiryLag() {
+        return maxLag.get();
+    }
+
+    /**
+     * Average expiry lag in millis
+     */
+    public long getMeanExpiryLag() {
+        long count = evicted.sum();
+        return count > 0 ? totalLag.sum() / count : 0;
+    }
+
+    public void reset() {
+        evicted.reset();
+        totalLag.reset();
+        maxLag.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "TimeoutMapStatistics[evicted=" + getEvictedCount() + ", maxExpiryLag=" + getMaxExpiryLag()
+               + ", meanExpiryLag=" + getMeanExpiryLag() + "]";
+    }
+}
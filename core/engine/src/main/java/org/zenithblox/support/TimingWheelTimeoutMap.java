@@ -0,0 +1,458 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.support;
+
+import org.zenithblox.TimeoutMap;
+import org.zenithblox.support.service.ServiceSupport;
+import org.zenithblox.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Comparator.comparing;
+import static org.zenithblox.TimeoutMap.Listener.Type.*;
+
+/**
+ * A {@link TimeoutMap} which keeps track of when the entries expire using a hierarchical timing wheel, instead of
+ * checking every entry each time the map is polled as {@link DefaultTimeoutMap} does. This is faster when the map
+ * holds many entries.
+ * <p/>
+ * The time is divided in ticks of the purge poll time, and the entries are kept in buckets by the tick they expire at.
+ * The first wheel has a bucket for each of the next 64 ticks, and each bucket of the next wheel covers all the buckets
+ * of the previous wheel, and so on. Adding, updating and removing an entry takes constant time. Each poll only has to
+ * look at the buckets of the ticks that have passed, and when a wheel has gone round the entries of the next bucket of
+ * the next wheel are moved down to the previous wheels.
+ * <p/>
+ * As with {@link DefaultTimeoutMap} an entry is evicted within a purge poll time after it has expired, and the map is
+ * thread safe when locking is enabled. You must provide a {@link ScheduledExecutorService} in the constructor which is
+ * used to schedule the background task which evicts the expired entries, invoke {@link #start()} before the map is
+ * used, and invoke {@link #stop()} when no longer in use.
+ */
+public class TimingWheelTimeoutMap<K, V> extends ServiceSupport implements TimeoutMap<K, V> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int WHEELS = 6;
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ConcurrentMap<K, WheelEntry<K, V>> map = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    private volatile ScheduledFuture<?> future;
+    private final long purgePollTime;
+    private final Lock lock;
+    private final TimeoutMapStatistics statistics = new TimeoutMapStatistics();
+    // the buckets of all the wheels, where each bucket is the head of a circular list of entries
+    private final WheelEntry<K, V>[] buckets;
+    // the next tick to process, as the ticks before have been processed
+    private long currentTick;
+
+    private final List<Listener<K, V>> listeners = new ArrayList<>(2);
+
+    public TimingWheelTimeoutMap(ScheduledExecutorService executor) {
+        this(executor, 1000);
+    }
+
+    public TimingWheelTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis) {
+        this(executor, requestMapPollTimeMillis, true);
+    }
+
+    public TimingWheelTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis, boolean useLock) {
+        this(executor, requestMapPollTimeMillis, useLock ? new ReentrantLock() : NoLock.INSTANCE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TimingWheelTimeoutMap(ScheduledExecutorService executor, long requestMapPollTimeMillis, Lock lock) {
+        ObjectHelper.notNull(executor, "ScheduledExecutorService");
+        if (requestMapPollTimeMillis <= 0) {
+            throw new IllegalArgumentException("The purge poll time must be positive, was: " + requestMapPollTimeMillis);
+        }
+        this.executor = executor;
+        this.purgePollTime = requestMapPollTimeMillis;
+        this.lock = lock;
+        this.buckets = new WheelEntry[WHEELS * WHEEL_SIZE];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new WheelEntry<>(null, null, 0);
+        }
+        this.currentTick = tickOf(currentTime());
+    }
+
+    @Override
+    public V get(K key) {
+        WheelEntry<K, V> entry;
+        // if no contains, the lock is not necessary
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        lock.lock();
+        try {
+            entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            updateExpireTime(entry);
+            unlink(entry);
+            schedule(entry);
+        } finally {
+            lock.unlock();
+        }
+        return entry.getValue();
+    }
+
+    @Override
+    public V put(K key, V value, long timeoutMillis) {
+        WheelEntry<K, V> entry = new WheelEntry<>(key, value, timeoutMillis);
+        lock.lock();
+        try {
+            updateExpireTime(entry);
+            WheelEntry<K, V> result = map.put(key, entry);
+            if (result != null) {
+                unlink(result);
+            }
+            schedule(entry);
+            return unwrap(result);
+        } finally {
+            lock.unlock();
+            emitEvent(Put, key, value);
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value, long timeoutMillis) {
+        WheelEntry<K, V> entry = new WheelEntry<>(key, value, timeoutMillis);
+        WheelEntry<K, V> result = null;
+        lock.lock();
+        try {
+            updateExpireTime(entry);
+            //Just make sure we don't override the old entry
+            result = map.putIfAbsent(key, entry);
+            if (result == null) {
+                schedule(entry);
+            }
+            return unwrap(result);
+        } finally {
+            lock.unlock();
+            if (result == null) {
+                emitEvent(Put, key, value); // conditional on map being changed
+            }
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        // if no contains, the lock is not necessary
+        if (!map.containsKey(key)) {
+            return null;
+        }
+
+        V value = null;
+        lock.lock();
+        try {
+            WheelEntry<K, V> entry = map.remove(key);
+            if (entry != null) {
+                unlink(entry);
+                value = entry.getValue();
+            }
+            return value;
+        } finally {
+            lock.unlock();
+            if (value != null) {
+                emitEvent(Remove, key, value); // conditional on map being changed
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * The timer task which purges old requests and schedules another poll
+     */
+    private void purgeTask() {
+        // only purge if allowed
+        if (!isRunAllowed()) {
+            log.trace("Purge task not allowed to run");
+            return;
+        }
+
+        log.trace("Running purge task to see if any entries have been timed out");
+        try {
+            purge();
+        } catch (Exception t) {
+            // must catch and log exception otherwise the executor will now schedule next purgeTask
+            log.warn("Exception occurred during purge task. This exception will be ignored.", t);
+        }
+    }
+
+    protected void purge() {
+        log.trace("There are {} in the timeout map", map.size());
+
+        long now = currentTime();
+        long nowTick = tickOf(now);
+
+        List<WheelEntry<K, V>> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            if (map.isEmpty()) {
+                // all the buckets are empty so there is no need to go through the ticks
+                currentTick = Math.max(currentTick, nowTick + 1);
+                return;
+            }
+            while (currentTick <= nowTick) {
+                long tick = currentTick;
+                // when a wheel has gone round then move the entries of the next bucket of the next wheel down
+                for (int wheel = 1; wheel < WHEELS && (tick & ((1L << WHEEL_BITS * wheel) - 1)) == 0; wheel++) {
+                    WheelEntry<K, V> entry = detach(buckets[wheel * WHEEL_SIZE + slot(tick, wheel)]);
+                    while (entry != null) {
+                        WheelEntry<K, V> next = entry.next;
+                        link(entry);
+                        entry = next;
+                    }
+                }
+                // the entries of the bucket of the first wheel expire at this tick
+                WheelEntry<K, V> entry = detach(buckets[slot(tick, 0)]);
+                while (entry != null) {
+                    WheelEntry<K, V> next = entry.next;
+                    entry.next = null;
+                    if (entry.deadline <= tick && isValidForEviction(entry)) {
+                        log.debug("Evicting inactive entry ID: {}", entry);
+                        expired.add(entry);
+                    } else {
+                        // try again on the next tick
+                        entry.deadline = Math.max(entry.deadline, tick + 1);
+                        link(entry);
+                    }
+                    entry = next;
+                }
+                currentTick++;
+            }
+            // the entries of the tick which has not yet passed may also have expired
+            WheelEntry<K, V> head = buckets[slot(currentTick, 0)];
+            WheelEntry<K, V> pending = head.next;
+            while (pending != head) {
+                WheelEntry<K, V> next = pending.next;
+                if (pending.getExpireTime() < now && isValidForEviction(pending)) {
+                    log.debug("Evicting inactive entry ID: {}", pending);
+                    unlink(pending);
+                    expired.add(pending);
+                }
+                pending = next;
+            }
+
+            if (!expired.isEmpty()) {
+                // sort according to the expired time so we got the first expired first
+                expired.sort(comparing(TimeoutMapEntry::getExpireTime));
+                for (WheelEntry<K, V> entry : expired) {
+                    map.remove(entry.getKey(), entry);
+                    statistics.onEviction(now - entry.getExpireTime());
+                }
+            }
+        } finally {
+            lock.unlock();
+            for (WheelEntry<K, V> entry : expired) {
+                emitEvent(Evict, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    // Properties
+    // -------------------------------------------------------------------------
+
+    public long getPurgePollTime() {
+        return purgePollTime;
+    }
+
+    public ScheduledExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Statistics of the evicted entries, such as how late they are evicted after they have expired.
+     */
+    public TimeoutMapStatistics getStatistics() {
+        return statistics;
+    }
+
+    // Implementation methods
+    // -------------------------------------------------------------------------
+
+    private static <K, V> V unwrap(TimeoutMapEntry<K, V> entry) {
+        return entry == null ? null : entry.getValue();
+    }
+
+    private long tickOf(long time) {
+        return Math.floorDiv(time, purgePollTime);
+    }
+
+    private static int slot(long tick, int wheel) {
+        return (int) (tick >>> WHEEL_BITS * wheel) & WHEEL_MASK;
+    }
+
+    /**
+     * Schedules the entry to expire at the first tick after its expire time.
+     */
+    private void schedule(WheelEntry<K, V> entry) {
+        entry.deadline = Math.max(tickOf(entry.getExpireTime()) + 1, currentTick);
+        link(entry);
+    }
+
+    /**
+     * Adds the entry to the bucket of its deadline, which is in the first wheel where the bucket is within one round
+     * of the wheel from the current tick.
+     */
+    private void link(WheelEntry<K, V> entry) {
+        long deadline = entry.deadline;
+        long delta = deadline - currentTick;
+        int wheel = 0;
+        while (wheel < WHEELS - 1 && delta >= 1L << WHEEL_BITS * (wheel + 1)) {
+            wheel++;
+        }
+        if (delta >= 1L << WHEEL_BITS * WHEELS) {
+            // beyond the last wheel, so keep it in the last bucket, from where it is moved down later
+            deadline = currentTick + (1L << WHEEL_BITS * WHEELS) - 1;
+        }
+        WheelEntry<K, V> head = buckets[wheel * WHEEL_SIZE + slot(deadline, wheel)];
+        entry.prev = head.prev;
+        entry.next = head;
+        head.prev.next = entry;
+        head.prev = entry;
+    }
+
+    private static <K, V> void unlink(WheelEntry<K, V> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+        }
+    }
+
+    /**
+     * Removes all the entries from the bucket.
+     *
+     * @return the first of the removed entries, which are linked by their next entry, or <tt>null</tt> if the bucket
+     *         was empty
+     */
+    private static <K, V> WheelEntry<K, V> detach(WheelEntry<K, V> head) {
+        if (head.next == head) {
+            return null;
+        }
+        WheelEntry<K, V> first = head.next;
+        head.prev.next = null;
+        head.next = head;
+        head.prev = head;
+        for (WheelEntry<K, V> entry = first; entry != null; entry = entry.next) {
+            entry.prev = null;
+        }
+        return first;
+    }
+
+    @Override
+    public void addListener(Listener<K, V> listener) {
+        this.listeners.add(listener);
+    }
+
+    private void emitEvent(Listener.Type type, K key, V value) {
+        for (Listener<K, V> listener : listeners) {
+            try {
+                listener.timeoutMapEvent(type, key, value);
+            } catch (Exception t) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     * lets schedule each time to allow folks to change the time at runtime
+     */
+    protected void schedulePoll() {
+        future = executor.scheduleWithFixedDelay(this::purgeTask, 0, purgePollTime, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A hook to allow derivations to avoid evicting the current entry
+     */
+    protected boolean isValidForEviction(TimeoutMapEntry<K, V> entry) {
+        return true;
+    }
+
+    protected void updateExpireTime(TimeoutMapEntry<K, V> entry) {
+        long now = currentTime();
+        entry.setExpireTime(entry.getTimeout() + now);
+    }
+
+    protected long currentTime() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (executor.isShutdown()) {
+            throw new IllegalStateException("The ScheduledExecutorService is shutdown");
+        }
+        schedulePoll();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+        // clear map if we stop
+        lock.lock();
+        try {
+            map.clear();
+            for (WheelEntry<K, V> head : buckets) {
+                head.next = head;
+                head.prev = head;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * An entry which is linked in the bucket of the tick it expires at.
+     */
+    private static final class WheelEntry<K, V> extends TimeoutMapEntry<K, V> {
+        private long deadline;
+        private WheelEntry<K, V> prev;
+        private WheelEntry<K, V> next;
+
+        WheelEntry(K key, V value, long timeout) {
+            super(key, value, timeout);
+            if (key == null) {
+                // the head of a bucket
+                this.prev = this;
+                this.next = this;
+            }
+        }
+    }
+}
@@ -1690,11 +1690,24 @@ public class ExpressionBuilder {
             final Expression expression,
             final Expression token) {
         return new ExpressionAdapter() {
+            // the threshold of the memory mapped tokenizer is resolved once when initialized
+            private volatile Long mappedThreshold;
+
             @Override
             public Object evaluate(Exchange exchange) {
                 String text = token.evaluate(exchange, String.class);
                 Object value = expression.evaluate(exchange, Object.class);
-                return ExchangeHelper.getScanner(exchange, value, text);
+                Long threshold = mappedThreshold;
+                if (threshold == null) {
+                    threshold = ExchangeHelper.getMappedFileTokenizerThreshold(exchange.getContext());
+                    mappedThreshold = threshold;
+                }
+                // large files are tokenized by scanning the bytes of the memory mapped file
+                Iterator<String> answer = ExchangeHelper.getMappedFileTokenizer(exchange, value, text, threshold);
+                if (answer == null) {
+                    answer = ExchangeHelper.getScanner(exchange, value, text);
+                }
+                return answer;
             }
 
             @Override
@@ -1702,6 +1715,7 @@ public class ExpressionBuilder {
                 super.init(context);
                 expression.init(context);
                 token.init(context);
+                mappedThreshold = ExchangeHelper.getMappedFileTokenizerThreshold(context);
             }
 
             @Override
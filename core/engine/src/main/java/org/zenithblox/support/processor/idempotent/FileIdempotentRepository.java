@@ -50,6 +50,9 @@ import java.util.concurrent.locks.ReentrantLock;
  * this off and have unlimited size). If the file store grows bigger than the maximum capacity, then the
  * {@link #getDropOldestFileStore()} (is default 1000) number of entries from the file store is dropped to reduce the
  * file store and make room for newer entries.
+ * <p/>
+ * For stores with a very large number of keys then consider using {@link SegmentedFileIdempotentRepository} which
+ * keeps an index of all the keys in memory and never scans the file store.
  */
 @Metadata(label = "bean",
           description = "A file based idempotent repository. Comes with 1st-level in-memory cache for fast check of the most frequently used keys.",
@@ -0,0 +1,741 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.support.processor.idempotent;
+
+import org.zenithblox.RuntimeZwangineException;
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.ZwangineContextAware;
+import org.zenithblox.spi.Configurer;
+import org.zenithblox.spi.IdempotentRepository;
+import org.zenithblox.spi.Metadata;
+import org.zenithblox.support.service.ServiceSupport;
+import org.zenithblox.util.FileUtil;
+import org.zenithblox.util.IOHelper;
+import org.zenithblox.util.ObjectHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A file based implementation of {@link org.zenithblox.spi.IdempotentRepository} for very large stores.
+ * <p/>
+ * Unlike {@link FileIdempotentRepository}, which scans the store file on a 1st-level cache miss, this implementation
+ * keeps a complete in-memory hash index of all keys, so {@link #add(String)} and {@link #contains(String)} are O(1)
+ * and never read from disk. The keys are written to an append-only log split into segment files in the given
+ * {@link #getDirectory() directory}. A segment file uses the same format as the {@link FileIdempotentRepository} file
+ * store (one key per line), except that removed keys are recorded as a tombstone line (the key prefixed with a NUL
+ * character). An existing file store from {@link FileIdempotentRepository} can therefore be migrated by setting it as
+ * {@link #setLegacyFileStore(File) legacyFileStore}, which is imported as the first segment on the first start.
+ * <p/>
+ * When a segment has grown to the {@link #getSegmentSize() segment size} a new segment is started, and older segments
+ * with too many removed keys are compacted in the background (keys still in use are re-appended to the active segment
+ * and the old segment file is deleted). If {@link #getMaxEntries() maxEntries} is set, then the oldest segments are
+ * dropped as a whole when the repository holds more keys, instead of rewriting the file store as
+ * {@link FileIdempotentRepository} does when its maximum capacity is hit. This is checked at most once per second. When
+ * all the keys are in the active segment, it is sealed and only its oldest keys are dropped.
+ * <p/>
+ * Operations on the same key are serialized using striped locks, and only the append to the active segment is
+ * guarded by a lock shared by all keys.
+ */
+@Metadata(label = "bean",
+          description = "A file based idempotent repository using an append-only segmented log with an in-memory index for"
+                        + " very large stores.",
+          annotations = { "interfaceName=org.zenithblox.spi.IdempotentRepository" })
+@Configurer(metadataOnly = true)
+public class SegmentedFileIdempotentRepository extends ServiceSupport implements IdempotentRepository, ZwangineContextAware {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedFileIdempotentRepository.class);
+    private static final String SEGMENT_PREFIX = "idempotent-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte STORE_DELIMITER = '\n';
+    private static final byte TOMBSTONE = 0;
+    private static final long MAX_ENTRIES_CHECK_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Segment> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Lock appendLock = new ReentrantLock();
+    private final ReentrantLock compactionLock = new ReentrantLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private volatile boolean compactionPending;
+    private volatile long lastMaxEntriesCheck = System.nanoTime() - MAX_ENTRIES_CHECK_INTERVAL;
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong droppedEntries = new AtomicLong();
+    private Lock[] stripes;
+    private volatile Segment active;
+    private ZwangineContext zwangineContext;
+    private ExecutorService compactionExecutor;
+
+    @Metadata(description = "The directory where the segment files are stored", required = true)
+    private File directory;
+    @Metadata(description = "An existing file store from FileIdempotentRepository to import when the directory has no segments")
+    private File legacyFileStore;
+    @Metadata(description = "The size in bytes of a segment file before a new segment is started", defaultValue = "" + 8 * 1024 * 1024)
+    private long segmentSize = 8 * 1024 * 1024;
+    @Metadata(description = "The maximum number of keys to keep. When exceeded the oldest segments are dropped."
+                            + " Use 0 or negative for unlimited.",
+              defaultValue = "0")
+    private long maxEntries;
+    @Metadata(description = "Compact a segment when the ratio of keys still in use drops below this value",
+              defaultValue = "0.5")
+    private double compactionRatio = 0.5;
+    @Metadata(description = "The number of lock stripes used to serialize operations on the same key", defaultValue = "64")
+    private int concurrencyLevel = 64;
+    @Metadata(description = "Whether to force every write to the storage device", defaultValue = "false")
+    private boolean sync;
+
+    public SegmentedFileIdempotentRepository() {
+    }
+
+    public SegmentedFileIdempotentRepository(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates a new segmented file based repository.
+     *
+     * @param directory the directory for the segment files
+     */
+    public static IdempotentRepository segmentedFileIdempotentRepository(File directory) {
+        return new SegmentedFileIdempotentRepository(directory);
+    }
+
+    /**
+     * Creates a new segmented file based repository which keeps at most the given number of keys.
+     *
+     * @param directory  the directory for the segment files
+     * @param maxEntries the maximum number of keys
+     */
+    public static IdempotentRepository segmentedFileIdempotentRepository(File directory, long maxEntries) {
+        SegmentedFileIdempotentRepository repository = new SegmentedFileIdempotentRepository(directory);
+        repository.setMaxEntries(maxEntries);
+        return repository;
+    }
+
+    @Override
+    public ZwangineContext getZwangineContext() {
+        return zwangineContext;
+    }
+
+    @Override
+    public void setZwangineContext(ZwangineContext zwangineContext) {
+        this.zwangineContext = zwangineContext;
+    }
+
+    @Override
+    public boolean add(String key) {
+        Lock lock = stripe(key);
+        lock.lock();
+        try {
+            if (index.containsKey(key)) {
+                return false;
+            }
+            Segment segment = append(key, false);
+            index.put(key, segment);
+            segment.live.increment();
+        } finally {
+            lock.unlock();
+        }
+
+        if (compactionPending || isMaxEntriesExceeded()) {
+            scheduleCompaction();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public boolean remove(String key) {
+        Lock lock = stripe(key);
+        lock.lock();
+        try {
+            Segment segment = index.remove(key);
+            if (segment == null) {
+                return false;
+            }
+            segment.live.decrement();
+            // the key may exist in older segments so record the removal
+            append(key, true);
+        } finally {
+            lock.unlock();
+        }
+
+        if (compactionPending) {
+            scheduleCompaction();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean confirm(String key) {
+        // noop
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        compactionLock.lock();
+        try {
+            lockAllStripes();
+            appendLock.lock();
+            try {
+                long next = active != null ? active.id + 1 : 1;
+                for (Segment segment : segments.values()) {
+                    segment.close();
+                    FileUtil.deleteFile(segment.file);
+                }
+                segments.clear();
+                index.clear();
+                active = openSegment(next);
+            } catch (IOException e) {
+                throw RuntimeZwangineException.wrapRuntimeZwangineException(e);
+            } finally {
+                appendLock.unlock();
+                unlockAllStripes();
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * The directory where the segment files are stored.
+     */
+    public void setDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    public File getLegacyFileStore() {
+        return legacyFileStore;
+    }
+
+    /**
+     * An existing file store from {@link FileIdempotentRepository} to import as the first segment, when the directory
+     * does not contain any segments yet. The legacy file is left untouched.
+     */
+    public void setLegacyFileStore(File legacyFileStore) {
+        this.legacyFileStore = legacyFileStore;
+    }
+
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * The size in bytes of a segment file before a new segment is started.
+     * <p/>
+     * The default is 8mb.
+     */
+    public void setSegmentSize(long segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * The maximum number of keys to keep. When the repository holds more keys then the oldest segments are dropped
+     * (checked at most once per second, so the repository may briefly hold more keys). You can set the value to 0 or
+     * negative to turn this off and have unlimited number of keys.
+     */
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public double getCompactionRatio() {
+        return compactionRatio;
+    }
+
+    /**
+     * Compact a segment when the ratio of keys in the segment still in use drops below this value.
+     * <p/>
+     * The default is 0.5.
+     */
+    public void setCompactionRatio(double compactionRatio) {
+        this.compactionRatio = compactionRatio;
+    }
+
+    public int getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    /**
+     * The number of lock stripes used to serialize operations on the same key (rounded up to a power of two).
+     * <p/>
+     * The default is 64.
+     */
+    public void setConcurrencyLevel(int concurrencyLevel) {
+        this.concurrencyLevel = concurrencyLevel;
+    }
+
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Whether to force every write to the storage device. This is slower but ensures no keys are lost if the operating
+     * system crashes.
+     */
+    public void setSync(boolean sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * Number of keys in the repository
+     */
+    public int getSize() {
+        return index.size();
+    }
+
+    /**
+     * Number of segment files
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Number of segments which has been compacted or dropped
+     */
+    public long getCompactions() {
+        return compactions.get();
+    }
+
+    /**
+     * Number of keys dropped because the maximum number of entries was hit
+     */
+    public long getDroppedEntries() {
+        return droppedEntries.get();
+    }
+
+    /**
+     * Compacts the segments, which is done automatically in the background when a new segment is started.
+     */
+    public void compact() {
+        compactionLock.lock();
+        try {
+            compactionScheduled.set(false);
+            compactionPending = false;
+            if (active == null) {
+                // stopped
+                return;
+            }
+            while (maxEntries > 0 && index.size() > maxEntries) {
+                Segment oldest = segments.firstEntry().getValue();
+                if (oldest != active) {
+                    dropSegment(oldest);
+                } else {
+                    // the keys are all in the active segment, so seal it and evict only its oldest keys
+                    rollSegment();
+                    evictKeys(oldest, index.size() - maxEntries);
+                    compactSegment(oldest, true);
+                }
+            }
+            // only the segments sealed before this compaction as moving keys may start new segments
+            List<Segment> sealed = new ArrayList<>(segments.headMap(active.id).values());
+            for (Segment segment : sealed) {
+                boolean oldest = segment.id == segments.firstKey();
+                if (segment.records.sum() > 0 && segment.live.sum() < segment.records.sum() * compactionRatio) {
+                    compactSegment(segment, oldest);
+                }
+            }
+        } catch (IOException e) {
+            throw RuntimeZwangineException.wrapRuntimeZwangineException(e);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    protected Segment append(String key, boolean tombstone) {
+        byte[] data = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer bb = ByteBuffer.allocate(data.length + (tombstone ? 2 : 1));
+        if (tombstone) {
+            bb.put(TOMBSTONE);
+        }
+        bb.put(data).put(STORE_DELIMITER).flip();
+
+        Segment segment;
+        appendLock.lock();
+        try {
+            segment = active;
+            while (bb.hasRemaining()) {
+                segment.channel.write(bb);
+            }
+            if (sync) {
+                segment.channel.force(false);
+            }
+            segment.records.increment();
+            if (segment.size.addAndGet(bb.limit()) >= segmentSize) {
+                segment.close();
+                active = openSegment(segment.id + 1);
+                // compaction is scheduled by the caller when the key lock has been released
+                compactionPending = true;
+            }
+        } catch (IOException e) {
+            throw RuntimeZwangineException.wrapRuntimeZwangineException(e);
+        } finally {
+            appendLock.unlock();
+        }
+        return segment;
+    }
+
+    private boolean isMaxEntriesExceeded() {
+        if (maxEntries <= 0 || index.size() <= maxEntries) {
+            return false;
+        }
+        // avoid scheduling a compaction on every add while the limit is exceeded
+        long now = System.nanoTime();
+        if (now - lastMaxEntriesCheck < MAX_ENTRIES_CHECK_INTERVAL) {
+            return false;
+        }
+        lastMaxEntriesCheck = now;
+        return true;
+    }
+
+    private void rollSegment() throws IOException {
+        appendLock.lock();
+        try {
+            Segment segment = active;
+            segment.close();
+            active = openSegment(segment.id + 1);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    protected void scheduleCompaction() {
+        if (compactionLock.isHeldByCurrentThread()) {
+            // already compacting
+            return;
+        }
+        if (compactionScheduled.compareAndSet(false, true)) {
+            if (compactionExecutor != null) {
+                compactionExecutor.execute(this::compact);
+            } else {
+                compact();
+            }
+        }
+    }
+
+    private void dropSegment(Segment segment) throws IOException {
+        LOG.debug("Dropping oldest segment: {} as the repository holds more than {} keys", segment.file, maxEntries);
+        evictKeys(segment, Long.MAX_VALUE);
+        deleteSegment(segment);
+    }
+
+    private void evictKeys(Segment segment, long limit) throws IOException {
+        long[] count = new long[1];
+        readRecords(segment.file, (key, tombstone) -> {
+            if (count[0] >= limit) {
+                return false;
+            }
+            if (!tombstone) {
+                Lock lock = stripe(key);
+                lock.lock();
+                try {
+                    if (index.remove(key, segment)) {
+                        segment.live.decrement();
+                        count[0]++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return true;
+        });
+        if (count[0] > 0) {
+            droppedEntries.addAndGet(count[0]);
+            LOG.warn("Maximum number of keys: {} hit in idempotent repository: {}. Dropped {} oldest keys.", maxEntries,
+                    directory, count[0]);
+        }
+    }
+
+    private void compactSegment(Segment segment, boolean oldest) throws IOException {
+        LOG.debug("Compacting segment: {} with {} of {} keys in use", segment.file, segment.live.sum(), segment.records.sum());
+        readRecords(segment.file, (key, tombstone) -> {
+            Lock lock = stripe(key);
+            lock.lock();
+            try {
+                if (!tombstone) {
+                    if (index.get(key) == segment) {
+                        // the key is still in use so move it to the active segment
+                        Segment target = append(key, false);
+                        index.put(key, target);
+                        target.live.increment();
+                        segment.live.decrement();
+                    }
+                } else if (!oldest && !index.containsKey(key)) {
+                    // the removal must be kept as older segments may hold the key
+                    append(key, true);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return true;
+        });
+        deleteSegment(segment);
+    }
+
+    private void deleteSegment(Segment segment) {
+        segments.remove(segment.id);
+        segment.close();
+        FileUtil.deleteFile(segment.file);
+        compactions.incrementAndGet();
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Segment segment = new Segment(id, segmentFile(id));
+        segment.open();
+        segments.put(id, segment);
+        LOG.debug("Opened segment: {}", segment.file);
+        return segment;
+    }
+
+    private File segmentFile(long id) {
+        return new File(directory, String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Loads the segments from the directory into the index.
+     */
+    protected void loadStore() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory: " + directory);
+        }
+
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if ((files == null || files.length == 0) && legacyFileStore != null && legacyFileStore.exists()) {
+            LOG.info("Importing file store: {} into idempotent repository: {}", legacyFileStore, directory);
+            File first = segmentFile(1);
+            Files.copy(legacyFileStore.toPath(), first.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            files = new File[] { first };
+        }
+
+        index.clear();
+        segments.clear();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(id, new Segment(id, file));
+            }
+        }
+
+        for (Segment segment : segments.values()) {
+            long valid = readRecords(segment.file, (key, tombstone) -> {
+                segment.records.increment();
+                if (tombstone) {
+                    Segment old = index.remove(key);
+                    if (old != null) {
+                        old.live.decrement();
+                    }
+                } else {
+                    Segment old = index.put(key, segment);
+                    if (old != null) {
+                        old.live.decrement();
+                    }
+                    segment.live.increment();
+                }
+                return true;
+            });
+            if (valid < segment.file.length()) {
+                // an incomplete record from a crash while writing
+                LOG.warn("Truncating incomplete record at position: {} in segment: {}", valid, segment.file);
+                try (FileChannel channel = FileChannel.open(segment.file.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+
+        Map.Entry<Long, Segment> last = segments.lastEntry();
+        if (last == null) {
+            active = openSegment(1);
+        } else {
+            // continue appending to the newest segment
+            active = last.getValue();
+            active.open();
+        }
+
+        LOG.debug("Loaded {} keys from {} segments in idempotent repository: {}", index.size(), segments.size(), directory);
+    }
+
+    /**
+     * Reads the records of the segment file one at a time, so a large segment is never held in memory as a whole.
+     *
+     * @return the position after the last complete record which was read
+     */
+    private static long readRecords(File file, RecordVisitor visitor) throws IOException {
+        long position = 0;
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long length = 0;
+            int b;
+            while ((b = is.read()) != -1) {
+                length++;
+                if (b == STORE_DELIMITER) {
+                    byte[] data = line.toByteArray();
+                    line.reset();
+                    position += length;
+                    length = 0;
+                    boolean more = true;
+                    if (data.length > 0 && data[0] == TOMBSTONE) {
+                        more = visitor.visit(new String(data, 1, data.length - 1, StandardCharsets.UTF_8), true);
+                    } else if (data.length > 0) {
+                        more = visitor.visit(new String(data, StandardCharsets.UTF_8), false);
+                    }
+                    if (!more) {
+                        break;
+                    }
+                } else {
+                    line.write(b);
+                }
+            }
+        }
+        return position;
+    }
+
+    private Lock stripe(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    private void lockAllStripes() {
+        for (Lock lock : stripes) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAllStripes() {
+        for (Lock lock : stripes) {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        ObjectHelper.notNull(directory, "directory", this);
+
+        int size = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1)) << 1;
+        stripes = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        if (zwangineContext != null) {
+            compactionExecutor = zwangineContext.getExecutorServiceManager().newSingleThreadExecutor(this,
+                    "SegmentedFileIdempotentRepositoryCompaction");
+        }
+
+        loadStore();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (compactionExecutor != null) {
+            // let a scheduled compaction finish before the segments are closed
+            zwangineContext.getExecutorServiceManager().shutdownGraceful(compactionExecutor);
+            compactionExecutor = null;
+        }
+        compactionLock.lock();
+        try {
+            appendLock.lock();
+            try {
+                for (Segment segment : segments.values()) {
+                    segment.close();
+                }
+                active = null;
+            } finally {
+                appendLock.unlock();
+            }
+            index.clear();
+            segments.clear();
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+
+        /**
+         * Visits a record of a segment.
+         *
+         * @return <tt>true</tt> to continue reading the segment, or <tt>false</tt> to stop
+         */
+        boolean visit(String key, boolean tombstone) throws IOException;
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final File file;
+        private final AtomicLong size = new AtomicLong();
+        private final LongAdder records = new LongAdder();
+        private final LongAdder live = new LongAdder();
+        private FileChannel channel;
+
+        private Segment(long id, File file) {
+            this.id = id;
+            this.file = file;
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            size.set(channel.size());
+        }
+
+        private void close() {
+            if (channel != null) {
+                IOHelper.close(channel, "Closing segment of idempotent repository", LOG);
+                channel = null;
+            }
+        }
+    }
+
+}
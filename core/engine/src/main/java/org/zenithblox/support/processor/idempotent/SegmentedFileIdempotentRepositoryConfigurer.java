@@ -0,0 +1,70 @@
+package org.zenithblox.support.processor.idempotent;
+
+import org.zenithblox.ZwangineContext;
+import org.zenithblox.spi.GeneratedPropertyConfigurer;
+import org.zenithblox.spi.PropertyConfigurerGetter;
+import org.zenithblox.support.component.PropertyConfigurerSupport;
+
+public class SegmentedFileIdempotentRepositoryConfigurer extends PropertyConfigurerSupport implements GeneratedPropertyConfigurer, PropertyConfigurerGetter {
+
+    @Override
+    public boolean configure(ZwangineContext zwangineContext, Object obj, String name, Object value, boolean ignoreCase) {
+        SegmentedFileIdempotentRepository target = (SegmentedFileIdempotentRepository) obj;
+        switch (ignoreCase ? name.toLowerCase() : name) {
+            case "compactionratio":
+            case "compactionRatio": target.setCompactionRatio(property(zwangineContext, double.class, value)); return true;
+            case "concurrencylevel":
+            case "concurrencyLevel": target.setConcurrencyLevel(property(zwangineContext, int.class, value)); return true;
+            case "directory": target.setDirectory(property(zwangineContext, java.io.File.class, value)); return true;
+            case "legacyfilestore":
+            case "legacyFileStore": target.setLegacyFileStore(property(zwangineContext, java.io.File.class, value)); return true;
+            case "maxentries":
+            case "maxEntries": target.setMaxEntries(property(zwangineContext, long.class, value)); return true;
+            case "segmentsize":
+            case "segmentSize": target.setSegmentSize(property(zwangineContext, long.class, value)); return true;
+            case "sync": target.setSync(property(zwangineContext, boolean.class, value)); return true;
+            default: return false;
+        }
+    }
+
+    @Override
+    public Class<?> getOptionType(String name, boolean ignoreCase) {
+        switch (ignoreCase ? name.toLowerCase() : name) {
+            case "compactionratio":
+            case "compactionRatio": return double.class;
+            case "concurrencylevel":
+            case "concurrencyLevel": return int.class;
+            case "directory": return java.io.File.class;
+            case "legacyfilestore":
+            case "legacyFileStore": return java.io.File.class;
+            case "maxentries":
+            case "maxEntries": return long.class;
+            case "segmentsize":
+            case "segmentSize": return long.class;
+            case "sync": return boolean.class;
+            default: return null;
+        }
+    }
+
+    @Override
+    public Object getOptionValue(Object obj, String name, boolean ignoreCase) {
+        SegmentedFileIdempotentRepository target = (SegmentedFileIdempotentRepository) obj;
+        switch (ignoreCase ? name.toLowerCase() : name) {
+            case "compactionratio":
+            case "compactionRatio": return target.getCompactionRatio();
+            case "concurrencylevel":
+            case "concurrencyLevel": return target.getConcurrencyLevel();
+            case "directory": return target.getDirectory();
+            case "legacyfilestore":
+            case "legacyFileStore": return target.getLegacyFileStore();
+            case "maxentries":
+            case "maxEntries": return target.getMaxEntries();
+            case "segmentsize":
+            case "segmentSize": return target.getSegmentSize();
+            case "sync": return target.isSync();
+            default: return null;
+        }
+    }
+}
+
+
@@ -0,0 +1,471 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.util;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A map that uses case insensitive keys, but preserves the original key cases, like {@link CaseInsensitiveMap}.
+ * <p/>
+ * The map is a hash map using open addressing (linear probing) on a hash of the case folded key, and therefore uses
+ * O(1) for lookup instead of O(log n) as the {@link CaseInsensitiveMap} does. The entries are kept in insertion order in
+ * arrays, so iterating the map does not follow any node references, and a copy of the map is made by cloning the
+ * arrays. No objects are allocated per entry.
+ * <p/>
+ * The case folded hash of well known keys (such as header names) can be precomputed using {@link KnownKeys}, which
+ * avoids computing the hash of these keys on every lookup.
+ * <p/>
+ * This map is <b>not</b> designed to be thread safe as concurrent access to it is not supposed to be performed by the
+ * Zwangine routing engine. Concurrent reads are safe when the map is not modified.
+ */
+public class CaseInsensitiveHashMap extends AbstractMap<String, Object> implements Serializable {
+
+    private static final @Serial long serialVersionUID = 2706462475374925573L;
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final String[] EMPTY_KEYS = new String[0];
+    private static final Object[] EMPTY_VALUES = new Object[0];
+    private static final int[] EMPTY_INTS = new int[0];
+
+    private final transient KnownKeys knownKeys;
+    // the slots of the hash table holding the position of the entry + 1 (0 is an empty slot)
+    private int[] table = EMPTY_INTS;
+    // the entries in insertion order, a removed entry has a null key
+    private String[] keys = EMPTY_KEYS;
+    private Object[] values = EMPTY_VALUES;
+    private int[] hashes = EMPTY_INTS;
+    // the number of used entries (including removed entries)
+    private int used;
+    private int size;
+    private int modCount;
+    private transient Set<Entry<String, Object>> entrySet;
+
+    public CaseInsensitiveHashMap() {
+        this((KnownKeys) null);
+    }
+
+    public CaseInsensitiveHashMap(KnownKeys knownKeys) {
+        this.knownKeys = knownKeys;
+    }
+
+    public CaseInsensitiveHashMap(Map<? extends String, ?> map) {
+        this(map, null);
+    }
+
+    public CaseInsensitiveHashMap(Map<? extends String, ?> map, KnownKeys knownKeys) {
+        if (map instanceof CaseInsensitiveHashMap other) {
+            // bulk copy
+            this.knownKeys = knownKeys != null ? knownKeys : other.knownKeys;
+            this.table = other.table.clone();
+            this.keys = other.keys.clone();
+            this.values = other.values.clone();
+            this.hashes = other.hashes.clone();
+            this.used = other.used;
+            this.size = other.size;
+        } else {
+            this.knownKeys = knownKeys;
+            putAll(map);
+        }
+    }
+
+    /**
+     * Returns the case folded hash of the key, which is the same for keys which are equal ignoring case.
+     */
+    public static int foldedHash(String key) {
+        int h = 0;
+        for (int i = 0; i < key.length(); i++) {
+            int c = key.charAt(i);
+            if (c < 128) {
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+            } else {
+                if (Character.isHighSurrogate((char) c) && i + 1 < key.length()) {
+                    c = key.codePointAt(i++);
+                }
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            h = 31 * h + c;
+        }
+        return h;
+    }
+
+    private int hash(String key) {
+        int h = knownKeys != null ? knownKeys.foldedHash(key) : foldedHash(key);
+        return h ^ (h >>> 16);
+    }
+
+    private int find(String key, int h) {
+        if (size == 0) {
+            return -1;
+        }
+        int mask = table.length - 1;
+        for (int slot = h & mask;; slot = (slot + 1) & mask) {
+            int pos = table[slot] - 1;
+            if (pos < 0) {
+                return -1;
+            }
+            String k = keys[pos];
+            if (k != null && hashes[pos] == h && (k == key || k.equalsIgnoreCase(key))) {
+                return pos;
+            }
+        }
+    }
+
+    private int find(Object key) {
+        if (!(key instanceof String s)) {
+            return -1;
+        }
+        return size == 0 ? -1 : find(s, hash(s));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int pos = find(key);
+        return pos >= 0 ? values[pos] : null;
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        int pos = find(key);
+        return pos >= 0 ? values[pos] : defaultValue;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Objects.requireNonNull(key, "key");
+        int h = hash(key);
+        int pos = find(key, h);
+        if (pos >= 0) {
+            // keep the original key case as the CaseInsensitiveMap does
+            Object old = values[pos];
+            values[pos] = value;
+            return old;
+        }
+        if (used == keys.length) {
+            // grow unless compacting the removed entries makes enough room
+            resize(size >= keys.length / 2 ? Math.max(DEFAULT_CAPACITY, keys.length * 2) : keys.length);
+        }
+        pos = used++;
+        keys[pos] = key;
+        values[pos] = value;
+        hashes[pos] = h;
+        insertSlot(h, pos);
+        size++;
+        modCount++;
+        return null;
+    }
+
+    private void insertSlot(int h, int pos) {
+        int mask = table.length - 1;
+        int slot = h & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = pos + 1;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldUsed = used;
+
+        keys = new String[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        // keep the load factor of the hash table at most 0.5
+        table = new int[capacity * 2];
+        used = 0;
+        for (int i = 0; i < oldUsed; i++) {
+            if (oldKeys[i] != null) {
+                keys[used] = oldKeys[i];
+                values[used] = oldValues[i];
+                hashes[used] = oldHashes[i];
+                insertSlot(oldHashes[i], used);
+                used++;
+            }
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int pos = find(key);
+        if (pos < 0) {
+            return null;
+        }
+        Object old = values[pos];
+        removeAt(pos);
+        return old;
+    }
+
+    private void removeAt(int pos) {
+        // the slot in the table is kept so probing continues past the removed entry
+        keys[pos] = null;
+        values[pos] = null;
+        size--;
+        modCount++;
+        if (size == 0) {
+            clear();
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (used > 0) {
+            Arrays.fill(table, 0);
+            Arrays.fill(keys, 0, used, null);
+            Arrays.fill(values, 0, used, null);
+            used = 0;
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+        if (map instanceof CaseInsensitiveHashMap other) {
+            for (int i = 0; i < other.used; i++) {
+                if (other.keys[i] != null) {
+                    put(other.keys[i], other.values[i]);
+                }
+            }
+        } else {
+            for (Entry<? extends String, ?> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        int expected = modCount;
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+        if (expected != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            CaseInsensitiveHashMap.this.clear();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int next;
+        private int current = -1;
+        private int expected = modCount;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (next < used && keys[next] == null) {
+                next++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < used;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (expected != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= used) {
+                throw new NoSuchElementException();
+            }
+            current = next++;
+            advance();
+            return new IndexedEntry(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (expected != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (size == 1) {
+                // removing the last entry clears the arrays which the iterator is done with anyway
+                next = used;
+            }
+            removeAt(current);
+            current = -1;
+            expected = modCount;
+        }
+    }
+
+    private final class IndexedEntry implements Entry<String, Object> {
+        private final int pos;
+        private final String key;
+
+        IndexedEntry(int pos) {
+            this.pos = pos;
+            this.key = keys[pos];
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return keys[pos] == key ? values[pos] : null;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            if (keys[pos] != key) {
+                throw new IllegalStateException("Entry has been removed");
+            }
+            Object old = values[pos];
+            values[pos] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?, ?> e && Objects.equals(key, e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    /**
+     * A table of well known keys with their case folded hash precomputed. Looking up the folded hash of a known key
+     * costs the (cached) {@link String#hashCode()} and a string comparison with the known key of the exact same case,
+     * instead of folding the case of every character of the key.
+     */
+    public static final class KnownKeys {
+        private final String[] keys;
+        private final int[] stringHashes;
+        private final int[] foldedHashes;
+        private final int mask;
+
+        public KnownKeys(Collection<String> knownKeys) {
+            int capacity = Integer.highestOneBit(Math.max(1, knownKeys.size()) * 4 - 1) << 1;
+            this.keys = new String[capacity];
+            this.stringHashes = new int[capacity];
+            this.foldedHashes = new int[capacity];
+            this.mask = capacity - 1;
+            for (String key : knownKeys) {
+                int h = key.hashCode();
+                int slot = h & mask;
+                while (keys[slot] != null && !keys[slot].equals(key)) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                stringHashes[slot] = h;
+                foldedHashes[slot] = CaseInsensitiveHashMap.foldedHash(key);
+            }
+        }
+
+        /**
+         * Returns the case folded hash of the key, which is precomputed if the key is known.
+         */
+        public int foldedHash(String key) {
+            int h = key.hashCode();
+            for (int slot = h & mask;; slot = (slot + 1) & mask) {
+                String k = keys[slot];
+                if (k == null) {
+                    return CaseInsensitiveHashMap.foldedHash(key);
+                }
+                if (stringHashes[slot] == h && (k == key || k.equals(key))) {
+                    return foldedHashes[slot];
+                }
+            }
+        }
+
+        public int size() {
+            int answer = 0;
+            for (String key : keys) {
+                if (key != null) {
+                    answer++;
+                }
+            }
+            return answer;
+        }
+    }
+}
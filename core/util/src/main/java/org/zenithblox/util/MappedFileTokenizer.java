@@ -0,0 +1,320 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zentihblox.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A tokenizer which memory maps a file, and scans the raw bytes of the file for a literal delimiter.
+ * <p/>
+ * This avoids decoding the entire file char by char, as only the tokens are decoded. The tokens can also be retrieved
+ * as read-only {@link ByteBuffer} slices of the mapped file using {@link #nextSlice()}, which does not copy any data.
+ * <p/>
+ * The tokens are the same as returned by {@link Scanner} with the same delimiter: consecutive delimiters yield empty
+ * tokens, but an empty first or last token is skipped. Only delimiters without any regular expression
+ * characters are supported, and only for charsets where the encoded delimiter cannot be found in the middle of
+ * another character, which are UTF-8 and the single byte charsets. Use {@link #isSupported(String, String)} to check
+ * this before creating the tokenizer.
+ * <p/>
+ * The file is mapped in windows of at most 2gb, so a single token cannot be larger than that. Mind that the mapped
+ * file is only unmapped when the buffers are garbage collected, and some operating systems (such as Windows) do not
+ * allow a mapped file to be deleted or renamed until then.
+ */
+public final class MappedFileTokenizer implements Iterator<String>, Closeable {
+
+    private static final String REGEX_CHARS = "\\[](){}.*+?^$|";
+    private static final long MAX_WINDOW = Integer.MAX_VALUE;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Charset charset;
+    private final String delimiter;
+    private final byte[] delim;
+    private final long end;
+    private final boolean last;
+    private MappedByteBuffer window;
+    private long windowOffset;
+    private long position;
+    private boolean finished;
+    private boolean closed;
+
+    public MappedFileTokenizer(Path file, String charsetName, String delimiter) throws IOException {
+        this(file, charsetName, delimiter, 0, -1, true, true);
+    }
+
+    private MappedFileTokenizer(Path file, String charsetName, String delimiter, long start, long end, boolean first,
+                                boolean last) throws IOException {
+        if (!isSupported(delimiter, charsetName)) {
+            throw new IllegalArgumentException(
+                    "Delimiter: " + delimiter + " is not supported with charset: " + charsetName);
+        }
+        this.file = file;
+        this.charset = toCharset(charsetName);
+        this.delimiter = delimiter;
+        this.delim = delimiter.getBytes(charset);
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.position = start;
+        this.end = end < 0 ? channel.size() : end;
+        this.last = last;
+        // an empty first token is skipped, as well as an empty last token (see hasNext)
+        if (first && startsWithDelimiter(start)) {
+            this.position += delim.length;
+        }
+    }
+
+    /**
+     * Whether the delimiter and charset can be used with this tokenizer.
+     *
+     * @param delimiter   the delimiter
+     * @param charsetName the charset of the file, or <tt>null</tt> for the platform default charset
+     */
+    public static boolean isSupported(String delimiter, String charsetName) {
+        if (delimiter == null || delimiter.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < delimiter.length(); i++) {
+            if (REGEX_CHARS.indexOf(delimiter.charAt(i)) != -1) {
+                return false;
+            }
+        }
+        try {
+            Charset cs = toCharset(charsetName);
+            if (!cs.canEncode() || !cs.newEncoder().canEncode(delimiter)) {
+                return false;
+            }
+            // utf-8 is self synchronizing, and with a single byte charset each byte is a character
+            return StandardCharsets.UTF_8.equals(cs) || cs.newEncoder().maxBytesPerChar() == 1;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static Charset toCharset(String charsetName) {
+        try {
+            return charsetName != null ? Charset.forName(charsetName) : Charset.defaultCharset();
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Splits the file in a number of tokenizers which each covers a range of the file, so the ranges can be tokenized
+     * in parallel. The ranges are split at delimiters (which are not part of any range), so together they yield the
+     * same tokens as a single tokenizer for the entire file. Fewer tokenizers are returned if the file does not have
+     * enough delimiters, and a single tokenizer is returned if the delimiter can overlap itself (such as <tt>aa</tt>),
+     * as then the ranges cannot be determined without scanning the file from the beginning.
+     *
+     * @param  file        the file
+     * @param  charsetName the charset of the file, or <tt>null</tt> for the platform default charset
+     * @param  delimiter   the delimiter
+     * @param  parts       the wanted number of ranges
+     * @return             the tokenizers, in the order of the ranges
+     */
+    public static List<MappedFileTokenizer> split(Path file, String charsetName, String delimiter, int parts)
+            throws IOException {
+        // the start and end of each range, where the end is the position of the delimiter that ends the range
+        List<long[]> ranges = new ArrayList<>(Math.max(parts, 1));
+        try (MappedFileTokenizer scanner = new MappedFileTokenizer(file, charsetName, delimiter)) {
+            long size = scanner.end;
+            long start = 0;
+            if (!scanner.isSelfOverlapping()) {
+                for (int i = 1; i < parts; i++) {
+                    // the first range must not be empty, as an empty first token is skipped
+                    long from = Math.max(Math.max(size / parts * i, start), 1);
+                    if (from >= size) {
+                        break;
+                    }
+                    long boundary = scanner.tokenEnd(from);
+                    if (boundary >= size) {
+                        break;
+                    }
+                    ranges.add(new long[] { start, boundary });
+                    start = boundary + scanner.delim.length;
+                }
+            }
+            ranges.add(new long[] { start, size });
+        }
+
+        List<MappedFileTokenizer> answer = new ArrayList<>(ranges.size());
+        try {
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                answer.add(new MappedFileTokenizer(
+                        file, charsetName, delimiter, range[0], range[1], i == 0, i == ranges.size() - 1));
+            }
+        } catch (IOException | RuntimeException e) {
+            answer.forEach(IOHelper::close);
+            throw e;
+        }
+        return answer;
+    }
+
+    private boolean isSelfOverlapping() {
+        for (int i = 1; i < delim.length; i++) {
+            if (Arrays.equals(delim, 0, delim.length - i, delim, i, delim.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public String getDelim() {
+        return delimiter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed || finished) {
+            return false;
+        }
+        // there is always a token after a delimiter, except an empty last token
+        return position < end || !last;
+    }
+
+    @Override
+    public String next() {
+        ByteBuffer slice = nextSlice();
+        byte[] data = new byte[slice.remaining()];
+        slice.get(data);
+        return new String(data, charset);
+    }
+
+    /**
+     * Gets the next token as a read-only slice of the mapped file, without copying or decoding the token.
+     * <p/>
+     * The slice must not be used after the tokenizer has been closed.
+     */
+    public ByteBuffer nextSlice() {
+        if (closed) {
+            throw new IllegalStateException("Tokenizer is closed");
+        }
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (position == end) {
+            finished = true;
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+        long tokenEnd = tokenEnd(position);
+        // the token is always within the current window
+        int from = (int) (position - windowOffset);
+        ByteBuffer slice = window.slice(from, (int) (tokenEnd - position)).asReadOnlyBuffer();
+        if (tokenEnd < end) {
+            position = tokenEnd + delim.length;
+        } else {
+            position = end;
+            finished = true;
+        }
+        return slice;
+    }
+
+    private boolean startsWithDelimiter(long pos) {
+        if (pos + delim.length > end) {
+            return false;
+        }
+        if (window == null || pos < windowOffset || pos + delim.length > windowOffset + window.limit()) {
+            map(pos);
+        }
+        int i = (int) (pos - windowOffset);
+        for (int j = 0; j < delim.length; j++) {
+            if (window.get(i + j) != delim[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the end of the token starting at the given position, which is the start of the next delimiter, or the end
+     * of the range. The current window contains the entire token afterwards.
+     */
+    private long tokenEnd(long pos) {
+        if (window == null || pos < windowOffset || pos >= windowOffset + window.limit()) {
+            map(pos);
+        }
+        while (true) {
+            int limit = window.limit() - delim.length;
+            byte first = delim[0];
+            for (int i = (int) (pos - windowOffset); i <= limit; i++) {
+                if (window.get(i) == first && matches(i)) {
+                    return windowOffset + i;
+                }
+            }
+            if (windowOffset + window.limit() >= end) {
+                return end;
+            }
+            if (pos == windowOffset) {
+                throw new IllegalStateException(
+                        "Token starting at position: " + pos + " in file: " + file + " is larger than " + MAX_WINDOW
+                                                + " bytes");
+            }
+            // the token continues after the window, so map a new window starting at the token
+            map(pos);
+        }
+    }
+
+    private boolean matches(int i) {
+        for (int j = 1; j < delim.length; j++) {
+            if (window.get(i + j) != delim[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void map(long pos) {
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAX_WINDOW, end - pos));
+            windowOffset = pos;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map file: " + file + " due to: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            window = null;
+            channel.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedFileTokenizer[" + file + "]";
+    }
+}
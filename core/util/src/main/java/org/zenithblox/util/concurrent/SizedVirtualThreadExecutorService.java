@@ -0,0 +1,322 @@
+/*
+ * Licensed to the  Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the  License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.zwangine.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.zenithblox.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sized {@link ExecutorService} which executes each task in a new thread (typically a virtual thread), and limits
+ * the number of tasks executing concurrently using a {@link Semaphore} instead of a bounded pool of threads.
+ * <p/>
+ * When the maximum number of tasks are executing, then new tasks are kept in a bounded task queue, and run when an
+ * executing task completes. When the task queue is full as well, then the task is rejected according to the given
+ * {@link ThreadPoolRejectedPolicy}, the same way as with a {@link RejectableThreadPoolExecutor}: <tt>CallerRuns</tt>
+ * runs the task in the calling thread, and <tt>Abort</tt> notifies {@link Rejectable} tasks or throws a
+ * {@link RejectedExecutionException}. The discard policies of {@link ThreadPoolExecutor} are supported as well, other
+ * {@link RejectedExecutionHandler}s cannot be used as there is no thread pool executor to pass to them.
+ * <p/>
+ * Mind that a thread which has completed a task may run the next task from the task queue, to avoid creating a new
+ * thread for each queued task.
+ */
+public class SizedVirtualThreadExecutorService extends AbstractExecutorService {
+
+    public static final String CONCURRENCY_LIMIT_REACHED = "Task rejected due concurrency and queue size limit reached";
+
+    private final ExecutorService delegate;
+    private final ThreadFactory threadFactory;
+    private final int maxConcurrency;
+    private final int maxQueueSize;
+    private final Rejection rejection;
+    private final Semaphore permits;
+    private final BlockingQueue<Runnable> queue;
+
+    /**
+     * Creates a new sized executor service.
+     *
+     * @param threadFactory  the factory for the threads to execute the tasks
+     * @param maxConcurrency the maximum number of tasks executing concurrently, use 0 or negative value for unlimited
+     * @param maxQueueSize   the maximum number of tasks waiting to be executed, use 0 or negative value for no queue
+     * @param rejectedPolicy the policy for tasks which cannot be executed, or <tt>null</tt> to use <tt>CallerRuns</tt>
+     */
+    public SizedVirtualThreadExecutorService(ThreadFactory threadFactory, int maxConcurrency, int maxQueueSize,
+                                             ThreadPoolRejectedPolicy rejectedPolicy) {
+        this(threadFactory, maxConcurrency, maxQueueSize,
+             rejectedPolicy == ThreadPoolRejectedPolicy.Abort ? Rejection.Abort : Rejection.CallerRuns);
+    }
+
+    /**
+     * Creates a new sized executor service.
+     *
+     * @param  threadFactory            the factory for the threads to execute the tasks
+     * @param  maxConcurrency           the maximum number of tasks executing concurrently, use 0 or negative value for
+     *                                  unlimited
+     * @param  maxQueueSize             the maximum number of tasks waiting to be executed, use 0 or negative value for
+     *                                  no queue
+     * @param  rejectedExecutionHandler the handler for tasks which cannot be executed, which must be one of the
+     *                                  policies of {@link ThreadPoolExecutor}, or <tt>null</tt> to use caller runs
+     * @throws IllegalArgumentException is thrown if the handler is not supported
+     */
+    public SizedVirtualThreadExecutorService(ThreadFactory threadFactory, int maxConcurrency, int maxQueueSize,
+                                             RejectedExecutionHandler rejectedExecutionHandler) {
+        this(threadFactory, maxConcurrency, maxQueueSize, Rejection.of(rejectedExecutionHandler));
+    }
+
+    private SizedVirtualThreadExecutorService(ThreadFactory threadFactory, int maxConcurrency, int maxQueueSize,
+                                              Rejection rejection) {
+        this.delegate = Executors.newThreadPerTaskExecutor(threadFactory);
+        this.threadFactory = threadFactory;
+        this.maxConcurrency = maxConcurrency > 0 ? maxConcurrency : Integer.MAX_VALUE;
+        this.maxQueueSize = Math.max(maxQueueSize, 0);
+        this.rejection = rejection;
+        this.permits = new Semaphore(this.maxConcurrency);
+        this.queue = this.maxQueueSize > 0 ? new LinkedBlockingQueue<>(this.maxQueueSize) : null;
+    }
+
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    /**
+     * The maximum number of tasks executing concurrently
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * The maximum number of tasks waiting to be executed
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * The policy for tasks which cannot be executed, or <tt>null</tt> if these tasks are discarded
+     */
+    public ThreadPoolRejectedPolicy getRejectedPolicy() {
+        return switch (rejection) {
+            case CallerRuns -> ThreadPoolRejectedPolicy.CallerRuns;
+            case Abort -> ThreadPoolRejectedPolicy.Abort;
+            default -> null;
+        };
+    }
+
+    /**
+     * The approximate number of tasks currently executing
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * The number of tasks waiting to be executed
+     */
+    public int getQueueSize() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        if (isShutdown()) {
+            reject(task);
+        } else if (permits.tryAcquire()) {
+            start(task);
+        } else if (queue != null && queue.offer(task)) {
+            // an executing task may have completed before the task was added to the queue
+            startQueued();
+        } else {
+            reject(task);
+        }
+    }
+
+    private void start(Runnable task) {
+        try {
+            delegate.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            // shutdown in the meantime
+            permits.release();
+            reject(task);
+        }
+    }
+
+    private void run(Runnable first) {
+        Runnable task = first;
+        while (task != null) {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                // continue with the queued tasks, as when the thread would be reused by a thread pool
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+            task = next();
+        }
+    }
+
+    private Runnable next() {
+        Runnable task = queue != null ? queue.poll() : null;
+        if (task != null) {
+            return task;
+        }
+        permits.release();
+        // a task may have been added to the queue before the permit was released
+        while (queue != null && !queue.isEmpty() && permits.tryAcquire()) {
+            task = queue.poll();
+            if (task != null) {
+                return task;
+            }
+            permits.release();
+        }
+        return null;
+    }
+
+    private void startQueued() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            Runnable task = queue.poll();
+            if (task != null) {
+                start(task);
+                return;
+            }
+            permits.release();
+        }
+    }
+
+    private void reject(Runnable task) {
+        switch (rejection) {
+            case CallerRuns:
+                // same as the caller runs policy of the JDK thread pools, which discards the task when shutdown
+                if (!isShutdown()) {
+                    task.run();
+                }
+                break;
+            case DiscardOldest:
+                // make room in the task queue, and discard the task if the queue is full again or there is no queue
+                if (!isShutdown() && queue != null) {
+                    queue.poll();
+                    if (queue.offer(task)) {
+                        startQueued();
+                    }
+                }
+                break;
+            case Discard:
+                break;
+            default:
+                if (task instanceof Rejectable rejectable) {
+                    rejectable.reject();
+                } else {
+                    throw new RejectedExecutionException(CONCURRENCY_LIMIT_REACHED + ": " + this);
+                }
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        if (runnable instanceof Rejectable) {
+            return new RejectableFutureTask<>(runnable, value);
+        } else {
+            return super.newTaskFor(runnable, value);
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        if (callable instanceof Rejectable) {
+            return new RejectableFutureTask<>(callable);
+        } else {
+            return super.newTaskFor(callable);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        // the queued tasks are still executed by the executing tasks
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> answer = new ArrayList<>();
+        if (queue != null) {
+            queue.drainTo(answer);
+        }
+        delegate.shutdownNow();
+        return answer;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        // the thread factory often have more precise details what the thread pool is used for
+        String name = threadFactory instanceof ZwangineThreadFactory zwangineThreadFactory
+                ? "[" + zwangineThreadFactory.getName() + "]" : "";
+        return "SizedVirtualThreadExecutorService[active=" + getActiveCount() + ", maxConcurrency=" + maxConcurrency
+               + ", queued=" + getQueueSize() + ", maxQueueSize=" + maxQueueSize + "]" + name;
+    }
+
+    private enum Rejection {
+        CallerRuns,
+        Abort,
+        Discard,
+        DiscardOldest;
+
+        static Rejection of(RejectedExecutionHandler handler) {
+            if (handler == null || handler instanceof ThreadPoolExecutor.CallerRunsPolicy) {
+                return CallerRuns;
+            } else if (handler instanceof ThreadPoolExecutor.AbortPolicy) {
+                return Abort;
+            } else if (handler instanceof ThreadPoolExecutor.DiscardPolicy) {
+                return Discard;
+            } else if (handler instanceof ThreadPoolExecutor.DiscardOldestPolicy) {
+                return DiscardOldest;
+            }
+            throw new IllegalArgumentException(
+                    "RejectedExecutionHandler: " + handler + " is not supported with virtual threads."
+                                               + " Use CallerRuns, Abort, Discard or DiscardOldest instead.");
+        }
+    }
+}
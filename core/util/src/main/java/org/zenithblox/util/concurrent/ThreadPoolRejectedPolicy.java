@@ -35,7 +35,8 @@ public enum ThreadPoolRejectedPolicy {
 
     public RejectedExecutionHandler asRejectedExecutionHandler() {
         if (this == Abort) {
-            return new RejectedExecutionHandler() {
+            // extends the abort policy of the JDK, so the policy can be recognized by executors which are not thread pools
+            return new ThreadPoolExecutor.AbortPolicy() {
                 @Override
                 public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
                     if (r instanceof Rejectable rejectable) {
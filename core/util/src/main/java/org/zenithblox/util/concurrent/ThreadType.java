@@ -24,7 +24,10 @@ public enum ThreadType {
     PLATFORM,
     VIRTUAL;
 
+    private static final ThreadType CURRENT
+            = Boolean.getBoolean("zwangine.threads.virtual.enabled") ? VIRTUAL : PLATFORM;
+
     public static ThreadType current() {
-        return PLATFORM;
+        return CURRENT;
     }
 }
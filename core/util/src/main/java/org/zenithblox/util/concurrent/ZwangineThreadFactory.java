@@ -23,25 +23,39 @@ import java.util.concurrent.ThreadFactory;
 
 /**
  * Thread factory which creates threads supporting a naming pattern.
+ * <p/>
+ * The threads are platform threads, or virtual threads if the factory has been created as virtual (virtual threads
+ * are always daemon threads).
  */
-public final class ZwangineThreadFactory implements ThreadFactory {
+public final class ZwangineThreadFactory implements ThreadFactoryTypeAware {
     private static final Logger LOG = LoggerFactory.getLogger(ZwangineThreadFactory.class);
 
     private final String pattern;
     private final String name;
     private final boolean daemon;
+    private final boolean virtual;
 
     public ZwangineThreadFactory(String pattern, String name, boolean daemon) {
+        this(pattern, name, daemon, false);
+    }
+
+    public ZwangineThreadFactory(String pattern, String name, boolean daemon, boolean virtual) {
         this.pattern = pattern;
         this.name = name;
         this.daemon = daemon;
+        this.virtual = virtual;
     }
 
     @Override
     public Thread newThread(Runnable runnable) {
         String threadName = ThreadHelper.resolveThreadName(pattern, name);
-        Thread answer = new Thread(runnable, threadName);
-        answer.setDaemon(daemon);
+        Thread answer;
+        if (virtual) {
+            answer = Thread.ofVirtual().name(threadName).unstarted(runnable);
+        } else {
+            answer = new Thread(runnable, threadName);
+            answer.setDaemon(daemon);
+        }
 
         LOG.trace("Created thread[{}] -> {}", threadName, answer);
         return answer;
@@ -51,6 +65,11 @@ public final class ZwangineThreadFactory implements ThreadFactory {
         return name;
     }
 
+    @Override
+    public boolean isVirtual() {
+        return virtual;
+    }
+
     @Override
     public String toString() {
         return "ZwangineThreadFactory[" + name + "]";
@@ -115,6 +115,7 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     @YamlProperty(name = "completionTimeout", type = "string", description = "Time in millis that an aggregated exchange should be inactive before its complete (timeout). This option can be set as either a fixed value or using an Expression which allows you to evaluate a timeout dynamically - will use Long as result. If both are set Zwangine will fallback to use the fixed value if the Expression result was null or 0. You cannot use this option together with completionInterval, only one of the two can be used. By default the timeout checker runs every second, you can use the completionTimeoutCheckerInterval option to configure how frequently to run the checker. The timeout is an approximation and there is no guarantee that the a timeout is triggered exactly after the timeout value. It is not recommended to use very low timeout values or checker intervals.", displayName = "Completion Timeout"),
                     @YamlProperty(name = "completionTimeoutCheckerInterval", type = "string", defaultValue = "1000", description = "Interval in millis that is used by the background task that checks for timeouts ( org.zenithblox.TimeoutMap ). By default the timeout checker runs every second. The timeout is an approximation and there is no guarantee that the a timeout is triggered exactly after the timeout value. It is not recommended to use very low timeout values or checker intervals.", displayName = "Completion Timeout Checker Interval"),
                     @YamlProperty(name = "completionTimeoutExpression", type = "object:org.zenithblox.model.ExpressionSubElementDefinition", description = "Time in millis that an aggregated exchange should be inactive before its complete (timeout). This option can be set as either a fixed value or using an Expression which allows you to evaluate a timeout dynamically - will use Long as result. If both are set Zwangine will fallback to use the fixed value if the Expression result was null or 0. You cannot use this option together with completionInterval, only one of the two can be used. By default the timeout checker runs every second, you can use the completionTimeoutCheckerInterval option to configure how frequently to run the checker. The timeout is an approximation and there is no guarantee that the a timeout is triggered exactly after the timeout value. It is not recommended to use very low timeout values or checker intervals.", displayName = "Completion Timeout Expression"),
+                    @YamlProperty(name = "completionTimeoutTimingWheel", type = "boolean", description = "Whether to keep track of the completion timeouts using a timing wheel, which does not have to check every correlation group for timeout on each run of the timeout checker. This is faster when there are many correlation groups in progress.", displayName = "Completion Timeout Timing Wheel"),
                     @YamlProperty(name = "correlationExpression", type = "object:org.zenithblox.model.ExpressionSubElementDefinition", description = "The expression used to calculate the correlation key to use for aggregation. The Exchange which has the same correlation key is aggregated together. If the correlation key could not be evaluated an Exception is thrown. You can disable this by using the ignoreBadCorrelationKeys option.", displayName = "Correlation Expression"),
                     @YamlProperty(name = "description", type = "string", description = "Sets the description of this node", displayName = "Description"),
                     @YamlProperty(name = "disabled", type = "boolean", description = "Whether to disable this EIP from the workflow during build time. Once an EIP has been disabled then it cannot be enabled later at runtime.", displayName = "Disabled"),
@@ -125,6 +126,7 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     @YamlProperty(name = "forceCompletionOnStop", type = "boolean", description = "Indicates to complete all current aggregated exchanges when the context is stopped", displayName = "Force Completion On Stop"),
                     @YamlProperty(name = "id", type = "string", description = "Sets the id of this node", displayName = "Id"),
                     @YamlProperty(name = "ignoreInvalidCorrelationKeys", type = "boolean", description = "If a correlation key cannot be successfully evaluated it will be ignored by logging a DEBUG and then just ignore the incoming Exchange.", displayName = "Ignore Invalid Correlation Keys"),
+                    @YamlProperty(name = "lockStripes", type = "number", description = "Sets the number of locks the correlation groups are striped over, so exchanges with different correlation keys are aggregated in parallel, instead of one at a time using a single lock. The aggregationRepository must support concurrent access to different correlation keys. Lock striping is not in use with optimisticLocking, completionFromBatchConsumer or completionOnNewCorrelationGroup.", displayName = "Lock Stripes"),
                     @YamlProperty(name = "optimisticLockRetryPolicy", type = "object:org.zenithblox.model.OptimisticLockRetryPolicyDefinition", description = "Allows to configure retry settings when using optimistic locking.", displayName = "Optimistic Lock Retry Policy"),
                     @YamlProperty(name = "optimisticLocking", type = "boolean", description = "Turns on using optimistic locking, which requires the aggregationRepository being used, is supporting this by implementing org.zenithblox.spi.OptimisticLockingAggregationRepository .", displayName = "Optimistic Locking"),
                     @YamlProperty(name = "parallelProcessing", type = "boolean", description = "When aggregated are completed they are being send out of the aggregator. This option indicates whether or not Zwangine should use a thread pool with multiple threads for concurrency. If no custom thread pool has been specified then Zwangine creates a default pool with 10 concurrent threads.", displayName = "Parallel Processing"),
@@ -227,6 +229,11 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     target.setCompletionTimeoutExpression(val);
                     break;
                 }
+                case "completionTimeoutTimingWheel": {
+                    String val = asText(node);
+                    target.setCompletionTimeoutTimingWheel(val);
+                    break;
+                }
                 case "correlationExpression": {
                     org.zenithblox.model.ExpressionSubElementDefinition val = asType(node, org.zenithblox.model.ExpressionSubElementDefinition.class);
                     target.setCorrelationExpression(val);
@@ -267,6 +274,11 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     target.setIgnoreInvalidCorrelationKeys(val);
                     break;
                 }
+                case "lockStripes": {
+                    String val = asText(node);
+                    target.setLockStripes(val);
+                    break;
+                }
                 case "optimisticLockRetryPolicy": {
                     org.zenithblox.model.OptimisticLockRetryPolicyDefinition val = asType(node, org.zenithblox.model.OptimisticLockRetryPolicyDefinition.class);
                     target.setOptimisticLockRetryPolicyDefinition(val);
@@ -17670,6 +17682,7 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     @YamlProperty(name = "capacity", type = "number", defaultValue = "1000", description = "Sets the capacity of the resequencer inbound queue.", displayName = "Capacity"),
                     @YamlProperty(name = "comparator", type = "string", description = "To use a custom comparator as a org.zenithblox.processor.resequencer.ExpressionResultComparator type.", displayName = "Comparator"),
                     @YamlProperty(name = "deliveryAttemptInterval", type = "string", defaultValue = "1000", description = "Sets the interval in milliseconds the stream resequencer will at most wait while waiting for condition of being able to deliver.", displayName = "Delivery Attempt Interval"),
+                    @YamlProperty(name = "engine", type = "enum:Sequence,RingBuffer", defaultValue = "Sequence", description = "The engine used to resequence the messages. The Sequence engine keeps the messages sorted using the comparator. The RingBuffer engine keeps the messages in a preallocated ring buffer with room for capacity consecutive sequence numbers, which is faster but requires dense sequence numbers (as with the default comparator) and cannot be used with a custom comparator.", displayName = "Engine"),
                     @YamlProperty(name = "ignoreInvalidExchanges", type = "boolean", description = "Whether to ignore invalid exchanges", displayName = "Ignore Invalid Exchanges"),
                     @YamlProperty(name = "rejectOld", type = "boolean", description = "If true, throws an exception when messages older than the last delivered message are processed", displayName = "Reject Old"),
                     @YamlProperty(name = "timeout", type = "string", defaultValue = "1000", description = "Sets minimum time (milliseconds) to wait for missing elements (messages).", displayName = "Timeout")
@@ -17705,6 +17718,11 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     target.setDeliveryAttemptInterval(val);
                     break;
                 }
+                case "engine": {
+                    String val = asText(node);
+                    target.setEngine(val);
+                    break;
+                }
                 case "ignoreInvalidExchanges": {
                     String val = asText(node);
                     target.setIgnoreInvalidExchanges(val);
@@ -18115,7 +18133,8 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     @YamlProperty(name = "poolSize", type = "number", description = "Sets the core pool size", displayName = "Pool Size"),
                     @YamlProperty(name = "rejectedPolicy", type = "enum:Abort,CallerRuns", description = "Sets the handler for tasks which cannot be executed by the thread pool.", displayName = "Rejected Policy"),
                     @YamlProperty(name = "threadName", type = "string", defaultValue = "Threads", description = "Sets the thread name to use.", displayName = "Thread Name"),
-                    @YamlProperty(name = "timeUnit", type = "enum:NANOSECONDS,MICROSECONDS,MILLISECONDS,SECONDS,MINUTES,HOURS,DAYS", description = "Sets the keep alive time unit. By default SECONDS is used.", displayName = "Time Unit")
+                    @YamlProperty(name = "timeUnit", type = "enum:NANOSECONDS,MICROSECONDS,MILLISECONDS,SECONDS,MINUTES,HOURS,DAYS", description = "Sets the keep alive time unit. By default SECONDS is used.", displayName = "Time Unit"),
+                    @YamlProperty(name = "virtualThreads", type = "boolean", description = "Whether to execute each task in a new virtual thread, instead of using a pool of platform threads. The max pool size is then the maximum number of tasks executing concurrently, and the max queue size the maximum number of tasks waiting to be executed, after which tasks are rejected. This allows thousands of concurrent tasks which are blocked on I/O, without the cost of as many platform threads. Is by default false", displayName = "Virtual Threads")
             }
     )
     public static class ThreadsDefinitionDeserializer extends YamlDeserializerBase<ThreadsDefinition> {
@@ -18188,6 +18207,11 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     target.setTimeUnit(val);
                     break;
                 }
+                case "virtualThreads": {
+                    String val = asText(node);
+                    target.setVirtualThreads(val);
+                    break;
+                }
                 case "id": {
                     String val = asText(node);
                     target.setId(val);
@@ -18279,6 +18303,7 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
             properties = {
                     @YamlProperty(name = "__extends", type = "object:org.zenithblox.model.language.ExpressionDefinition", oneOf = "expression"),
                     @YamlProperty(name = "asyncDelayed", type = "boolean", description = "Enables asynchronous delay which means the thread will not block while delaying.", displayName = "Async Delayed"),
+                    @YamlProperty(name = "burstCapacity", type = "number", description = "The maximum number of requests which can be let through at once when using token bucket mode. By default this is the maximum number of requests per period.", displayName = "Burst Capacity"),
                     @YamlProperty(name = "callerRunsWhenRejected", type = "boolean", description = "Whether or not the caller should run the task when it was rejected by the thread pool. Is by default true", displayName = "Caller Runs When Rejected"),
                     @YamlProperty(name = "correlationExpression", type = "object:org.zenithblox.model.ExpressionSubElementDefinition", description = "The expression used to calculate the correlation key to use for throttle grouping. The Exchange which has the same correlation key is throttled together.", displayName = "Correlation Expression"),
                     @YamlProperty(name = "description", type = "string", description = "Sets the description of this node", displayName = "Description"),
@@ -18286,7 +18311,7 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     @YamlProperty(name = "executorService", type = "string", description = "To use a custom thread pool (ScheduledExecutorService) by the throttler.", displayName = "Executor Service"),
                     @YamlProperty(name = "expression", type = "object:org.zenithblox.model.language.ExpressionDefinition", description = "Expression to configure the maximum number of messages to throttle per request", displayName = "Expression", oneOf = "expression"),
                     @YamlProperty(name = "id", type = "string", description = "Sets the id of this node", displayName = "Id"),
-                    @YamlProperty(name = "mode", type = "enum:TotalRequests,ConcurrentRequests", defaultValue = "TotalRequests", description = "Sets the throttling mode to one of the available modes enumerated in ThrottlingMode", displayName = "Mode"),
+                    @YamlProperty(name = "mode", type = "enum:TotalRequests,ConcurrentRequests,TokenBucket", defaultValue = "TotalRequests", description = "Sets the throttling mode to one of the available modes enumerated in ThrottlingMode", displayName = "Mode"),
                     @YamlProperty(name = "rejectExecution", type = "boolean", description = "Whether or not throttler throws the ThrottlerRejectedExecutionException when the exchange exceeds the request limit Is by default false", displayName = "Reject Execution"),
                     @YamlProperty(name = "timePeriodMillis", type = "string", defaultValue = "1000", description = "Sets the time period during which the maximum request count is valid for", displayName = "Time Period Millis")
             }
@@ -18311,6 +18336,11 @@ public final class ModelDeserializers extends YamlDeserializerSupport {
                     target.setAsyncDelayed(val);
                     break;
                 }
+                case "burstCapacity": {
+                    String val = asText(node);
+                    target.setBurstCapacity(val);
+                    break;
+                }
                 case "callerRunsWhenRejected": {
                     String val = asText(node);
                     target.setCallerRunsWhenRejected(val);